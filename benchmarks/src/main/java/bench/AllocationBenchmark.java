@@ -0,0 +1,78 @@
+package bench;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ast.Node;
+import core.Interpreter;
+import core.Lexer;
+import core.Parser;
+
+/**
+ * Mede quantos bytes o Interpreter aloca por operação aritmética.
+ *
+ * Os dois valores de operations geram scripts puramente numéricos com a
+ * mesma quantidade de instruções, mas o segundo com o dobro de operações por
+ * instrução. Tudo o que é pago por instrução (como o eco da atribuição)
+ * aparece igual nos dois, então a diferença do gc.alloc.rate.norm dividida
+ * pela diferença de operações (1000 * 64) é o custo de cada operação. O
+ * esperado é zero.
+ *
+ * Uso: java -jar benchmarks/target/benchmarks.jar AllocationBenchmark
+*/
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AllocationBenchmark {
+    private static final int STATEMENTS = 1_000;
+
+    @Param({"64", "128"})
+    public int operations;
+
+    private List<Node> ast;
+    private final NullSink sink = new NullSink();
+
+    @Setup(Level.Trial)
+    public void setup(){
+        ast = new Parser(new Lexer(script(STATEMENTS, operations)).tokenize()).parse();
+    }
+
+    @Benchmark
+    public Interpreter interpret(){
+        Interpreter interpreter = new Interpreter(sink);
+        interpreter.interpret(ast);
+        return interpreter;
+    }
+
+    /**
+     * Gera um script numérico cujas instruções sempre resultam em 1.0,
+     * para que o texto do eco seja o mesmo nos dois scripts.
+    */
+    private static String script(int statements, int operations){
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < statements; i++) {
+            sb.append("var x = 1");
+            for (int op = 0; op < operations; op += 4) {
+                sb.append(" * 3 / 3 + 1 - 1");
+            }
+            sb.append(";\n");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,28 @@
+package bench;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Ponto de entrada dos benchmarks JMH.
+ * Aceita as mesmas opções da linha de comando do JMH e sempre liga o
+ * profiler de GC, que acrescenta a alocação por operação (gc.alloc.rate.norm)
+ * ao lado do throughput.
+ *
+ * Uso: java -jar benchmarks/target/benchmarks.jar [opções do JMH] [filtro]
+ * Exemplos:
+ *   java -jar benchmarks/target/benchmarks.jar
+ *   java -jar benchmarks/target/benchmarks.jar Lexer -p shape=numeric -rf json -rff base.json
+*/
+
+public class Benchmarks {
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
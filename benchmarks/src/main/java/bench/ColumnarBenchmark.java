@@ -0,0 +1,87 @@
+package bench;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import batch.ColumnProgram;
+import batch.Kernels;
+import core.Execution;
+import core.Program;
+
+/**
+ * Mede o modo em lote ({@link ColumnProgram}) contra a execução linha a linha.
+ *
+ * rowByRow  um {@link Program} compilado uma vez, executado uma vez por linha
+ *           (o melhor que se faz sem o modo em lote).
+ * scalar    o ColumnProgram com os laços simples, vetorizados pelo JIT.
+ * vector    o ColumnProgram com a Vector API (a JVM do fork recebe o módulo).
+*/
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ColumnarBenchmark {
+    private static final String SOURCE = "var y = x * 2 + 1; var z = y * y - x / 3;";
+
+    @Param({"1000000"})
+    public int rows;
+
+    private final NullSink sink = new NullSink();
+    private double[] x;
+    private double[][] out;
+    private Program program;
+    private ColumnProgram scalar;
+    private ColumnProgram vector;
+
+    @Setup(Level.Trial)
+    public void setup(){
+        Random random = new Random(42);
+        x = new double[rows];
+        for (int i = 0; i < rows; i++) {
+            x[i] = random.nextDouble() * 1000;
+        }
+        out = new double[2][rows];
+        program = Program.compile(SOURCE, "x");
+        scalar = ColumnProgram.compile(Kernels.scalar(), SOURCE, "x");
+        vector = ColumnProgram.compile(Kernels.preferred(), SOURCE, "x");
+    }
+
+    @Benchmark
+    public double[][] rowByRow(){
+        Execution execution = program.newExecution(sink, sink).setEchoAssignments(false);
+        for (int i = 0; i < rows; i++) {
+            execution.set("x", x[i]).run();
+            out[0][i] = (Double) execution.get("y");
+            out[1][i] = (Double) execution.get("z");
+        }
+        return out;
+    }
+
+    @Benchmark
+    public double[][] scalar(){
+        scalar.run(new double[][] {x}, out, 0, rows);
+        return out;
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+    public double[][] vector(){
+        vector.run(new double[][] {x}, out, 0, rows);
+        return out;
+    }
+}
@@ -0,0 +1,79 @@
+package bench;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import core.Interpreter;
+import core.Lexer;
+import core.Parser;
+
+/**
+ * Mede o caminho completo, do código fonte à saída.
+ *
+ * pipeline  Lexer, Parser e Interpreter em memória, com a saída descartada.
+ * app       App.main sobre um arquivo temporário, exatamente como na linha de
+ *           comando (inclusive a listagem de tokens e da AST), com System.out
+ *           redirecionado para o nada.
+*/
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EndToEndBenchmark {
+    private Path file;
+    private MethodHandle main;
+    private PrintStream stdout;
+
+    @Setup(Level.Trial)
+    public void setup(Workload workload) throws Exception {
+        file = Files.createTempFile("jpp-bench", ".txt");
+        Files.writeString(file, workload.source);
+
+        // App fica no pacote padrão, então só pode ser alcançada por reflexão.
+        main = MethodHandles.publicLookup().findStatic(Class.forName("App"), "main",
+                MethodType.methodType(void.class, String[].class));
+
+        stdout = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        System.setOut(stdout);
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public Interpreter pipeline(Workload workload){
+        Interpreter interpreter = new Interpreter(workload.sink);
+        interpreter.interpret(new Parser(new Lexer(workload.source).tokenize()).parse());
+        return interpreter;
+    }
+
+    @Benchmark
+    public void app() throws Throwable {
+        main.invokeExact(new String[] {file.toString()});
+    }
+}
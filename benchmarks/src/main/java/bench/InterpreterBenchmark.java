@@ -0,0 +1,96 @@
+package bench;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import core.Execution;
+import core.Interpreter;
+import jvm.CompiledScript;
+import metrics.Metrics;
+import metrics.StatementCounts;
+import specialize.SpecializingInterpreter;
+
+/**
+ * Mede a execução: Interpreter.interpret sobre a AST já gerada.
+ * Cada operação usa um Interpreter novo (ambiente vazio), e a saída do
+ * programa é descartada, com e sem o eco das atribuições.
+ *
+ * specializing executa sempre a mesma árvore do {@link SpecializingInterpreter},
+ * que depois da primeira operação já está especializada. jvm executa o
+ * script compilado pelo {@link jvm.JvmCompiler} para uma classe JVM.
+ *
+ * program executa um {@link core.Program} compilado uma vez, com uma
+ * Execution nova por operação; sharedProgram faz o mesmo em quatro threads
+ * ao mesmo tempo, todas sobre o mesmo Program.
+ *
+ * instrumented é o interpretWithoutEcho com as métricas e a contagem por
+ * instrução ligadas; a diferença entre os dois é o custo da medição.
+*/
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InterpreterBenchmark {
+
+    @Benchmark
+    public Interpreter interpret(Workload workload){
+        Interpreter interpreter = new Interpreter(workload.sink);
+        interpreter.interpret(workload.ast);
+        return interpreter;
+    }
+
+    @Benchmark
+    public Interpreter interpretWithoutEcho(Workload workload){
+        Interpreter interpreter = new Interpreter(workload.sink);
+        interpreter.setEchoAssignments(false);
+        interpreter.interpret(workload.ast);
+        return interpreter;
+    }
+
+    @Benchmark
+    public Interpreter instrumented(Workload workload){
+        Interpreter interpreter = new Interpreter(workload.sink);
+        interpreter.setEchoAssignments(false);
+        interpreter.setMetrics(new Metrics());
+        interpreter.setStatementCounts(new StatementCounts());
+        interpreter.interpret(workload.ast);
+        return interpreter;
+    }
+
+    @Benchmark
+    public SpecializingInterpreter specializing(Workload workload){
+        SpecializingInterpreter interpreter = new SpecializingInterpreter(workload.sink);
+        interpreter.run(workload.tree);
+        return interpreter;
+    }
+
+    @Benchmark
+    public CompiledScript jvm(Workload workload){
+        workload.script.run(workload.sink);
+        return workload.script;
+    }
+
+    @Benchmark
+    public Execution program(Workload workload){
+        Execution execution = workload.program.newExecution(workload.sink);
+        execution.run();
+        return execution;
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Execution sharedProgram(Workload workload){
+        Execution execution = workload.program.newExecution(workload.sink);
+        execution.run();
+        return execution;
+    }
+}
@@ -0,0 +1,68 @@
+package bench;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import core.Lexer;
+import language.Token;
+import language.TokenBuffer;
+
+/**
+ * Compara quantos bytes o Lexer aloca em cada modo: a lista de objetos Token
+ * ({@link Lexer#tokenize()}) e a sequência compacta em arrays primitivos
+ * ({@link Lexer#tokenizePacked()}). O script tem 280000 tokens (14 por
+ * iteração do gerador), então o gc.alloc.rate.norm dividido por 280000 é a
+ * alocação por token.
+ *
+ * Uso: java -jar benchmarks/target/benchmarks.jar LexerAllocationBenchmark
+*/
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LexerAllocationBenchmark {
+    private static final int STATEMENTS = 20_000;
+
+    private String source;
+
+    @Setup(Level.Trial)
+    public void setup(){
+        source = script(STATEMENTS);
+    }
+
+    @Benchmark
+    public List<Token> tokenize(){
+        return new Lexer(source).tokenize();
+    }
+
+    @Benchmark
+    public TokenBuffer tokenizePacked(){
+        return new Lexer(source).tokenizePacked();
+    }
+
+    /**
+     * Gera um script com a mistura típica de palavras-chave, nomes, números e strings.
+    */
+    private static String script(int statements){
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < statements; i++) {
+            sb.append("var total_").append(i % 100).append(" = ").append(i).append(" * 2 + 10;\n");
+            sb.append("print \"linha \" + total_").append(i % 100).append(";\n");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,18 @@
+package bench;
+import output.OutputSink;
+
+/**
+ * Descarta toda a saída do programa, para que os benchmarks meçam a
+ * execução e não a escrita no console.
+*/
+
+public class NullSink implements OutputSink {
+
+    @Override
+    public void println(String line){
+    }
+
+    @Override
+    public void flush(){
+    }
+}
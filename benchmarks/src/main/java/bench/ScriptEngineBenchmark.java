@@ -0,0 +1,82 @@
+package bench;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineManager;
+import javax.script.SimpleBindings;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Mede o custo de uma chamada pelo javax.script, como faz uma aplicação que
+ * embute o JPP: um script pequeno, compilado uma vez, avaliado com uma entrada
+ * nova a cada chamada.
+ *
+ * engineBindings usa os Bindings do próprio motor (sem cópia das variáveis);
+ * simpleBindings usa um SimpleBindings, copiado na entrada e na saída;
+ * evalSource analisa o código de novo a cada chamada, para comparação.
+*/
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ScriptEngineBenchmark {
+    private static final String SOURCE = "var total = preco * quantidade; var rotulo = nome + \": \" + total;";
+
+    private ScriptEngine engine;
+    private CompiledScript script;
+    private Bindings bindings;
+    private Bindings simple;
+    private int counter;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        engine = new ScriptEngineManager().getEngineByName("jpp");
+        engine.getContext().setWriter(Writer.nullWriter());
+        script = ((Compilable) engine).compile(SOURCE);
+        bindings = engine.createBindings();
+        bindings.put("quantidade", 3);
+        bindings.put("nome", "item");
+        simple = new SimpleBindings();
+        simple.put("quantidade", 3);
+        simple.put("nome", "item");
+    }
+
+    @Benchmark
+    public Object engineBindings() throws Exception {
+        bindings.put("preco", counter++);
+        script.eval(bindings);
+        return bindings.get("rotulo");
+    }
+
+    @Benchmark
+    public Object simpleBindings() throws Exception {
+        simple.put("preco", counter++);
+        script.eval(simple);
+        return simple.get("rotulo");
+    }
+
+    @Benchmark
+    public Object evalSource() throws Exception {
+        bindings.put("preco", counter++);
+        engine.eval(SOURCE, bindings);
+        return bindings.get("rotulo");
+    }
+}
@@ -0,0 +1,111 @@
+package bench;
+
+/**
+ * Gera scripts JPP sintéticos para os benchmarks.
+ *
+ * Formatos disponíveis:
+ * numeric   expressões aritméticas longas sobre poucas variáveis.
+ * string    concatenações de strings com números.
+ * variable  muitas variáveis diferentes, cada uma lendo variáveis anteriores.
+ * append    um texto que cresce a cada instrução (s = s + ...); fora da lista
+ *           padrão do Workload, use -p shape=append.
+*/
+
+public class Scripts {
+
+    private Scripts(){
+    }
+
+    /**
+     * @param shape O formato do script ("numeric", "string", "variable" ou "append").
+     * @param statements Quantas instruções o script deve ter.
+     * @return O código fonte gerado.
+    */
+    public static String generate(String shape, int statements){
+        switch (shape) {
+            case "numeric":
+                return numeric(statements);
+            case "string":
+                return string(statements);
+            case "variable":
+                return variable(statements);
+            case "append":
+                return append(statements);
+            default:
+                throw new IllegalArgumentException("Formato de script desconhecido: " + shape);
+        }
+    }
+
+    /**
+     * Poucas variáveis, reatribuídas com expressões que misturam as quatro operações.
+    */
+    private static String numeric(int statements){
+        StringBuilder code = new StringBuilder();
+        code.append("var a = 1;\nvar b = 2;\n");
+        for (int i = 2; i < statements; i++) {
+            String target = (i % 2 == 0) ? "a" : "b";
+            if (i % 8 == 0) {
+                code.append("print a * b + ").append(i).append(";\n");
+            } else {
+                code.append(target).append(" = a * 3 + b / 2 - ").append(i % 97)
+                    .append(" * 2 + 7 / 4 - b;\n");
+            }
+        }
+        return code.toString();
+    }
+
+    /**
+     * Concatenações de strings literais, números e variáveis.
+    */
+    private static String string(int statements){
+        StringBuilder code = new StringBuilder();
+        code.append("var nome = \"jpp\";\nvar linha = \"inicio\";\n");
+        for (int i = 2; i < statements; i++) {
+            if (i % 8 == 0) {
+                code.append("print linha + \" / \" + nome;\n");
+            } else {
+                code.append("linha = \"linha \" + ").append(i)
+                    .append(" + \" de \" + nome + \": \" + ").append(i % 13).append(" * 2;\n");
+            }
+        }
+        return code.toString();
+    }
+
+    /**
+     * Cada instrução declara uma variável nova que lê variáveis mais antigas,
+     * então o número de variáveis cresce com o tamanho do script.
+    */
+    private static String variable(int statements){
+        StringBuilder code = new StringBuilder();
+        code.append("var v0 = 1;\nvar v1 = 2;\n");
+        int variable = 2;
+        for (int i = 2; i < statements; i++) {
+            if (i % 8 == 0) {
+                code.append("print v").append(variable - 1).append(";\n");
+                continue;
+            }
+            // As variáveis são numeradas em sequência, então toda vN lida já foi declarada.
+            code.append("var v").append(variable).append(" = v").append(variable - 1)
+                .append(" + v").append(variable / 2).append(" - v").append(variable / 3).append(";\n");
+            variable++;
+        }
+        return code.toString();
+    }
+
+    /**
+     * Um único texto que recebe um pedaço novo a cada instrução.
+    */
+    private static String append(int statements){
+        StringBuilder code = new StringBuilder();
+        code.append("var texto = \"\";\nvar n = 0;\n");
+        for (int i = 2; i < statements; i++) {
+            if (i % 8 == 0) {
+                code.append("n = n + 1;\n");
+            } else {
+                code.append("texto = texto + \"item \" + n + \"; \";\n");
+            }
+        }
+        code.append("print texto;\n");
+        return code.toString();
+    }
+}
@@ -0,0 +1,54 @@
+package bench;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import ast.Node;
+import core.Lexer;
+import core.Parser;
+import core.Program;
+import jvm.CompiledScript;
+import jvm.JvmCompiler;
+import language.Token;
+import specialize.ProgramNode;
+import specialize.TreeBuilder;
+
+/**
+ * O script usado por um benchmark, já preparado em cada fase.
+ * Cada benchmark mede só a sua fase: o Parser recebe os tokens prontos,
+ * o Interpreter recebe a AST pronta, e assim por diante.
+*/
+
+@State(Scope.Benchmark)
+public class Workload {
+
+    @Param({"numeric", "string", "variable"})
+    public String shape;
+
+    @Param({"100", "10000", "100000"})
+    public int statements;
+
+    public String source;
+    public List<Token> tokens;
+    public List<Node> ast;
+    public Program program;
+    public ProgramNode tree;
+    public CompiledScript script;
+
+    /** Destino da saída dos programas executados. */
+    public final NullSink sink = new NullSink();
+
+    @Setup(Level.Trial)
+    public void setup(){
+        source = Scripts.generate(shape, statements);
+        tokens = new Lexer(source).tokenize();
+        ast = new Parser(tokens).parse();
+        program = Program.compile(source);
+        tree = new TreeBuilder().build(ast);
+        script = new JvmCompiler().compile(ast);
+    }
+}
@@ -1,13 +1,40 @@
+import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
 
+import ast.FlatAst;
 import ast.Node;
+import cache.ProgramCache;
+import core.ByteLexer;
 import core.Interpreter;
 import core.Lexer;
+import core.ParallelFrontEnd;
 import core.Parser;
+import core.Pipeline;
+import core.Resolver;
+import core.TypeInference;
+import language.LineMap;
 import language.Token;
+import language.TokenSource;
+import jvm.CompiledScript;
+import jvm.JvmCompiler;
+import metrics.Metrics;
+import metrics.Profiler;
+import metrics.StatementCounts;
+import optimizer.Optimizer;
+import output.BufferedSink;
+import output.OutputSink;
+import output.PrintStreamSink;
+import server.JppServer;
+import specialize.ProgramNode;
+import specialize.SpecializingInterpreter;
+import specialize.TreeBuilder;
+import vm.Chunk;
+import vm.Compiler;
+import vm.VM;
 
 
 /**
@@ -15,43 +42,359 @@ import language.Token;
  * Orquestra todo o processo: leitura do arquivo de código,
  * análise léxica (tokenização), análise sintática (parsing) e, finalmente,
  * a interpretação da árvore sintática gerada.
+ *
+ * Uso: App [--vm | --specialize | --jvm] [--optimize] [--mmap] [--parallel] [--stream | --pipeline] [--flat] [--buffered] [--no-echo] [--cache] [--types] [--metrics] [--counts] [--profile] [arquivo]
+ * --vm        executa o programa compilado para bytecode na VM, em vez do Interpreter.
+ * --specialize executa com nós que se especializam pelos tipos observados, em vez do Interpreter.
+ * --jvm       compila o programa para uma classe JVM (bytecode Java) e a executa.
+ * --optimize  otimiza a AST (dobramento de constantes, simplificação algébrica) antes de executar.
+ * --mmap      mapeia o arquivo em memória e tokeniza os bytes com o ByteLexer.
+ * --parallel  divide o código entre os ';' e faz a análise léxica e sintática em paralelo.
+ * --stream    executa cada instrução assim que ela é analisada, sem listar tokens e AST.
+ * --pipeline  como --stream, mas com Lexer, Parser e Interpreter em threads ligadas por filas.
+ *             Nos dois modos só o Interpreter é usado (--vm, --specialize, --jvm, --optimize e --parallel são ignorados).
+ * --flat      analisa para a AST compacta (arrays primitivos, ver {@link FlatAst}) e a
+ *             executa direto no Interpreter. Com opções que precisam dos nós
+ *             (--vm, --optimize, --cache, --counts...), os nós são montados a partir dela.
+ * --buffered  acumula a saída do programa e a escreve em lotes, em vez de uma escrita por linha.
+ * --no-echo   não imprime o "nome = valor" de cada atribuição, só os print.
+ * --cache     guarda o programa analisado em .jppcache/ e, se o código não mudou,
+ *             o carrega de lá na próxima execução, sem Lexer nem Parser.
+ * --types     mostra o tipo inferido de cada variável e avisa das variáveis que
+ *             recebem números e strings (que obrigam o Interpreter a verificar os tipos).
+ * --metrics   ao final, mostra o tempo, o tamanho e a alocação estimada de cada fase
+ *             (Lexer, Parser e Interpreter; as outras formas de execução não são medidas).
+ * --counts    ao final, mostra quantas vezes o Interpreter executou cada instrução.
+ * --profile   mede o tempo de cada instrução e expressão no Interpreter; ao final mostra
+ *             as mais caras, por linha e coluna do código, e grava as pilhas em
+ *             arquivo.folded (formato collapsed, para flamegraph.pl ou speedscope).
+ * arquivo     o código fonte a ser executado (padrão: codigo.txt).
+ *
+ * Uso: App --server [porta | caminho.sock]
+ * Fica no ar executando os scripts enviados por um socket local: uma porta TCP
+ * em localhost (padrão: 7878) ou um socket Unix. O comando FILE só lê arquivos
+ * dentro do diretório em que o servidor foi iniciado. Veja {@link JppServer}.
 */
 
 public class App {
+    /** Diretório do cache de programas analisados (--cache). */
+    private static final String CACHE_DIRECTORY = ".jppcache";
+
+    /** Quantos nós o resumo do --profile mostra. */
+    private static final int PROFILE_LINES = 15;
+
     public static void main(String[] args) throws Exception {
+        String file = null;
+        boolean useVm = false;
+        boolean specialize = false;
+        boolean jvm = false;
+        boolean optimize = false;
+        boolean mmap = false;
+        boolean parallel = false;
+        boolean stream = false;
+        boolean pipeline = false;
+        boolean flat = false;
+        boolean buffered = false;
+        boolean echo = true;
+        boolean useCache = false;
+        boolean showTypes = false;
+        boolean showMetrics = false;
+        boolean showCounts = false;
+        boolean profile = false;
+        boolean server = false;
+        for (String arg : args) {
+            if (arg.equals("--vm")) {
+                useVm = true;
+            } else if (arg.equals("--specialize")) {
+                specialize = true;
+            } else if (arg.equals("--jvm")) {
+                jvm = true;
+            } else if (arg.equals("--optimize")) {
+                optimize = true;
+            } else if (arg.equals("--mmap")) {
+                mmap = true;
+            } else if (arg.equals("--parallel")) {
+                parallel = true;
+            } else if (arg.equals("--stream")) {
+                stream = true;
+            } else if (arg.equals("--pipeline")) {
+                pipeline = true;
+            } else if (arg.equals("--flat")) {
+                flat = true;
+            } else if (arg.equals("--buffered")) {
+                buffered = true;
+            } else if (arg.equals("--no-echo")) {
+                echo = false;
+            } else if (arg.equals("--cache")) {
+                useCache = true;
+            } else if (arg.equals("--types")) {
+                showTypes = true;
+            } else if (arg.equals("--metrics")) {
+                showMetrics = true;
+            } else if (arg.equals("--counts")) {
+                showCounts = true;
+            } else if (arg.equals("--profile")) {
+                profile = true;
+            } else if (arg.equals("--server")) {
+                server = true;
+            } else {
+                file = arg;
+            }
+        }
+
+        if (server) {
+            serve(file != null ? file : String.valueOf(JppServer.DEFAULT_PORT));
+            return;
+        }
+        if (file == null) {
+            file = "codigo.txt";
+        }
+
         try {
             // Caminho para o arquivo de codigo fonte a ser interpretado.
-            Path path = Paths.get("codigo.txt");
-            String source = Files.readString(path);
+            Path path = Paths.get(file);
 
-            // Passo 1 -> analise lexica 
-            // O Lexer escaneia o codigo fonte e o transforma em uma lista de Tokens
-            System.out.println("--- 1. Tokens ---");
-            Lexer lexer = new Lexer(source);
-            List<Token> tokens = lexer.tokenize();
-            for(Token token : tokens){
-                System.out.println(token);
+            // Saida do programa: direto no console (padrao) ou em lotes.
+            OutputSink out = buffered ? BufferedSink.stdout() : new PrintStreamSink();
+
+            // Medicao (opcional) das fases e das instrucoes executadas.
+            Metrics metrics = showMetrics ? new Metrics() : null;
+            StatementCounts counts = showCounts ? new StatementCounts() : null;
+            Profiler profiler = null;
+            if (profile) {
+                // As linhas so sao procuradas no codigo quando o profiler e usado.
+                LineMap lines = mmap ? LineMap.of(ByteLexer.mapFile(path)) : LineMap.of(Files.readString(path));
+                profiler = new Profiler(path.getFileName().toString(), lines);
+            }
+
+            if (stream || pipeline) {
+                // Lexer, Parser e Interpreter trabalham juntos, uma instrucao por vez.
+                System.out.println("--- 3. Resultado da Execucao ---");
+                System.out.flush();
+                TokenSource lexer = mmap ? ByteLexer.map(path) : new Lexer(Files.readString(path));
+                Interpreter interpreter = new Interpreter(out);
+                interpreter.setEchoAssignments(echo);
+                interpreter.setMetrics(metrics);
+                interpreter.setStatementCounts(counts);
+                interpreter.setProfiler(profiler);
+                if (pipeline) {
+                    new Pipeline().run(lexer, interpreter);
+                } else {
+                    interpreter.interpret(new Parser(lexer));
+                }
+                report(metrics, counts, profiler, path);
+                return;
             }
 
-            // Passo 2: analise sintatica
-            // O Parser recebe os tokens e os organiza em uma Árvore Sintática Abstrata (AST),
-            // que representa a estrutura lógica do código.
-            System.out.println("\n--- 2. AST (Arvore Sintatica) ---");
-            Parser parser = new Parser(tokens);
-            List<Node> ast = parser.parse();
-            for(Node node : ast){
-                System.out.println(node.toString());
+            // Passos 1 e 2 podem vir prontos do cache, se o codigo nao mudou.
+            List<Node> ast = null;
+            FlatAst compact = null;
+            ProgramCache cache = null;
+            byte[] sourceBytes = null;
+            if (useCache) {
+                cache = new ProgramCache(Paths.get(CACHE_DIRECTORY));
+                sourceBytes = Files.readAllBytes(path);
+                ast = cache.load(sourceBytes);
+            }
+            boolean fromCache = ast != null;
+
+            if (fromCache) {
+                System.out.println("--- 1. e 2. Programa em cache ---");
+                System.out.println(ast.size() + " instrucoes carregadas do cache");
+            } else if (parallel) {
+                // Passos 1 e 2 juntos: cada pedaco do codigo e tokenizado e analisado em paralelo.
+                System.out.println("--- 1. e 2. Front end paralelo ---");
+                ParallelFrontEnd frontEnd = new ParallelFrontEnd();
+                if (mmap) {
+                    ast = frontEnd.parse(ByteLexer.mapFile(path));
+                } else {
+                    ast = frontEnd.parse(Files.readString(path));
+                }
+                System.out.println(ast.size() + " instrucoes analisadas");
+            } else {
+                // Passo 1 -> analise lexica 
+                // O Lexer escaneia o codigo fonte e o transforma em uma lista de Tokens
+                System.out.println("--- 1. Tokens ---");
+                List<Token> tokens;
+                if (mmap) {
+                    // Os bytes do arquivo sao lidos direto do mapeamento, sem virar String.
+                    ByteLexer lexer = ByteLexer.map(path);
+                    lexer.setMetrics(metrics);
+                    tokens = lexer.tokenize();
+                } else {
+                    String source = Files.readString(path);
+                    Lexer lexer = new Lexer(source);
+                    lexer.setMetrics(metrics);
+                    tokens = lexer.tokenize();
+                }
+                for(Token token : tokens){
+                    System.out.println(token);
+                }
+
+                // Passo 2: analise sintatica
+                // O Parser recebe os tokens e os organiza em uma Árvore Sintática Abstrata (AST),
+                // que representa a estrutura lógica do código.
+                System.out.println("\n--- 2. AST (Arvore Sintatica) ---");
+                Parser parser = new Parser(tokens);
+                parser.setMetrics(metrics);
+                if (flat) {
+                    // Os nos so existem enquanto cada instrucao e listada.
+                    compact = parser.parseFlat();
+                    ast = compact.statements();
+                } else {
+                    ast = parser.parse();
+                }
+                for(Node node : ast){
+                    System.out.println(node.toString());
+                }
+                if (compact != null) {
+                    System.out.println("(AST compacta: " + compact.getNodeCount() + " nos, ~"
+                            + compact.estimateBytes() / 1024 + " KB)");
+                    boolean runsCompact = !useVm && !jvm && !specialize && !optimize && !showTypes
+                            && cache == null && counts == null && profiler == null;
+                    if (runsCompact) {
+                        ast = null;
+                    } else {
+                        // Os outros passos precisam de nos de verdade (e resolvem os mesmos nos).
+                        ast = new ArrayList<>(compact.statements());
+                        compact = null;
+                    }
+                }
+            }
+
+            if (cache != null && !fromCache) {
+                // Guarda o programa ainda sem otimizar: --optimize pode mudar na proxima execucao.
+                try {
+                    cache.store(sourceBytes, ast);
+                } catch (IOException e) {
+                    System.err.println("Aviso: nao foi possivel gravar o cache: " + e.getMessage());
+                } catch (RuntimeException e) {
+                    // Variavel indefinida: o programa nao e guardado e o erro aparece na execucao.
+                }
+            }
+
+            // Passo 2.1 (opcional): otimizacao
+            // O Optimizer reescreve a AST com passagens que preservam o resultado.
+            if (optimize) {
+                System.out.println("\n--- 2.1 Otimizacao ---");
+                Optimizer optimizer = Optimizer.standard();
+                ast = optimizer.optimize(ast);
+                for(Node node : ast){
+                    System.out.println(node.toString());
+                }
+                System.out.print(optimizer.report());
+            }
+
+            // Passo 2.2 (opcional): tipos
+            // Mostra o resultado da inferencia de tipos (a mesma que um Program usa ao ser criado).
+            if (showTypes) {
+                System.out.println("\n--- 2.2 Tipos ---");
+                Resolver resolver = new Resolver();
+                TypeInference types = new TypeInference();
+                resolver.setTypeInference(types);
+                try {
+                    resolver.resolve(ast);
+                    System.out.print(types.report());
+                } catch (RuntimeException e) {
+                    // Variavel indefinida: o erro aparece na execucao.
+                    System.out.println("(tipos indisponiveis: " + e.getMessage() + ")");
+                }
             }
 
             // Passo 3: interpretacao 
             // O Interpreter percorre a AST e executa as instruções, calculando os resultados.
             System.out.println("\n--- 3. Resultado da Execucao ---");
-            Interpreter interpreter = new Interpreter();
-            interpreter.interpret(ast);
+            System.out.flush();
+            if (useVm) {
+                // O Compiler traduz a AST para bytecode e a VM executa o laço de despacho.
+                Chunk chunk;
+                try {
+                    chunk = new Compiler().compile(ast);
+                } catch (RuntimeException e) {
+                    System.err.println("Erro de resolucao " + e.getMessage());
+                    return;
+                }
+                VM vm = new VM(out);
+                vm.setEchoAssignments(echo);
+                vm.run(chunk);
+            } else if (jvm) {
+                // O programa vira uma classe Java, executada e otimizada pelo proprio JIT da JVM.
+                CompiledScript script;
+                try {
+                    script = new JvmCompiler(echo).compile(ast);
+                } catch (RuntimeException e) {
+                    System.err.println("Erro de resolucao " + e.getMessage());
+                    return;
+                }
+                script.run(out);
+            } else if (specialize) {
+                // A AST vira uma arvore de nos executaveis que se reescrevem conforme os tipos.
+                ProgramNode program;
+                try {
+                    program = new TreeBuilder().build(ast);
+                } catch (RuntimeException e) {
+                    System.err.println("Erro de resolucao " + e.getMessage());
+                    return;
+                }
+                SpecializingInterpreter interpreter = new SpecializingInterpreter(out);
+                interpreter.setEchoAssignments(echo);
+                interpreter.run(program);
+            } else {
+                Interpreter interpreter = new Interpreter(out);
+                interpreter.setEchoAssignments(echo);
+                interpreter.setMetrics(metrics);
+                interpreter.setStatementCounts(counts);
+                interpreter.setProfiler(profiler);
+                if (compact != null) {
+                    interpreter.interpret(compact);
+                } else {
+                    interpreter.interpret(ast);
+                }
+            }
+            report(metrics, counts, profiler, path);
             
             
         } catch (Exception e) {
             System.err.println("Erro ao ler arquivo" + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Passo 4 (opcional): mostra as medicoes pedidas com --metrics, --counts e --profile.
+    */
+    private static void report(Metrics metrics, StatementCounts counts, Profiler profiler, Path path) throws IOException {
+        if (metrics != null) {
+            System.out.println("\n--- 4. Metricas ---");
+            System.out.print(metrics.snapshot().report());
+        }
+        if (counts != null) {
+            System.out.println("\n--- 4.1 Execucoes por instrucao ---");
+            System.out.print(counts.report());
+        }
+        if (profiler != null) {
+            System.out.println("\n--- 4.2 Perfil ---");
+            System.out.print(profiler.report(PROFILE_LINES));
+            Path folded = path.resolveSibling(path.getFileName() + ".folded");
+            Files.writeString(folded, profiler.collapsed());
+            System.out.println("Pilhas gravadas em " + folded);
+        }
+    }
+
+    /**
+     * Modo servidor: atende pedidos até o processo ser encerrado.
+    */
+    private static void serve(String address) throws Exception {
+        JppServer server = JppServer.open(address);
+        // Ctrl+C fecha o servidor (e apaga o arquivo do socket Unix).
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                server.close();
+            } catch (Exception e) {
+                System.err.println("Erro ao fechar o servidor " + e.getMessage());
+            }
+        }));
+        System.out.println("Servidor JPP em " + server.getAddress()
+                + (server.usesVirtualThreads() ? " (threads virtuais)" : " (pool de threads)"));
+        server.serve();
+    }
+}
@@ -8,6 +8,7 @@ package ast;
 public class AssignNode extends Node{
     private String variable;
     private Node expression;
+    private int slot = -1; // indice no ambiente, definido pelo Resolver
 
     public AssignNode(String variable, Node expression){
         this.variable = variable;
@@ -26,4 +27,12 @@ public class AssignNode extends Node{
     public Node getExpression() {
         return expression;
     }
+
+    public int getSlot() {
+        return slot;
+    }
+
+    public void setSlot(int slot) {
+        this.slot = slot;
+    }
 }
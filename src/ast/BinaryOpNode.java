@@ -4,18 +4,23 @@ package ast;
 /**
  * Nó da AST que representa uma operação binária (com dois operandos).
  * Exemplo: 10 + 5
+ *
+ * Também representa as comparações ("==", "!=", "<", "<=", ">" e ">="),
+ * que produzem um booleano.
 */
 public class BinaryOpNode extends Node{
     private Node left;
     private Node right;
     private String operator;
+    private byte operatorCode; // cabe no espaço que sobra do objeto
 
     public BinaryOpNode(Node left, String operator, Node right){
         this.left = left;
         this.operator = operator;
         this.right = right;
+        this.operatorCode = FlatAst.operatorCode(operator);
     }
-    
+
     @Override
     public String toString() {
         return "OpBinaria(" + left.toString() + " " + operator + " " + right.toString() + ")";
@@ -32,4 +37,19 @@ public class BinaryOpNode extends Node{
     public String getOperator() {
         return operator;
     }
+
+    /**
+     * O código do operador ({@link FlatAst#ADD} a {@link FlatAst#GREATER_EQUAL}),
+     * calculado uma vez na construção para que a execução não compare Strings.
+    */
+    public byte getOperatorCode() {
+        return operatorCode;
+    }
+
+    /**
+     * Indica se o nó é uma comparação, cujo resultado é true ou false.
+    */
+    public boolean isComparison() {
+        return FlatAst.isComparison(operatorCode);
+    }
 }
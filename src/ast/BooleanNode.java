@@ -0,0 +1,21 @@
+package ast;
+
+/**
+ * Nó da AST que representa um booleano literal (true ou false).
+*/
+public class BooleanNode extends Node{
+    private boolean value;
+
+    public BooleanNode(boolean value){
+        this.value = value;
+    }
+
+    @Override
+    public String toString() {
+        return "Booleano(" + value + ")";
+    }
+
+    public boolean getValue() {
+        return value;
+    }
+}
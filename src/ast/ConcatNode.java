@@ -0,0 +1,85 @@
+package ast;
+
+
+/**
+ * Nó da AST que representa uma soma encadeada, com três ou mais operandos.
+ * Exemplo: nome + " tem " + idade + " anos"
+ *
+ * Continua sendo o BinaryOpNode do topo da cadeia, ((a + b) + c) + d, então
+ * quem percorre a árvore como operações binárias (Resolver, Optimizer, VM,
+ * compilador JVM...) não precisa conhecê-lo. O Interpreter usa as partes já
+ * achatadas: avalia da esquerda para a direita e, quando a soma vira
+ * concatenação, monta o texto inteiro de uma vez, sem uma String
+ * intermediária por '+'.
+*/
+public class ConcatNode extends BinaryOpNode{
+    private final Node[] parts;
+
+    private ConcatNode(Node left, Node right, Node[] parts){
+        super(left, "+", right);
+        this.parts = parts;
+    }
+
+    /**
+     * Cria a soma encadeada das partes, na ordem em que são somadas.
+     * @param parts Os operandos (pelo menos três).
+    */
+    public static ConcatNode of(Node... parts){
+        if (parts.length < 3) {
+            throw new IllegalArgumentException("Uma soma encadeada precisa de pelo menos 3 partes.");
+        }
+        Node left = parts[0];
+        for (int i = 1; i < parts.length - 1; i++) {
+            left = new BinaryOpNode(left, "+", parts[i]);
+        }
+        return new ConcatNode(left, parts[parts.length - 1], parts.clone());
+    }
+
+    /**
+     * Achata a cadeia de '+' que termina em 'expression' (descendo pela esquerda).
+     * @return Um ConcatNode, se a cadeia tiver três ou mais operandos;
+     * senão a própria expressão.
+    */
+    public static Node flatten(Node expression){
+        if (expression instanceof ConcatNode || !isSum(expression)) {
+            return expression;
+        }
+        int count = 2;
+        Node spine = ((BinaryOpNode) expression).getLeft();
+        while (isSum(spine)) {
+            count++;
+            spine = ((BinaryOpNode) spine).getLeft();
+        }
+        if (count < 3) {
+            return expression;
+        }
+
+        Node[] parts = new Node[count];
+        Node current = expression;
+        int position = -1;
+        for (int i = count - 1; i > 0; i--) {
+            BinaryOpNode node = (BinaryOpNode) current;
+            parts[i] = node.getRight();
+            current = node.getLeft();
+            position = node.getPosition();
+        }
+        parts[0] = current;
+        BinaryOpNode top = (BinaryOpNode) expression;
+        ConcatNode concat = new ConcatNode(top.getLeft(), top.getRight(), parts);
+        // A cadeia inteira fica na posição do primeiro '+'
+        concat.setPosition(position);
+        return concat;
+    }
+
+    private static boolean isSum(Node node){
+        return node instanceof BinaryOpNode && ((BinaryOpNode) node).getOperator().equals("+");
+    }
+
+    public int getPartCount() {
+        return parts.length;
+    }
+
+    public Node getPart(int index) {
+        return parts[index];
+    }
+}
@@ -0,0 +1,492 @@
+package ast;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * Uma AST compacta, guardada em arrays primitivos em vez de um objeto por nó.
+ *
+ * Cada nó é um índice. O tipo do nó, o operador, os dois campos e a posição
+ * no código ficam em arrays paralelos (cerca de 14 bytes por nó, contra um
+ * objeto com cabeçalho e referências em cada Node, e a lista que os segura).
+ * Os nomes das variáveis são internados em uma tabela de símbolos, os textos
+ * em uma tabela de literais sem repetições, e os números em uma tabela de
+ * doubles. Os nós são guardados em pós-ordem: os filhos de um nó sempre vêm
+ * antes dele, e os nós de uma instrução terminam na raiz dela.
+ *
+ * O que cada campo guarda depende do tipo do nó:
+ * <pre>
+ *   NUMBER    first = índice na tabela de números
+ *   STRING    first = índice na tabela de textos
+ *   BOOLEAN   first = 1 (true) ou 0 (false)
+ *   VARIABLE  first = símbolo
+ *   BINARY    operador (aritmético ou comparação), first = esquerda, second = direita
+ *   CONCAT    first = início das partes em {@link #part(int, int)}, second = quantidade
+ *   ASSIGN    first = símbolo, second = expressão
+ *   PRINT     first = expressão
+ *   IF        first = início das partes, second = 2 ou 3 (condição, bloco do then e, se houver, do else)
+ *   WHILE     first = condição, second = bloco do corpo
+ *   BLOCK     first = início das partes (as instruções), second = quantidade
+ * </pre>
+ * Um BLOCK não é uma instrução do programa; ele só agrupa as instruções
+ * de um IF ou WHILE.
+ *
+ * O Interpreter executa esta forma diretamente
+ * ({@link core.Interpreter#interpret(FlatAst)}). Para o resto do projeto (os
+ * otimizadores, a VM, o cache...), {@link #statements()} devolve as mesmas
+ * instruções como Nodes, montados sob demanda, uma instrução por vez.
+*/
+public final class FlatAst {
+    public static final byte NUMBER = 1;
+    public static final byte STRING = 2;
+    public static final byte VARIABLE = 3;
+    public static final byte BINARY = 4;
+    public static final byte CONCAT = 5;
+    public static final byte ASSIGN = 6;
+    public static final byte PRINT = 7;
+    public static final byte BOOLEAN = 8;
+    public static final byte IF = 9;
+    public static final byte WHILE = 10;
+    public static final byte BLOCK = 11;
+
+    public static final byte ADD = 0;
+    public static final byte SUBTRACT = 1;
+    public static final byte MULTIPLY = 2;
+    public static final byte DIVIDE = 3;
+    // As comparações vêm depois das operações aritméticas (ver isComparison)
+    public static final byte EQUAL = 4;
+    public static final byte NOT_EQUAL = 5;
+    public static final byte LESS = 6;
+    public static final byte LESS_EQUAL = 7;
+    public static final byte GREATER = 8;
+    public static final byte GREATER_EQUAL = 9;
+
+    private static final String[] OPERATORS = {"+", "-", "*", "/", "==", "!=", "<", "<=", ">", ">="};
+
+    // Os nós
+    private byte[] kinds = new byte[64];
+    private byte[] operators = new byte[64];
+    private int[] firsts = new int[64];
+    private int[] seconds = new int[64];
+    private int[] positions = new int[64];
+    private int size = 0;
+
+    // As raízes das instruções
+    private int[] statements = new int[16];
+    private int statementCount = 0;
+
+    // As partes das somas encadeadas
+    private int[] parts = new int[16];
+    private int partCount = 0;
+
+    // As tabelas de literais e de símbolos
+    private double[] numbers = new double[16];
+    private int numberCount = 0;
+    private String[] strings = new String[16];
+    private int stringCount = 0;
+    private String[] symbols = new String[16];
+    private int symbolCount = 0;
+
+    // Para internar os textos e os nomes enquanto a AST é montada (null depois de trim)
+    private Map<String, Integer> stringIds = new HashMap<>();
+    private Map<String, Integer> symbolIds = new HashMap<>();
+
+    // --- Montagem ---
+
+    /**
+     * Acrescenta uma instrução, copiando a árvore de Nodes para os arrays.
+     * Os Nodes não são guardados: depois disto eles podem ser descartados.
+     * @param statement O nó raiz da instrução.
+     * @return O índice do nó raiz.
+    */
+    public int add(Node statement){
+        int root = append(statement);
+        if (statementCount == statements.length) {
+            statements = Arrays.copyOf(statements, statementCount * 2);
+        }
+        statements[statementCount++] = root;
+        return root;
+    }
+
+    /**
+     * Libera a folga dos arrays e as tabelas usadas só durante a montagem.
+     * Depois disto ainda é possível acrescentar instruções, só um pouco mais devagar.
+    */
+    public void trim(){
+        kinds = Arrays.copyOf(kinds, size);
+        operators = Arrays.copyOf(operators, size);
+        firsts = Arrays.copyOf(firsts, size);
+        seconds = Arrays.copyOf(seconds, size);
+        positions = Arrays.copyOf(positions, size);
+        statements = Arrays.copyOf(statements, statementCount);
+        parts = Arrays.copyOf(parts, partCount);
+        numbers = Arrays.copyOf(numbers, numberCount);
+        strings = Arrays.copyOf(strings, stringCount);
+        symbols = Arrays.copyOf(symbols, symbolCount);
+        stringIds = null;
+        symbolIds = null;
+    }
+
+    private int append(Node node){
+        if (node instanceof NumberNode) {
+            if (numberCount == numbers.length) {
+                numbers = Arrays.copyOf(numbers, Math.max(16, numberCount * 2));
+            }
+            numbers[numberCount] = ((NumberNode) node).getValue();
+            return node(NUMBER, (byte) 0, numberCount++, 0, node.getPosition());
+        }
+        if (node instanceof StringNode) {
+            return node(STRING, (byte) 0, intern(((StringNode) node).getString()), 0, node.getPosition());
+        }
+        if (node instanceof BooleanNode) {
+            return node(BOOLEAN, (byte) 0, ((BooleanNode) node).getValue() ? 1 : 0, 0, node.getPosition());
+        }
+        if (node instanceof VariableNode) {
+            return node(VARIABLE, (byte) 0, symbol(((VariableNode) node).getName()), 0, node.getPosition());
+        }
+        if (node instanceof ConcatNode) {
+            ConcatNode concat = (ConcatNode) node;
+            int count = concat.getPartCount();
+            int[] children = new int[count];
+            for (int i = 0; i < count; i++) {
+                children[i] = append(concat.getPart(i));
+            }
+            return node(CONCAT, (byte) 0, parts(children), count, node.getPosition());
+        }
+        if (node instanceof BinaryOpNode) {
+            BinaryOpNode binary = (BinaryOpNode) node;
+            int left = append(binary.getLeft());
+            int right = append(binary.getRight());
+            return node(BINARY, binary.getOperatorCode(), left, right, node.getPosition());
+        }
+        if (node instanceof AssignNode) {
+            AssignNode assign = (AssignNode) node;
+            int expression = append(assign.getExpression());
+            return node(ASSIGN, (byte) 0, symbol(assign.getVariable()), expression, node.getPosition());
+        }
+        if (node instanceof PrintNode) {
+            return node(PRINT, (byte) 0, append(((PrintNode) node).getExpression()), 0, node.getPosition());
+        }
+        if (node instanceof IfNode) {
+            IfNode ifNode = (IfNode) node;
+            boolean hasElse = !ifNode.getElseBranch().isEmpty();
+            int[] children = new int[hasElse ? 3 : 2];
+            children[0] = append(ifNode.getCondition());
+            children[1] = block(ifNode.getThenBranch());
+            if (hasElse) {
+                children[2] = block(ifNode.getElseBranch());
+            }
+            return node(IF, (byte) 0, parts(children), children.length, node.getPosition());
+        }
+        if (node instanceof WhileNode) {
+            WhileNode whileNode = (WhileNode) node;
+            int condition = append(whileNode.getCondition());
+            return node(WHILE, (byte) 0, condition, block(whileNode.getBody()), node.getPosition());
+        }
+        throw new RuntimeException("No desconhecido: " + node);
+    }
+
+    private int block(List<Node> statements){
+        int[] children = new int[statements.size()];
+        for (int i = 0; i < children.length; i++) {
+            children[i] = append(statements.get(i));
+        }
+        return node(BLOCK, (byte) 0, parts(children), children.length, -1);
+    }
+
+    /**
+     * Copia os nós de uma lista (já acrescentados) para a tabela de partes.
+     * @return O início deles na tabela.
+    */
+    private int parts(int[] children){
+        int count = children.length;
+        if (partCount + count > parts.length) {
+            parts = Arrays.copyOf(parts, Math.max(parts.length * 2, partCount + count));
+        }
+        System.arraycopy(children, 0, parts, partCount, count);
+        partCount += count;
+        return partCount - count;
+    }
+
+    private int node(byte kind, byte operator, int first, int second, int position){
+        if (size == kinds.length) {
+            int capacity = Math.max(64, size * 2);
+            kinds = Arrays.copyOf(kinds, capacity);
+            operators = Arrays.copyOf(operators, capacity);
+            firsts = Arrays.copyOf(firsts, capacity);
+            seconds = Arrays.copyOf(seconds, capacity);
+            positions = Arrays.copyOf(positions, capacity);
+        }
+        kinds[size] = kind;
+        operators[size] = operator;
+        firsts[size] = first;
+        seconds[size] = second;
+        positions[size] = position;
+        return size++;
+    }
+
+    private int intern(String text){
+        if (stringIds == null) {
+            stringIds = index(strings, stringCount);
+        }
+        Integer id = stringIds.get(text);
+        if (id == null) {
+            if (stringCount == strings.length) {
+                strings = Arrays.copyOf(strings, Math.max(16, stringCount * 2));
+            }
+            id = stringCount;
+            strings[stringCount++] = text;
+            stringIds.put(text, id);
+        }
+        return id;
+    }
+
+    private int symbol(String name){
+        if (symbolIds == null) {
+            symbolIds = index(symbols, symbolCount);
+        }
+        Integer id = symbolIds.get(name);
+        if (id == null) {
+            if (symbolCount == symbols.length) {
+                symbols = Arrays.copyOf(symbols, Math.max(16, symbolCount * 2));
+            }
+            id = symbolCount;
+            symbols[symbolCount++] = name;
+            symbolIds.put(name, id);
+        }
+        return id;
+    }
+
+    private static Map<String, Integer> index(String[] table, int count){
+        Map<String, Integer> ids = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            ids.put(table[i], i);
+        }
+        return ids;
+    }
+
+    /**
+     * O código de um operador ("+" vira {@link #ADD}, "<=" vira {@link #LESS_EQUAL}...).
+    */
+    public static byte operatorCode(String operator){
+        switch (operator) {
+            case "+":
+                return ADD;
+            case "-":
+                return SUBTRACT;
+            case "*":
+                return MULTIPLY;
+            case "/":
+                return DIVIDE;
+            case "==":
+                return EQUAL;
+            case "!=":
+                return NOT_EQUAL;
+            case "<":
+                return LESS;
+            case "<=":
+                return LESS_EQUAL;
+            case ">":
+                return GREATER;
+            case ">=":
+                return GREATER_EQUAL;
+            default:
+                throw new RuntimeException("Operador desconhecido: " + operator);
+        }
+    }
+
+    // --- Leitura ---
+
+    public int getNodeCount() {
+        return size;
+    }
+
+    public int getStatementCount() {
+        return statementCount;
+    }
+
+    /**
+     * O nó raiz da instrução 'index'.
+    */
+    public int statement(int index){
+        return statements[index];
+    }
+
+    public byte kind(int node){
+        return kinds[node];
+    }
+
+    /**
+     * O código do operador de um nó BINARY ({@link #ADD}, {@link #SUBTRACT}...).
+    */
+    public byte operator(int node){
+        return operators[node];
+    }
+
+    public int first(int node){
+        return firsts[node];
+    }
+
+    public int second(int node){
+        return seconds[node];
+    }
+
+    /**
+     * A posição do nó no código fonte, como em {@link Node#getPosition()}.
+    */
+    public int position(int node){
+        return positions[node];
+    }
+
+    /**
+     * O valor de um nó NUMBER.
+    */
+    public double number(int node){
+        return numbers[firsts[node]];
+    }
+
+    /**
+     * O texto de um nó STRING.
+    */
+    public String string(int node){
+        return strings[firsts[node]];
+    }
+
+    /**
+     * O valor de um nó BOOLEAN.
+    */
+    public boolean isTrue(int node){
+        return firsts[node] != 0;
+    }
+
+    /**
+     * O nó da parte 'index' de um nó CONCAT, IF ou BLOCK.
+    */
+    public int part(int node, int index){
+        return parts[firsts[node] + index];
+    }
+
+    public int getSymbolCount() {
+        return symbolCount;
+    }
+
+    /**
+     * O nome da variável de um símbolo.
+    */
+    public String getSymbol(int symbol){
+        return symbols[symbol];
+    }
+
+    /**
+     * O texto de um código de operador ("+", "-", "*", "/", "==", "<"...).
+    */
+    public static String operatorText(byte operator){
+        return OPERATORS[operator];
+    }
+
+    /**
+     * Indica se o código de operador é uma comparação ({@link #EQUAL} a {@link #GREATER_EQUAL}).
+    */
+    public static boolean isComparison(byte operator){
+        return operator >= EQUAL;
+    }
+
+    /**
+     * Estimativa dos bytes ocupados pelos arrays (sem os textos em si).
+    */
+    public long estimateBytes(){
+        long bytes = (long) kinds.length * 2 + (long) firsts.length * 12;
+        bytes += (long) statements.length * 4 + (long) parts.length * 4;
+        bytes += (long) numbers.length * 8 + (long) (strings.length + symbols.length) * 4;
+        return bytes;
+    }
+
+    // --- Visão como Nodes ---
+
+    /**
+     * As instruções como Nodes. Cada get monta uma instrução nova, sem slots
+     * nem tipos (ainda não resolvida); nada fica guardado na lista.
+    */
+    public List<Node> statements(){
+        return new StatementView();
+    }
+
+    /**
+     * Monta o Node de um nó (e de todos os filhos dele).
+    */
+    public Node toNode(int node){
+        Node result;
+        switch (kinds[node]) {
+            case NUMBER:
+                result = new NumberNode(number(node));
+                break;
+            case STRING:
+                result = new StringNode(string(node));
+                break;
+            case BOOLEAN:
+                result = new BooleanNode(isTrue(node));
+                break;
+            case VARIABLE:
+                result = new VariableNode(symbols[firsts[node]]);
+                break;
+            case CONCAT: {
+                Node[] children = new Node[seconds[node]];
+                for (int i = 0; i < children.length; i++) {
+                    children[i] = toNode(part(node, i));
+                }
+                result = ConcatNode.of(children);
+                break;
+            }
+            case BINARY:
+                result = new BinaryOpNode(toNode(firsts[node]), OPERATORS[operators[node]], toNode(seconds[node]));
+                break;
+            case ASSIGN:
+                result = new AssignNode(symbols[firsts[node]], toNode(seconds[node]));
+                break;
+            case PRINT:
+                result = new PrintNode(toNode(firsts[node]));
+                break;
+            case IF:
+                result = new IfNode(toNode(part(node, 0)), toNodes(part(node, 1)),
+                        seconds[node] == 3 ? toNodes(part(node, 2)) : List.of());
+                break;
+            case WHILE:
+                result = new WhileNode(toNode(firsts[node]), toNodes(seconds[node]));
+                break;
+            default:
+                throw new RuntimeException("Tipo de no desconhecido: " + kinds[node]);
+        }
+        result.setPosition(positions[node]);
+        return result;
+    }
+
+    /**
+     * As instruções de um nó BLOCK, como Nodes.
+    */
+    private List<Node> toNodes(int block){
+        List<Node> statements = new ArrayList<>(seconds[block]);
+        for (int i = 0; i < seconds[block]; i++) {
+            statements.add(toNode(part(block, i)));
+        }
+        return statements;
+    }
+
+    private final class StatementView extends AbstractList<Node> implements RandomAccess {
+        @Override
+        public Node get(int index){
+            if (index < 0 || index >= statementCount) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return toNode(statements[index]);
+        }
+
+        @Override
+        public int size(){
+            return statementCount;
+        }
+    }
+}
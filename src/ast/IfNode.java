@@ -0,0 +1,40 @@
+package ast;
+import java.util.List;
+
+/**
+ * Nó da AST que representa uma instrução condicional.
+ * Exemplo: if x > 10 { print "grande"; } else { print "pequeno"; }
+ *
+ * Um "else if" é um else cujo bloco tem só o IfNode seguinte.
+*/
+public class IfNode extends Node{
+    private Node condition;
+    private List<Node> thenBranch;
+    private List<Node> elseBranch;
+
+    /**
+     * @param elseBranch As instruções do else (vazia se não houver else).
+    */
+    public IfNode(Node condition, List<Node> thenBranch, List<Node> elseBranch){
+        this.condition = condition;
+        this.thenBranch = thenBranch;
+        this.elseBranch = elseBranch;
+    }
+
+    @Override
+    public String toString() {
+        return "Se(" + condition + ", " + thenBranch + ", senao " + elseBranch + ")";
+    }
+
+    public Node getCondition() {
+        return condition;
+    }
+
+    public List<Node> getThenBranch() {
+        return thenBranch;
+    }
+
+    public List<Node> getElseBranch() {
+        return elseBranch;
+    }
+}
@@ -5,4 +5,38 @@ package ast;
  * Cada classe que herda de Node representa uma construção da linguagem
  * (como uma operação, um número, uma atribuição).
 */
-public abstract class Node {}
\ No newline at end of file
+public abstract class Node {
+    private static final Type[] TYPES = Type.values();
+    private static final int TYPE_BITS = 3;
+    private static final int TYPE_MASK = (1 << TYPE_BITS) - 1;
+    // posicoes a partir daqui ficam desconhecidas
+    private static final int MAX_POSITION = (1 << (Integer.SIZE - TYPE_BITS - 1)) - 1;
+
+    // tipo estatico nos bits baixos, definido pela TypeInference (DYNAMIC ate la),
+    // e posicao no codigo fonte + 1 nos altos, definida pelo Parser (0 se desconhecida).
+    // Juntos em um int, para que a posicao nao aumente o tamanho de cada no.
+    private int typeAndPosition = Type.DYNAMIC.ordinal();
+
+    public Type getType() {
+        return TYPES[typeAndPosition & TYPE_MASK];
+    }
+
+    public void setType(Type type) {
+        typeAndPosition = (typeAndPosition & ~TYPE_MASK) | type.ordinal();
+    }
+
+    /**
+     * Posição do nó no código fonte: o índice do caractere (ou byte, com o
+     * ByteLexer) onde ele começa. Para converter em linha e coluna, veja
+     * {@link language.LineMap}.
+     * @return A posição, ou -1 se o nó não veio do Parser (ex: criado por uma otimização).
+    */
+    public int getPosition() {
+        return (typeAndPosition >>> TYPE_BITS) - 1;
+    }
+
+    public void setPosition(int position) {
+        int stored = position < 0 || position >= MAX_POSITION ? 0 : position + 1;
+        typeAndPosition = (stored << TYPE_BITS) | (typeAndPosition & TYPE_MASK);
+    }
+}
@@ -11,6 +11,10 @@ public class NumberNode extends Node{
         this.value = Double.parseDouble(value);
     }
 
+    public NumberNode(double value){
+        this.value = value;
+    }
+
     @Override
     public String toString() {
         return "Numero(" + value + ")";
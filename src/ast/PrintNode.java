@@ -10,6 +10,11 @@ public class PrintNode extends Node{
         this.expression = expression;
     }
 
+    @Override
+    public String toString() {
+        return "Imprime(" + expression.toString() + ")";
+    }
+
     public Node getExpression() {
         return expression;
     }
@@ -0,0 +1,39 @@
+package ast;
+
+/**
+ * O tipo estático de uma expressão, calculado pela inferência de tipos
+ * ({@link core.TypeInference}) antes da execução.
+*/
+public enum Type {
+    /** Sempre produz um número (ou falha). */
+    NUMBER,
+    /** Sempre produz uma string (ou falha). */
+    STRING,
+    /** Sempre produz true ou false (ou falha): as comparações e os literais booleanos. */
+    BOOLEAN,
+    /** Desconhecido antes da execução: o Interpreter verifica o valor a cada operação. */
+    DYNAMIC;
+
+    /**
+     * O tipo de um valor que pode vir de 'this' ou de 'other'.
+    */
+    public Type join(Type other){
+        return this == other ? this : DYNAMIC;
+    }
+
+    /**
+     * Nome do tipo para mensagens.
+    */
+    public String label(){
+        switch (this) {
+            case NUMBER:
+                return "numero";
+            case STRING:
+                return "string";
+            case BOOLEAN:
+                return "booleano";
+            default:
+                return "dinamico";
+        }
+    }
+}
@@ -5,6 +5,7 @@ package ast;
 */
 public class VariableNode extends Node{
     private String name;
+    private int slot = -1; // indice no ambiente, definido pelo Resolver
 
     public VariableNode(String name){
         this.name = name;
@@ -18,4 +19,12 @@ public class VariableNode extends Node{
     public String getName() {
         return name;
     }
+
+    public int getSlot() {
+        return slot;
+    }
+
+    public void setSlot(int slot) {
+        this.slot = slot;
+    }
 }
@@ -0,0 +1,29 @@
+package ast;
+import java.util.List;
+
+/**
+ * Nó da AST que representa um laço: o corpo executa enquanto a condição for true.
+ * Exemplo: while i < 10 { i = i + 1; }
+*/
+public class WhileNode extends Node{
+    private Node condition;
+    private List<Node> body;
+
+    public WhileNode(Node condition, List<Node> body){
+        this.condition = condition;
+        this.body = body;
+    }
+
+    @Override
+    public String toString() {
+        return "Enquanto(" + condition + ", " + body + ")";
+    }
+
+    public Node getCondition() {
+        return condition;
+    }
+
+    public List<Node> getBody() {
+        return body;
+    }
+}
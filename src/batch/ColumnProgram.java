@@ -0,0 +1,394 @@
+package batch;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import ast.AssignNode;
+import ast.BinaryOpNode;
+import ast.IfNode;
+import ast.Node;
+import ast.NumberNode;
+import ast.PrintNode;
+import ast.VariableNode;
+import ast.WhileNode;
+import core.Lexer;
+import core.Parser;
+import core.Program;
+import optimizer.Optimizer;
+
+/**
+ * Modo em lote: executa as mesmas atribuições sobre milhões de linhas de uma vez.
+ *
+ * As variáveis de entrada são colunas (double[]), uma posição por linha, e cada
+ * variável atribuída pelo script vira uma coluna de saída. Em vez de percorrer
+ * a árvore uma vez por linha, cada operação da árvore é aplicada a um bloco
+ * inteiro de linhas por um kernel ({@link Kernels}), um laço sobre arrays de
+ * double que a JVM executa com instruções SIMD. Os blocos são pequenos o
+ * bastante para que os valores intermediários fiquem no cache.
+ * <pre>
+ *   ColumnProgram program = ColumnProgram.compile("var y = x * 2 + 1;", "x");
+ *   double[] y = program.run(Map.of("x", xs)).get("y");
+ * </pre>
+ * Só números são aceitos: strings, print, comparações, if e while são erros
+ * de compilação (o lote não tem desvios; cada linha faz as mesmas contas). Os
+ * resultados são os mesmos do Interpreter, linha a linha, inclusive o erro de
+ * divisão por zero. Um ColumnProgram é imutável e pode ser executado por
+ * várias threads ao mesmo tempo (por exemplo, cada uma sobre uma faixa de linhas).
+*/
+public final class ColumnProgram {
+    /** Quantas linhas cada kernel processa por vez. */
+    private static final int BLOCK = 1024;
+
+    // Tipos de operando
+    private static final int INPUT = 0;
+    private static final int REGISTER = 1;
+    private static final int CONSTANT = 2;
+    private static final int OUTPUT = 3;
+
+    /**
+     * Um operando: uma coluna de entrada, um registrador (coluna temporária),
+     * uma constante ou uma coluna de saída. Um resultado que é o valor final
+     * de uma variável é escrito direto na coluna de saída dela, sem registrador.
+    */
+    private static final class Operand {
+        int kind;
+        /** A coluna ou o registrador. Os registradores são renumerados uma vez, na compilação. */
+        int index;
+        final double value;
+
+        Operand(int kind, int index, double value){
+            this.kind = kind;
+            this.index = index;
+            this.value = value;
+        }
+    }
+
+    /** target = left operator right, sobre um bloco de linhas. */
+    private static final class Instruction {
+        final char operator;
+        final Operand left;
+        final Operand right;
+        /** Um registrador ou uma coluna de saída. */
+        final Operand target;
+
+        Instruction(char operator, Operand left, Operand right, Operand target){
+            this.operator = operator;
+            this.left = left;
+            this.right = right;
+            this.target = target;
+        }
+    }
+
+    private final Kernels kernels;
+    private final String[] inputs;
+    private final String[] outputs;
+    private final Instruction[] instructions;
+    /** O valor final de cada saída. */
+    private final Operand[] results;
+    private final int registerCount;
+
+    private ColumnProgram(Kernels kernels, String[] inputs, String[] outputs, Instruction[] instructions,
+            Operand[] results, int registerCount){
+        this.kernels = kernels;
+        this.inputs = inputs;
+        this.outputs = outputs;
+        this.instructions = instructions;
+        this.results = results;
+        this.registerCount = registerCount;
+    }
+
+    /**
+     * Compila o script para o modo em lote, com os kernels de {@link Kernels#preferred()}.
+     * @param source O código, só com números, variáveis e atribuições.
+     * @param inputs Os nomes das colunas de entrada.
+     * @throws RuntimeException Se o código tem erro ou usa algo que o modo em lote não aceita.
+    */
+    public static ColumnProgram compile(String source, String... inputs){
+        return compile(Kernels.preferred(), source, inputs);
+    }
+
+    public static ColumnProgram compile(Kernels kernels, String source, String... inputs){
+        List<Node> ast = Optimizer.standard().optimize(new Parser(new Lexer(source).tokenize()).parse());
+        return new Builder(Program.of(ast, inputs), inputs.length).build(kernels);
+    }
+
+    public String[] getInputs() {
+        return inputs.clone();
+    }
+
+    /**
+     * Os nomes das colunas de saída: as variáveis atribuídas, na ordem da primeira atribuição.
+    */
+    public String[] getOutputs() {
+        return outputs.clone();
+    }
+
+    public Kernels getKernels() {
+        return kernels;
+    }
+
+    /**
+     * Executa o programa sobre todas as linhas das colunas de entrada.
+     * @param columns As colunas de entrada, por nome, todas do mesmo tamanho.
+     * Sem entradas, o programa roda sobre uma única linha.
+     * @return As colunas de saída, por nome, na ordem de {@link #getOutputs()}.
+    */
+    public Map<String, double[]> run(Map<String, double[]> columns){
+        double[][] in = new double[inputs.length][];
+        int rows = inputs.length == 0 ? 1 : -1;
+        for (int i = 0; i < inputs.length; i++) {
+            in[i] = columns.get(inputs[i]);
+            if (in[i] == null) {
+                throw new RuntimeException("Falta a coluna de entrada '" + inputs[i] + "'.");
+            }
+            if (rows >= 0 && in[i].length != rows) {
+                throw new RuntimeException("As colunas de entrada tem tamanhos diferentes.");
+            }
+            rows = in[i].length;
+        }
+
+        double[][] out = new double[outputs.length][rows];
+        run(in, out, 0, rows);
+
+        Map<String, double[]> result = new LinkedHashMap<>();
+        for (int i = 0; i < outputs.length; i++) {
+            result.put(outputs[i], out[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Executa o programa sobre as linhas [from, to), sem alocar as colunas.
+     * @param in As colunas de entrada, na ordem de {@link #getInputs()}.
+     * @param out As colunas de saída, na ordem de {@link #getOutputs()}. Só as
+     * posições [from, to) são escritas.
+    */
+    public void run(double[][] in, double[][] out, int from, int to){
+        if (in.length != inputs.length || out.length != outputs.length) {
+            throw new RuntimeException("Esperadas " + inputs.length + " colunas de entrada e "
+                    + outputs.length + " de saida.");
+        }
+
+        double[][] registers = new double[registerCount][Math.min(BLOCK, Math.max(to - from, 0))];
+        for (int start = from; start < to; start += BLOCK) {
+            int n = Math.min(BLOCK, to - start);
+            for (Instruction instruction : instructions) {
+                execute(instruction, in, out, registers, start, n);
+            }
+            for (int i = 0; i < outputs.length; i++) {
+                Operand result = results[i];
+                if (result.kind == CONSTANT) {
+                    Arrays.fill(out[i], start, start + n, result.value);
+                } else if (result.kind != OUTPUT || result.index != i) {
+                    // A mesma coluna de entrada ou o valor de outra saída.
+                    System.arraycopy(column(result, in, out, registers), offset(result, start), out[i], start, n);
+                }
+            }
+        }
+    }
+
+    private void execute(Instruction instruction, double[][] in, double[][] out, double[][] registers, int start, int n){
+        Operand left = instruction.left;
+        Operand right = instruction.right;
+        Operand target = instruction.target;
+        double[] result = column(target, in, out, registers);
+        int resultOffset = offset(target, start);
+
+        if (instruction.operator == '/' && right.kind != CONSTANT) {
+            // Uma constante zero como divisor já é rejeitada na compilação.
+            int zero = kernels.indexOfZero(column(right, in, out, registers), offset(right, start), n);
+            if (zero >= 0) {
+                throw new RuntimeException("Erro: Divisao por zero na linha " + (start + zero) + " das colunas.");
+            }
+        }
+
+        if (left.kind == CONSTANT) {
+            kernels.apply(instruction.operator, left.value, column(right, in, out, registers), offset(right, start),
+                    result, resultOffset, n);
+        } else if (right.kind == CONSTANT) {
+            kernels.apply(instruction.operator, column(left, in, out, registers), offset(left, start), right.value,
+                    result, resultOffset, n);
+        } else {
+            kernels.apply(instruction.operator, column(left, in, out, registers), offset(left, start),
+                    column(right, in, out, registers), offset(right, start), result, resultOffset, n);
+        }
+    }
+
+    private static double[] column(Operand operand, double[][] in, double[][] out, double[][] registers){
+        switch (operand.kind) {
+            case INPUT:
+                return in[operand.index];
+            case OUTPUT:
+                return out[operand.index];
+            default:
+                return registers[operand.index];
+        }
+    }
+
+    /**
+     * As colunas de entrada e de saída têm todas as linhas; um registrador só tem o bloco atual.
+    */
+    private static int offset(Operand operand, int start){
+        return operand.kind == REGISTER ? 0 : start;
+    }
+
+    // --- Compilação ---
+
+    /**
+     * Traduz a AST resolvida em instruções sobre colunas. Cada variável aponta
+     * para o operando com o seu valor atual, então uma reatribuição não copia
+     * nada. Depois, os registradores são reaproveitados: um registrador que
+     * não é mais lido volta a ficar livre para as instruções seguintes.
+    */
+    private static final class Builder {
+        private final Program program;
+        private final int inputCount;
+        private final Operand[] values;
+        private final List<Instruction> instructions = new ArrayList<>();
+        private final List<Integer> assigned = new ArrayList<>();
+
+        Builder(Program program, int inputCount){
+            this.program = program;
+            this.inputCount = inputCount;
+            this.values = new Operand[program.getSlotCount()];
+            for (int slot = 0; slot < inputCount; slot++) {
+                values[slot] = new Operand(INPUT, slot, 0);
+            }
+        }
+
+        ColumnProgram build(Kernels kernels){
+            for (Node statement : program.getStatements()) {
+                if (statement instanceof AssignNode) {
+                    AssignNode assignNode = (AssignNode) statement;
+                    values[assignNode.getSlot()] = compile(assignNode.getExpression());
+                    if (!assigned.contains(assignNode.getSlot())) {
+                        assigned.add(assignNode.getSlot());
+                    }
+                } else if (statement instanceof PrintNode) {
+                    throw new RuntimeException("O modo em lote nao aceita print.");
+                } else if (statement instanceof IfNode || statement instanceof WhileNode) {
+                    throw new RuntimeException("O modo em lote nao aceita if nem while.");
+                } else {
+                    compile(statement);
+                }
+            }
+
+            String[] names = program.getNames();
+            String[] outputs = new String[assigned.size()];
+            Operand[] results = new Operand[assigned.size()];
+            for (int i = 0; i < outputs.length; i++) {
+                outputs[i] = names[assigned.get(i)];
+                results[i] = values[assigned.get(i)];
+            }
+            int registers = allocateRegisters(results);
+            return new ColumnProgram(kernels, Arrays.copyOf(names, inputCount), outputs,
+                    instructions.toArray(new Instruction[0]), results, registers);
+        }
+
+        private Operand compile(Node expression){
+            if (expression instanceof NumberNode) {
+                return new Operand(CONSTANT, -1, ((NumberNode) expression).getValue());
+            }
+            if (expression instanceof VariableNode) {
+                return values[((VariableNode) expression).getSlot()];
+            }
+            if (expression instanceof BinaryOpNode) {
+                BinaryOpNode node = (BinaryOpNode) expression;
+                if (node.isComparison()) {
+                    throw new RuntimeException("O modo em lote nao aceita comparacoes.");
+                }
+                Operand left = compile(node.getLeft());
+                Operand right = compile(node.getRight());
+                char operator = node.getOperator().charAt(0);
+                if (right.kind == CONSTANT && operator == '/' && right.value == 0) {
+                    throw new RuntimeException("Erro: Divisao por zero.");
+                }
+                // O Otimizador já juntou as constantes; aqui sobra só o caso
+                // de "x = 2; y = x * 3;", em que x é uma constante por atribuição.
+                if (left.kind == CONSTANT && right.kind == CONSTANT) {
+                    return new Operand(CONSTANT, -1, fold(operator, left.value, right.value));
+                }
+                Operand result = new Operand(REGISTER, instructions.size(), 0);
+                instructions.add(new Instruction(operator, left, right, result));
+                return result;
+            }
+            throw new RuntimeException("O modo em lote so trabalha com numeros: " + expression);
+        }
+
+        private static double fold(char operator, double left, double right){
+            switch (operator) {
+                case '+': return left + right;
+                case '-': return left - right;
+                case '*': return left * right;
+                case '/': return left / right;
+                default: throw ScalarKernels.unknown(operator);
+            }
+        }
+
+        /**
+         * Decide onde fica o resultado de cada instrução. O valor final de uma
+         * variável vai direto para a coluna de saída dela; os demais usam
+         * registradores, reaproveitando os que já não são lidos.
+         * @return Quantos registradores são necessários.
+        */
+        private int allocateRegisters(Operand[] results){
+            for (int i = 0; i < results.length; i++) {
+                if (results[i].kind == REGISTER) {
+                    results[i].kind = OUTPUT;
+                    results[i].index = i;
+                }
+            }
+
+            // Até aqui, o índice de um registrador é o da instrução que o produz.
+            int count = instructions.size();
+            int[] lastUse = new int[count];
+            Arrays.fill(lastUse, -1);
+            for (int i = 0; i < count; i++) {
+                Instruction instruction = instructions.get(i);
+                use(lastUse, instruction.left, i);
+                use(lastUse, instruction.right, i);
+            }
+
+            int[] physical = new int[count];
+            List<Integer> free = new ArrayList<>();
+            int registers = 0;
+            for (int i = 0; i < count; i++) {
+                Instruction instruction = instructions.get(i);
+                // Os operandos lidos pela última vez aqui já podem receber o resultado:
+                // os kernels leem e escrevem cada posição na mesma ordem.
+                release(free, lastUse, physical, instruction.left, i);
+                release(free, lastUse, physical, instruction.right, i);
+                if (instruction.target.kind != REGISTER) {
+                    continue;
+                }
+                int register = free.isEmpty() ? registers++ : free.remove(free.size() - 1);
+                physical[i] = register;
+                if (lastUse[i] < 0) {
+                    // Resultado nunca lido (uma expressão solta): libera logo.
+                    free.add(register);
+                }
+            }
+
+            for (Instruction instruction : instructions) {
+                if (instruction.target.kind == REGISTER) {
+                    instruction.target.index = physical[instruction.target.index];
+                }
+            }
+            return registers;
+        }
+
+        private static void use(int[] lastUse, Operand operand, int index){
+            if (operand.kind == REGISTER) {
+                lastUse[operand.index] = Math.max(lastUse[operand.index], index);
+            }
+        }
+
+        private static void release(List<Integer> free, int[] lastUse, int[] physical, Operand operand, int index){
+            if (operand.kind == REGISTER && lastUse[operand.index] == index && !free.contains(physical[operand.index])) {
+                free.add(physical[operand.index]);
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package batch;
+
+/**
+ * As operações elementares do modo em lote: cada chamada aplica um operador
+ * aritmético ('+', '-', '*' ou '/') a 'n' elementos seguidos de duas colunas,
+ * ou de uma coluna e uma constante, e escreve o resultado em outra coluna.
+ * A saída pode ser a mesma coluna de uma das entradas.
+ *
+ * Há duas implementações: laços simples, que o JIT transforma em instruções
+ * SIMD sozinho ({@link #scalar()}), e laços escritos com a Vector API
+ * ({@code jdk.incubator.vector}), usados quando a JVM foi iniciada com
+ * {@code --add-modules jdk.incubator.vector}.
+*/
+public interface Kernels {
+
+    /** out[i] = a[i] op b[i] */
+    void apply(char operator, double[] a, int aOffset, double[] b, int bOffset, double[] out, int outOffset, int n);
+
+    /** out[i] = a[i] op b */
+    void apply(char operator, double[] a, int aOffset, double b, double[] out, int outOffset, int n);
+
+    /** out[i] = a op b[i] */
+    void apply(char operator, double a, double[] b, int bOffset, double[] out, int outOffset, int n);
+
+    /**
+     * Procura um zero (ou -0.0) na coluna, para a verificação da divisão.
+     * @return A posição do primeiro zero, contada a partir de 'offset', ou -1.
+    */
+    int indexOfZero(double[] a, int offset, int n);
+
+    /**
+     * Laços Java simples, vetorizados pelo JIT.
+    */
+    static Kernels scalar(){
+        return ScalarKernels.INSTANCE;
+    }
+
+    /**
+     * A Vector API se o módulo dela estiver carregado, senão {@link #scalar()}.
+    */
+    static Kernels preferred(){
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return (Kernels) Class.forName("batch.VectorKernels").getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // Sem a Vector API: os laços simples servem.
+            }
+        }
+        return scalar();
+    }
+}
@@ -0,0 +1,111 @@
+package batch;
+
+/**
+ * Kernels em Java simples. Cada operador tem o seu laço, sem desvios dentro
+ * dele, para que o compilador JIT (C2) o vetorize: os elementos são
+ * processados de vários em vários com instruções SIMD (SSE, AVX ou NEON).
+*/
+final class ScalarKernels implements Kernels {
+    static final ScalarKernels INSTANCE = new ScalarKernels();
+
+    private ScalarKernels(){
+    }
+
+    @Override
+    public void apply(char operator, double[] a, int aOffset, double[] b, int bOffset, double[] out, int outOffset, int n){
+        switch (operator) {
+            case '+':
+                for (int i = 0; i < n; i++) {
+                    out[outOffset + i] = a[aOffset + i] + b[bOffset + i];
+                }
+                return;
+            case '-':
+                for (int i = 0; i < n; i++) {
+                    out[outOffset + i] = a[aOffset + i] - b[bOffset + i];
+                }
+                return;
+            case '*':
+                for (int i = 0; i < n; i++) {
+                    out[outOffset + i] = a[aOffset + i] * b[bOffset + i];
+                }
+                return;
+            case '/':
+                for (int i = 0; i < n; i++) {
+                    out[outOffset + i] = a[aOffset + i] / b[bOffset + i];
+                }
+                return;
+            default:
+                throw unknown(operator);
+        }
+    }
+
+    @Override
+    public void apply(char operator, double[] a, int aOffset, double b, double[] out, int outOffset, int n){
+        switch (operator) {
+            case '+':
+                for (int i = 0; i < n; i++) {
+                    out[outOffset + i] = a[aOffset + i] + b;
+                }
+                return;
+            case '-':
+                for (int i = 0; i < n; i++) {
+                    out[outOffset + i] = a[aOffset + i] - b;
+                }
+                return;
+            case '*':
+                for (int i = 0; i < n; i++) {
+                    out[outOffset + i] = a[aOffset + i] * b;
+                }
+                return;
+            case '/':
+                for (int i = 0; i < n; i++) {
+                    out[outOffset + i] = a[aOffset + i] / b;
+                }
+                return;
+            default:
+                throw unknown(operator);
+        }
+    }
+
+    @Override
+    public void apply(char operator, double a, double[] b, int bOffset, double[] out, int outOffset, int n){
+        switch (operator) {
+            case '+':
+                for (int i = 0; i < n; i++) {
+                    out[outOffset + i] = a + b[bOffset + i];
+                }
+                return;
+            case '-':
+                for (int i = 0; i < n; i++) {
+                    out[outOffset + i] = a - b[bOffset + i];
+                }
+                return;
+            case '*':
+                for (int i = 0; i < n; i++) {
+                    out[outOffset + i] = a * b[bOffset + i];
+                }
+                return;
+            case '/':
+                for (int i = 0; i < n; i++) {
+                    out[outOffset + i] = a / b[bOffset + i];
+                }
+                return;
+            default:
+                throw unknown(operator);
+        }
+    }
+
+    @Override
+    public int indexOfZero(double[] a, int offset, int n){
+        for (int i = 0; i < n; i++) {
+            if (a[offset + i] == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    static RuntimeException unknown(char operator){
+        return new RuntimeException("Operador desconhecido '" + operator + "'.");
+    }
+}
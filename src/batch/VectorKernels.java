@@ -0,0 +1,161 @@
+package batch;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Kernels escritos com a Vector API, na maior largura de vetor que o
+ * processador oferece (por exemplo, 8 doubles com AVX-512). O resto da coluna
+ * que não completa um vetor é processado elemento a elemento.
+ *
+ * Esta classe só é carregada por {@link Kernels#preferred()}, e só quando o
+ * módulo jdk.incubator.vector está presente.
+*/
+final class VectorKernels implements Kernels {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    public void apply(char operator, double[] a, int aOffset, double[] b, int bOffset, double[] out, int outOffset, int n){
+        int bound = SPECIES.loopBound(n);
+        int i = 0;
+        switch (operator) {
+            case '+':
+                for (; i < bound; i += SPECIES.length()) {
+                    DoubleVector.fromArray(SPECIES, a, aOffset + i).add(DoubleVector.fromArray(SPECIES, b, bOffset + i)).intoArray(out, outOffset + i);
+                }
+                for (; i < n; i++) {
+                    out[outOffset + i] = a[aOffset + i] + b[bOffset + i];
+                }
+                return;
+            case '-':
+                for (; i < bound; i += SPECIES.length()) {
+                    DoubleVector.fromArray(SPECIES, a, aOffset + i).sub(DoubleVector.fromArray(SPECIES, b, bOffset + i)).intoArray(out, outOffset + i);
+                }
+                for (; i < n; i++) {
+                    out[outOffset + i] = a[aOffset + i] - b[bOffset + i];
+                }
+                return;
+            case '*':
+                for (; i < bound; i += SPECIES.length()) {
+                    DoubleVector.fromArray(SPECIES, a, aOffset + i).mul(DoubleVector.fromArray(SPECIES, b, bOffset + i)).intoArray(out, outOffset + i);
+                }
+                for (; i < n; i++) {
+                    out[outOffset + i] = a[aOffset + i] * b[bOffset + i];
+                }
+                return;
+            case '/':
+                for (; i < bound; i += SPECIES.length()) {
+                    DoubleVector.fromArray(SPECIES, a, aOffset + i).div(DoubleVector.fromArray(SPECIES, b, bOffset + i)).intoArray(out, outOffset + i);
+                }
+                for (; i < n; i++) {
+                    out[outOffset + i] = a[aOffset + i] / b[bOffset + i];
+                }
+                return;
+            default:
+                throw ScalarKernels.unknown(operator);
+        }
+    }
+
+    @Override
+    public void apply(char operator, double[] a, int aOffset, double b, double[] out, int outOffset, int n){
+        int bound = SPECIES.loopBound(n);
+        int i = 0;
+        switch (operator) {
+            case '+':
+                for (; i < bound; i += SPECIES.length()) {
+                    DoubleVector.fromArray(SPECIES, a, aOffset + i).add(b).intoArray(out, outOffset + i);
+                }
+                for (; i < n; i++) {
+                    out[outOffset + i] = a[aOffset + i] + b;
+                }
+                return;
+            case '-':
+                for (; i < bound; i += SPECIES.length()) {
+                    DoubleVector.fromArray(SPECIES, a, aOffset + i).sub(b).intoArray(out, outOffset + i);
+                }
+                for (; i < n; i++) {
+                    out[outOffset + i] = a[aOffset + i] - b;
+                }
+                return;
+            case '*':
+                for (; i < bound; i += SPECIES.length()) {
+                    DoubleVector.fromArray(SPECIES, a, aOffset + i).mul(b).intoArray(out, outOffset + i);
+                }
+                for (; i < n; i++) {
+                    out[outOffset + i] = a[aOffset + i] * b;
+                }
+                return;
+            case '/':
+                for (; i < bound; i += SPECIES.length()) {
+                    DoubleVector.fromArray(SPECIES, a, aOffset + i).div(b).intoArray(out, outOffset + i);
+                }
+                for (; i < n; i++) {
+                    out[outOffset + i] = a[aOffset + i] / b;
+                }
+                return;
+            default:
+                throw ScalarKernels.unknown(operator);
+        }
+    }
+
+    @Override
+    public void apply(char operator, double a, double[] b, int bOffset, double[] out, int outOffset, int n){
+        int bound = SPECIES.loopBound(n);
+        int i = 0;
+        switch (operator) {
+            case '+':
+                for (; i < bound; i += SPECIES.length()) {
+                    DoubleVector.broadcast(SPECIES, a).add(DoubleVector.fromArray(SPECIES, b, bOffset + i)).intoArray(out, outOffset + i);
+                }
+                for (; i < n; i++) {
+                    out[outOffset + i] = a + b[bOffset + i];
+                }
+                return;
+            case '-':
+                for (; i < bound; i += SPECIES.length()) {
+                    DoubleVector.broadcast(SPECIES, a).sub(DoubleVector.fromArray(SPECIES, b, bOffset + i)).intoArray(out, outOffset + i);
+                }
+                for (; i < n; i++) {
+                    out[outOffset + i] = a - b[bOffset + i];
+                }
+                return;
+            case '*':
+                for (; i < bound; i += SPECIES.length()) {
+                    DoubleVector.broadcast(SPECIES, a).mul(DoubleVector.fromArray(SPECIES, b, bOffset + i)).intoArray(out, outOffset + i);
+                }
+                for (; i < n; i++) {
+                    out[outOffset + i] = a * b[bOffset + i];
+                }
+                return;
+            case '/':
+                for (; i < bound; i += SPECIES.length()) {
+                    DoubleVector.broadcast(SPECIES, a).div(DoubleVector.fromArray(SPECIES, b, bOffset + i)).intoArray(out, outOffset + i);
+                }
+                for (; i < n; i++) {
+                    out[outOffset + i] = a / b[bOffset + i];
+                }
+                return;
+            default:
+                throw ScalarKernels.unknown(operator);
+        }
+    }
+
+    @Override
+    public int indexOfZero(double[] a, int offset, int n){
+        int bound = SPECIES.loopBound(n);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            VectorMask<Double> zeros = DoubleVector.fromArray(SPECIES, a, offset + i).compare(VectorOperators.EQ, 0);
+            if (zeros.anyTrue()) {
+                return i + zeros.firstTrue();
+            }
+        }
+        for (; i < n; i++) {
+            if (a[offset + i] == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
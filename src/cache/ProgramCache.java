@@ -0,0 +1,107 @@
+package cache;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+
+import ast.Node;
+import core.Version;
+
+/**
+ * Cache em disco de programas já analisados.
+ *
+ * A chave é o SHA-256 do código fonte junto com a versão do interpretador e
+ * do formato de serialização: mudar uma vírgula do script ou atualizar o
+ * interpretador gera outra chave, então uma entrada nunca fica desatualizada.
+ * Cada entrada é um arquivo com o programa serializado pelo
+ * {@link ProgramCodec}, lido de uma vez só na próxima execução, sem passar
+ * pelo Lexer nem pelo Parser.
+ *
+ * Entradas corrompidas são tratadas como ausentes. A escrita é feita em um
+ * arquivo temporário renomeado no fim, então execuções simultâneas nunca
+ * leem uma entrada pela metade.
+*/
+public class ProgramCache {
+    private static final String EXTENSION = ".jppc";
+
+    private final Path directory;
+
+    /**
+     * @param directory O diretório das entradas (criado quando necessário).
+    */
+    public ProgramCache(Path directory){
+        this.directory = directory;
+    }
+
+    /**
+     * Calcula a chave de um código fonte.
+     * @param source Os bytes do código fonte, como estão no arquivo.
+     * @return A chave em hexadecimal.
+    */
+    public static String key(byte[] source){
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Toda JVM é obrigada a ter SHA-256.
+            throw new IllegalStateException(e);
+        }
+        digest.update((Version.NUMBER + "/" + ProgramCodec.FORMAT + "\n").getBytes(StandardCharsets.UTF_8));
+        byte[] hash = digest.digest(source);
+
+        StringBuilder hex = new StringBuilder(hash.length * 2);
+        for (byte b : hash) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16));
+            hex.append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Procura o programa de um código fonte no cache.
+     * @param source Os bytes do código fonte.
+     * @return As instruções já resolvidas, ou null se não estiverem no cache.
+    */
+    public List<Node> load(byte[] source){
+        Path entry = entry(key(source));
+        try {
+            return ProgramCodec.decode(ByteBuffer.wrap(Files.readAllBytes(entry)));
+        } catch (IOException | IllegalArgumentException e) {
+            // Entrada ausente, ilegível ou corrompida: o programa é analisado de novo.
+            return null;
+        }
+    }
+
+    /**
+     * Guarda o programa de um código fonte no cache.
+     * @param source Os bytes do código fonte.
+     * @param statements As instruções produzidas pelo Parser.
+    */
+    public void store(byte[] source, List<Node> statements) throws IOException {
+        byte[] program = new ProgramCodec().encode(statements);
+
+        Files.createDirectories(directory);
+        Path entry = entry(key(source));
+        Path temporary = Files.createTempFile(directory, "entrada", ".tmp");
+        try {
+            Files.write(temporary, program);
+            try {
+                Files.move(temporary, entry, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, entry, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private Path entry(String key){
+        return directory.resolve(key + EXTENSION);
+    }
+}
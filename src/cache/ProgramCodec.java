@@ -0,0 +1,337 @@
+package cache;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import ast.AssignNode;
+import ast.BinaryOpNode;
+import ast.BooleanNode;
+import ast.ConcatNode;
+import ast.IfNode;
+import ast.Node;
+import ast.NumberNode;
+import ast.PrintNode;
+import ast.StringNode;
+import ast.VariableNode;
+import ast.WhileNode;
+import core.Resolver;
+import language.TokenBuffer;
+
+/**
+ * Serialização binária compacta de um programa já analisado e resolvido.
+ *
+ * Formato (inteiros sem sinal em varint, como no protobuf):
+ * <pre>
+ *   "JPPC" formato
+ *   quantidade de variáveis, e o nome de cada uma (na ordem dos slots)
+ *   quantidade de instruções, e cada instrução em pré-ordem. Cada nó começa
+ *   com o tipo (1 byte) e a posição no código fonte + 1 (0 se desconhecida):
+ *     NUMBER  double (8 bytes)
+ *     STRING  tamanho, bytes UTF-8
+ *     BOOLEAN 1 (true) ou 0 (false), 1 byte
+ *     VARIABLE slot
+ *     BINARY  operador (1 byte, o índice em OPERATORS), esquerda, direita
+ *     CONCAT  quantidade de partes, cada parte (uma soma encadeada, ver ConcatNode)
+ *     ASSIGN  slot, expressão
+ *     PRINT   expressão
+ *     IF      condição, bloco do then, bloco do else (vazio se não houver)
+ *     WHILE   condição, bloco do corpo
+ * </pre>
+ * Um bloco é a quantidade de instruções seguida de cada instrução.
+ * As variáveis são gravadas pelo slot, então cada nome aparece uma vez só,
+ * e na leitura os nós já voltam com os slots preenchidos.
+*/
+public class ProgramCodec {
+    private static final int MAGIC = 0x4A505043; // "JPPC"
+
+    /** Versão do formato; deve mudar sempre que o formato mudar. */
+    public static final int FORMAT = 4;
+
+    private static final byte NUMBER = 1;
+    private static final byte STRING = 2;
+    private static final byte VARIABLE = 3;
+    private static final byte BINARY = 4;
+    private static final byte ASSIGN = 5;
+    private static final byte PRINT = 6;
+    private static final byte CONCAT = 7;
+    private static final byte BOOLEAN = 8;
+    private static final byte IF = 9;
+    private static final byte WHILE = 10;
+
+    // Os operadores, gravados pelo índice (as comparações têm dois caracteres)
+    private static final String[] OPERATORS = {"+", "-", "*", "/", "==", "!=", "<", "<=", ">", ">="};
+
+    private byte[] bytes = new byte[256];
+    private int count = 0;
+
+    // --- Escrita ---
+
+    /**
+     * Serializa um programa. As variáveis são resolvidas aqui, então uma
+     * variável indefinida gera o mesmo erro que no Interpreter.
+     * @param statements A lista de nós raiz da AST.
+     * @return Os bytes do programa serializado.
+    */
+    public byte[] encode(List<Node> statements){
+        Resolver resolver = new Resolver();
+        resolver.resolve(statements);
+
+        count = 0;
+        writeInt(MAGIC);
+        writeVarint(FORMAT);
+        String[] names = resolver.getNames();
+        writeVarint(names.length);
+        for (String name : names) {
+            writeString(name);
+        }
+        writeVarint(statements.size());
+        for (Node statement : statements) {
+            writeNode(statement);
+        }
+        return Arrays.copyOf(bytes, count);
+    }
+
+    private void writeNode(Node node){
+        if (node instanceof NumberNode) {
+            writeHeader(NUMBER, node);
+            long bits = Double.doubleToRawLongBits(((NumberNode) node).getValue());
+            writeInt((int) (bits >>> 32));
+            writeInt((int) bits);
+        } else if (node instanceof StringNode) {
+            writeHeader(STRING, node);
+            writeString(((StringNode) node).getString());
+        } else if (node instanceof BooleanNode) {
+            writeHeader(BOOLEAN, node);
+            write(((BooleanNode) node).getValue() ? 1 : 0);
+        } else if (node instanceof VariableNode) {
+            writeHeader(VARIABLE, node);
+            writeVarint(((VariableNode) node).getSlot());
+        } else if (node instanceof ConcatNode) {
+            ConcatNode concat = (ConcatNode) node;
+            writeHeader(CONCAT, node);
+            writeVarint(concat.getPartCount());
+            for (int i = 0; i < concat.getPartCount(); i++) {
+                writeNode(concat.getPart(i));
+            }
+        } else if (node instanceof BinaryOpNode) {
+            BinaryOpNode binary = (BinaryOpNode) node;
+            writeHeader(BINARY, node);
+            write(operatorIndex(binary.getOperator()));
+            writeNode(binary.getLeft());
+            writeNode(binary.getRight());
+        } else if (node instanceof AssignNode) {
+            AssignNode assign = (AssignNode) node;
+            writeHeader(ASSIGN, node);
+            writeVarint(assign.getSlot());
+            writeNode(assign.getExpression());
+        } else if (node instanceof PrintNode) {
+            writeHeader(PRINT, node);
+            writeNode(((PrintNode) node).getExpression());
+        } else if (node instanceof IfNode) {
+            IfNode ifNode = (IfNode) node;
+            writeHeader(IF, node);
+            writeNode(ifNode.getCondition());
+            writeBlock(ifNode.getThenBranch());
+            writeBlock(ifNode.getElseBranch());
+        } else if (node instanceof WhileNode) {
+            WhileNode whileNode = (WhileNode) node;
+            writeHeader(WHILE, node);
+            writeNode(whileNode.getCondition());
+            writeBlock(whileNode.getBody());
+        } else {
+            throw new RuntimeException("No desconhecido: " + node);
+        }
+    }
+
+    private void writeBlock(List<Node> statements){
+        writeVarint(statements.size());
+        for (Node statement : statements) {
+            writeNode(statement);
+        }
+    }
+
+    private static int operatorIndex(String operator){
+        for (int i = 0; i < OPERATORS.length; i++) {
+            if (OPERATORS[i].equals(operator)) {
+                return i;
+            }
+        }
+        throw new RuntimeException("Operador desconhecido: " + operator);
+    }
+
+    private void writeHeader(byte tag, Node node){
+        write(tag);
+        writeVarint(node.getPosition() + 1);
+    }
+
+    private void writeString(String value){
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(utf8.length);
+        ensure(utf8.length);
+        System.arraycopy(utf8, 0, bytes, count, utf8.length);
+        count += utf8.length;
+    }
+
+    private void writeVarint(int value){
+        while ((value & ~0x7F) != 0) {
+            write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        write(value);
+    }
+
+    private void writeInt(int value){
+        write(value >>> 24);
+        write(value >>> 16);
+        write(value >>> 8);
+        write(value);
+    }
+
+    private void write(int value){
+        ensure(1);
+        bytes[count++] = (byte) value;
+    }
+
+    private void ensure(int extra){
+        if (count + extra > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, count + extra));
+        }
+    }
+
+    // --- Leitura ---
+
+    /**
+     * Reconstrói um programa serializado por {@link #encode}.
+     * @param buffer Os bytes, do position() ao limit().
+     * @return A lista de instruções, com os slots das variáveis preenchidos.
+     * @throws IllegalArgumentException Se os bytes não forem um programa válido.
+    */
+    public static List<Node> decode(ByteBuffer buffer){
+        try {
+            if (buffer.getInt() != MAGIC || readVarint(buffer) != FORMAT) {
+                throw new IllegalArgumentException("Formato de programa desconhecido.");
+            }
+            String[] names = new String[readVarint(buffer)];
+            for (int i = 0; i < names.length; i++) {
+                names[i] = readString(buffer);
+            }
+            int size = readVarint(buffer);
+            List<Node> statements = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                statements.add(readNode(buffer, names));
+            }
+            if (buffer.hasRemaining()) {
+                throw new IllegalArgumentException("Bytes sobrando no fim do programa.");
+            }
+            return statements;
+        } catch (RuntimeException e) {
+            // Buffer truncado, slot fora dos limites, etc.
+            if (e instanceof IllegalArgumentException) {
+                throw e;
+            }
+            throw new IllegalArgumentException("Programa serializado invalido: " + e, e);
+        }
+    }
+
+    private static Node readNode(ByteBuffer buffer, String[] names){
+        byte tag = buffer.get();
+        int position = readVarint(buffer) - 1;
+        Node node = readBody(tag, buffer, names);
+        node.setPosition(position);
+        return node;
+    }
+
+    private static Node readBody(byte tag, ByteBuffer buffer, String[] names){
+        switch (tag) {
+            case NUMBER:
+                return new NumberNode(buffer.getDouble());
+            case STRING:
+                return new StringNode(readString(buffer));
+            case BOOLEAN:
+                return new BooleanNode(buffer.get() != 0);
+            case VARIABLE: {
+                int slot = readVarint(buffer);
+                VariableNode variable = new VariableNode(names[slot]);
+                variable.setSlot(slot);
+                return variable;
+            }
+            case BINARY: {
+                String operator = OPERATORS[buffer.get()];
+                Node left = readNode(buffer, names);
+                Node right = readNode(buffer, names);
+                return new BinaryOpNode(left, operator, right);
+            }
+            case CONCAT: {
+                int count = readVarint(buffer);
+                if (count < 3 || count > buffer.remaining()) {
+                    throw new IllegalArgumentException("Soma encadeada invalida.");
+                }
+                Node[] parts = new Node[count];
+                for (int i = 0; i < count; i++) {
+                    parts[i] = readNode(buffer, names);
+                }
+                return ConcatNode.of(parts);
+            }
+            case ASSIGN: {
+                int slot = readVarint(buffer);
+                AssignNode assign = new AssignNode(names[slot], readNode(buffer, names));
+                assign.setSlot(slot);
+                return assign;
+            }
+            case PRINT:
+                return new PrintNode(readNode(buffer, names));
+            case IF: {
+                Node condition = readNode(buffer, names);
+                List<Node> thenBranch = readBlock(buffer, names);
+                return new IfNode(condition, thenBranch, readBlock(buffer, names));
+            }
+            case WHILE: {
+                Node condition = readNode(buffer, names);
+                return new WhileNode(condition, readBlock(buffer, names));
+            }
+            default:
+                throw new IllegalArgumentException("Tipo de no desconhecido: " + tag);
+        }
+    }
+
+    private static List<Node> readBlock(ByteBuffer buffer, String[] names){
+        int size = readVarint(buffer);
+        if (size > buffer.remaining()) {
+            throw new IllegalArgumentException("Bloco maior que o programa.");
+        }
+        List<Node> statements = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            statements.add(readNode(buffer, names));
+        }
+        return statements;
+    }
+
+    private static String readString(ByteBuffer buffer){
+        int length = readVarint(buffer);
+        if (length > buffer.remaining()) {
+            throw new IllegalArgumentException("String maior que o programa.");
+        }
+        String value;
+        if (buffer.hasArray()) {
+            value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        } else {
+            value = TokenBuffer.decode(buffer, buffer.position(), length);
+        }
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static int readVarint(ByteBuffer buffer){
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Varint invalido.");
+    }
+}
@@ -0,0 +1,469 @@
+package core;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import language.NumberLiteral;
+import language.Token;
+import language.TokenBuffer;
+import language.TokenSource;
+import language.TokenType;
+import metrics.LexEvent;
+import metrics.Metrics;
+
+/**
+ * Analisador Léxico que trabalha direto sobre os bytes do arquivo.
+ * Produz os mesmos tokens que o {@link Lexer}, mas lê um ByteBuffer em UTF-8
+ * (tipicamente o arquivo mapeado em memória por {@link #map(Path)}) em vez de
+ * uma String, então o código nunca é copiado inteiro para o heap.
+ *
+ * Os caracteres ASCII são classificados por uma tabela, e sequências de
+ * espaços são puladas de 8 em 8 bytes. O UTF-8 só é decodificado dentro de
+ * strings literais e, raramente, quando aparece um caractere não ASCII fora delas.
+ * As posições nas mensagens de erro são contadas em bytes.
+*/
+
+public class ByteLexer implements TokenSource {
+
+    // --- Classes de caracteres ASCII ---
+    private static final byte OTHER = 0;
+    private static final byte SPACE = 1;
+    private static final byte LETTER = 2; // letras e '_'
+    private static final byte DIGIT = 3;
+    private static final byte QUOTE = 4;
+    private static final byte SYMBOL = 5; // operadores e símbolos
+
+    private static final byte[] CLASSES = new byte[128];
+    private static final TokenType[] SYMBOLS = new TokenType[128];
+    // O token de cada símbolo quando seguido de '=' (ex: '<' e "<="), ou null
+    private static final TokenType[] SYMBOLS_WITH_EQUAL = new TokenType[128];
+
+    /** Oito espaços seguidos, lidos como um único long. */
+    private static final long EIGHT_SPACES = 0x2020202020202020L;
+
+    static {
+        // Os mesmos caracteres ASCII que Character.isWhitespace aceita.
+        for (char c : new char[] {' ', '\t', '\n', '\u000B', '\f', '\r', '\u001C', '\u001D', '\u001E', '\u001F'}) {
+            CLASSES[c] = SPACE;
+        }
+        for (char c = 'a'; c <= 'z'; c++) {
+            CLASSES[c] = LETTER;
+        }
+        for (char c = 'A'; c <= 'Z'; c++) {
+            CLASSES[c] = LETTER;
+        }
+        CLASSES['_'] = LETTER;
+        for (char c = '0'; c <= '9'; c++) {
+            CLASSES[c] = DIGIT;
+        }
+        CLASSES['"'] = QUOTE;
+
+        SYMBOLS['='] = TokenType.EQUAL;
+        SYMBOLS['+'] = TokenType.PLUS;
+        SYMBOLS['-'] = TokenType.MINUS;
+        SYMBOLS['*'] = TokenType.MULTIPLY;
+        SYMBOLS['/'] = TokenType.DIVIDE;
+        SYMBOLS[';'] = TokenType.SEMICOLON;
+        SYMBOLS['<'] = TokenType.LESS;
+        SYMBOLS['>'] = TokenType.GREATER;
+        SYMBOLS['{'] = TokenType.LEFT_BRACE;
+        SYMBOLS['}'] = TokenType.RIGHT_BRACE;
+        SYMBOLS_WITH_EQUAL['='] = TokenType.EQUAL_EQUAL;
+        SYMBOLS_WITH_EQUAL['!'] = TokenType.BANG_EQUAL; // '!' sozinho não é um token
+        SYMBOLS_WITH_EQUAL['<'] = TokenType.LESS_EQUAL;
+        SYMBOLS_WITH_EQUAL['>'] = TokenType.GREATER_EQUAL;
+        for (int c = 0; c < SYMBOLS.length; c++) {
+            if (SYMBOLS[c] != null || SYMBOLS_WITH_EQUAL[c] != null) {
+                CLASSES[c] = SYMBOL;
+            }
+        }
+    }
+
+    private final ByteBuffer source; //codigo a ser tokenizado, em UTF-8
+    private final int limit;         //fim do codigo no buffer
+    private int position;            //posicao atual, em bytes
+
+    // Posição e tamanho do último token reconhecido por scan()
+    private int tokenStart;
+    private int tokenLength;
+    // Valor do último número reconhecido, calculado a partir dos dígitos
+    private double tokenNumber;
+
+    // Onde tokenize() registra o tempo e o tamanho da análise (null: não mede)
+    private Metrics metrics;
+
+    /**
+     * Cria o Lexer sobre um buffer com o código em UTF-8, do position() ao limit().
+     * @param source O código fonte. O buffer em si não é alterado.
+    */
+    public ByteLexer(ByteBuffer source){
+        this.source = source.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        this.position = source.position();
+        this.limit = source.limit();
+    }
+
+    public ByteLexer(byte[] source){
+        this(ByteBuffer.wrap(source));
+    }
+
+    /**
+     * Mapeia um arquivo em memória e cria um Lexer sobre ele.
+     * O sistema operacional carrega as páginas sob demanda, sem cópia para o heap.
+     * @param path O arquivo com o código fonte (até 2 GB).
+    */
+    public static ByteLexer map(Path path) throws IOException {
+        return new ByteLexer(mapFile(path));
+    }
+
+    /**
+     * Mapeia um arquivo em memória, somente leitura.
+     * @param path O arquivo com o código fonte (até 2 GB).
+     * @return Um buffer com o conteúdo do arquivo.
+    */
+    public static ByteBuffer mapFile(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Arquivo maior que 2 GB nao pode ser mapeado: " + path);
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+    }
+
+
+    /**
+     * Tokeniza o código inteiro em uma lista de Tokens, como {@link Lexer#tokenize()}.
+     * @return Uma lista de Tokens.
+     */
+    public List<Token> tokenize(){
+        LexEvent event = new LexEvent();
+        event.begin();
+        Metrics.Mark mark = metrics == null ? null : metrics.start();
+        int start = position;
+
+        List<Token> tokens = new ArrayList<>();
+        Token token;
+        while ((token = nextToken()) != null) {
+            tokens.add(token);
+        }
+
+        if (mark != null) {
+            metrics.lexed(mark, position - start, tokens.size());
+        }
+        if (event.shouldCommit()) {
+            event.input = position - start;
+            event.tokens = tokens.size();
+            event.commit();
+        }
+        return tokens;
+    }
+
+
+    /**
+     * Liga a medição de {@link #tokenize()}: tempo, bytes e tokens.
+     * @param metrics Onde registrar, ou null para não medir.
+     */
+    public void setMetrics(Metrics metrics){
+        this.metrics = metrics;
+    }
+
+
+    /**
+     * Tokeniza o código inteiro em um {@link TokenBuffer} que aponta para os bytes.
+     * @return Os tokens em formato compacto.
+     */
+    public TokenBuffer tokenizePacked(){
+        TokenBuffer buffer = new TokenBuffer(source);
+        TokenType type;
+        while ((type = scan()) != null) {
+            buffer.add(type, tokenStart, tokenLength);
+        }
+
+        return buffer;
+    }
+
+
+    /**
+     * Gera apenas o próximo token.
+     * @return O próximo Token, ou null no fim do código.
+     */
+    @Override
+    public Token nextToken(){
+        TokenType type = scan();
+        if (type == null) {
+            return null;
+        }
+
+        String lexeme = type.lexeme();
+        if (lexeme == null) {
+            lexeme = TokenBuffer.decode(source, tokenStart, tokenLength);
+        }
+        // A posição de uma string é a das aspas iniciais
+        int start = type == TokenType.STRING ? tokenStart - 1 : tokenStart;
+        return new Token(type, lexeme, tokenNumber, start);
+    }
+
+
+    /**
+     * Reconhece o próximo token sem materializar seu texto.
+     * A posição e o tamanho ficam em tokenStart e tokenLength.
+     * @return O tipo do token reconhecido, ou null no fim do código.
+     */
+    private TokenType scan(){
+        while (position < limit) {
+            int b = source.get(position);
+
+            if (b < 0) {
+                // Caractere não ASCII fora de uma string: caminho lento.
+                int codePoint = codePointAt(position);
+                if (Character.isWhitespace(codePoint)) {
+                    position += utf8Length(b);
+                    continue;
+                }
+                if (Character.isLetter(codePoint)) {
+                    return tokenizeWord();
+                }
+                String symbol = codePoint < 0 ? "(UTF-8 invalido)" : new String(Character.toChars(codePoint));
+                throw new RuntimeException("Simbolo invalido -> " + symbol + " na posicao " + position);
+            }
+
+            switch (CLASSES[b]) {
+                case SPACE:
+                    skipWhitespace();
+                    continue;
+                case LETTER:
+                    return tokenizeWord();
+                case DIGIT:
+                    return tokenizeNumber();
+                case QUOTE:
+                    return tokenizeString();
+                case SYMBOL:
+                    return tokenizeSymbol(b);
+                default:
+                    throw new RuntimeException("Simbolo invalido -> " + (char) b + " na posicao " + position);
+            }
+        }
+
+        return null;
+    }
+
+
+    // --- Métodos Auxiliares de Tokenizaçao ---
+
+
+    /**
+     * Pula uma sequência de espaços em branco ASCII.
+     * Blocos de oito espaços (indentação) são comparados de uma vez só.
+    */
+    private void skipWhitespace(){
+        while (position + 8 <= limit && source.getLong(position) == EIGHT_SPACES) {
+            position += 8;
+        }
+        while (position < limit) {
+            int b = source.get(position);
+            if (b < 0 || CLASSES[b] != SPACE) {
+                return;
+            }
+            position++;
+        }
+    }
+
+
+    /**
+     * Reconhece um operador ou símbolo de um caractere, ou de dois quando o
+     * segundo é '=' (como "==" e "<=").
+    */
+    private TokenType tokenizeSymbol(int b){
+        tokenStart = position++;
+        tokenLength = 1;
+        TokenType withEqual = SYMBOLS_WITH_EQUAL[b];
+        if (withEqual != null && position < limit && source.get(position) == '=') {
+            position++;
+            tokenLength = 2;
+            return withEqual;
+        }
+        if (SYMBOLS[b] == null) {
+            throw new RuntimeException("Simbolo invalido -> " + (char) b + " na posicao " + tokenStart);
+        }
+        return SYMBOLS[b];
+    }
+
+
+    /**
+     * Agrupa letras, dígitos e '_' em uma palavra e decide se é palavra-chave ou identificador.
+    */
+    private TokenType tokenizeWord(){
+        tokenStart = position;
+
+        while (position < limit) {
+            int b = source.get(position);
+            if (b >= 0) {
+                byte kind = CLASSES[b];
+                if (kind != LETTER && kind != DIGIT) {
+                    break;
+                }
+                position++;
+            } else {
+                if (!Character.isLetterOrDigit(codePointAt(position))) {
+                    break;
+                }
+                position += utf8Length(b);
+            }
+        }
+
+        tokenLength = position - tokenStart;
+
+        // Só compara com as palavras-chave que têm a mesma primeira letra.
+        switch (source.get(tokenStart)) {
+            case 'p':
+                return isWord("print") ? TokenType.PRINT : TokenType.IDENTIFIER;
+            case 'v':
+                return isWord("var") ? TokenType.VAR : TokenType.IDENTIFIER;
+            case 't':
+                return isWord("true") ? TokenType.TRUE : TokenType.IDENTIFIER;
+            case 'f':
+                return isWord("false") ? TokenType.FALSE : TokenType.IDENTIFIER;
+            case 'i':
+                return isWord("if") ? TokenType.IF : TokenType.IDENTIFIER;
+            case 'e':
+                return isWord("else") ? TokenType.ELSE : TokenType.IDENTIFIER;
+            case 'w':
+                return isWord("while") ? TokenType.WHILE : TokenType.IDENTIFIER;
+            default:
+                return TokenType.IDENTIFIER;
+        }
+    }
+
+
+    /**
+     * Verifica se a palavra recém reconhecida é igual a 'keyword' (ASCII).
+    */
+    private boolean isWord(String keyword){
+        if (tokenLength != keyword.length()) {
+            return false;
+        }
+        for (int i = 0; i < tokenLength; i++) {
+            if (source.get(tokenStart + i) != keyword.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * Agrupa uma sequencia de digitos (e, se houver, um ponto seguido de mais
+     * digitos) para formar um número, montando o valor durante a leitura.
+    */
+    private TokenType tokenizeNumber(){
+        tokenStart = position;
+        long significand = 0;
+        int scale = 0;
+
+        while (position < limit && isDigit(position)) {
+            significand = addDigit(significand, source.get(position++));
+        }
+
+        // Parte decimal: o ponto só faz parte do número se vier um dígito depois dele.
+        if (position + 1 < limit && source.get(position) == '.' && isDigit(position + 1)) {
+            position++;
+            while (position < limit && isDigit(position)) {
+                significand = addDigit(significand, source.get(position++));
+                scale++;
+            }
+        }
+
+        tokenLength = position - tokenStart;
+        tokenNumber = NumberLiteral.exact(significand, scale);
+        if (Double.isNaN(tokenNumber)) {
+            tokenNumber = NumberLiteral.parse(TokenBuffer.decode(source, tokenStart, tokenLength));
+        }
+        return TokenType.NUMBER;
+    }
+
+
+    private boolean isDigit(int index){
+        int b = source.get(index);
+        return b >= 0 && CLASSES[b] == DIGIT;
+    }
+
+
+    /**
+     * Acrescenta um dígito ASCII ao significando; -1 marca um significando
+     * que não coube em um long.
+    */
+    private static long addDigit(long significand, int digit){
+        if (significand < 0 || significand > NumberLiteral.MAX_SIGNIFICAND) {
+            return -1;
+        }
+        return significand * 10 + (digit - '0');
+    }
+
+
+    /**
+     * Agrupa os bytes entre aspas duplas. O byte '"' nunca aparece dentro
+     * de um caractere UTF-8 de vários bytes, então basta procurá-lo.
+    */
+    private TokenType tokenizeString(){
+        position++; //para pular as aspas iniciais
+        tokenStart = position;
+
+        while (position < limit && source.get(position) != '"') {
+            position++;
+        }
+
+        if (position >= limit) {
+            throw new RuntimeException("String nao terminada na posicao " + (tokenStart - 1));
+        }
+
+        tokenLength = position - tokenStart;
+        position++; //pula aspas final
+        return TokenType.STRING;
+    }
+
+
+    /**
+     * Decodifica o caractere UTF-8 que começa em 'index'.
+     * Sequências inválidas viram -1, que não é letra nem espaço.
+    */
+    private int codePointAt(int index){
+        int b = source.get(index) & 0xFF;
+        int length = utf8Length((byte) b);
+        if (length == 1 || index + length > limit) {
+            return -1;
+        }
+
+        int codePoint = b & (0xFF >> (length + 1));
+        for (int i = 1; i < length; i++) {
+            int next = source.get(index + i) & 0xFF;
+            if ((next & 0xC0) != 0x80) {
+                return -1;
+            }
+            codePoint = (codePoint << 6) | (next & 0x3F);
+        }
+        return codePoint;
+    }
+
+
+    /**
+     * Quantos bytes ocupa o caractere UTF-8 que começa com o byte 'first'.
+    */
+    private static int utf8Length(int first){
+        first &= 0xFF;
+        if (first >= 0xF0) {
+            return 4;
+        }
+        if (first >= 0xE0) {
+            return 3;
+        }
+        if (first >= 0xC0) {
+            return 2;
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,96 @@
+package core;
+import java.util.Arrays;
+
+/**
+ * Os valores das variáveis de uma execução, um por slot.
+ *
+ * Usa a mesma representação do Interpreter: os números ficam em um array de
+ * double, sem serem encaixotados, e o array de objetos guarda {@link #NUMBER}
+ * no slot correspondente. O Interpreter trabalha direto sobre estes arrays,
+ * então quem mantém um Environment (uma {@link Execution}, os Bindings do
+ * motor javax.script) lê e escreve as variáveis sem nenhuma cópia.
+*/
+
+public class Environment {
+
+    /** Marca, em {@link #values}, um slot cujo valor está em {@link #numbers}. */
+    static final Object NUMBER = new Object();
+
+    Object[] values;
+    double[] numbers;
+
+    public Environment(){
+        this(0);
+    }
+
+    /**
+     * @param slots Quantos slots reservar de início.
+    */
+    public Environment(int slots){
+        values = new Object[slots];
+        numbers = new double[slots];
+    }
+
+    /**
+     * Garante que o ambiente tem pelo menos 'slots' posições.
+    */
+    public void reserve(int slots){
+        if (values.length < slots) {
+            int capacity = Math.max(slots, values.length * 2);
+            values = Arrays.copyOf(values, capacity);
+            numbers = Arrays.copyOf(numbers, capacity);
+        }
+    }
+
+    /**
+     * Quantidade de slots disponíveis.
+    */
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * Valor de um slot, com os números encaixotados em Double, os textos
+     * como String (nunca o {@link Rope} usado pelo Interpreter) e os
+     * booleanos como Boolean.
+     * @return O valor, ou null se o slot ainda não recebeu nenhum.
+    */
+    public Object get(int slot){
+        if (slot >= values.length) {
+            return null;
+        }
+        Object value = values[slot];
+        if (value == NUMBER) {
+            return numbers[slot];
+        }
+        return value instanceof Rope ? value.toString() : value;
+    }
+
+    public void set(int slot, double value){
+        reserve(slot + 1);
+        values[slot] = NUMBER;
+        numbers[slot] = value;
+    }
+
+    public void set(int slot, boolean value){
+        reserve(slot + 1);
+        values[slot] = value ? Boolean.TRUE : Boolean.FALSE;
+    }
+
+    public void set(int slot, String value){
+        if (value == null) {
+            throw new RuntimeException("Valor nulo no slot " + slot + ".");
+        }
+        reserve(slot + 1);
+        values[slot] = value;
+    }
+
+    /**
+     * Esvazia um slot: ler a variável volta a ser um erro.
+    */
+    public void clear(int slot){
+        if (slot < values.length) {
+            values[slot] = null;
+        }
+    }
+}
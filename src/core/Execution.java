@@ -0,0 +1,119 @@
+package core;
+import metrics.Metrics;
+import metrics.Profiler;
+import metrics.StatementCounts;
+
+/**
+ * Uma execução de um {@link Program}: os valores das variáveis e a saída.
+ *
+ * Criar uma Execution custa apenas os arrays do ambiente, então o normal é
+ * criar uma por execução (ou uma por thread). Uma Execution não é
+ * thread-safe, mas o Program que ela executa é, e pode ser compartilhado.
+*/
+
+public class Execution {
+    private final Program program;
+    private final Interpreter interpreter;
+    private final Environment variables;
+
+    Execution(Program program, Interpreter interpreter, Environment variables){
+        this.program = program;
+        this.interpreter = interpreter;
+        this.variables = variables;
+    }
+
+    public Program getProgram() {
+        return program;
+    }
+
+    public Environment getVariables() {
+        return variables;
+    }
+
+    /**
+     * Desliga (ou religa) o eco das atribuições, como em {@link Interpreter#setEchoAssignments(boolean)}.
+    */
+    public Execution setEchoAssignments(boolean echoAssignments){
+        interpreter.setEchoAssignments(echoAssignments);
+        return this;
+    }
+
+    /**
+     * Mede as execuções, como em {@link Interpreter#setMetrics(Metrics)}.
+     * O mesmo Metrics pode ser usado por várias Executions ao mesmo tempo.
+    */
+    public Execution setMetrics(Metrics metrics){
+        interpreter.setMetrics(metrics);
+        return this;
+    }
+
+    /**
+     * Conta as execuções de cada instrução, como em {@link Interpreter#setStatementCounts(StatementCounts)}.
+     * Cada Execution precisa do seu StatementCounts.
+    */
+    public Execution setStatementCounts(StatementCounts counts){
+        interpreter.setStatementCounts(counts);
+        return this;
+    }
+
+    /**
+     * Mede o tempo de cada instrução e expressão, como em {@link Interpreter#setProfiler(Profiler)}.
+     * Cada Execution precisa do seu Profiler.
+    */
+    public Execution setProfiler(Profiler profiler){
+        interpreter.setProfiler(profiler);
+        return this;
+    }
+
+    /**
+     * Atribui um número a uma variável do programa (normalmente uma entrada).
+    */
+    public Execution set(String name, double value){
+        variables.set(slot(name), value);
+        return this;
+    }
+
+    /**
+     * Atribui um texto a uma variável do programa (normalmente uma entrada).
+    */
+    public Execution set(String name, String value){
+        variables.set(slot(name), value);
+        return this;
+    }
+
+    /**
+     * Atribui um booleano a uma variável do programa (normalmente uma entrada).
+    */
+    public Execution set(String name, boolean value){
+        variables.set(slot(name), value);
+        return this;
+    }
+
+    /**
+     * Valor atual de uma variável: um Double, uma String, um Boolean, ou null
+     * se ela ainda não recebeu nenhum valor.
+    */
+    public Object get(String name){
+        return variables.get(slot(name));
+    }
+
+    /**
+     * Executa o programa. Os erros são reportados na saída de erros, como no
+     * Interpreter; ler uma entrada que não recebeu valor é um erro de execução.
+     * A mesma Execution pode rodar de novo; as variáveis começam com os valores
+     * deixados pela execução anterior (e pelos set feitos entre uma e outra).
+     * @return true se o programa terminou sem erros.
+    */
+    public boolean run(){
+        variables.reserve(program.getSlotCount());
+        return interpreter.run(program.getStatements(), variables);
+    }
+
+    private int slot(String name){
+        int slot = program.slotOf(name);
+        if (slot < 0) {
+            throw new RuntimeException("Variavel desconhecida '" + name + "'.");
+        }
+        return slot;
+    }
+}
@@ -1,15 +1,27 @@
 package core;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 
 import ast.AssignNode;
 import ast.BinaryOpNode;
+import ast.BooleanNode;
+import ast.ConcatNode;
+import ast.FlatAst;
+import ast.IfNode;
 import ast.Node;
 import ast.NumberNode;
 import ast.PrintNode;
 import ast.StringNode;
+import ast.Type;
 import ast.VariableNode;
+import ast.WhileNode;
+import metrics.ExecuteEvent;
+import metrics.Metrics;
+import metrics.Profiler;
+import metrics.StatementCounts;
+import output.NumberText;
+import output.OutputSink;
+import output.PrintStreamSink;
 
 /**
  * O Interpretador.
@@ -20,112 +32,911 @@ import ast.VariableNode;
 
 public class Interpreter {
     
+    /**
+     * Marcador retornado por evaluate quando o resultado é um número.
+     * O valor em si fica no registrador {@link #number}, sem ser encaixotado
+     * em um Double, então expressões puramente numéricas não alocam nada.
+     * É o mesmo marcador que o {@link Environment} usa nos slots numéricos.
+    */
+    private static final Object NUMBER = Environment.NUMBER;
+
+    /**
+     * Registrador com o valor do último resultado numérico de evaluate.
+     * Só é válido logo depois de evaluate retornar {@link #NUMBER}.
+    */
+    private double number;
+
     /**
      * A "tabela de símbolos" ou ambiente.
-     * Armazena as variáveis e seus respectivos valores durante a execução.
+     * Armazena os valores das variáveis durante a execução, cada uma no
+     * índice (slot) atribuído pelo Resolver. Variáveis numéricas guardam
+     * {@link #NUMBER} aqui e o valor em {@link #numbers}, no mesmo slot.
+    */
+    private Object[] environment = new Object[0];
+    private double[] numbers = new double[0];
+
+    /**
+     * Atribui os slots das variáveis. É mantido entre chamadas de interpret,
+     * para que as variáveis de uma chamada continuem visíveis na próxima.
+    */
+    private final Resolver resolver = new Resolver();
+
+    /**
+     * Para onde vão os print e o eco das atribuições.
+    */
+    private final OutputSink out;
+
+    /**
+     * Para onde vão as mensagens de erro.
     */
-    private final Map<String, Object> environment = new HashMap<>();
+    private final OutputSink errors;
+
+    /**
+     * Se as atribuições devem imprimir "nome = valor" (o comportamento original).
+    */
+    private boolean echoAssignments = true;
+
+    /**
+     * Onde registrar o tempo e as instruções de cada execução (null: não mede).
+    */
+    private Metrics metrics;
+
+    /**
+     * Quantas vezes cada instrução foi executada (null: não conta).
+    */
+    private StatementCounts counts;
+
+    /**
+     * Mede o tempo de cada instrução e expressão (null: não mede).
+    */
+    private Profiler profiler;
+
+    /**
+     * Instruções executadas desde {@link #startExecution(ExecuteEvent)}, contando
+     * também as de dentro dos blocos, uma vez a cada repetição de um while.
+    */
+    private long executed;
+
+    public Interpreter(){
+        this(new PrintStreamSink());
+    }
+
+    /**
+     * @param out O destino da saída do programa. Se for uma saída em lotes,
+     * o Interpreter a esvazia ao terminar e antes de reportar um erro.
+    */
+    public Interpreter(OutputSink out){
+        this(out, new PrintStreamSink(System.err));
+    }
+
+    /**
+     * @param out O destino da saída do programa.
+     * @param errors O destino das mensagens de erro. Pode ser o mesmo que 'out',
+     * para que a saída e os erros cheguem juntos e na ordem certa.
+    */
+    public Interpreter(OutputSink out, OutputSink errors){
+        this.out = out;
+        this.errors = errors;
+    }
+
+    /**
+     * Liga ou desliga o eco "nome = valor" das atribuições.
+    */
+    public void setEchoAssignments(boolean echoAssignments){
+        this.echoAssignments = echoAssignments;
+    }
+
+    /**
+     * Liga a medição das execuções: tempo, instruções executadas e alocação.
+     * Os eventos do JDK Flight Recorder ({@link ExecuteEvent}) não dependem disto.
+     * @param metrics Onde registrar, ou null para não medir.
+    */
+    public void setMetrics(Metrics metrics){
+        this.metrics = metrics;
+    }
+
+    /**
+     * Liga a contagem de execuções por instrução.
+     * @param counts Onde contar, ou null para não contar.
+    */
+    public void setStatementCounts(StatementCounts counts){
+        this.counts = counts;
+    }
+
+    /**
+     * Liga o profiler do script: o tempo de cada instrução e de cada expressão
+     * avaliada passa a ser medido e atribuído à posição do nó no código fonte.
+     * As expressões que a inferência de tipos já marcou como numéricas (em um
+     * {@link Program}) são medidas inteiras, sem as subexpressões.
+     * @param profiler Onde medir, ou null para não medir.
+    */
+    public void setProfiler(Profiler profiler){
+        this.profiler = profiler;
+    }
+
+    /**
+     * Esvazia a saída, para que o que o programa já imprimiu apareça antes
+     * de uma mensagem de erro ou do fim da execução.
+    */
+    public void flush(){
+        out.flush();
+    }
+
+    /**
+     * Reporta um erro depois de esvaziar a saída, para que ele apareça
+     * depois de tudo o que o programa já imprimiu.
+     * @param message A mensagem completa (ex: "Erro de sintaxe ...").
+    */
+    public void reportError(String message){
+        out.flush();
+        errors.println(message);
+        errors.flush();
+    }
 
     /**
      * Método público que inicia a interpretação de uma lista de instruções (a AST).
+     * Antes de executar, o Resolver atribui os slots e verifica as variáveis indefinidas.
      * @param statements A lista de nós raiz da AST.
     */
     public void interpret(List<Node> statements){
+        try{
+            resolver.resolve(statements);
+        }catch (RuntimeException e){
+            reportError("Erro de resolucao " + e.getMessage());
+            return;
+        }
+
+        growEnvironment();
+
+        ExecuteEvent event = new ExecuteEvent();
+        Metrics.Mark mark = startExecution(event);
+        boolean completed = false;
+        try{
+            for (Node statement : statements){
+                execute(statement);
+            }
+            completed = true;
+        }catch (RuntimeException e){
+            reportError("Erro de execussao " + e.getMessage());
+        }
+        flush();
+        endExecution(event, mark, completed);
+    }
+
+    /**
+     * Executa as instruções à medida que o Parser as produz, sem esperar o
+     * programa inteiro: a primeira saída aparece assim que a primeira instrução
+     * é analisada, e a AST nunca é guardada inteira na memória.
+     * Cada instrução é resolvida logo antes de ser executada.
+     * @param parser O Parser de onde as instruções são puxadas.
+    */
+    public void interpret(Parser parser){
+        // O tempo medido inclui a análise, que aqui é intercalada com a execução.
+        ExecuteEvent event = new ExecuteEvent();
+        Metrics.Mark mark = startExecution(event);
+        boolean completed = false;
+        try {
+            while (true) {
+                Node statement;
+                try{
+                    if (!parser.hasNext()) {
+                        completed = true;
+                        return;
+                    }
+                    statement = parser.parseNext();
+                }catch (RuntimeException e){
+                    reportError("Erro de sintaxe " + e.getMessage());
+                    return;
+                }
+
+                if (!interpretStatement(statement)) {
+                    return;
+                }
+            }
+        } finally {
+            flush();
+            endExecution(event, mark, completed);
+        }
+    }
+
+    /**
+     * Resolve e executa uma única instrução.
+     * Os erros são reportados da mesma forma que em interpret. A saída só é
+     * esvaziada antes de um erro; quem chama decide quando chamar {@link #flush()}.
+     * @param statement O nó raiz da instrução.
+     * @return true se a instrução foi executada, false se houve um erro.
+    */
+    public boolean interpretStatement(Node statement){
+        try{
+            resolver.resolve(statement);
+        }catch (RuntimeException e){
+            reportError("Erro de resolucao " + e.getMessage());
+            return false;
+        }
+
+        growEnvironment();
+
+        try{
+            execute(statement);
+        }catch (RuntimeException e){
+            reportError("Erro de execussao " + e.getMessage());
+            return false;
+        }
+        return true;
+    }
+
+    // --- Execução de um Program já resolvido (usado por Execution) ---
+
+    /**
+     * Executa instruções cujos slots já foram atribuídos, sem passar pelo
+     * Resolver. As instruções não são alteradas, então várias threads podem
+     * executar as mesmas ao mesmo tempo, cada uma com seu Interpreter.
+     * As variáveis são lidas e escritas direto nos arrays de 'variables'.
+     * @param statements As instruções de um {@link Program}.
+     * @param variables O ambiente, já com espaço para todos os slots do programa.
+     * @return true se todas as instruções foram executadas, false se houve um erro.
+    */
+    boolean run(List<Node> statements, Environment variables){
+        environment = variables.values;
+        numbers = variables.numbers;
+        ExecuteEvent event = new ExecuteEvent();
+        Metrics.Mark mark = startExecution(event);
+        boolean completed = false;
         try{
             for (Node statement : statements){
                 execute(statement);
             }
+            completed = true;
+            return true;
         }catch (RuntimeException e){
-            System.err.println("Erro de execussao " + e.getMessage());
+            reportError("Erro de execussao " + e.getMessage());
+            return false;
+        }finally{
+            flush();
+            endExecution(event, mark, completed);
+        }
+    }
+
+    // --- Execução da AST compacta ---
+
+    /**
+     * Executa um programa na forma compacta ({@link FlatAst}), direto dos
+     * arrays, sem montar os Nodes. O resultado, a saída e os erros são os
+     * mesmos de {@link #interpret(List)} com as mesmas instruções. A contagem
+     * por instrução e o profiler não se aplicam a esta forma.
+     * @param program A AST compacta, por exemplo de {@link Parser#parseFlat()}.
+    */
+    public void interpret(FlatAst program){
+        int[] slots;
+        try{
+            slots = resolve(program);
+        }catch (RuntimeException e){
+            reportError("Erro de resolucao " + e.getMessage());
+            return;
+        }
+
+        growEnvironment();
+
+        ExecuteEvent event = new ExecuteEvent();
+        Metrics.Mark mark = startExecution(event);
+        boolean completed = false;
+        try{
+            for (int i = 0; i < program.getStatementCount(); i++){
+                execute(program, slots, program.statement(i));
+            }
+            completed = true;
+        }catch (RuntimeException e){
+            reportError("Erro de execussao " + e.getMessage());
+        }
+        flush();
+        endExecution(event, mark, completed);
+    }
+
+    /**
+     * O equivalente do Resolver para a forma compacta: dá a cada símbolo o
+     * slot da variável no {@link #resolver} (os mesmos slots das outras
+     * chamadas de interpret) e verifica as variáveis indefinidas. Como os nós
+     * estão em pós-ordem, percorrê-los em sequência visita as leituras e as
+     * atribuições na mesma ordem em que o Resolver as visitaria.
+     * @return O slot de cada símbolo do programa.
+    */
+    private int[] resolve(FlatAst program){
+        int[] slots = new int[program.getSymbolCount()];
+        for (int symbol = 0; symbol < slots.length; symbol++) {
+            slots[symbol] = resolver.slotOf(program.getSymbol(symbol));
+        }
+        for (int node = 0; node < program.getNodeCount(); node++) {
+            byte kind = program.kind(node);
+            if (kind == FlatAst.VARIABLE && slots[program.first(node)] < 0) {
+                throw new RuntimeException("Variavel indefinida '" + program.getSymbol(program.first(node)) + "'.");
+            }
+            if (kind == FlatAst.ASSIGN && slots[program.first(node)] < 0) {
+                slots[program.first(node)] = resolver.declare(program.getSymbol(program.first(node)));
+            }
+        }
+        return slots;
+    }
+
+    private void execute(FlatAst program, int[] slots, int statement){
+        executed++;
+        switch (program.kind(statement)) {
+            case FlatAst.ASSIGN: {
+                Object value = evaluate(program, slots, program.second(statement));
+                int slot = slots[program.first(statement)];
+                environment[slot] = value;
+                if (value == NUMBER) {
+                    numbers[slot] = number;
+                }
+                if (echoAssignments) {
+                    out.println(program.getSymbol(program.first(statement)) + " = " + toText(value, number));
+                }
+                return;
+            }
+            case FlatAst.PRINT: {
+                Object value = evaluate(program, slots, program.first(statement));
+                if (value == NUMBER) {
+                    out.println(number);
+                } else {
+                    out.println(toText(value, number));
+                }
+                return;
+            }
+            case FlatAst.WHILE: {
+                int condition = program.first(statement);
+                int body = program.second(statement);
+                while (condition(program, slots, condition)) {
+                    executeBlock(program, slots, body);
+                }
+                return;
+            }
+            case FlatAst.IF:
+                if (condition(program, slots, program.part(statement, 0))) {
+                    executeBlock(program, slots, program.part(statement, 1));
+                } else if (program.second(statement) == 3) {
+                    executeBlock(program, slots, program.part(statement, 2));
+                }
+                return;
+            default:
+                evaluate(program, slots, statement);
+        }
+    }
+
+    private void executeBlock(FlatAst program, int[] slots, int block){
+        int count = program.second(block);
+        for (int i = 0; i < count; i++) {
+            execute(program, slots, program.part(block, i));
+        }
+    }
+
+    /**
+     * A condição de um IF ou WHILE da forma compacta, como {@link #conditionNode(Node)}.
+    */
+    private boolean condition(FlatAst program, int[] slots, int node){
+        if (program.kind(node) == FlatAst.BINARY && FlatAst.isComparison(program.operator(node))) {
+            Object left = evaluate(program, slots, program.first(node));
+            double leftNumber = number;
+            Object right = evaluate(program, slots, program.second(node));
+            return compare(program.operator(node), left, leftNumber, right, number);
+        }
+        return isTrue(evaluate(program, slots, node));
+    }
+
+    /**
+     * Avalia um nó da forma compacta, como {@link #evaluate(Node)}.
+    */
+    private Object evaluate(FlatAst program, int[] slots, int node){
+        switch (program.kind(node)) {
+            case FlatAst.NUMBER:
+                number = program.number(node);
+                return NUMBER;
+
+            case FlatAst.STRING:
+                return program.string(node);
+
+            case FlatAst.BOOLEAN:
+                return program.isTrue(node) ? Boolean.TRUE : Boolean.FALSE;
+
+            case FlatAst.VARIABLE: {
+                int slot = slots[program.first(node)];
+                Object value = environment[slot];
+                if (value == NUMBER) {
+                    number = numbers[slot];
+                } else if (value == null) {
+                    throw new RuntimeException("Variavel '" + program.getSymbol(program.first(node)) + "' sem valor.");
+                }
+                return value;
+            }
+
+            case FlatAst.CONCAT:
+                return concatenate(program, slots, node);
+
+            case FlatAst.BINARY: {
+                Object left = evaluate(program, slots, program.first(node));
+                double leftNumber = number;
+                Object right = evaluate(program, slots, program.second(node));
+                double rightNumber = number;
+                byte operator = program.operator(node);
+
+                if (FlatAst.isComparison(operator)) {
+                    return compare(operator, left, leftNumber, right, rightNumber) ? Boolean.TRUE : Boolean.FALSE;
+                }
+
+                if (left == NUMBER && right == NUMBER) {
+                    switch (operator) {
+                        case FlatAst.ADD:
+                            number = leftNumber + rightNumber;
+                            return NUMBER;
+                        case FlatAst.SUBTRACT:
+                            number = leftNumber - rightNumber;
+                            return NUMBER;
+                        case FlatAst.MULTIPLY:
+                            number = leftNumber * rightNumber;
+                            return NUMBER;
+                        case FlatAst.DIVIDE:
+                            if (rightNumber == 0) {
+                                throw new RuntimeException("Erro: Divisao por zero.");
+                            }
+                            number = leftNumber / rightNumber;
+                            return NUMBER;
+                    }
+                }
+
+                if (operator == FlatAst.ADD && (left instanceof CharSequence || right instanceof CharSequence)) {
+                    StringBuilder text = startText(left, leftNumber);
+                    appendText(text, right, rightNumber);
+                    return new Rope(text);
+                }
+
+                throw new RuntimeException("Operacao invalida '" + FlatAst.operatorText(operator) + "' para os tipos de dados fornecidos.");
+            }
+
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Uma soma encadeada da forma compacta, como {@link #concatenate(ConcatNode)}.
+    */
+    private Object concatenate(FlatAst program, int[] slots, int node){
+        int count = program.second(node);
+        Object value = evaluate(program, slots, program.part(node, 0));
+        double sum = number;
+        int index = 1;
+        StringBuilder text = null;
+        if (value == NUMBER) {
+            while (index < count) {
+                Object part = evaluate(program, slots, program.part(node, index++));
+                if (part != NUMBER) {
+                    if (!(part instanceof CharSequence)) {
+                        // Um booleano somado a um número, antes de qualquer texto
+                        throw new RuntimeException("Operacao invalida '+' para os tipos de dados fornecidos.");
+                    }
+                    text = new StringBuilder();
+                    appendText(text, NUMBER, sum);
+                    appendText(text, part, number);
+                    break;
+                }
+                sum += number;
+            }
+            if (text == null) {
+                number = sum;
+                return NUMBER;
+            }
+        } else if (value instanceof CharSequence) {
+            text = startText(value, sum);
+        } else {
+            // Um booleano só pode ser somado a um texto ("true" + "x")
+            Object part = evaluate(program, slots, program.part(node, index++));
+            if (!(part instanceof CharSequence)) {
+                throw new RuntimeException("Operacao invalida '+' para os tipos de dados fornecidos.");
+            }
+            text = new StringBuilder();
+            appendText(text, value, sum);
+            appendText(text, part, number);
+        }
+
+        int written = text.length();
+        while (index < count) {
+            Object part = evaluate(program, slots, program.part(node, index++));
+            if (text.length() != written) {
+                // Como em concatenate(ConcatNode): a parte continuou o mesmo buffer.
+                text = new StringBuilder(text.substring(0, written));
+            }
+            appendText(text, part, number);
+            written = text.length();
+        }
+        return new Rope(text);
+    }
+
+    // --- Medição ---
+
+    /**
+     * Começa a medir uma execução: o evento do JFR e, se ligadas, as métricas.
+     * @return A marca do começo, ou null se as métricas estão desligadas.
+    */
+    Metrics.Mark startExecution(ExecuteEvent event){
+        executed = 0;
+        event.begin();
+        return metrics == null ? null : metrics.start();
+    }
+
+    /**
+     * Termina a medição começada em {@link #startExecution(ExecuteEvent)},
+     * registrando as instruções executadas desde então, inclusive a que falhou.
+     * @param completed Se todas as instruções foram executadas sem erros.
+    */
+    void endExecution(ExecuteEvent event, Metrics.Mark mark, boolean completed){
+        if (mark != null) {
+            metrics.executed(mark, executed);
+        }
+        if (event.shouldCommit()) {
+            event.statements = executed;
+            event.completed = completed;
+            event.commit();
+        }
+    }
+
+    /**
+     * Garante que o ambiente tem espaço para todos os slots já atribuídos pelo Resolver.
+    */
+    private void growEnvironment(){
+        int slots = resolver.getSlotCount();
+        if (environment.length < slots) {
+            int capacity = Math.max(slots, environment.length * 2);
+            environment = Arrays.copyOf(environment, capacity);
+            numbers = Arrays.copyOf(numbers, capacity);
+        }
+    }
+
+    /**
+     * Avalia uma expressão, medindo-a se o profiler estiver ligado.
+     * @see #evaluateNode(Node)
+    */
+    private Object evaluate(Node expression){
+        if (profiler == null) {
+            return evaluateNode(expression);
+        }
+        profiler.enter(expression);
+        try {
+            return evaluateNode(expression);
+        } finally {
+            profiler.exit();
         }
     }
 
     /**
      * Avalia uma expressão (expression) e retorna seu valor.
      * Expressões, como `10 + 5` ou `x`, sempre produzem um valor.
+     * Números não são encaixotados: quando o resultado é numérico, o método
+     * retorna {@link #NUMBER} e deixa o valor no registrador {@link #number}.
      * @param expression O nó da expressão a ser avaliada.
-     * @return O valor resultante da expressão (pode ser um Double, String, etc.).
+     * @return O valor resultante da expressão (uma String, etc.) ou {@link #NUMBER}.
     */
-    private Object evaluate(Node expression){
+    private Object evaluateNode(Node expression){
+        // Tipo conhecido antes da execução (AST de um Program, anotada pela
+        // TypeInference): caminho sem verificações. Sem a anotação, todo nó é DYNAMIC.
+        if (expression.getType() == Type.NUMBER) {
+            number = evaluateNumber(expression);
+            return NUMBER;
+        }
+
         // --- Casos Base da Recursão ---
         if (expression instanceof NumberNode){
-            return (double) ((NumberNode) expression).getValue();
+            number = ((NumberNode) expression).getValue();
+            return NUMBER;
         }
 
         if (expression instanceof StringNode){
             return ((StringNode) expression).getString();
         }
 
+        if (expression instanceof BooleanNode){
+            return ((BooleanNode) expression).getValue() ? Boolean.TRUE : Boolean.FALSE;
+        }
+
         if (expression instanceof VariableNode) {
-            String name = ((VariableNode) expression).getName();
-            if (environment.containsKey(name)) {
-                return environment.get(name);
+            // O Resolver já garantiu que a variável existe.
+            int slot = ((VariableNode) expression).getSlot();
+            Object value = environment[slot];
+            if (value == NUMBER) {
+                number = numbers[slot];
+            } else if (value == null) {
+                // Só acontece com variáveis que vêm de fora (entradas de um Program).
+                throw new RuntimeException("Variavel '" + ((VariableNode) expression).getName() + "' sem valor.");
             }
-            throw new RuntimeException("Variavel indefinida '" + name + "'.");
+            return value;
+        }
+
+        // --- Casos Recursivos ---
+        if (expression instanceof ConcatNode) {
+            return concatenate((ConcatNode) expression);
         }
 
-        // --- Caso Recursivo ---
         if (expression instanceof BinaryOpNode) {
             BinaryOpNode node = (BinaryOpNode) expression;
-            // Avalia recursivamente os lados esquerdo e direito da operação.
+            // Avalia recursivamente os lados esquerdo e direito da operação,
+            // guardando os valores numéricos antes que o registrador seja sobrescrito.
             Object left = evaluate(node.getLeft());
+            double leftNumber = number;
             Object right = evaluate(node.getRight());
+            double rightNumber = number;
 
-            // Logica do operador '+'
-            if (node.getOperator().equals("+")){
-                // Caso os 2 sao strings faz a concatenacao
-                if (left instanceof String || right instanceof String){
-                    return String.valueOf(left) + String.valueOf(right);
-                }
-                // Caso sejam 2 doubles faz a soma
-                if (left instanceof Double && right instanceof Double){
-                    return (Double) left + (Double) right;
-                }
+            byte operator = node.getOperatorCode();
+
+            // Uma comparação usada como valor (ex: var maior = x > y;)
+            if (FlatAst.isComparison(operator)) {
+                return compare(operator, left, leftNumber, right, rightNumber) ? Boolean.TRUE : Boolean.FALSE;
             }
 
             // Garante que estamos fazendo operações com números
-            if (left instanceof Double && right instanceof Double) {
-                switch (node.getOperator()) {
-                    case "-":
-                        return (Double) left - (Double) right;
-                    case "*":
-                        return (Double) left * (Double) right;
-                    case "/":
-                        if ((double) right == 0) {
+            if (left == NUMBER && right == NUMBER) {
+                switch (operator) {
+                    case FlatAst.ADD:
+                        number = leftNumber + rightNumber;
+                        return NUMBER;
+                    case FlatAst.SUBTRACT:
+                        number = leftNumber - rightNumber;
+                        return NUMBER;
+                    case FlatAst.MULTIPLY:
+                        number = leftNumber * rightNumber;
+                        return NUMBER;
+                    case FlatAst.DIVIDE:
+                        if (rightNumber == 0) {
                             throw new RuntimeException("Erro: Divisao por zero.");
                         }
-                        return (double) left / (double) right;
+                        number = leftNumber / rightNumber;
+                        return NUMBER;
                 }
             }
 
+            // Logica do operador '+' com strings: faz a concatenacao
+            // (se a inferencia ja sabe que o resultado e uma string, nao precisa conferir)
+            if (node.getType() == Type.STRING
+                    || operator == FlatAst.ADD && (left instanceof CharSequence || right instanceof CharSequence)){
+                StringBuilder text = startText(left, leftNumber);
+                appendText(text, right, rightNumber);
+                return new Rope(text);
+            }
+
             throw new RuntimeException("Operacao invalida '" + node.getOperator() + "' para os tipos de dados fornecidos.");
         }
 
         return null; // ou lançar um erro se o tipo de nó for desconhecido
     }
 
+    /**
+     * Avalia uma expressão que a inferência de tipos marcou como numérica.
+     * O valor sai direto como double: sem o marcador {@link #NUMBER}, sem
+     * comparar o tipo dos operandos que também são numéricos e sem comparar
+     * o operador como String.
+     * @param expression Um nó com tipo {@link Type#NUMBER}.
+     * @return O valor da expressão.
+    */
+    private double evaluateNumber(Node expression){
+        if (expression instanceof NumberNode){
+            return ((NumberNode) expression).getValue();
+        }
+
+        if (expression instanceof VariableNode) {
+            int slot = ((VariableNode) expression).getSlot();
+            if (environment[slot] != NUMBER) {
+                // Variável sem valor: uma execução anterior falhou antes de atribuí-la.
+                throw new RuntimeException("Variavel '" + ((VariableNode) expression).getName() + "' sem valor.");
+            }
+            return numbers[slot];
+        }
+
+        BinaryOpNode node = (BinaryOpNode) expression;
+        byte operator = node.getOperatorCode();
+        Node leftNode = node.getLeft();
+        Node rightNode = node.getRight();
+        double leftNumber;
+        double rightNumber;
+        if (leftNode.getType() == Type.NUMBER && rightNode.getType() == Type.NUMBER) {
+            leftNumber = evaluateNumber(leftNode);
+            rightNumber = evaluateNumber(rightNode);
+        } else {
+            // Só '-', '*' e '/' chegam aqui: o resultado é um número, mas um
+            // dos lados pode não ser. Avalia os dois antes de verificar, como evaluate.
+            Object left = evaluate(leftNode);
+            leftNumber = number;
+            Object right = evaluate(rightNode);
+            rightNumber = number;
+            if (left != NUMBER || right != NUMBER) {
+                throw new RuntimeException("Operacao invalida '" + node.getOperator() + "' para os tipos de dados fornecidos.");
+            }
+        }
+
+        switch (operator) {
+            case FlatAst.ADD:
+                return leftNumber + rightNumber;
+            case FlatAst.SUBTRACT:
+                return leftNumber - rightNumber;
+            case FlatAst.MULTIPLY:
+                return leftNumber * rightNumber;
+            default:
+                if (rightNumber == 0) {
+                    throw new RuntimeException("Erro: Divisao por zero.");
+                }
+                return leftNumber / rightNumber;
+        }
+    }
+
+    /**
+     * Avalia uma soma encadeada da esquerda para a direita, com o mesmo
+     * resultado dos '+' aninhados: enquanto só aparecem números, soma; a
+     * partir do primeiro texto, todas as partes restantes são concatenadas
+     * em um único StringBuilder. Um booleano antes do primeiro texto é um
+     * erro, como no '+' de dois operandos.
+     * @return {@link #NUMBER} ou o texto, como um {@link Rope}.
+    */
+    private Object concatenate(ConcatNode node){
+        int count = node.getPartCount();
+        Object value = evaluate(node.getPart(0));
+        double sum = number;
+        int index = 1;
+        StringBuilder text = null;
+        if (value == NUMBER) {
+            while (index < count) {
+                Object part = evaluate(node.getPart(index++));
+                if (part != NUMBER) {
+                    if (!(part instanceof CharSequence)) {
+                        // Um booleano somado a um número, antes de qualquer texto
+                        throw new RuntimeException("Operacao invalida '+' para os tipos de dados fornecidos.");
+                    }
+                    text = new StringBuilder();
+                    appendText(text, NUMBER, sum);
+                    appendText(text, part, number);
+                    break;
+                }
+                sum += number;
+            }
+            if (text == null) {
+                number = sum;
+                return NUMBER;
+            }
+        } else if (value instanceof CharSequence) {
+            text = startText(value, sum);
+        } else {
+            // Um booleano só pode ser somado a um texto ("true" + "x")
+            Object part = evaluate(node.getPart(index++));
+            if (!(part instanceof CharSequence)) {
+                throw new RuntimeException("Operacao invalida '+' para os tipos de dados fornecidos.");
+            }
+            text = new StringBuilder();
+            appendText(text, value, sum);
+            appendText(text, part, number);
+        }
+
+        int written = text.length();
+        while (index < count) {
+            Object part = evaluate(node.getPart(index++));
+            if (text.length() != written) {
+                // A avaliação da parte continuou o mesmo buffer (uma soma
+                // aninhada sobre o mesmo texto): segue em uma cópia do que já é nosso.
+                text = new StringBuilder(text.substring(0, written));
+            }
+            appendText(text, part, number);
+            written = text.length();
+        }
+        return new Rope(text);
+    }
+
+    /**
+     * O buffer onde continuar o texto 'value': o do próprio {@link Rope}, se
+     * ele ainda está no fim do buffer, ou um novo com uma cópia do valor.
+    */
+    private static StringBuilder startText(Object value, double number){
+        if (value instanceof Rope) {
+            StringBuilder tail = ((Rope) value).tail();
+            if (tail != null) {
+                return tail;
+            }
+        }
+        StringBuilder text = new StringBuilder();
+        appendText(text, value, number);
+        return text;
+    }
+
+    /**
+     * Acrescenta um valor a um texto, com a mesma formatação de {@link #toText}.
+    */
+    private static void appendText(StringBuilder text, Object value, double number){
+        if (value == NUMBER) {
+            NumberText.append(text, number);
+        } else if (value instanceof Rope) {
+            ((Rope) value).appendTo(text);
+        } else if (value instanceof String) {
+            text.append((String) value);
+        } else {
+            text.append(value); // true ou false
+        }
+    }
+
+    /**
+     * Converte um valor para texto. Números usam {@link NumberText}: o mesmo
+     * formato de String.valueOf, com os dígitos mais curtos.
+     * @param value O valor retornado por evaluate.
+     * @param number O valor numérico correspondente, usado se value for {@link #NUMBER}.
+    */
+    private static String toText(Object value, double number){
+        if (value == NUMBER) {
+            return NumberText.toString(number);
+        }
+        return String.valueOf(value);
+    }
+
     /**
      * Executa uma instrução (statement).
      * Instruções, como atribuição de variável, geralmente não retornam um valor.
+     * Se a contagem ou o profiler estiverem ligados, a execução é contada e medida.
      * @param statement O nó da instrução a ser executada.
     */
     private void execute(Node statement) {
+        executed++;
+        if (counts != null) {
+            counts.increment(statement);
+        }
+        if (profiler != null) {
+            profiler.enter(statement);
+            try {
+                executeNode(statement);
+            } finally {
+                profiler.exit();
+            }
+            return;
+        }
+        executeNode(statement);
+    }
+
+    /**
+     * O trabalho de {@link #execute(Node)}, sem contagem nem medição.
+    */
+    private void executeNode(Node statement) {
         if (statement instanceof AssignNode) {
             // Verifica o tipo de nó para saber qual ação tomar.
             AssignNode assignNode = (AssignNode) statement;
             // Avalia a expressão à direita do '='
             Object value = evaluate(assignNode.getExpression());
-            // Armazena o resultado no nosso ambiente com o nome da variável
-            environment.put(assignNode.getVariable(), value);
+            // Armazena o resultado no slot da variável
+            int slot = assignNode.getSlot();
+            environment[slot] = value;
+            if (value == NUMBER) {
+                numbers[slot] = number;
+            }
 
             // Apenas para depuração, vamos imprimir o valor
-            System.out.println(assignNode.getVariable() + " = " + value);
+            if (echoAssignments) {
+                out.println(assignNode.getVariable() + " = " + toText(value, number));
+            }
             return;
         }
 
         if(statement instanceof PrintNode){
             Object value = evaluate(((PrintNode) statement).getExpression());
-            System.out.println(String.valueOf(value));
+            if (value == NUMBER) {
+                // Os dígitos vão direto para o buffer da saída
+                out.println(number);
+            } else {
+                out.println(toText(value, number));
+            }
+            return;
+        }
+
+        if (statement instanceof WhileNode) {
+            WhileNode whileNode = (WhileNode) statement;
+            Node condition = whileNode.getCondition();
+            List<Node> body = whileNode.getBody();
+            while (condition(condition)) {
+                executeBlock(body);
+            }
+            return;
+        }
+
+        if (statement instanceof IfNode) {
+            IfNode ifNode = (IfNode) statement;
+            executeBlock(condition(ifNode.getCondition()) ? ifNode.getThenBranch() : ifNode.getElseBranch());
             return;
         }
 
@@ -133,4 +944,121 @@ public class Interpreter {
         // (ex: uma linha de código com apenas "10 + 5;").
         evaluate(statement);
     }
+
+    /**
+     * Executa as instruções de um bloco, em ordem.
+    */
+    private void executeBlock(List<Node> statements) {
+        for (int i = 0; i < statements.size(); i++) {
+            execute(statements.get(i));
+        }
+    }
+
+    /**
+     * Avalia a condição de um if ou while, medindo-a se o profiler estiver ligado.
+     * @see #conditionNode(Node)
+    */
+    private boolean condition(Node condition) {
+        if (profiler == null) {
+            return conditionNode(condition);
+        }
+        profiler.enter(condition);
+        try {
+            return conditionNode(condition);
+        } finally {
+            profiler.exit();
+        }
+    }
+
+    /**
+     * Avalia uma condição direto para um boolean, que decide o desvio.
+     * Uma comparação é decidida aqui mesmo, junto com o desvio: o resultado
+     * nunca vira um Boolean. Se a inferência de tipos já sabe que os dois
+     * lados são números (a AST de um {@link Program}), eles são avaliados
+     * como double, sem o marcador {@link #NUMBER}.
+     * @return true se a condição é verdadeira.
+    */
+    private boolean conditionNode(Node condition) {
+        if (condition instanceof BinaryOpNode && ((BinaryOpNode) condition).isComparison()) {
+            BinaryOpNode node = (BinaryOpNode) condition;
+            Node leftNode = node.getLeft();
+            Node rightNode = node.getRight();
+            if (leftNode.getType() == Type.NUMBER && rightNode.getType() == Type.NUMBER) {
+                double leftNumber = evaluateNumber(leftNode);
+                return compareNumbers(node.getOperatorCode(), leftNumber, evaluateNumber(rightNode));
+            }
+            Object left = evaluate(leftNode);
+            double leftNumber = number;
+            Object right = evaluate(rightNode);
+            return compare(node.getOperatorCode(), left, leftNumber, right, number);
+        }
+        return isTrue(evaluate(condition));
+    }
+
+    /**
+     * O valor de uma condição que não é uma comparação (ex: "if pronto { ... }").
+    */
+    private static boolean isTrue(Object value) {
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        throw new RuntimeException("Condicao invalida: esperado true ou false.");
+    }
+
+    /**
+     * Aplica um operador de comparação a dois valores já avaliados.
+     * Números se comparam pelo valor e textos pela ordem dos caracteres; "=="
+     * e "!=" aceitam quaisquer tipos (valores de tipos diferentes nunca são
+     * iguais), mas "<", "<=", ">" e ">=" só números com números e textos com textos.
+     * @param operator O código da comparação ({@link FlatAst#EQUAL} a {@link FlatAst#GREATER_EQUAL}).
+    */
+    private static boolean compare(byte operator, Object left, double leftNumber, Object right, double rightNumber) {
+        if (left == NUMBER && right == NUMBER) {
+            return compareNumbers(operator, leftNumber, rightNumber);
+        }
+        if (left instanceof CharSequence && right instanceof CharSequence) {
+            // Sem materializar os Rope em Strings
+            int order = CharSequence.compare((CharSequence) left, (CharSequence) right);
+            switch (operator) {
+                case FlatAst.EQUAL:
+                    return order == 0;
+                case FlatAst.NOT_EQUAL:
+                    return order != 0;
+                case FlatAst.LESS:
+                    return order < 0;
+                case FlatAst.LESS_EQUAL:
+                    return order <= 0;
+                case FlatAst.GREATER:
+                    return order > 0;
+                default:
+                    return order >= 0;
+            }
+        }
+        boolean equal = left instanceof Boolean && left.equals(right);
+        switch (operator) {
+            case FlatAst.EQUAL:
+                return equal;
+            case FlatAst.NOT_EQUAL:
+                return !equal;
+            default:
+                throw new RuntimeException("Operacao invalida '" + FlatAst.operatorText(operator) + "' para os tipos de dados fornecidos.");
+        }
+    }
+
+    private static boolean compareNumbers(byte operator, double left, double right) {
+        switch (operator) {
+            case FlatAst.EQUAL:
+                return left == right;
+            case FlatAst.NOT_EQUAL:
+                return left != right;
+            case FlatAst.LESS:
+                return left < right;
+            case FlatAst.LESS_EQUAL:
+                return left <= right;
+            case FlatAst.GREATER:
+                return left > right;
+            default:
+                return left >= right;
+        }
+    }
 }
\ No newline at end of file
@@ -2,20 +2,37 @@ package core;
 import java.util.ArrayList;
 import java.util.List;
 
+import language.NumberLiteral;
 import language.Token;
+import language.TokenBuffer;
+import language.TokenSource;
 import language.TokenType;
+import metrics.LexEvent;
+import metrics.Metrics;
 
 /**
  * O Analisador Lexico (Lexer ou Scanner).
  * Responsável por ler o codigo fonte como uma string e dividi-lo
  * em uma lista de unidades logicas chamadas "tokens".
+ * Os tokens podem ser gerados todos de uma vez ({@link #tokenize()}), de
+ * forma compacta ({@link #tokenizePacked()}) ou sob demanda, um por chamada
+ * de {@link #nextToken()}.
 */
 
-public class Lexer {
+public class Lexer implements TokenSource {
 
     private String source; //codigo a ser tokenizad
     private int position;  //posicao no texto
-    private List<Token> tokens = new ArrayList<>(); //todos os tokens vao parar nessa lista
+    private int end;       //onde o trecho a ser tokenizado termina
+
+    // Posição e tamanho do último token reconhecido por scan()
+    private int tokenStart;
+    private int tokenLength;
+    // Valor do último número reconhecido, calculado a partir dos dígitos
+    private double tokenNumber;
+
+    // Onde tokenize() registra o tempo e o tamanho da análise (null: não mede)
+    private Metrics metrics;
     
 
     /**
@@ -23,7 +40,21 @@ public class Lexer {
      * @param source O codigo fonte em formato de String.
      */
     public Lexer(String source){
+        this(source, 0, source.length());
+    }
+
+
+    /**
+     * Cria um Lexer que tokeniza apenas um trecho do código-fonte, sem copiá-lo.
+     * As posições (e as mensagens de erro) continuam relativas ao código inteiro.
+     * @param source O codigo fonte completo.
+     * @param start A posição onde o trecho começa.
+     * @param end A posição logo após o fim do trecho.
+     */
+    public Lexer(String source, int start, int end){
         this.source = source;
+        this.position = start;
+        this.end = end;
     }
 
 
@@ -33,6 +64,83 @@ public class Lexer {
      * @return Uma lista de Tokens.
      */
     public List<Token> tokenize(){
+        LexEvent event = new LexEvent();
+        event.begin();
+        Metrics.Mark mark = metrics == null ? null : metrics.start();
+        int start = position;
+
+        List<Token> tokens = new ArrayList<>(); //todos os tokens vao parar nessa lista
+        Token token;
+        while ((token = nextToken()) != null) {
+            tokens.add(token);
+        }
+
+        if (mark != null) {
+            metrics.lexed(mark, position - start, tokens.size());
+        }
+        if (event.shouldCommit()) {
+            event.input = position - start;
+            event.tokens = tokens.size();
+            event.commit();
+        }
+        return tokens;
+    }
+
+
+    /**
+     * Liga a medição de {@link #tokenize()}: tempo, caracteres e tokens.
+     * @param metrics Onde registrar, ou null para não medir.
+     */
+    public void setMetrics(Metrics metrics){
+        this.metrics = metrics;
+    }
+
+
+    /**
+     * Tokeniza o código inteiro em um {@link TokenBuffer}, que guarda os tokens
+     * em arrays primitivos apontando para o código fonte, sem criar um objeto
+     * ou uma String por token.
+     * @return Os tokens em formato compacto.
+     */
+    public TokenBuffer tokenizePacked(){
+        TokenBuffer buffer = new TokenBuffer(source);
+        TokenType type;
+        while ((type = scan()) != null) {
+            buffer.add(type, tokenStart, tokenLength);
+        }
+
+        return buffer;
+    }
+
+
+    /**
+     * Gera apenas o próximo token, avançando o mínimo necessário no código fonte.
+     * Permite que o Parser puxe os tokens sob demanda, sem guardar a lista toda.
+     * @return O próximo Token, ou null no fim do código.
+     */
+    @Override
+    public Token nextToken(){
+        TokenType type = scan();
+        if (type == null) {
+            return null;
+        }
+
+        String lexeme = type.lexeme();
+        if (lexeme == null) {
+            lexeme = source.substring(tokenStart, tokenStart + tokenLength);
+        }
+        // A posição de uma string é a das aspas iniciais
+        int start = type == TokenType.STRING ? tokenStart - 1 : tokenStart;
+        return new Token(type, lexeme, tokenNumber, start);
+    }
+
+
+    /**
+     * Reconhece o próximo token sem materializar seu texto.
+     * A posição e o tamanho ficam em tokenStart e tokenLength.
+     * @return O tipo do token reconhecido, ou null no fim do código.
+     */
+    private TokenType scan(){
         while (!isAtEnd()) {
             char currentChar = peek();
 
@@ -44,57 +152,59 @@ public class Lexer {
 
             // Identifica palavras chave ou identificadores (nomes de variáveis)
             if(Character.isLetter(currentChar) || currentChar == '_'){
-                tokenizeWord();
-                continue;
+                return tokenizeWord();
             }
 
             // Identifica números
             if(Character.isDigit(currentChar)){
-                tokenizeNumber();
-                continue;
+                return tokenizeNumber();
             }
 
             // Identifica strings literais (delimitadas por aspas duplas)
             if(currentChar == '"'){
-                tokenizeString();
-                continue;
+                return tokenizeString();
             }
 
 
-            // Identifica operadores e símbolos de um único caractere
+            // Identifica operadores e símbolos (de um ou dois caracteres)
+            tokenStart = position;
+            tokenLength = 1;
+            advance();
             switch (currentChar){
                 case '=':
-                    tokens.add(new Token(TokenType.EQUAL, "="));
-                    advance();
-                    break;
+                    return withEqual(TokenType.EQUAL_EQUAL, TokenType.EQUAL);
+                case '!':
+                    if (match('=')) {
+                        tokenLength = 2;
+                        return TokenType.BANG_EQUAL;
+                    }
+                    throw new RuntimeException("Simbolo invalido -> ! na posicao " + (position - 1));
+                case '<':
+                    return withEqual(TokenType.LESS_EQUAL, TokenType.LESS);
+                case '>':
+                    return withEqual(TokenType.GREATER_EQUAL, TokenType.GREATER);
                 case '+':
-                    tokens.add(new Token(TokenType.PLUS, "+"));
-                    advance();
-                    break;
+                    return TokenType.PLUS;
                 case '-':
-                    tokens.add(new Token(TokenType.MINUS, "-"));
-                    advance();
-                    break;
+                    return TokenType.MINUS;
                 case '*':
-                    tokens.add(new Token(TokenType.MULTIPLY, "*"));
-                    advance();
-                    break;
+                    return TokenType.MULTIPLY;
                 case '/':
-                    tokens.add(new Token(TokenType.DIVIDE, "/"));
-                    advance();
-                    break;
+                    return TokenType.DIVIDE;
                 case ';':
-                    tokens.add(new Token(TokenType.SEMICOLON, ";"));
-                    advance();
-                    break;
+                    return TokenType.SEMICOLON;
+                case '{':
+                    return TokenType.LEFT_BRACE;
+                case '}':
+                    return TokenType.RIGHT_BRACE;
 
                 default:
                     // Se um caractere desconhecido for encontrado, lança um erro.
-                    throw new RuntimeException("Simbolo invalido -> " + currentChar + " na posicao " + position);
+                    throw new RuntimeException("Simbolo invalido -> " + currentChar + " na posicao " + (position - 1));
             }
         }
 
-        return tokens;
+        return null;
     }
 
 
@@ -103,10 +213,10 @@ public class Lexer {
 
     /**
      * Verifica se o analisador alcançou o final do código-fonte.
-     * @return true se a posição atual for maior ou igual ao tamanho do código.
+     * @return true se a posição atual chegou ao fim do trecho a ser tokenizado.
     */
     private boolean isAtEnd(){
-        return position >= source.length();
+        return position >= end;
     }
 
 
@@ -151,72 +261,131 @@ public class Lexer {
     // --- Métodos Auxiliares de Tokenizaçao ---
 
 
+    /**
+     * Decide entre um operador de dois caracteres terminado em '=' (como "<=")
+     * e o de um caractere só (como "<"), que já foi consumido.
+    */
+    private TokenType withEqual(TokenType twoChars, TokenType oneChar){
+        if (match('=')) {
+            tokenLength = 2;
+            return twoChars;
+        }
+        return oneChar;
+    }
+
+
     /**
      * Agrupa uma sequencia de letras e digitos para formar uma palavra.
-     * Em seguida, decide se é uma palavra-chave (como "var" ou "print") ou um identificador.
+     * Em seguida, decide se é uma palavra-chave (como "var", "print" ou "while") ou um identificador.
+     * A comparação com as palavras-chave é feita direto no código fonte, sem montar a palavra.
     */
-    private void tokenizeWord(){
-        StringBuilder sb = new StringBuilder(); // Monta uma string baseado nos char
+    private TokenType tokenizeWord(){
+        tokenStart = position;
 
         // Consome todos os caracteres alfanuméricos sequenciais
-        while (!isAtEnd() && Character.isLetterOrDigit(peek()) || peek() == '_'){
-            sb.append(advance());
+        while (!isAtEnd() && (Character.isLetterOrDigit(peek()) || peek() == '_')){
+            advance();
         }
 
-        String word = sb.toString();
-        
+        tokenLength = position - tokenStart;
+
         // Verifica se a palavra corresponde a uma palavra-chave da linguagem.
-        if(word.equals("print")){
-            tokens.add(new Token(TokenType.PRINT, word));
+        if(isWord("print")){
+            return TokenType.PRINT;
+        }
+        else if(isWord("var")){
+            return TokenType.VAR;
         }
-        else if(word.equals("var")){
-            tokens.add(new Token(TokenType.VAR, word));
+        else if(isWord("if")){
+            return TokenType.IF;
         }
-        else if(word.equals("true")){
-            tokens.add(new Token(TokenType.TRUE, word));
+        else if(isWord("else")){
+            return TokenType.ELSE;
         }
-        else if(word.equals("false")){
-            tokens.add(new Token(TokenType.FALSE, word));
+        else if(isWord("while")){
+            return TokenType.WHILE;
+        }
+        else if(isWord("true")){
+            return TokenType.TRUE;
+        }
+        else if(isWord("false")){
+            return TokenType.FALSE;
         }
         else{
             // Caso contrário, é um nome de variável (identificador).
-            tokens.add(new Token(TokenType.IDENTIFIER, word));
+            return TokenType.IDENTIFIER;
         }
     }
 
 
     /**
-     * Agrupa uma sequencia de digitos para formar um número.
+     * Verifica se a palavra recém reconhecida é igual a 'keyword'.
+    */
+    private boolean isWord(String keyword){
+        return tokenLength == keyword.length() && source.startsWith(keyword, tokenStart);
+    }
+
+
+    /**
+     * Agrupa uma sequencia de digitos (e, se houver, um ponto seguido de mais
+     * digitos) para formar um número. O valor é montado durante a leitura,
+     * dígito a dígito, sem passar por uma String.
     */
-    private void tokenizeNumber(){
-        StringBuilder sb = new StringBuilder();
+    private TokenType tokenizeNumber(){
+        tokenStart = position;
+        long significand = 0;
+        int scale = 0;
 
         while (!isAtEnd() && Character.isDigit(peek())){
-            sb.append(advance());
+            significand = addDigit(significand, advance());
+        }
+
+        // Parte decimal: o ponto só faz parte do número se vier um dígito depois dele.
+        if (!isAtEnd() && peek() == '.' && position + 1 < end && Character.isDigit(source.charAt(position + 1))) {
+            advance();
+            while (!isAtEnd() && Character.isDigit(peek())){
+                significand = addDigit(significand, advance());
+                scale++;
+            }
+        }
+
+        tokenLength = position - tokenStart;
+        tokenNumber = NumberLiteral.exact(significand, scale);
+        if (Double.isNaN(tokenNumber)) {
+            tokenNumber = NumberLiteral.parse(source.substring(tokenStart, position));
         }
+        return TokenType.NUMBER;
+    }
 
-        String number = sb.toString();
 
-        tokens.add(new Token(TokenType.NUMBER, number));
+    /**
+     * Acrescenta um dígito ao significando; -1 marca um significando que
+     * não coube em um long (ou um dígito fora do ASCII).
+    */
+    private static long addDigit(long significand, char digit){
+        if (significand < 0 || significand > NumberLiteral.MAX_SIGNIFICAND || digit > '9') {
+            return -1;
+        }
+        return significand * 10 + (digit - '0');
     }
 
 
     /**
      * Agrupa todos os caracteres entre um par de aspas duplas para formar uma string literal.
+     * O token aponta apenas para o conteúdo, sem as aspas.
     */
-    private void tokenizeString(){
+    private TokenType tokenizeString(){
         advance(); //para pular as aspas iniciais
-        StringBuilder sb = new StringBuilder();
+        tokenStart = position;
 
         //vai loopar por todos os elementos dentro de um par de aspas
         while (!isAtEnd() && peek() != '"') {
-            sb.append(advance());
+            advance();
         }
 
+        tokenLength = position - tokenStart;
         advance(); //pula aspas final
-        String string = sb.toString();
-        
-        tokens.add(new Token(TokenType.STRING, string));
+        return TokenType.STRING;
     }  
 
 }
\ No newline at end of file
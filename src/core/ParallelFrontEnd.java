@@ -0,0 +1,197 @@
+package core;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+import ast.Node;
+
+/**
+ * Front end paralelo: análise léxica e sintática de scripts grandes em vários núcleos.
+ *
+ * Como um programa JPP é uma sequência de instruções terminadas por ';', o
+ * código pode ser cortado com segurança logo depois de qualquer ';' que esteja
+ * fora de uma string literal e fora dos blocos de if e while (entre chaves).
+ * Cada pedaço é tokenizado e analisado por um Lexer/Parser próprio em um
+ * ForkJoinPool, e as listas de nós resultantes são concatenadas na ordem original.
+ *
+ * A busca pelos pontos de corte é a única parte sequencial: uma passada simples
+ * que só acompanha as aspas e a profundidade das chaves, bem mais barata que
+ * tokenizar.
+*/
+
+public class ParallelFrontEnd {
+
+    /** Abaixo deste tamanho não compensa dividir o código. */
+    private static final int DEFAULT_MIN_CHUNK = 256 * 1024;
+
+    private final ForkJoinPool pool;
+    private final int minChunk;
+
+    public ParallelFrontEnd(){
+        this(ForkJoinPool.commonPool(), DEFAULT_MIN_CHUNK);
+    }
+
+    /**
+     * @param pool O pool onde os pedaços serão processados.
+     * @param minChunk O tamanho mínimo de cada pedaço (em caracteres ou bytes).
+    */
+    public ParallelFrontEnd(ForkJoinPool pool, int minChunk){
+        this.pool = pool;
+        this.minChunk = minChunk;
+    }
+
+    /**
+     * Analisa um código fonte em memória.
+     * @param source O código fonte completo.
+     * @return A lista de instruções, na mesma ordem do código.
+    */
+    public List<Node> parse(String source){
+        int[] cuts = cuts(source.length(), (target, from) -> nextCut(source, target, from));
+        List<RecursiveTask<List<Node>>> tasks = new ArrayList<>();
+        for (int i = 0; i + 1 < cuts.length; i++) {
+            int start = cuts[i];
+            int end = cuts[i + 1];
+            tasks.add(task(() -> new Parser(new Lexer(source, start, end)).parse()));
+        }
+        return run(tasks);
+    }
+
+    /**
+     * Analisa um código fonte em UTF-8, por exemplo um arquivo mapeado com
+     * {@link ByteLexer#map}. Cada pedaço é lido pelo seu próprio ByteLexer.
+     * @param source O código fonte, do position() ao limit().
+     * @return A lista de instruções, na mesma ordem do código.
+    */
+    public List<Node> parse(ByteBuffer source){
+        ByteBuffer bytes = source.duplicate();
+        int base = bytes.position();
+        int[] cuts = cuts(bytes.remaining(), (target, from) -> nextCut(bytes, base, target, from));
+        List<RecursiveTask<List<Node>>> tasks = new ArrayList<>();
+        for (int i = 0; i + 1 < cuts.length; i++) {
+            ByteBuffer chunk = bytes.duplicate();
+            chunk.limit(base + cuts[i + 1]).position(base + cuts[i]);
+            tasks.add(task(() -> new Parser(new ByteLexer(chunk)).parse()));
+        }
+        return run(tasks);
+    }
+
+    // --- Divisão em pedaços ---
+
+    /**
+     * Procura o primeiro ponto de corte em 'target' ou depois dele.
+    */
+    private interface CutFinder {
+        /**
+         * @param target A posição mínima do corte.
+         * @param from A posição do corte anterior (fora de strings e de blocos).
+         * @return A posição logo após um ';' fora de string e de blocos, ou o
+         * tamanho total se não houver.
+        */
+        int find(int target, int from);
+    }
+
+    /**
+     * Escolhe os pontos de corte: o início, o fim e, entre eles, posições logo
+     * após um ';' fora de string e de blocos, com pedaços de pelo menos minChunk.
+    */
+    private int[] cuts(int length, CutFinder finder){
+        int parallelism = pool.getParallelism();
+        int chunk = Math.max(minChunk, length / (parallelism * 4) + 1);
+
+        List<Integer> cuts = new ArrayList<>();
+        cuts.add(0);
+        int last = 0;
+        while (length - last > chunk) {
+            int cut = finder.find(last + chunk, last);
+            if (cut >= length) {
+                break;
+            }
+            cuts.add(cut);
+            last = cut;
+        }
+        cuts.add(length);
+
+        return cuts.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static int nextCut(String source, int target, int from){
+        boolean inString = false;
+        int depth = 0; // chaves abertas: dentro de um bloco não se corta
+        for (int i = from; i < source.length(); i++) {
+            char c = source.charAt(i);
+            if (c == '"') {
+                inString = !inString;
+            } else if (inString) {
+                continue;
+            } else if (c == '{') {
+                depth++;
+            } else if (c == '}') {
+                depth--;
+            } else if (c == ';' && depth == 0 && i >= target) {
+                return i + 1;
+            }
+        }
+        return source.length();
+    }
+
+    private static int nextCut(ByteBuffer bytes, int base, int target, int from){
+        int length = bytes.limit() - base;
+        boolean inString = false;
+        int depth = 0;
+        for (int i = from; i < length; i++) {
+            byte b = bytes.get(base + i);
+            if (b == '"') {
+                inString = !inString;
+            } else if (inString) {
+                continue;
+            } else if (b == '{') {
+                depth++;
+            } else if (b == '}') {
+                depth--;
+            } else if (b == ';' && depth == 0 && i >= target) {
+                return i + 1;
+            }
+        }
+        return length;
+    }
+
+    // --- Execução dos pedaços ---
+
+    private interface ChunkParser {
+        List<Node> parse();
+    }
+
+    private static RecursiveTask<List<Node>> task(ChunkParser parser){
+        return new RecursiveTask<List<Node>>() {
+            @Override
+            protected List<Node> compute() {
+                return parser.parse();
+            }
+        };
+    }
+
+    /**
+     * Executa os pedaços no pool e junta os resultados na ordem original.
+     * Um erro em qualquer pedaço é relançado aqui.
+    */
+    private List<Node> run(List<RecursiveTask<List<Node>>> tasks){
+        if (tasks.size() == 1) {
+            return tasks.get(0).invoke();
+        }
+
+        return pool.invoke(new RecursiveTask<List<Node>>() {
+            @Override
+            protected List<Node> compute() {
+                ForkJoinTask.invokeAll(tasks);
+                List<Node> statements = new ArrayList<>();
+                for (RecursiveTask<List<Node>> task : tasks) {
+                    statements.addAll(task.join());
+                }
+                return statements;
+            }
+        });
+    }
+}
@@ -1,16 +1,25 @@
 package core;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 import ast.AssignNode;
 import ast.BinaryOpNode;
+import ast.BooleanNode;
+import ast.ConcatNode;
+import ast.FlatAst;
+import ast.IfNode;
 import ast.Node;
 import ast.NumberNode;
 import ast.PrintNode;
 import ast.StringNode;
 import ast.VariableNode;
+import ast.WhileNode;
 import language.Token;
+import language.TokenSource;
 import language.TokenType;
+import metrics.Metrics;
+import metrics.ParseEvent;
 
 
 
@@ -19,14 +28,31 @@ import language.TokenType;
  * Recebe uma lista de tokens do Lexer e a transforma em uma
  * Árvore Sintática Abstrata (AST), que é uma estrutura de dados em árvore
  * que representa a gramática do código-fonte.
+ *
+ * Os tokens são puxados da fonte sob demanda: o Parser só guarda o token
+ * anterior, o atual e um de antecipação (lookahead), então a memória usada
+ * não depende do tamanho do arquivo.
 */
 
 public class Parser {
-    private List<Token> tokens;
-    private int current = 0;
-    
+    private final TokenSource source;
+    private Token previous; // o token que acabamos de consumir
+    private Token current;  // o token atual (null no fim)
+    private Token next;     // um token de antecipação (null no fim)
+    private Metrics metrics; // onde parse() registra o tempo e o tamanho da AST (null: não mede)
+
     public Parser(List<Token> tokens){
-        this.tokens = tokens;
+        this(sourceOf(tokens));
+    }
+
+    /**
+     * Cria um Parser que puxa os tokens sob demanda, por exemplo direto do Lexer.
+     * @param source A fonte de tokens.
+    */
+    public Parser(TokenSource source){
+        this.source = source;
+        this.current = source.nextToken();
+        this.next = current == null ? null : source.nextToken();
     }
 
 
@@ -35,40 +61,118 @@ public class Parser {
      * @return Uma lista de nós (statements) que compõem a AST.
     */
     public List<Node> parse(){
+        ParseEvent event = new ParseEvent();
+        event.begin();
+        Metrics.Mark mark = metrics == null ? null : metrics.start();
+
         List<Node> statements = new ArrayList<>();
-        while (!isAtEnd()) {
-            statements.add(parseStatement());
+        while (hasNext()) {
+            statements.add(parseNext());
         }
 
+        if (mark != null) {
+            metrics.parsed(mark, statements);
+        }
+        if (event.shouldCommit()) {
+            event.statements = statements.size();
+            event.nodes = Metrics.countNodes(statements);
+            event.commit();
+        }
         return statements;
     }
 
+    /**
+     * Analisa o programa inteiro para uma AST compacta ({@link FlatAst}).
+     * Cada instrução é copiada para os arrays assim que é analisada, então os
+     * Nodes de uma instrução morrem logo e o programa inteiro nunca existe
+     * como objetos. Para programas muito grandes.
+     * @return A AST compacta, já sem folga nos arrays.
+    */
+    public FlatAst parseFlat(){
+        ParseEvent event = new ParseEvent();
+        event.begin();
+        Metrics.Mark mark = metrics == null ? null : metrics.start();
+
+        FlatAst program = new FlatAst();
+        while (hasNext()) {
+            program.add(parseNext());
+        }
+        program.trim();
+
+        if (mark != null) {
+            metrics.parsed(mark, program.getStatementCount(), program.getNodeCount());
+        }
+        if (event.shouldCommit()) {
+            event.statements = program.getStatementCount();
+            event.nodes = program.getNodeCount();
+            event.commit();
+        }
+        return program;
+    }
+
+    /**
+     * Liga a medição de {@link #parse()}: tempo, instruções e nós da AST.
+     * @param metrics Onde registrar, ou null para não medir.
+    */
+    public void setMetrics(Metrics metrics){
+        this.metrics = metrics;
+    }
+
+    /**
+     * Verifica se ainda há instruções a serem analisadas.
+    */
+    public boolean hasNext(){
+        return !isAtEnd();
+    }
+
+    /**
+     * Analisa apenas a próxima instrução, consumindo só os tokens dela.
+     * Permite processar o programa uma instrução por vez, sem montar a AST inteira.
+     * @return O nó da AST da instrução analisada.
+    */
+    public Node parseNext(){
+        return parseStatement();
+    }
+
     // --- Métodos de Parsing para cada tipo de regra da gramática ---
 
 
     /**
-     * Analisa uma única instrução (statement).
-     * No momento, apenas declarações de variáveis são suportadas.
+     * Analisa uma única instrução (statement). Uma condicional ou um laço é
+     * uma instrução só, com os blocos dentro dela.
      * @return O nó da AST para a instrução analisada.
     */
     private Node parseStatement(){
+        // A instrução fica na posição do seu primeiro token
+        int position = current.position;
+
         // Regra 1: Se começar com "var", é uma declaração.
         if (match(TokenType.VAR)) {
-            return parseVariableDeclaration();
+            return at(parseVariableDeclaration(), position);
         }
 
         // Regra 2: Se for um IDENTIFICADOR seguido por um "=", é uma atribuição.
         if (check(TokenType.IDENTIFIER) && peekNext() != null && peekNext().type == TokenType.EQUAL) {
-            return parseAssignmentStatement();
+            return at(parseAssignmentStatement(), position);
         }
 
         // Regra 3
         if (match(TokenType.PRINT)){
-            return parsePrintStatement();
+            return at(parsePrintStatement(), position);
+        }
+
+        // Regra 4: "if condicao { ... }", com else opcional.
+        if (match(TokenType.IF)) {
+            return at(parseIfStatement(), position);
+        }
+
+        // Regra 5: "while condicao { ... }".
+        if (match(TokenType.WHILE)) {
+            return at(parseWhileStatement(), position);
         }
 
         // Se não corresponder a nenhuma regra conhecida, lança um erro.
-        throw new RuntimeException("Instrucao desconhecida. Esperado 'var' ou uma atribuicao, mas encontrado: " + peek().type);
+        throw new RuntimeException("Instrucao desconhecida. Esperado 'var' ou uma atribuicao, mas encontrado: " + current.type);
     }
 
 
@@ -106,24 +210,111 @@ public class Parser {
         consume(TokenType.SEMICOLON, "Esperando ';' apos o valor do print");
         return new PrintNode(value);
     }
-    
+
+
+    /**
+     * Analisa uma condicional: "if condicao { ... }", opcionalmente seguida de
+     * "else { ... }" ou de "else if ...". A condição não tem parênteses.
+     * @return Um nó do tipo IfNode.
+    */
+    private Node parseIfStatement(){
+        Node condition = parseExpression();
+        List<Node> thenBranch = parseBlock();
+        List<Node> elseBranch = List.of();
+        if (match(TokenType.ELSE)) {
+            if (check(TokenType.IF)) {
+                // "else if": o else tem só a próxima condicional
+                int position = advance().position;
+                elseBranch = List.of(at(parseIfStatement(), position));
+            } else {
+                elseBranch = parseBlock();
+            }
+        }
+        return new IfNode(condition, thenBranch, elseBranch);
+    }
+
+
+    /**
+     * Analisa um laço: "while condicao { ... }".
+     * @return Um nó do tipo WhileNode.
+    */
+    private Node parseWhileStatement(){
+        Node condition = parseExpression();
+        return new WhileNode(condition, parseBlock());
+    }
+
+
+    /**
+     * Analisa um bloco de instruções entre chaves.
+     * @return As instruções do bloco, na ordem.
+    */
+    private List<Node> parseBlock(){
+        consume(TokenType.LEFT_BRACE, "Esperado '{' no inicio do bloco.");
+        List<Node> statements = new ArrayList<>();
+        while (!check(TokenType.RIGHT_BRACE) && !isAtEnd()) {
+            statements.add(parseStatement());
+        }
+        consume(TokenType.RIGHT_BRACE, "Esperado '}' no final do bloco.");
+        return statements;
+    }
+
+
+    /**
+     * Analisa uma expressão completa, começando pelo nível de menor
+     * precedência: a igualdade ("==" e "!=").
+     * Ex: a + 1 < b == true é lido como ((a + 1) < b) == true.
+     * @return Um nó de expressão.
+    */
+    private Node parseExpression(){
+        Node left = parseComparison();
+
+        while (match(TokenType.EQUAL_EQUAL) || match(TokenType.BANG_EQUAL)) {
+            Token operator = previous();
+            Node right = parseComparison();
+            left = at(new BinaryOpNode(left, operator.value, right), operator.position);
+        }
+
+        return left;
+    }
+
+    /**
+     * Analisa uma comparação ("<", "<=", ">" e ">="), abaixo da soma e subtração.
+    */
+    private Node parseComparison(){
+        Node left = parseAddition();
+
+        while (match(TokenType.LESS) || match(TokenType.LESS_EQUAL)
+                || match(TokenType.GREATER) || match(TokenType.GREATER_EQUAL)) {
+            Token operator = previous();
+            Node right = parseAddition();
+            left = at(new BinaryOpNode(left, operator.value, right), operator.position);
+        }
+
+        return left;
+    }
 
     /**
      * Analisa uma expressão aritmética (soma e subtração).
      * Lida com a associatividade à esquerda (ex: 10 - 2 + 3 é lido como (10-2)+3).
+     * Cada sequência de três ou mais operandos ligados por '+' vira um
+     * {@link ConcatNode}.
      * @return Um nó de expressão, que pode ser um BinaryOpNode ou um nó primário.
     */
-    private Node parseExpression(){
+    private Node parseAddition(){
         Node left = parseTerm();
         
         // Loop para tratar múltiplos operadores (associatividade à esquerda)
         while(match(TokenType.PLUS) || match(TokenType.MINUS)){
-            String operator = previous().value; // Pega o operador (+ ou -)
+            Token operator = previous(); // Pega o operador (+ ou -)
             Node right = parseTerm();
-            left = new BinaryOpNode(left, operator, right); // Atualiza o nó 'left'
+            if (operator.value.equals("-")) {
+                // A sequência de '+' até aqui terminou
+                left = ConcatNode.flatten(left);
+            }
+            left = at(new BinaryOpNode(left, operator.value, right), operator.position); // Atualiza o nó 'left'
         }
 
-        return left;
+        return ConcatNode.flatten(left);
     }
 
     /**
@@ -133,9 +324,9 @@ public class Parser {
         Node left = parsePrimary(); // Chama o nível mais alto de precedência.
 
         while (match(TokenType.MULTIPLY) || match(TokenType.DIVIDE)) {
-            String operator = previous().value;
+            Token operator = previous();
             Node right = parsePrimary();
-            left = new BinaryOpNode(left, operator, right);
+            left = at(new BinaryOpNode(left, operator.value, right), operator.position);
         }
 
         return left;
@@ -143,25 +334,37 @@ public class Parser {
 
     /**
      * Analisa as unidades mais básicas de uma expressão.
-     * @return Um nó NumberNode, StringNode ou VariableNode.
+     * @return Um nó NumberNode, StringNode, BooleanNode ou VariableNode.
     */
     private Node parsePrimary(){
         if (match(TokenType.NUMBER)){
-            return new NumberNode(previous().value);
+            return at(new NumberNode(previous().number), previous().position);
         }
         if (match(TokenType.STRING)){
-            return new StringNode(previous().value);
+            return at(new StringNode(previous().value), previous().position);
+        }
+        if (match(TokenType.TRUE) || match(TokenType.FALSE)){
+            return at(new BooleanNode(previous().type == TokenType.TRUE), previous().position);
         }
         if (match(TokenType.IDENTIFIER)){
-            return new VariableNode(previous().value);
+            return at(new VariableNode(previous().value), previous().position);
         }
 
-        throw new RuntimeException("Esperado numero, string ou identificador na expressao");
+        throw new RuntimeException("Esperado numero, string, booleano ou identificador na expressao");
     }
 
 
     // --- Métodos Auxiliares de Navegação e Verificação ---
 
+    /**
+     * Marca a posição do nó no código fonte.
+     * @return O próprio nó.
+    */
+    private static Node at(Node node, int position) {
+        node.setPosition(position);
+        return node;
+    }
+
     /**
      * Verifica se o token atual corresponde ao tipo esperado. Se sim, consome o token e retorna true.
      * @param type O tipo de token a ser verificado.
@@ -183,6 +386,9 @@ public class Parser {
     */
     private Token consume(TokenType type, String message) {
         if (check(type)) return advance();
+        if (isAtEnd()) {
+            throw new RuntimeException(message + " Encontrado: fim do arquivo");
+        }
         throw new RuntimeException(message + " Encontrado: " + peek().type + " → '" + peek().value + "'");
     }
 
@@ -196,11 +402,15 @@ public class Parser {
     }
 
     /**
-     * Avança para o próximo token.
+     * Avança para o próximo token, puxando mais um da fonte para a antecipação.
      * @return O token que foi consumido (o anterior).
     */
     private Token advance() {
-        if (!isAtEnd()) current++;
+        if (!isAtEnd()) {
+            previous = current;
+            current = next;
+            next = current == null ? null : source.nextToken();
+        }
         return previous();
     }
 
@@ -208,14 +418,14 @@ public class Parser {
      * Verifica se todos os tokens foram consumidos.
     */
     private boolean isAtEnd() {
-        return current >= tokens.size();
+        return current == null;
     }
 
     /**
      * Retorna o token atual sem consumi-lo.
     */
     private Token peek() {
-        return tokens.get(current);
+        return current;
     }
 
     /**
@@ -223,17 +433,22 @@ public class Parser {
      * @return O próximo token, ou null se estiver no fim.
     */
     private Token peekNext() {
-        if (current + 1 >= tokens.size()) {
-            return null;
-        }
-        return tokens.get(current + 1);
+        return next;
     }
 
     /**
      * Retorna o token que acabamos de consumir.
     */
     private Token previous() {
-        return tokens.get(current - 1);
+        return previous;
+    }
+
+    /**
+     * Adapta uma lista de tokens já pronta para uma fonte sob demanda.
+    */
+    private static TokenSource sourceOf(List<Token> tokens) {
+        Iterator<Token> iterator = tokens.iterator();
+        return () -> iterator.hasNext() ? iterator.next() : null;
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,187 @@
+package core;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import ast.Node;
+import language.Token;
+import language.TokenSource;
+import metrics.ExecuteEvent;
+import metrics.Metrics;
+
+/**
+ * Execução em pipeline: análise léxica, análise sintática e execução em
+ * threads separadas, ligadas por filas limitadas.
+ *
+ * Enquanto o Interpreter executa uma instrução, o Parser já analisa a próxima
+ * e o Lexer já tokeniza as seguintes. As filas têm capacidade fixa, então um
+ * estágio rápido espera o mais lento e a memória fica constante, qualquer que
+ * seja o tamanho do script. Os tokens viajam em lotes para que o custo de
+ * sincronização das filas não domine.
+*/
+
+public class Pipeline {
+    private static final int BATCH_SIZE = 256;
+
+    /** Marca o fim de uma fila. */
+    private static final Object END = new Object();
+
+    private final int capacity;
+
+    /**
+     * @param capacity Quantos lotes de tokens (e quantas instruções) cada fila comporta.
+    */
+    public Pipeline(int capacity){
+        this.capacity = capacity;
+    }
+
+    public Pipeline(){
+        this(64);
+    }
+
+    /**
+     * Executa o programa produzido por 'lexer' no 'interpreter'.
+     * A execução acontece na thread que chamou este método; o Lexer e o
+     * Parser rodam em threads próprias. Os erros são reportados como em
+     * {@link Interpreter#interpret(Parser)}.
+     * @param lexer A fonte dos tokens (um Lexer ou ByteLexer).
+     * @param interpreter O Interpreter que executa as instruções.
+    */
+    public void run(TokenSource lexer, Interpreter interpreter){
+        BlockingQueue<Object> tokens = new ArrayBlockingQueue<>(capacity);
+        BlockingQueue<Object> statements = new ArrayBlockingQueue<>(capacity);
+
+        Thread lexerThread = start("jpp-lexer", () -> {
+            Token[] batch = new Token[BATCH_SIZE];
+            int size = 0;
+            try {
+                Token token;
+                while ((token = lexer.nextToken()) != null) {
+                    batch[size++] = token;
+                    if (size == BATCH_SIZE) {
+                        tokens.put(batch);
+                        batch = new Token[BATCH_SIZE];
+                        size = 0;
+                    }
+                }
+            } catch (RuntimeException e) {
+                // Entrega os tokens anteriores ao erro, para que as instruções
+                // completas antes dele ainda sejam executadas. Uma interrupção
+                // não passa por aqui: ninguém mais lê a fila.
+                if (size > 0) {
+                    tokens.put(Arrays.copyOf(batch, size));
+                }
+                throw e;
+            }
+            if (size > 0) {
+                tokens.put(Arrays.copyOf(batch, size));
+            }
+        }, tokens);
+
+        Thread parserThread = start("jpp-parser", () -> {
+            Parser parser = new Parser(new QueueTokenSource(tokens));
+            while (parser.hasNext()) {
+                statements.put(parser.parseNext());
+            }
+        }, statements);
+
+        // Mede o estágio de execução, inclusive as esperas pelo Parser.
+        ExecuteEvent event = new ExecuteEvent();
+        Metrics.Mark mark = interpreter.startExecution(event);
+        boolean completed = false;
+        try {
+            while (true) {
+                Object message = statements.take();
+                if (message == END) {
+                    completed = true;
+                    return;
+                }
+                if (message instanceof RuntimeException) {
+                    interpreter.reportError("Erro de sintaxe " + ((RuntimeException) message).getMessage());
+                    return;
+                }
+                if (!interpreter.interpretStatement((Node) message)) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            interpreter.flush();
+            interpreter.endExecution(event, mark, completed);
+            // Se a execução parou antes do fim, os estágios anteriores não precisam continuar.
+            lexerThread.interrupt();
+            parserThread.interrupt();
+        }
+    }
+
+    // --- Estágios ---
+
+    private interface Stage {
+        void run() throws InterruptedException;
+    }
+
+    /**
+     * Inicia um estágio em uma thread própria. Ao terminar, o estágio coloca
+     * {@link #END} na fila de saída; se falhar, coloca o próprio erro.
+    */
+    private static Thread start(String name, Stage stage, BlockingQueue<Object> output){
+        Thread thread = new Thread(() -> {
+            try {
+                try {
+                    stage.run();
+                    output.put(END);
+                } catch (RuntimeException e) {
+                    output.put(e);
+                }
+            } catch (InterruptedException e) {
+                // O consumidor desistiu: só encerra.
+            }
+        }, name);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Entrega ao Parser os tokens que chegam em lotes pela fila.
+     * Um erro do Lexer é relançado aqui, dentro do Parser.
+    */
+    private static class QueueTokenSource implements TokenSource {
+        private final BlockingQueue<Object> queue;
+        private Token[] batch = new Token[0];
+        private int index = 0;
+        private boolean ended = false;
+
+        QueueTokenSource(BlockingQueue<Object> queue){
+            this.queue = queue;
+        }
+
+        @Override
+        public Token nextToken() {
+            while (index == batch.length) {
+                if (ended) {
+                    return null;
+                }
+                Object message;
+                try {
+                    message = queue.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Pipeline interrompido.");
+                }
+                if (message == END) {
+                    ended = true;
+                    return null;
+                }
+                if (message instanceof RuntimeException) {
+                    ended = true;
+                    throw (RuntimeException) message;
+                }
+                batch = (Token[]) message;
+                index = 0;
+            }
+            return batch[index++];
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package core;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import ast.Node;
+import output.OutputSink;
+import output.PrintStreamSink;
+
+/**
+ * Um programa JPP compilado: analisado e resolvido uma única vez.
+ *
+ * Depois de criado, um Program nunca muda. Todo o estado da execução (os
+ * valores das variáveis, a saída) fica em uma {@link Execution}, que é barata
+ * de criar. Assim várias threads podem executar o mesmo Program ao mesmo
+ * tempo, cada uma com sua Execution, sem travas e sem analisar o código de novo.
+ *
+ * O programa pode ter entradas: variáveis que o código lê sem atribuir, e que
+ * cada Execution preenche antes de rodar. Por exemplo, com o código
+ * "print preco * quantidade;":
+ * <pre>
+ *   Program program = Program.compile(codigo, "preco", "quantidade");
+ *   program.newExecution(saida).set("preco", 2.5).set("quantidade", 4).run();
+ * </pre>
+*/
+
+public final class Program {
+    private final List<Node> statements;
+    private final String[] names;
+    private final Map<String, Integer> slots;
+
+    private Program(List<Node> statements, String[] names){
+        this.statements = Collections.unmodifiableList(new ArrayList<>(statements));
+        this.names = names;
+        this.slots = new HashMap<>();
+        for (int slot = 0; slot < names.length; slot++) {
+            slots.put(names[slot], slot);
+        }
+    }
+
+    /**
+     * Analisa e resolve o código fonte.
+     * @param source O código do programa.
+     * @param inputs Os nomes das variáveis de entrada.
+     * @throws RuntimeException Com a mensagem do erro de sintaxe ou de resolução.
+    */
+    public static Program compile(String source, String... inputs){
+        return of(new Parser(new Lexer(source).tokenize()).parse(), inputs);
+    }
+
+    /**
+     * Cria o programa a partir de uma AST já analisada. Os nós passam a
+     * pertencer ao Program e não podem ser alterados nem resolvidos por mais ninguém.
+     * @param statements A lista de nós raiz da AST.
+     * @param inputs Os nomes das variáveis de entrada.
+     * @throws RuntimeException Se uma variável é usada sem ser definida nem ser entrada.
+    */
+    public static Program of(List<Node> statements, String... inputs){
+        Resolver resolver = new Resolver();
+        for (String input : inputs) {
+            resolver.declare(input);
+        }
+        return of(statements, resolver);
+    }
+
+    /**
+     * Cria o programa resolvendo a AST com um Resolver dado, que pode ser
+     * compartilhado por vários programas: todos usam então os mesmos slots
+     * para as mesmas variáveis e podem rodar sobre o mesmo {@link Environment}.
+     * O Resolver continua de quem chamou, que deve impedir o uso simultâneo dele.
+     * @param statements A lista de nós raiz da AST.
+     * @param resolver A tabela de slots.
+    */
+    public static Program of(List<Node> statements, Resolver resolver){
+        // Uma inferência nova, na mesma passagem do Resolver: as entradas, as
+        // variáveis que o Resolver já conhecia e as lidas antes de atribuídas
+        // vêm de fora e ficam dinâmicas.
+        TypeInference types = new TypeInference();
+        String[] known = resolver.getNames();
+        for (int slot = 0; slot < known.length; slot++) {
+            types.external(slot, known[slot]);
+        }
+        resolver.setTypeInference(types);
+        try {
+            resolver.resolve(statements);
+        } finally {
+            resolver.setTypeInference(null);
+        }
+        return new Program(statements, resolver.getNames());
+    }
+
+    /**
+     * Cria um contexto de execução novo, com todas as variáveis vazias.
+     * @param out Para onde vão os print e o eco das atribuições.
+     * @param errors Para onde vão as mensagens de erro.
+    */
+    public Execution newExecution(OutputSink out, OutputSink errors){
+        return newExecution(out, errors, new Environment(names.length));
+    }
+
+    /**
+     * Cria um contexto de execução sobre um ambiente que já existe. As
+     * variáveis são lidas e escritas direto nele.
+     * @param variables O ambiente, indexado pelos slots deste programa.
+    */
+    public Execution newExecution(OutputSink out, OutputSink errors, Environment variables){
+        return new Execution(this, new Interpreter(out, errors), variables);
+    }
+
+    public Execution newExecution(OutputSink out){
+        return newExecution(out, new PrintStreamSink(System.err));
+    }
+
+    public Execution newExecution(){
+        return newExecution(new PrintStreamSink());
+    }
+
+    /**
+     * As instruções do programa, somente leitura.
+    */
+    public List<Node> getStatements() {
+        return statements;
+    }
+
+    /**
+     * Quantidade de slots de variáveis que uma execução precisa.
+    */
+    public int getSlotCount() {
+        return names.length;
+    }
+
+    /**
+     * Nome da variável de cada slot, na ordem dos índices.
+    */
+    public String[] getNames() {
+        return names.clone();
+    }
+
+    /**
+     * Slot de uma variável do programa.
+     * @return O slot, ou -1 se o programa não tem essa variável.
+    */
+    public int slotOf(String name){
+        Integer slot = slots.get(name);
+        return slot == null ? -1 : slot;
+    }
+}
@@ -0,0 +1,199 @@
+package core;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import ast.AssignNode;
+import ast.BinaryOpNode;
+import ast.IfNode;
+import ast.Node;
+import ast.PrintNode;
+import ast.Type;
+import ast.VariableNode;
+import ast.WhileNode;
+
+/**
+ * O Resolvedor de variáveis.
+ * Passa pela AST antes da execução e associa cada nome de variável a um
+ * índice fixo (slot) no ambiente. Assim o Interpreter acessa as variáveis
+ * por posição em um array, sem calcular hash de strings durante a execução.
+ * Também detecta o uso de variáveis indefinidas antes de executar qualquer coisa.
+ *
+ * O Resolver é incremental: pode receber instruções aos poucos, e os slots
+ * já atribuídos nunca mudam.
+ *
+ * Com variáveis livres ligadas ({@link #setFreeVariables(boolean)}), ler uma
+ * variável desconhecida não é um erro: ela é declarada como em {@link #declare(String)}
+ * e o valor vem de fora. Lê-la sem valor vira um erro de execução.
+*/
+
+public class Resolver {
+    private final Map<String, Integer> slots = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+    private boolean freeVariables = false;
+    private TypeInference types;
+
+    public void setFreeVariables(boolean freeVariables){
+        this.freeVariables = freeVariables;
+    }
+
+    /**
+     * Liga a inferência de tipos à passagem do Resolver: cada expressão é
+     * anotada com o seu tipo enquanto é resolvida, sem outra passagem pela AST.
+     * @param types A inferência, ou null para só resolver.
+    */
+    public void setTypeInference(TypeInference types){
+        this.types = types;
+    }
+
+    /**
+     * Resolve uma lista de instruções, na ordem em que serão executadas.
+     * @param statements A lista de nós raiz da AST.
+    */
+    public void resolve(List<Node> statements){
+        if (types != null) {
+            types.begin();
+        }
+        for (Node statement : statements){
+            resolveStatement(statement);
+        }
+        if (types != null) {
+            types.finish(statements);
+        }
+    }
+
+    /**
+     * Resolve uma única instrução.
+     * @param statement O nó da instrução.
+    */
+    public void resolve(Node statement){
+        if (types != null) {
+            types.begin();
+        }
+        resolveStatement(statement);
+        if (types != null) {
+            types.finish(List.of(statement));
+        }
+    }
+
+    private void resolveStatement(Node statement){
+        if (statement instanceof AssignNode) {
+            AssignNode assignNode = (AssignNode) statement;
+            // A expressão é resolvida antes de declarar a variável,
+            // então "var x = x + 1;" continua sendo um erro se x não existir.
+            Type type = resolveExpression(assignNode.getExpression());
+            assignNode.setSlot(define(assignNode.getVariable()));
+            if (types != null) {
+                types.assigned(assignNode, type);
+            }
+            return;
+        }
+
+        if (statement instanceof PrintNode) {
+            Type type = resolveExpression(((PrintNode) statement).getExpression());
+            if (types != null) {
+                types.printed((PrintNode) statement, type);
+            }
+            return;
+        }
+
+        // Os blocos não criam um escopo novo: uma variável declarada dentro
+        // deles continua existindo depois (sem valor, se o bloco não executou).
+        if (statement instanceof IfNode) {
+            IfNode ifNode = (IfNode) statement;
+            resolveExpression(ifNode.getCondition());
+            resolveStatements(ifNode.getThenBranch());
+            resolveStatements(ifNode.getElseBranch());
+            return;
+        }
+
+        if (statement instanceof WhileNode) {
+            WhileNode whileNode = (WhileNode) statement;
+            resolveExpression(whileNode.getCondition());
+            resolveStatements(whileNode.getBody());
+            return;
+        }
+
+        resolveExpression(statement);
+    }
+
+    private void resolveStatements(List<Node> statements){
+        for (Node statement : statements) {
+            resolveStatement(statement);
+        }
+    }
+
+    /**
+     * @return O tipo da expressão, ou null sem a inferência de tipos.
+    */
+    private Type resolveExpression(Node expression){
+        if (expression instanceof VariableNode) {
+            VariableNode variable = (VariableNode) expression;
+            Integer slot = slots.get(variable.getName());
+            if (slot == null && freeVariables) {
+                slot = define(variable.getName());
+            }
+            if (slot == null) {
+                throw new RuntimeException("Variavel indefinida '" + variable.getName() + "'.");
+            }
+            variable.setSlot(slot);
+            return types == null ? null : types.variable(variable);
+        }
+
+        if (expression instanceof BinaryOpNode) {
+            BinaryOpNode node = (BinaryOpNode) expression;
+            Type left = resolveExpression(node.getLeft());
+            Type right = resolveExpression(node.getRight());
+            return types == null ? null : types.binary(node, left, right);
+        }
+
+        return types == null ? null : types.literal(expression);
+    }
+
+    /**
+     * Declara uma variável que o programa pode ler sem ter atribuído antes
+     * (uma entrada, preenchida por quem executa o programa).
+     * @param name O nome da variável.
+     * @return O slot da variável.
+    */
+    public int declare(String name){
+        return define(name);
+    }
+
+    /**
+     * Slot de uma variável já conhecida.
+     * @return O slot, ou -1 se a variável não existe.
+    */
+    public int slotOf(String name){
+        Integer slot = slots.get(name);
+        return slot == null ? -1 : slot;
+    }
+
+    /**
+     * Retorna o slot de uma variável, criando um novo se ela ainda não existir.
+    */
+    private int define(String name){
+        Integer slot = slots.get(name);
+        if (slot == null) {
+            slot = names.size();
+            slots.put(name, slot);
+            names.add(name);
+        }
+        return slot;
+    }
+
+    /**
+     * Quantidade de slots atribuídos até agora (tamanho necessário do ambiente).
+    */
+    public int getSlotCount() {
+        return names.size();
+    }
+
+    /**
+     * Nome da variável de cada slot, na ordem dos índices.
+    */
+    public String[] getNames() {
+        return names.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,75 @@
+package core;
+
+/**
+ * Um texto produzido por concatenação, guardado como um pedaço de um
+ * StringBuilder compartilhado.
+ *
+ * Cada Rope é imutável: enxerga os primeiros {@link #length()} caracteres do
+ * buffer, e o buffer só cresce no fim. O texto que está no fim do buffer pode
+ * ser continuado ali mesmo ({@link #tail()}), então "s = s + ..." repetido
+ * acrescenta só o trecho novo, em vez de copiar todo o texto acumulado a cada
+ * atribuição. Um Rope que não está mais no fim (porque outro texto já
+ * continuou o buffer) é copiado na próxima concatenação, como uma String.
+ *
+ * Só existe dentro do Interpreter e do {@link Environment}: quem lê uma
+ * variável de fora recebe uma String. Como o buffer não é sincronizado, um
+ * Rope não deve ser concatenado por duas threads ao mesmo tempo.
+*/
+final class Rope implements CharSequence {
+    private final StringBuilder buffer;
+    private final int length;
+    private String string;
+
+    /**
+     * Um texto com todo o conteúdo atual do buffer.
+    */
+    Rope(StringBuilder buffer){
+        this.buffer = buffer;
+        this.length = buffer.length();
+    }
+
+    /**
+     * O buffer, se este texto ainda está no fim dele e pode ser continuado ali mesmo.
+     * @return O buffer, ou null se o texto tem que ser copiado.
+    */
+    StringBuilder tail(){
+        return length == buffer.length() ? buffer : null;
+    }
+
+    /**
+     * Acrescenta este texto ao fim de 'target'.
+    */
+    void appendTo(StringBuilder target){
+        if (target != buffer && length == buffer.length()) {
+            target.append(buffer);
+        } else {
+            target.append(toString());
+        }
+    }
+
+    @Override
+    public int length(){
+        return length;
+    }
+
+    @Override
+    public char charAt(int index){
+        if (index < 0 || index >= length) {
+            throw new StringIndexOutOfBoundsException(index);
+        }
+        return buffer.charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end){
+        return toString().subSequence(start, end);
+    }
+
+    @Override
+    public String toString(){
+        if (string == null) {
+            string = buffer.substring(0, length);
+        }
+        return string;
+    }
+}
@@ -0,0 +1,282 @@
+package core;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import ast.AssignNode;
+import ast.BinaryOpNode;
+import ast.BooleanNode;
+import ast.IfNode;
+import ast.Node;
+import ast.NumberNode;
+import ast.PrintNode;
+import ast.StringNode;
+import ast.Type;
+import ast.VariableNode;
+import ast.WhileNode;
+
+/**
+ * A inferência de tipos.
+ * Anota cada expressão da AST com o seu tipo ({@link Node#getType()}): número,
+ * string, booleano ou dinâmico. O Interpreter executa as expressões numéricas por um
+ * caminho que não verifica o tipo dos valores.
+ *
+ * Cada variável tem um único tipo no programa inteiro: o dos valores de todas
+ * as atribuições a ela. Uma variável que recebe números e strings é "mista" e
+ * fica dinâmica, assim como as expressões que a leem. Uma variável lida antes
+ * de qualquer atribuição recebe o valor de fora (uma entrada de um Program,
+ * os Bindings do javax.script) e também é dinâmica. O mesmo vale para as
+ * variáveis que já existiam antes do programa ({@link #external}): mesmo que
+ * o código só atribua números a elas, a atribuição pode estar em um if que
+ * não executa, e o valor lido é o de fora.
+ *
+ * O {@link Program} faz a inferência durante a passagem do Resolver
+ * ({@link Resolver#setTypeInference(TypeInference)}), sem percorrer a AST de
+ * novo: o custo é pago uma vez e as execuções aproveitam. O
+ * {@link Interpreter#interpret(List)} executa cada instrução uma vez só e não
+ * anota nada. Só quando uma variável muda de tipo depois de já ter sido lida (e
+ * anotada com o tipo antigo) é que {@link #finish(List)} repete a passagem.
+ *
+ * Como o Resolver, a inferência é incremental: o tipo conhecido das variáveis
+ * é mantido entre chamadas e só se alarga.
+*/
+
+public class TypeInference {
+    // Tipo de cada slot; null enquanto a variável não foi atribuída nem lida
+    private Type[] variables = new Type[0];
+    private String[] names = new String[0];
+    // Passagem em que cada slot foi lido pela última vez
+    private int[] readIn = new int[0];
+    private int pass = 0;
+    private boolean repeat = false;
+    private final Set<String> mixed = new LinkedHashSet<>();
+
+    /**
+     * Declara uma variável cujo valor vem de fora do programa (uma entrada ou
+     * uma variável de um programa anterior): ela pode ter qualquer tipo.
+    */
+    void external(int slot, String name){
+        ensureCapacity(slot);
+        if (variables[slot] == null) {
+            variables[slot] = Type.DYNAMIC;
+            names[slot] = name;
+        }
+    }
+
+    /**
+     * Anota uma lista de instruções já resolvidas, sem o Resolver.
+     * @param statements A lista de nós raiz da AST.
+    */
+    public void infer(List<Node> statements){
+        begin();
+        for (Node statement : statements) {
+            inferStatement(statement);
+        }
+        finish(statements);
+    }
+
+    /**
+     * Começa uma passagem. O Resolver chama antes de percorrer as instruções.
+    */
+    void begin(){
+        pass++;
+        repeat = false;
+    }
+
+    /**
+     * Termina a passagem, repetindo-a enquanto o tipo de alguma variável
+     * mudar depois de ela ter sido lida.
+     * @param statements As mesmas instruções da passagem.
+    */
+    void finish(List<Node> statements){
+        while (repeat) {
+            begin();
+            for (Node statement : statements) {
+                inferStatement(statement);
+            }
+        }
+    }
+
+    private void inferStatement(Node statement){
+        if (statement instanceof AssignNode) {
+            AssignNode assignNode = (AssignNode) statement;
+            assigned(assignNode, inferExpression(assignNode.getExpression()));
+            return;
+        }
+        if (statement instanceof PrintNode) {
+            PrintNode printNode = (PrintNode) statement;
+            annotate(printNode, inferExpression(printNode.getExpression()));
+            return;
+        }
+        if (statement instanceof IfNode) {
+            IfNode ifNode = (IfNode) statement;
+            inferExpression(ifNode.getCondition());
+            inferStatements(ifNode.getThenBranch());
+            inferStatements(ifNode.getElseBranch());
+            return;
+        }
+        if (statement instanceof WhileNode) {
+            WhileNode whileNode = (WhileNode) statement;
+            inferExpression(whileNode.getCondition());
+            inferStatements(whileNode.getBody());
+            return;
+        }
+        inferExpression(statement);
+    }
+
+    private void inferStatements(List<Node> statements){
+        for (Node statement : statements) {
+            inferStatement(statement);
+        }
+    }
+
+    private Type inferExpression(Node expression){
+        if (expression instanceof VariableNode) {
+            return variable((VariableNode) expression);
+        }
+        if (expression instanceof BinaryOpNode) {
+            BinaryOpNode node = (BinaryOpNode) expression;
+            Type left = inferExpression(node.getLeft());
+            Type right = inferExpression(node.getRight());
+            return binary(node, left, right);
+        }
+        return literal(expression);
+    }
+
+    // --- Regras de cada nó (usadas também pelo Resolver) ---
+
+    Type literal(Node expression){
+        Type type;
+        if (expression instanceof NumberNode) {
+            type = Type.NUMBER;
+        } else if (expression instanceof StringNode) {
+            type = Type.STRING;
+        } else if (expression instanceof BooleanNode) {
+            type = Type.BOOLEAN;
+        } else {
+            type = Type.DYNAMIC;
+        }
+        annotate(expression, type);
+        return type;
+    }
+
+    /**
+     * Uma leitura de variável já resolvida.
+    */
+    Type variable(VariableNode variable){
+        int slot = variable.getSlot();
+        ensureCapacity(slot);
+        if (variables[slot] == null) {
+            // Lida antes de ser atribuída: o valor vem de fora.
+            variables[slot] = Type.DYNAMIC;
+            names[slot] = variable.getName();
+        }
+        readIn[slot] = pass;
+        Type type = variables[slot];
+        annotate(variable, type);
+        return type;
+    }
+
+    Type binary(BinaryOpNode node, Type left, Type right){
+        Type type;
+        if (node.isComparison()) {
+            // Com tipos que não se comparam, falha.
+            type = Type.BOOLEAN;
+        } else if (!node.getOperator().equals("+")) {
+            // '-', '*' e '/' só produzem números; com outro tipo, falham.
+            type = Type.NUMBER;
+        } else if (left == Type.STRING || right == Type.STRING) {
+            type = Type.STRING;
+        } else if (left == Type.NUMBER && right == Type.NUMBER) {
+            type = Type.NUMBER;
+        } else {
+            type = Type.DYNAMIC;
+        }
+        annotate(node, type);
+        return type;
+    }
+
+    /**
+     * Uma atribuição já resolvida, cujo valor tem o tipo 'type'.
+    */
+    void assigned(AssignNode assignNode, Type type){
+        annotate(assignNode, type);
+
+        int slot = assignNode.getSlot();
+        ensureCapacity(slot);
+        Type previous = variables[slot];
+        if (previous == null) {
+            // Primeira atribuição: ninguém leu a variável antes.
+            variables[slot] = type;
+            names[slot] = assignNode.getVariable();
+            return;
+        }
+        Type joined = previous.join(type);
+        if (joined == previous) {
+            return;
+        }
+        if (previous != Type.DYNAMIC && type != Type.DYNAMIC) {
+            mixed.add(assignNode.getVariable());
+        }
+        variables[slot] = joined;
+        if (readIn[slot] == pass) {
+            repeat = true;
+        }
+    }
+
+    void printed(PrintNode printNode, Type type){
+        annotate(printNode, type);
+    }
+
+    /**
+     * Só escreve no nó se o tipo mudou: uma AST já anotada não é tocada de novo.
+    */
+    private static void annotate(Node node, Type type){
+        if (node.getType() != type) {
+            node.setType(type);
+        }
+    }
+
+    private void ensureCapacity(int slot){
+        if (slot >= variables.length) {
+            int capacity = Math.max(slot + 1, variables.length * 2);
+            variables = Arrays.copyOf(variables, capacity);
+            names = Arrays.copyOf(names, capacity);
+            readIn = Arrays.copyOf(readIn, capacity);
+        }
+    }
+
+    /**
+     * O tipo inferido para um slot, ou null se ele ainda não apareceu.
+    */
+    public Type getType(int slot){
+        return slot < variables.length ? variables[slot] : null;
+    }
+
+    /**
+     * As variáveis que recebem números e strings, na ordem em que ficaram mistas.
+     * Toda leitura delas passa pelo caminho lento do Interpreter.
+    */
+    public List<String> getMixedVariables() {
+        return new ArrayList<>(mixed);
+    }
+
+    /**
+     * Um resumo com o tipo de cada variável e um aviso para cada variável mista.
+    */
+    public String report(){
+        StringBuilder sb = new StringBuilder();
+        for (int slot = 0; slot < variables.length; slot++) {
+            if (variables[slot] != null) {
+                sb.append(names[slot]).append(": ").append(variables[slot].label()).append('\n');
+            }
+        }
+        for (String name : mixed) {
+            sb.append("Aviso: a variavel '").append(name)
+              .append("' recebe numeros e strings; as leituras dela usam o caminho lento.\n");
+        }
+        return sb.toString();
+    }
+}
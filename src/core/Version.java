@@ -0,0 +1,13 @@
+package core;
+
+/**
+ * A versão do interpretador.
+ * Deve acompanhar a versão do pom.xml. Entra na chave do cache de programas
+ * compilados, então qualquer mudança na AST ou na semântica deve trocá-la.
+*/
+public final class Version {
+    public static final String NUMBER = "1.0-SNAPSHOT";
+
+    private Version(){
+    }
+}
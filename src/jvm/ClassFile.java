@@ -0,0 +1,244 @@
+package jvm;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Monta um arquivo .class mínimo: o pool de constantes e métodos estáticos.
+ * Só tem o que o {@link JvmCompiler} usa (sem campos, sem interfaces, sem
+ * desvios e portanto sem StackMapTable).
+*/
+class ClassFile {
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final int VERSION = 61; // Java 17
+
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_STATIC = 0x0008;
+    private static final int ACC_FINAL = 0x0010;
+    private static final int ACC_SUPER = 0x0020;
+
+    // Tags do pool de constantes
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_INTEGER = 3;
+    private static final int CONSTANT_DOUBLE = 6;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_STRING = 8;
+    private static final int CONSTANT_METHODREF = 10;
+    private static final int CONSTANT_INTERFACE_METHODREF = 11;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+    private final ByteArrayOutputStream poolBytes = new ByteArrayOutputStream();
+    private final DataOutputStream pool = new DataOutputStream(poolBytes);
+    private final Map<String, Integer> entries = new HashMap<>();
+    private int poolCount = 1;
+
+    private final ByteArrayOutputStream methodBytes = new ByteArrayOutputStream();
+    private final DataOutputStream methods = new DataOutputStream(methodBytes);
+    private int methodCount = 0;
+
+    private final String name;
+
+    /**
+     * @param name O nome interno da classe (ex: "jvm/Script").
+    */
+    ClassFile(String name){
+        this.name = name;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    /**
+     * Quantas posições do pool de constantes já estão ocupadas.
+    */
+    int getPoolSize() {
+        return poolCount;
+    }
+
+    // --- Pool de constantes ---
+
+    int utf8(String value){
+        Integer index = entries.get("U" + value);
+        if (index != null) {
+            return index;
+        }
+        try {
+            pool.writeByte(CONSTANT_UTF8);
+            pool.writeUTF(value);
+        } catch (IOException e) {
+            // writeUTF recusa textos com mais de 65535 bytes.
+            throw new RuntimeException("Constante grande demais para o arquivo .class.");
+        }
+        return add("U" + value, 1);
+    }
+
+    int integer(int value){
+        Integer index = entries.get("I" + value);
+        if (index != null) {
+            return index;
+        }
+        write(CONSTANT_INTEGER);
+        writeInt(value);
+        return add("I" + value, 1);
+    }
+
+    int doubleConstant(double value){
+        long bits = Double.doubleToRawLongBits(value);
+        Integer index = entries.get("D" + bits);
+        if (index != null) {
+            return index;
+        }
+        write(CONSTANT_DOUBLE);
+        writeInt((int) (bits >>> 32));
+        writeInt((int) bits);
+        // Um double ocupa duas posições do pool.
+        return add("D" + bits, 2);
+    }
+
+    int classRef(String internalName){
+        return reference("C" + internalName, CONSTANT_CLASS, utf8(internalName));
+    }
+
+    int string(String value){
+        return reference("S" + value, CONSTANT_STRING, utf8(value));
+    }
+
+    int methodRef(String owner, String method, String descriptor){
+        return memberRef(CONSTANT_METHODREF, owner, method, descriptor);
+    }
+
+    int interfaceMethodRef(String owner, String method, String descriptor){
+        return memberRef(CONSTANT_INTERFACE_METHODREF, owner, method, descriptor);
+    }
+
+    private int memberRef(int tag, String owner, String method, String descriptor){
+        String key = "M" + tag + owner + "." + method + descriptor;
+        Integer index = entries.get(key);
+        if (index != null) {
+            return index;
+        }
+        int ownerIndex = classRef(owner);
+        int nameAndType = reference2("N" + method + ":" + descriptor, CONSTANT_NAME_AND_TYPE, utf8(method), utf8(descriptor));
+        return reference2(key, tag, ownerIndex, nameAndType);
+    }
+
+    private int reference(String key, int tag, int target){
+        Integer index = entries.get(key);
+        if (index != null) {
+            return index;
+        }
+        write(tag);
+        writeShort(target);
+        return add(key, 1);
+    }
+
+    private int reference2(String key, int tag, int first, int second){
+        Integer index = entries.get(key);
+        if (index != null) {
+            return index;
+        }
+        write(tag);
+        writeShort(first);
+        writeShort(second);
+        return add(key, 1);
+    }
+
+    private int add(String key, int size){
+        int index = poolCount;
+        poolCount += size;
+        if (poolCount > 0xFFFF) {
+            throw new RuntimeException("Constantes demais para o arquivo .class.");
+        }
+        entries.put(key, index);
+        return index;
+    }
+
+    // --- Métodos ---
+
+    /**
+     * Acrescenta um método público e estático.
+    */
+    void addStaticMethod(String method, String descriptor, MethodCode code){
+        byte[] bytes = code.toByteArray();
+        if (bytes.length > 0xFFFF) {
+            throw new RuntimeException("Metodo '" + method + "' grande demais para o arquivo .class.");
+        }
+        int nameIndex = utf8(method);
+        int descriptorIndex = utf8(descriptor);
+        int codeIndex = utf8("Code");
+        try {
+            methods.writeShort(ACC_PUBLIC | ACC_STATIC);
+            methods.writeShort(nameIndex);
+            methods.writeShort(descriptorIndex);
+            methods.writeShort(1); // um atributo: Code
+            methods.writeShort(codeIndex);
+            methods.writeInt(12 + bytes.length);
+            methods.writeShort(code.getMaxStack());
+            methods.writeShort(code.getMaxLocals());
+            methods.writeInt(bytes.length);
+            methods.write(bytes);
+            methods.writeShort(0); // tabela de exceções
+            methods.writeShort(0); // atributos do Code
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        methodCount++;
+    }
+
+    /**
+     * Gera os bytes do arquivo .class.
+    */
+    byte[] toByteArray(){
+        int thisClass = classRef(name);
+        int superClass = classRef("java/lang/Object");
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeInt(MAGIC);
+            out.writeShort(0);
+            out.writeShort(VERSION);
+            out.writeShort(poolCount);
+            poolBytes.writeTo(out);
+            out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(0); // interfaces
+            out.writeShort(0); // campos
+            out.writeShort(methodCount);
+            methodBytes.writeTo(out);
+            out.writeShort(0); // atributos da classe
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private void write(int value){
+        try {
+            pool.writeByte(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeShort(int value){
+        try {
+            pool.writeShort(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeInt(int value){
+        try {
+            pool.writeInt(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package jvm;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.List;
+
+import output.OutputSink;
+
+/**
+ * Um script JPP compilado para classes JVM ocultas (hidden classes).
+ * As classes não têm nome visível, não podem ser usadas por outras classes e
+ * são descarregadas junto com este objeto. Quase sempre há uma só; scripts
+ * muito grandes são divididos em várias, executadas em ordem.
+*/
+public class CompiledScript {
+    private static final MethodType RUN = MethodType.methodType(
+            void.class, OutputSink.class, double[].class, Object[].class);
+
+    private final MethodHandle[] runs;
+    private final int slotCount;
+
+    private CompiledScript(MethodHandle[] runs, int slotCount){
+        this.runs = runs;
+        this.slotCount = slotCount;
+    }
+
+    /**
+     * Carrega as classes geradas pelo {@link JvmCompiler} como classes ocultas
+     * no pacote jvm.
+    */
+    static CompiledScript define(List<byte[]> classes, int slotCount){
+        MethodHandle[] runs = new MethodHandle[classes.size()];
+        try {
+            for (int i = 0; i < runs.length; i++) {
+                MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(classes.get(i), true);
+                runs[i] = lookup.findStatic(lookup.lookupClass(), "run", RUN);
+            }
+        } catch (ReflectiveOperationException | LinkageError e) {
+            throw new RuntimeException("Falha ao carregar o codigo gerado: " + e);
+        }
+        return new CompiledScript(runs, slotCount);
+    }
+
+    /**
+     * Executa o script com variáveis novas.
+     * Erros de execução são reportados da mesma forma que no Interpreter.
+     * @param out O destino da saída do programa.
+    */
+    public void run(OutputSink out){
+        double[] numbers = new double[slotCount];
+        Object[] values = new Object[slotCount];
+        try {
+            for (MethodHandle run : runs) {
+                run.invokeExact(out, numbers, values);
+            }
+        } catch (RuntimeException e) {
+            out.flush();
+            System.err.println("Erro de execussao " + e.getMessage());
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable e) {
+            // run não declara exceções verificadas.
+            throw new IllegalStateException(e);
+        }
+        out.flush();
+    }
+}
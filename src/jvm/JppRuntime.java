@@ -0,0 +1,22 @@
+package jvm;
+
+/**
+ * Rotinas chamadas pelo código gerado pelo {@link JvmCompiler}.
+ * Ficam aqui as operações que precisariam de desvios no bytecode, para que
+ * o código gerado seja sempre uma sequência reta de instruções.
+*/
+public final class JppRuntime {
+
+    private JppRuntime(){
+    }
+
+    /**
+     * A divisão do JPP: igual à do Java, mas dividir por zero é um erro.
+    */
+    public static double divide(double left, double right){
+        if (right == 0) {
+            throw new RuntimeException("Erro: Divisao por zero.");
+        }
+        return left / right;
+    }
+}
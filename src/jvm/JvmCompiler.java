@@ -0,0 +1,459 @@
+package jvm;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import ast.AssignNode;
+import ast.BinaryOpNode;
+import ast.BooleanNode;
+import ast.IfNode;
+import ast.Node;
+import ast.NumberNode;
+import ast.PrintNode;
+import ast.StringNode;
+import ast.VariableNode;
+import ast.WhileNode;
+import core.Resolver;
+
+/**
+ * Compila um programa JPP para uma classe JVM, carregada como classe oculta.
+ *
+ * Cada variável vira um local do método gerado: um double para números e
+ * uma String para textos. Como um programa JPP é uma sequência reta de
+ * instruções, o tipo de cada expressão é conhecido durante a compilação, e
+ * o código gerado não tem verificações de tipo nem desvios. O JIT trata o
+ * script como qualquer outro método Java. Programas com comparações,
+ * booleanos, if ou while não são compilados (um erro, antes da execução):
+ * para eles existem o Interpreter e a VM.
+ *
+ * O mesmo vale para os erros de tipo: uma operação inválida vira um throw no
+ * ponto certo, depois das instruções anteriores. A divisão por zero, que
+ * depende do valor, é verificada por {@link JppRuntime#divide}.
+ *
+ * O HotSpot não compila métodos muito grandes, então programas grandes são
+ * divididos em segmentos (um método cada), chamados em ordem pelo método
+ * run. Nas fronteiras, as variáveis passam por arrays: cada segmento carrega
+ * as que lê e guarda as que escreve. Pelo mesmo motivo (o pool de constantes
+ * de uma classe tem no máximo 65535 posições), um programa muito grande vira
+ * várias classes, executadas uma depois da outra.
+*/
+public class JvmCompiler {
+    private static final String CLASS_NAME = "jvm/Script";
+    private static final String SINK = "output/OutputSink";
+    private static final String STRING = "java/lang/String";
+    private static final String NUMBER_TEXT = "output/NumberText";
+    private static final String METHOD_DESCRIPTOR = "(Loutput/OutputSink;[D[Ljava/lang/Object;)V";
+
+    // Tipos estáticos das expressões
+    private static final int UNDEFINED = 0;
+    private static final int NUMBER_TYPE = 1;
+    private static final int STRING_TYPE = 2;
+    private static final int INVALID = 3;
+
+    // Parâmetros de cada método gerado
+    private static final int OUT = 0;
+    private static final int NUMBERS = 1;
+    private static final int VALUES = 2;
+
+    /**
+     * Tamanho estimado a partir do qual um segmento é fechado. Fica abaixo
+     * dos 8000 bytes a partir dos quais o HotSpot não compila um método
+     * (DontCompileHugeMethods), para que todo segmento possa ir para o JIT.
+    */
+    private static final int SEGMENT_LIMIT = 7 * 1024;
+    /** Bytes de prólogo ou epílogo por variável, no pior caso. */
+    private static final int TRANSFER_SIZE = 10;
+    /** Tamanho do pool de constantes a partir do qual uma classe é fechada. */
+    private static final int POOL_LIMIT = 60_000;
+
+    private final boolean echoAssignments;
+    private final Resolver resolver = new Resolver();
+    private final List<byte[]> classes = new ArrayList<>();
+    private ClassFile classFile;
+
+    /** O tipo atual de cada variável, por slot. */
+    private int[] types;
+
+    // Estado do segmento em construção
+    private MethodCode body;
+    private int[] numberLocals;
+    private int[] stringLocals;
+    private final List<int[]> entryLoads = new ArrayList<>(); // {slot, tipo, local}
+    private final List<Integer> written = new ArrayList<>();
+    private boolean[] isWritten;
+    private int segments = 0;
+
+    public JvmCompiler(){
+        this(true);
+    }
+
+    /**
+     * @param echoAssignments Se as atribuições devem imprimir "nome = valor".
+    */
+    public JvmCompiler(boolean echoAssignments){
+        this.echoAssignments = echoAssignments;
+    }
+
+    /**
+     * Compila e carrega um programa.
+     * Variáveis indefinidas são detectadas aqui, antes de qualquer execução.
+     * @param statements A lista de nós raiz da AST.
+     * @return O script pronto para executar.
+    */
+    public CompiledScript compile(List<Node> statements){
+        List<byte[]> bytes = generate(statements);
+        return CompiledScript.define(bytes, resolver.getSlotCount());
+    }
+
+    /**
+     * Gera os bytes das classes, sem carregá-las (útil para inspecionar com javap).
+     * @param statements A lista de nós raiz da AST.
+     * @return Uma classe por elemento, na ordem em que devem ser executadas.
+    */
+    public List<byte[]> generate(List<Node> statements){
+        resolver.resolve(statements);
+        int slots = resolver.getSlotCount();
+        types = new int[slots];
+        numberLocals = new int[slots];
+        stringLocals = new int[slots];
+        isWritten = new boolean[slots];
+
+        classFile = new ClassFile(CLASS_NAME);
+        startSegment();
+        boolean aborted = false;
+        for (Node statement : statements) {
+            if (estimatedSize() > SEGMENT_LIMIT || classFile.getPoolSize() > POOL_LIMIT) {
+                closeSegment(false);
+                if (classFile.getPoolSize() > POOL_LIMIT) {
+                    closeClass();
+                    classFile = new ClassFile(CLASS_NAME);
+                }
+                startSegment();
+            }
+            try {
+                compileStatement(statement);
+            } catch (Abort e) {
+                // O resto do programa nunca executa.
+                aborted = true;
+                break;
+            }
+        }
+        closeSegment(aborted);
+        closeClass();
+
+        return classes;
+    }
+
+    /**
+     * Termina a classe atual com o método run, que chama os segmentos em ordem.
+    */
+    private void closeClass(){
+        MethodCode run = new MethodCode(3);
+        for (int i = 0; i < segments; i++) {
+            run.local(MethodCode.ALOAD, OUT, 1);
+            run.local(MethodCode.ALOAD, NUMBERS, 1);
+            run.local(MethodCode.ALOAD, VALUES, 1);
+            run.op(MethodCode.INVOKESTATIC, classFile.methodRef(CLASS_NAME, "segment" + i, METHOD_DESCRIPTOR), -3);
+        }
+        run.op(MethodCode.RETURN, 0);
+        classFile.addStaticMethod("run", METHOD_DESCRIPTOR, run);
+
+        classes.add(classFile.toByteArray());
+        segments = 0;
+    }
+
+    // --- Segmentos ---
+
+    private void startSegment(){
+        body = new MethodCode(3);
+        Arrays.fill(numberLocals, -1);
+        Arrays.fill(stringLocals, -1);
+        for (int slot : written) {
+            isWritten[slot] = false;
+        }
+        written.clear();
+        entryLoads.clear();
+    }
+
+    private int estimatedSize(){
+        return body.size() + (entryLoads.size() + written.size()) * TRANSFER_SIZE;
+    }
+
+    /**
+     * Monta o método do segmento: prólogo (carrega dos arrays as variáveis
+     * lidas), corpo e epílogo (guarda nos arrays as variáveis escritas).
+     * @param aborted Se o corpo termina em um throw, sem epílogo nem return.
+    */
+    private void closeSegment(boolean aborted){
+        MethodCode method = new MethodCode(body.getMaxLocals());
+
+        for (int[] load : entryLoads) {
+            int slot = load[0];
+            int local = load[2];
+            if (load[1] == NUMBER_TYPE) {
+                method.local(MethodCode.ALOAD, NUMBERS, 1);
+                method.pushInt(slot, classFile);
+                method.op(MethodCode.DALOAD, 0);
+                method.local(MethodCode.DSTORE, local, -2);
+            } else {
+                method.local(MethodCode.ALOAD, VALUES, 1);
+                method.pushInt(slot, classFile);
+                method.op(MethodCode.AALOAD, -1);
+                method.op(MethodCode.CHECKCAST, classFile.classRef(STRING), 0);
+                method.local(MethodCode.ASTORE, local, -1);
+            }
+        }
+
+        method.append(body);
+
+        if (!aborted) {
+            for (int slot : written) {
+                if (types[slot] == NUMBER_TYPE) {
+                    method.local(MethodCode.ALOAD, NUMBERS, 1);
+                    method.pushInt(slot, classFile);
+                    method.local(MethodCode.DLOAD, numberLocals[slot], 2);
+                    method.op(MethodCode.DASTORE, -4);
+                } else {
+                    method.local(MethodCode.ALOAD, VALUES, 1);
+                    method.pushInt(slot, classFile);
+                    method.local(MethodCode.ALOAD, stringLocals[slot], 1);
+                    method.op(MethodCode.AASTORE, -3);
+                }
+            }
+            method.op(MethodCode.RETURN, 0);
+        }
+
+        classFile.addStaticMethod("segment" + segments, METHOD_DESCRIPTOR, method);
+        segments++;
+    }
+
+    /**
+     * O local que guarda a variável com o tipo dado neste segmento.
+     * Se ainda não existe, é criado; se 'load' for verdadeiro, o prólogo do
+     * segmento o preenche com o valor que a variável tinha na entrada.
+    */
+    private int localFor(int slot, int type, boolean load){
+        int[] locals = type == NUMBER_TYPE ? numberLocals : stringLocals;
+        if (locals[slot] < 0) {
+            locals[slot] = body.newLocal(type == NUMBER_TYPE ? 2 : 1);
+            if (load) {
+                entryLoads.add(new int[] {slot, type, locals[slot]});
+            }
+        }
+        return locals[slot];
+    }
+
+    // --- Instruções ---
+
+    private void compileStatement(Node statement){
+        if (statement instanceof IfNode || statement instanceof WhileNode) {
+            throw new RuntimeException("O compilador JVM nao aceita if nem while.");
+        }
+
+        if (statement instanceof AssignNode) {
+            AssignNode assignNode = (AssignNode) statement;
+            int slot = assignNode.getSlot();
+            int type = compileExpression(assignNode.getExpression());
+            int local = localFor(slot, type, false);
+            store(type, local);
+            types[slot] = type;
+            if (!isWritten[slot]) {
+                isWritten[slot] = true;
+                written.add(slot);
+            }
+
+            // Mesmo eco de depuração do Interpreter: "nome = valor"
+            if (echoAssignments) {
+                body.local(MethodCode.ALOAD, OUT, 1);
+                body.ldc(classFile.string(assignNode.getVariable() + " = "), 1);
+                load(type, local);
+                toText(type);
+                concat();
+                println();
+            }
+            return;
+        }
+
+        if (statement instanceof PrintNode) {
+            body.local(MethodCode.ALOAD, OUT, 1);
+            if (compileExpression(((PrintNode) statement).getExpression()) == NUMBER_TYPE) {
+                // O sink formata o número direto no seu buffer
+                body.invokeInterface(classFile.interfaceMethodRef(SINK, "println", "(D)V"), 2, -3);
+            } else {
+                println();
+            }
+            return;
+        }
+
+        // Uma expressão solta é avaliada e o resultado descartado.
+        int type = compileExpression(statement);
+        body.op(type == NUMBER_TYPE ? MethodCode.POP2 : MethodCode.POP, type == NUMBER_TYPE ? -2 : -1);
+    }
+
+    // --- Expressões ---
+
+    /**
+     * Gera o código que empilha o valor da expressão.
+     * @return O tipo do valor empilhado.
+    */
+    private int compileExpression(Node expression){
+        if (expression instanceof BooleanNode
+                || expression instanceof BinaryOpNode && ((BinaryOpNode) expression).isComparison()) {
+            throw new RuntimeException("O compilador JVM nao aceita comparacoes nem booleanos.");
+        }
+
+        if (expression instanceof NumberNode) {
+            body.op(MethodCode.LDC2_W, classFile.doubleConstant(((NumberNode) expression).getValue()), 2);
+            return NUMBER_TYPE;
+        }
+
+        if (expression instanceof StringNode) {
+            body.ldc(classFile.string(((StringNode) expression).getString()), 1);
+            return STRING_TYPE;
+        }
+
+        if (expression instanceof VariableNode) {
+            // O Resolver já garantiu que a variável existe.
+            int slot = ((VariableNode) expression).getSlot();
+            int type = types[slot];
+            load(type, localFor(slot, type, true));
+            return type;
+        }
+
+        if (expression instanceof BinaryOpNode) {
+            BinaryOpNode node = (BinaryOpNode) expression;
+            String operator = node.getOperator();
+            int rightType = typeOf(node.getRight());
+
+            // Os dois lados são avaliados antes de qualquer erro de tipo,
+            // como no Interpreter (uma divisão por zero neles vem primeiro).
+            int leftType = compileExpression(node.getLeft());
+            boolean concat = operator.equals("+") && rightType != INVALID
+                    && (leftType == STRING_TYPE || rightType == STRING_TYPE);
+            if (concat) {
+                toText(leftType);
+            }
+            compileExpression(node.getRight());
+
+            if (concat) {
+                toText(rightType);
+                concat();
+                return STRING_TYPE;
+            }
+
+            if (leftType == NUMBER_TYPE && rightType == NUMBER_TYPE) {
+                switch (operator) {
+                    case "+":
+                        body.op(MethodCode.DADD, -2);
+                        return NUMBER_TYPE;
+                    case "-":
+                        body.op(MethodCode.DSUB, -2);
+                        return NUMBER_TYPE;
+                    case "*":
+                        body.op(MethodCode.DMUL, -2);
+                        return NUMBER_TYPE;
+                    case "/":
+                        body.op(MethodCode.INVOKESTATIC,
+                                classFile.methodRef("jvm/JppRuntime", "divide", "(DD)D"), -2);
+                        return NUMBER_TYPE;
+                }
+            }
+
+            throwError("Operacao invalida '" + operator + "' para os tipos de dados fornecidos.");
+        }
+
+        throw new RuntimeException("No desconhecido: " + expression);
+    }
+
+    /**
+     * O tipo que a expressão terá, sem gerar código.
+    */
+    private int typeOf(Node expression){
+        if (expression instanceof NumberNode) {
+            return NUMBER_TYPE;
+        }
+        if (expression instanceof StringNode) {
+            return STRING_TYPE;
+        }
+        if (expression instanceof VariableNode) {
+            return types[((VariableNode) expression).getSlot()];
+        }
+        if (expression instanceof BinaryOpNode) {
+            BinaryOpNode node = (BinaryOpNode) expression;
+            int left = typeOf(node.getLeft());
+            int right = typeOf(node.getRight());
+            if (left == INVALID || right == INVALID) {
+                return INVALID;
+            }
+            if (left == NUMBER_TYPE && right == NUMBER_TYPE) {
+                return NUMBER_TYPE;
+            }
+            if (node.getOperator().equals("+") && (left == STRING_TYPE || right == STRING_TYPE)) {
+                return STRING_TYPE;
+            }
+        }
+        return INVALID;
+    }
+
+    // --- Auxiliares de geração ---
+
+    private void load(int type, int local){
+        if (type == NUMBER_TYPE) {
+            body.local(MethodCode.DLOAD, local, 2);
+        } else {
+            body.local(MethodCode.ALOAD, local, 1);
+        }
+    }
+
+    private void store(int type, int local){
+        if (type == NUMBER_TYPE) {
+            body.local(MethodCode.DSTORE, local, -2);
+        } else {
+            body.local(MethodCode.ASTORE, local, -1);
+        }
+    }
+
+    /**
+     * Converte o número no topo da pilha para texto, com {@link output.NumberText}
+     * (como o Interpreter). Strings ficam como estão.
+    */
+    private void toText(int type){
+        if (type == NUMBER_TYPE) {
+            body.op(MethodCode.INVOKESTATIC, classFile.methodRef(NUMBER_TEXT, "toString", "(D)Ljava/lang/String;"), -1);
+        }
+    }
+
+    private void concat(){
+        body.op(MethodCode.INVOKEVIRTUAL,
+                classFile.methodRef(STRING, "concat", "(Ljava/lang/String;)Ljava/lang/String;"), -1);
+    }
+
+    private void println(){
+        body.invokeInterface(classFile.interfaceMethodRef(SINK, "println", "(Ljava/lang/String;)V"), 1, -2);
+    }
+
+    /**
+     * Gera um throw new RuntimeException(message) e interrompe a compilação:
+     * nada depois dele seria executado.
+    */
+    private void throwError(String message){
+        String exception = "java/lang/RuntimeException";
+        body.op(MethodCode.NEW, classFile.classRef(exception), 1);
+        body.op(MethodCode.DUP, 1);
+        body.ldc(classFile.string(message), 1);
+        body.op(MethodCode.INVOKESPECIAL, classFile.methodRef(exception, "<init>", "(Ljava/lang/String;)V"), -2);
+        body.op(MethodCode.ATHROW, -1);
+        throw new Abort();
+    }
+
+    /**
+     * Sinaliza, dentro do compilador, que o código gerado terminou em um throw.
+    */
+    private static class Abort extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        Abort(){
+            super(null, null, false, false);
+        }
+    }
+}
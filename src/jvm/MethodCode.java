@@ -0,0 +1,184 @@
+package jvm;
+import java.util.Arrays;
+
+/**
+ * O corpo (atributo Code) de um método em construção.
+ * Acompanha a profundidade da pilha a cada instrução para calcular max_stack.
+ * Como o código gerado não tem desvios, dois MethodCode podem ser
+ * simplesmente concatenados (veja {@link #append}).
+*/
+class MethodCode {
+    // Opcodes usados pelo JvmCompiler
+    static final int ICONST_0 = 0x03;
+    static final int BIPUSH = 0x10;
+    static final int SIPUSH = 0x11;
+    static final int LDC = 0x12;
+    static final int LDC_W = 0x13;
+    static final int LDC2_W = 0x14;
+    static final int DLOAD = 0x18;
+    static final int ALOAD = 0x19;
+    static final int DALOAD = 0x31;
+    static final int AALOAD = 0x32;
+    static final int DSTORE = 0x39;
+    static final int ASTORE = 0x3a;
+    static final int DASTORE = 0x52;
+    static final int AASTORE = 0x53;
+    static final int POP = 0x57;
+    static final int POP2 = 0x58;
+    static final int DUP = 0x59;
+    static final int DADD = 0x63;
+    static final int DSUB = 0x67;
+    static final int DMUL = 0x6b;
+    static final int RETURN = 0xb1;
+    static final int INVOKEVIRTUAL = 0xb6;
+    static final int INVOKESPECIAL = 0xb7;
+    static final int INVOKESTATIC = 0xb8;
+    static final int INVOKEINTERFACE = 0xb9;
+    static final int NEW = 0xbb;
+    static final int ATHROW = 0xbf;
+    static final int CHECKCAST = 0xc0;
+    static final int WIDE = 0xc4;
+
+    private byte[] code = new byte[256];
+    private int count = 0;
+    private int stack = 0;
+    private int maxStack = 0;
+    private int maxLocals;
+
+    /**
+     * @param maxLocals Quantos locais já estão ocupados (os parâmetros).
+    */
+    MethodCode(int maxLocals){
+        this.maxLocals = maxLocals;
+    }
+
+    /**
+     * Emite um opcode sem operandos.
+     * @param stackDelta Quanto a instrução muda a pilha (em slots; double ocupa dois).
+    */
+    void op(int opcode, int stackDelta){
+        u1(opcode);
+        adjust(stackDelta);
+    }
+
+    /**
+     * Emite um opcode com um operando de dois bytes (índice no pool).
+    */
+    void op(int opcode, int operand, int stackDelta){
+        u1(opcode);
+        u2(operand);
+        adjust(stackDelta);
+    }
+
+    /**
+     * Empilha um int constante com a instrução mais curta possível.
+    */
+    void pushInt(int value, ClassFile classFile){
+        if (value >= 0 && value <= 5) {
+            op(ICONST_0 + value, 1);
+        } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+            u1(BIPUSH);
+            u1(value);
+            adjust(1);
+        } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+            op(SIPUSH, value, 1);
+        } else {
+            ldc(classFile.integer(value), 1);
+        }
+    }
+
+    /**
+     * Empilha uma constante de um slot (int ou String) do pool.
+    */
+    void ldc(int index, int stackDelta){
+        if (index <= 0xFF) {
+            u1(LDC);
+            u1(index);
+            adjust(stackDelta);
+        } else {
+            op(LDC_W, index, stackDelta);
+        }
+    }
+
+    /**
+     * Lê ou escreve um local (dload, dstore, aload ou astore).
+    */
+    void local(int opcode, int index, int stackDelta){
+        if (index <= 0xFF) {
+            u1(opcode);
+            u1(index);
+        } else {
+            u1(WIDE);
+            u1(opcode);
+            u2(index);
+        }
+        adjust(stackDelta);
+    }
+
+    void invokeInterface(int method, int argumentSlots, int stackDelta){
+        u1(INVOKEINTERFACE);
+        u2(method);
+        u1(argumentSlots + 1); // o count inclui o receptor
+        u1(0);
+        adjust(stackDelta);
+    }
+
+    /**
+     * Reserva 'size' slots de local e retorna o índice do primeiro.
+    */
+    int newLocal(int size){
+        int index = maxLocals;
+        maxLocals += size;
+        return index;
+    }
+
+    /**
+     * Acrescenta o código de 'other' ao final deste.
+     * A pilha está vazia entre instruções JPP, então os máximos simplesmente se combinam.
+    */
+    void append(MethodCode other){
+        ensure(other.count);
+        System.arraycopy(other.code, 0, code, count, other.count);
+        count += other.count;
+        maxStack = Math.max(maxStack, stack + other.maxStack);
+        maxLocals = Math.max(maxLocals, other.maxLocals);
+    }
+
+    int size(){
+        return count;
+    }
+
+    int getMaxStack() {
+        return maxStack;
+    }
+
+    int getMaxLocals() {
+        return maxLocals;
+    }
+
+    byte[] toByteArray(){
+        return Arrays.copyOf(code, count);
+    }
+
+    private void adjust(int stackDelta){
+        stack += stackDelta;
+        maxStack = Math.max(maxStack, stack);
+    }
+
+    private void u1(int value){
+        ensure(1);
+        code[count++] = (byte) value;
+    }
+
+    private void u2(int value){
+        ensure(2);
+        code[count++] = (byte) (value >> 8);
+        code[count++] = (byte) value;
+    }
+
+    private void ensure(int extra){
+        if (count + extra > code.length) {
+            code = Arrays.copyOf(code, Math.max(code.length * 2, count + extra));
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package language;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Converte as posições do código fonte (índices guardados nos tokens e nos
+ * nós da AST) em linha e coluna.
+ *
+ * Os Lexers só guardam o índice onde cada token começa, que eles já calculam
+ * de qualquer jeito; contar as linhas durante a análise custaria um teste a
+ * mais por caractere. As quebras de linha são procuradas aqui, uma única vez,
+ * e só por quem precisa delas (ex: o Profiler).
+ *
+ * Com o ByteLexer as posições são bytes UTF-8, então a coluna também é
+ * contada em bytes.
+*/
+public final class LineMap {
+    // Posição onde cada linha começa (a linha 1 começa em 0)
+    private final int[] starts;
+
+    private LineMap(int[] starts){
+        this.starts = starts;
+    }
+
+    /**
+     * Mapa de um código fonte em texto (posições em caracteres).
+    */
+    public static LineMap of(CharSequence source){
+        int[] starts = new int[16];
+        int count = 1;
+        for (int i = 0; i < source.length(); i++) {
+            if (source.charAt(i) == '\n') {
+                if (count == starts.length) {
+                    starts = Arrays.copyOf(starts, count * 2);
+                }
+                starts[count++] = i + 1;
+            }
+        }
+        return new LineMap(Arrays.copyOf(starts, count));
+    }
+
+    /**
+     * Mapa de um código fonte em UTF-8 (posições em bytes, como no ByteLexer).
+     * As posições são índices absolutos do buffer, de 0 ao limit().
+    */
+    public static LineMap of(ByteBuffer source){
+        int[] starts = new int[16];
+        int count = 1;
+        for (int i = 0; i < source.limit(); i++) {
+            if (source.get(i) == '\n') {
+                if (count == starts.length) {
+                    starts = Arrays.copyOf(starts, count * 2);
+                }
+                starts[count++] = i + 1;
+            }
+        }
+        return new LineMap(Arrays.copyOf(starts, count));
+    }
+
+    /**
+     * A linha (a partir de 1) de uma posição.
+    */
+    public int line(int position){
+        int index = Arrays.binarySearch(starts, position);
+        // Sem acerto exato, o resultado é -(primeira linha depois da posição) - 1
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    /**
+     * A coluna (a partir de 1) de uma posição.
+    */
+    public int column(int position){
+        return position - starts[line(position) - 1] + 1;
+    }
+
+    /**
+     * A posição no formato "linha:coluna", ou "?" se ela é desconhecida (-1).
+    */
+    public String format(int position){
+        if (position < 0) {
+            return "?";
+        }
+        return line(position) + ":" + column(position);
+    }
+
+    /**
+     * Quantidade de linhas do código.
+    */
+    public int getLineCount(){
+        return starts.length;
+    }
+}
@@ -0,0 +1,73 @@
+package language;
+
+/**
+ * Converte os dígitos de um número literal (ex: 42, 3.14) em double.
+ *
+ * Os Lexers acumulam os dígitos em um long enquanto reconhecem o número e
+ * entregam aqui o significando e a quantidade de casas decimais. Quando o
+ * significando cabe exatamente em um double e a potência de 10 também, uma
+ * única divisão já dá o resultado corretamente arredondado (o caminho rápido
+ * de Clinger). Só os literais enormes ou com muitas casas passam pelo
+ * Double.parseDouble.
+*/
+public final class NumberLiteral {
+
+    /** Até aqui todo long é representado exatamente por um double. */
+    private static final long EXACT = 1L << 53;
+
+    /** Até aqui cabe mais um dígito no significando sem estourar o long. */
+    public static final long MAX_SIGNIFICAND = (Long.MAX_VALUE - 9) / 10;
+
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private NumberLiteral(){
+    }
+
+    /**
+     * O valor de significand / 10^scale, se ele puder ser calculado exatamente.
+     * @param significand Os dígitos do literal, sem o ponto, ou -1 se não couberam em um long.
+     * @param scale Quantos desses dígitos vêm depois do ponto.
+     * @return O valor, ou NaN se for preciso usar {@link #parse(String)} no texto.
+    */
+    public static double exact(long significand, int scale){
+        if (significand < 0) {
+            return Double.NaN;
+        }
+        if (scale == 0) {
+            // A conversão de long para double já arredonda corretamente.
+            return significand;
+        }
+        if (significand <= EXACT && scale < POWERS_OF_TEN.length) {
+            return significand / POWERS_OF_TEN[scale];
+        }
+        return Double.NaN;
+    }
+
+    /**
+     * Converte o texto de um literal (dígitos, opcionalmente com um ponto e mais dígitos).
+    */
+    public static double parse(String text){
+        long significand = 0;
+        int scale = 0;
+        boolean point = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '.' && !point) {
+                point = true;
+                continue;
+            }
+            if (c < '0' || c > '9' || significand > MAX_SIGNIFICAND) {
+                return Double.parseDouble(text);
+            }
+            significand = significand * 10 + (c - '0');
+            if (point) {
+                scale++;
+            }
+        }
+        double value = exact(significand, scale);
+        return Double.isNaN(value) ? Double.parseDouble(text) : value;
+    }
+}
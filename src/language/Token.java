@@ -1,16 +1,32 @@
 package language;
 /**
  * Representa um Token, a menor unidade de código com significado.
- * Um token possui um tipo e um valor (o texto original).
+ * Um token possui um tipo e um valor (o texto original). Os números também
+ * trazem o valor já convertido, calculado pelo Lexer a partir dos dígitos.
+ * Os tokens dos Lexers sabem onde começam no código fonte; os tokens de texto
+ * fixo compartilhados pelo {@link TokenBuffer} não.
 */
 public class Token {
     
     public TokenType type;
     public String value;
+    public double number;
+    /** Onde o token começa no código fonte (veja {@link LineMap}), ou -1 se não se sabe. */
+    public int position;
 
     public Token(TokenType type, String value){
+        this(type, value, type == TokenType.NUMBER ? NumberLiteral.parse(value) : 0, -1);
+    }
+
+    /**
+     * @param number O valor de um token NUMBER (ignorado nos outros tipos).
+     * @param position O índice do primeiro caractere (ou byte) do token; -1 se não se sabe.
+    */
+    public Token(TokenType type, String value, double number, int position){
         this.type = type;
         this.value = value;
+        this.number = number;
+        this.position = position;
     }
 
     @Override
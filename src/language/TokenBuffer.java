@@ -0,0 +1,168 @@
+package language;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Uma sequência compacta de tokens.
+ * Em vez de um objeto Token por token, guarda apenas o tipo, o início e o
+ * tamanho de cada um em arrays primitivos que apontam para o código fonte.
+ * O texto só vira String quando alguém realmente precisa dele (um
+ * identificador, um número ou uma string literal).
+ *
+ * Os arrays são divididos em blocos de tamanho fixo: crescer significa só
+ * alocar um bloco novo, sem copiar os tokens que já foram guardados.
+ *
+ * O código fonte pode ser uma String (posições em caracteres) ou um
+ * ByteBuffer em UTF-8 (posições em bytes), como o usado pelo ByteLexer.
+*/
+public class TokenBuffer {
+    private static final TokenType[] TYPES = TokenType.values();
+
+    private static final int BLOCK_BITS = 12;
+    private static final int BLOCK_SIZE = 1 << BLOCK_BITS;
+    private static final int BLOCK_MASK = BLOCK_SIZE - 1;
+
+    /**
+     * Tokens de texto fixo (operadores e palavras-chave) são sempre iguais,
+     * então a visão de Token de cada um é criada uma única vez e compartilhada.
+    */
+    private static final Token[] FIXED = new Token[TYPES.length];
+
+    static {
+        for (TokenType type : TYPES) {
+            String lexeme = type.lexeme();
+            if (lexeme != null) {
+                FIXED[type.ordinal()] = new Token(type, lexeme);
+            }
+        }
+    }
+
+    private final String source;
+    private final ByteBuffer bytes;
+    private byte[][] types = new byte[8][];
+    private int[][] starts = new int[8][];
+    private int[][] lengths = new int[8][];
+    private int count = 0;
+
+    public TokenBuffer(String source){
+        this.source = source;
+        this.bytes = null;
+    }
+
+    /**
+     * Cria uma sequência cujas posições apontam para bytes UTF-8.
+     * @param bytes O código fonte codificado em UTF-8.
+    */
+    public TokenBuffer(ByteBuffer bytes){
+        this.source = null;
+        this.bytes = bytes;
+    }
+
+    /**
+     * Acrescenta um token ao final da sequência.
+     * @param type O tipo do token.
+     * @param start A posição do primeiro caractere no código fonte.
+     * @param length A quantidade de caracteres (sem as aspas, no caso de strings).
+    */
+    public void add(TokenType type, int start, int length){
+        int block = count >>> BLOCK_BITS;
+        int offset = count & BLOCK_MASK;
+        if (offset == 0) {
+            newBlock(block);
+        }
+        types[block][offset] = (byte) type.ordinal();
+        starts[block][offset] = start;
+        lengths[block][offset] = length;
+        count++;
+    }
+
+    private void newBlock(int block){
+        if (block == types.length) {
+            types = Arrays.copyOf(types, block * 2);
+            starts = Arrays.copyOf(starts, block * 2);
+            lengths = Arrays.copyOf(lengths, block * 2);
+        }
+        types[block] = new byte[BLOCK_SIZE];
+        starts[block] = new int[BLOCK_SIZE];
+        lengths[block] = new int[BLOCK_SIZE];
+    }
+
+    /**
+     * Quantidade de tokens na sequência.
+    */
+    public int size(){
+        return count;
+    }
+
+    public TokenType type(int index){
+        return TYPES[types[index >>> BLOCK_BITS][index & BLOCK_MASK]];
+    }
+
+    public int start(int index){
+        return starts[index >>> BLOCK_BITS][index & BLOCK_MASK];
+    }
+
+    public int length(int index){
+        return lengths[index >>> BLOCK_BITS][index & BLOCK_MASK];
+    }
+
+    /**
+     * Materializa o texto de um token.
+     * Operadores e palavras-chave usam o texto fixo do tipo, sem alocar.
+    */
+    public String text(int index){
+        String lexeme = type(index).lexeme();
+        if (lexeme != null) {
+            return lexeme;
+        }
+        int start = start(index);
+        if (bytes != null) {
+            return decode(bytes, start, length(index));
+        }
+        return source.substring(start, start + length(index));
+    }
+
+    /**
+     * Decodifica um trecho de bytes UTF-8 para String, sem mexer na posição do buffer.
+    */
+    public static String decode(ByteBuffer bytes, int start, int length){
+        byte[] chunk = new byte[length];
+        ByteBuffer view = bytes.duplicate();
+        view.position(start);
+        view.get(chunk);
+        return new String(chunk, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Cria a visão de um token como {@link Token}, útil para depuração.
+     * Os tokens de texto fixo são compartilhados, então não têm posição (-1).
+    */
+    public Token token(int index){
+        TokenType type = type(index);
+        Token fixed = FIXED[type.ordinal()];
+        if (fixed != null) {
+            return fixed;
+        }
+        String text = text(index);
+        double number = type == TokenType.NUMBER ? NumberLiteral.parse(text) : 0;
+        // A posição de uma string é a das aspas iniciais
+        int start = type == TokenType.STRING ? start(index) - 1 : start(index);
+        return new Token(type, text, number, start);
+    }
+
+    /**
+     * Cria uma fonte que entrega os tokens em ordem, para o Parser.
+     * Só os identificadores, números e strings geram objetos novos.
+    */
+    public TokenSource cursor(){
+        return new TokenSource() {
+            private int next = 0;
+
+            @Override
+            public Token nextToken() {
+                return next < count ? token(next++) : null;
+            }
+        };
+    }
+}
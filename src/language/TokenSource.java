@@ -0,0 +1,14 @@
+package language;
+/**
+ * Uma fonte de tokens que são produzidos sob demanda, um de cada vez.
+ * Permite que o Parser consuma os tokens à medida que o Lexer os gera,
+ * sem materializar a lista inteira.
+*/
+public interface TokenSource {
+
+    /**
+     * Produz o próximo token.
+     * @return O próximo token, ou null quando não houver mais tokens.
+    */
+    Token nextToken();
+}
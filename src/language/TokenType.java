@@ -5,29 +5,53 @@ package language;
 */
 public enum TokenType {
     // Palavras-chave
-    VAR,
-    PRINT,
+    VAR("var"),
+    PRINT("print"),
+    IF("if"),
+    ELSE("else"),
+    WHILE("while"),
 
     // Literais e Identificadores
     IDENTIFIER,
     NUMBER,
     STRING,
-    
+
     // Operadores e Símbolos
-    EQUAL,
-    EQUAL_EQUAL,   // ==
-    BANG_EQUAL,    // !=
-    GREATER,        // >
-    GREATER_EQUAL, // >=
-    LESS,          // <
-    LESS_EQUAL,    // <=
-    PLUS,
-    MINUS,
-    MULTIPLY,
-    DIVIDE,
-    SEMICOLON,
-
-    TRUE,
-    FALSE,
-
-}
\ No newline at end of file
+    EQUAL("="),
+    EQUAL_EQUAL("=="),   // ==
+    BANG_EQUAL("!="),    // !=
+    GREATER(">"),        // >
+    GREATER_EQUAL(">="), // >=
+    LESS("<"),          // <
+    LESS_EQUAL("<="),    // <=
+    PLUS("+"),
+    MINUS("-"),
+    MULTIPLY("*"),
+    DIVIDE("/"),
+    SEMICOLON(";"),
+    LEFT_BRACE("{"),
+    RIGHT_BRACE("}"),
+
+    TRUE("true"),
+    FALSE("false"),
+
+    ;
+
+    /**
+     * O texto fixo dos tokens deste tipo, ou null para os que variam
+     * (identificadores, números e strings).
+    */
+    private final String lexeme;
+
+    TokenType(){
+        this(null);
+    }
+
+    TokenType(String lexeme){
+        this.lexeme = lexeme;
+    }
+
+    public String lexeme(){
+        return lexeme;
+    }
+}
@@ -0,0 +1,26 @@
+package metrics;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento do JDK Flight Recorder: uma execução do Interpreter, de uma AST
+ * inteira, de um Program ou de instruções vindas do Parser sob demanda.
+*/
+@Name("jpp.Execute")
+@Label("Execucao")
+@Category("JPP")
+@Description("Execucao das instrucoes de um programa")
+public class ExecuteEvent extends jdk.jfr.Event {
+    /**
+     * Todas as instruções executadas: um while que repete 10 mil vezes conta
+     * as instruções do corpo 10 mil vezes.
+    */
+    @Label("Instrucoes executadas")
+    @Description("Instrucoes executadas, inclusive as de dentro dos blocos")
+    public long statements;
+
+    @Label("Terminou sem erros")
+    public boolean completed;
+}
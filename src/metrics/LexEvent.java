@@ -0,0 +1,25 @@
+package metrics;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento do JDK Flight Recorder: uma análise léxica completa (Lexer.tokenize
+ * ou ByteLexer.tokenize). A duração é a do próprio evento.
+ *
+ * Só custa algo quando uma gravação o habilita, por exemplo com
+ * java -XX:StartFlightRecording:filename=jpp.jfr -jar jpp.jar ...
+*/
+@Name("jpp.Lex")
+@Label("Analise lexica")
+@Category("JPP")
+@Description("Tokenizacao de um codigo fonte inteiro")
+public class LexEvent extends jdk.jfr.Event {
+    @Label("Tamanho da entrada")
+    @Description("Caracteres (Lexer) ou bytes UTF-8 (ByteLexer) tokenizados")
+    public long input;
+
+    @Label("Tokens")
+    public long tokens;
+}
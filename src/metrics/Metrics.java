@@ -0,0 +1,346 @@
+package metrics;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import ast.AssignNode;
+import ast.BinaryOpNode;
+import ast.IfNode;
+import ast.Node;
+import ast.PrintNode;
+import ast.WhileNode;
+
+/**
+ * Métricas das fases do interpretador: quanto tempo a análise léxica, a
+ * análise sintática e a execução levaram, quanto cada uma processou e
+ * quanta memória alocou.
+ *
+ * Só são medidos os componentes em que um Metrics foi ligado (setMetrics do
+ * Lexer, ByteLexer, Parser, Interpreter ou Execution). Sem ele, cada fase
+ * custa apenas a verificação de um campo nulo. Os totais ficam em LongAdder,
+ * então o mesmo Metrics pode ser compartilhado pelas threads do Pipeline ou
+ * por várias Executions ao mesmo tempo.
+ *
+ * A alocação é uma estimativa: a diferença dos bytes alocados pela thread
+ * (com.sun.management.ThreadMXBean) entre o começo e o fim da fase, o que
+ * inclui o que o próprio JIT e o coletor de lixo atribuírem a ela. Em uma
+ * JVM sem esse contador, a alocação fica em -1.
+ *
+ * Para as mesmas fases, os eventos {@link LexEvent}, {@link ParseEvent} e
+ * {@link ExecuteEvent} vão para o JDK Flight Recorder, com ou sem um Metrics.
+*/
+public final class Metrics {
+    private static final com.sun.management.ThreadMXBean THREADS = allocationCounter();
+
+    private final Phase lex = new Phase();
+    private final Phase parse = new Phase();
+    private final Phase execute = new Phase();
+
+    private final LongAdder input = new LongAdder();
+    private final LongAdder tokens = new LongAdder();
+    private final LongAdder statements = new LongAdder();
+    private final LongAdder nodes = new LongAdder();
+    private final LongAdder executed = new LongAdder();
+
+    /**
+     * O começo de uma fase: o relógio e os bytes já alocados pela thread.
+    */
+    public static final class Mark {
+        private final long nanos;
+        private final long allocated;
+
+        private Mark(long nanos, long allocated){
+            this.nanos = nanos;
+            this.allocated = allocated;
+        }
+    }
+
+    /**
+     * Marca o começo de uma fase, na thread que vai executá-la.
+    */
+    public Mark start(){
+        return new Mark(System.nanoTime(), allocatedBytes());
+    }
+
+    /**
+     * Registra uma análise léxica.
+     * @param mark O começo da fase, de {@link #start()}.
+     * @param input Caracteres (ou bytes) tokenizados.
+     * @param tokens Tokens produzidos.
+    */
+    public void lexed(Mark mark, long input, long tokens){
+        lex.add(mark);
+        this.input.add(input);
+        this.tokens.add(tokens);
+    }
+
+    /**
+     * Registra uma análise sintática. Os nós da AST são contados aqui.
+     * @param mark O começo da fase, de {@link #start()}.
+     * @param statements As instruções produzidas.
+    */
+    public void parsed(Mark mark, List<Node> statements){
+        parsed(mark, statements.size(), countNodes(statements));
+    }
+
+    /**
+     * Registra uma análise sintática cujo tamanho já é conhecido (ex: uma AST compacta).
+    */
+    public void parsed(Mark mark, long statements, long nodes){
+        parse.add(mark);
+        this.statements.add(statements);
+        this.nodes.add(nodes);
+    }
+
+    /**
+     * Registra uma execução.
+     * @param mark O começo da fase, de {@link #start()}.
+     * @param statements Instruções executadas, contando as de dentro dos blocos
+     * a cada vez que executam (inclusive a que falhou, se houve erro).
+    */
+    public void executed(Mark mark, long statements){
+        execute.add(mark);
+        this.executed.add(statements);
+    }
+
+    /**
+     * Uma foto dos totais acumulados até agora.
+    */
+    public Snapshot snapshot(){
+        return new Snapshot(this);
+    }
+
+    /**
+     * Zera todos os totais (por exemplo, depois do aquecimento).
+    */
+    public void reset(){
+        lex.reset();
+        parse.reset();
+        execute.reset();
+        input.reset();
+        tokens.reset();
+        statements.reset();
+        nodes.reset();
+        executed.reset();
+    }
+
+    /**
+     * Quantidade de nós das árvores, contando as raízes.
+    */
+    public static long countNodes(List<Node> statements){
+        long count = 0;
+        for (Node statement : statements) {
+            count += countNodes(statement);
+        }
+        return count;
+    }
+
+    private static long countNodes(Node node){
+        if (node instanceof AssignNode) {
+            return 1 + countNodes(((AssignNode) node).getExpression());
+        }
+        if (node instanceof PrintNode) {
+            return 1 + countNodes(((PrintNode) node).getExpression());
+        }
+        if (node instanceof BinaryOpNode) {
+            BinaryOpNode binary = (BinaryOpNode) node;
+            return 1 + countNodes(binary.getLeft()) + countNodes(binary.getRight());
+        }
+        if (node instanceof IfNode) {
+            IfNode ifNode = (IfNode) node;
+            return 1 + countNodes(ifNode.getCondition()) + countNodes(ifNode.getThenBranch())
+                    + countNodes(ifNode.getElseBranch());
+        }
+        if (node instanceof WhileNode) {
+            WhileNode whileNode = (WhileNode) node;
+            return 1 + countNodes(whileNode.getCondition()) + countNodes(whileNode.getBody());
+        }
+        return node == null ? 0 : 1;
+    }
+
+    private static long allocatedBytes(){
+        return THREADS == null ? -1 : THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCounter(){
+        try {
+            java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (bean instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+                if (threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+                    return threads;
+                }
+            }
+        } catch (RuntimeException | LinkageError e) {
+            // Sem o módulo java.management: a alocação não é medida.
+        }
+        return null;
+    }
+
+    /**
+     * Tempo, alocação e quantidade de execuções de uma fase.
+    */
+    private static final class Phase {
+        private final LongAdder runs = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final LongAdder allocated = new LongAdder();
+
+        void add(Mark mark){
+            long end = System.nanoTime();
+            long bytes = allocatedBytes();
+            runs.increment();
+            nanos.add(end - mark.nanos);
+            if (bytes >= 0 && mark.allocated >= 0) {
+                allocated.add(bytes - mark.allocated);
+            }
+        }
+
+        void reset(){
+            runs.reset();
+            nanos.reset();
+            allocated.reset();
+        }
+    }
+
+    /**
+     * Os totais de um Metrics em um instante, com as taxas já calculadas.
+     * Os tempos são somados por fase: com o Pipeline, as fases correm ao mesmo
+     * tempo em threads diferentes e cada taxa considera só o tempo da sua fase.
+    */
+    public static final class Snapshot {
+        private final long lexRuns, lexNanos, lexAllocated;
+        private final long parseRuns, parseNanos, parseAllocated;
+        private final long executeRuns, executeNanos, executeAllocated;
+        private final long input, tokens, statements, nodes, executed;
+
+        private Snapshot(Metrics metrics){
+            boolean measured = THREADS != null;
+            lexRuns = metrics.lex.runs.sum();
+            lexNanos = metrics.lex.nanos.sum();
+            lexAllocated = measured ? metrics.lex.allocated.sum() : -1;
+            parseRuns = metrics.parse.runs.sum();
+            parseNanos = metrics.parse.nanos.sum();
+            parseAllocated = measured ? metrics.parse.allocated.sum() : -1;
+            executeRuns = metrics.execute.runs.sum();
+            executeNanos = metrics.execute.nanos.sum();
+            executeAllocated = measured ? metrics.execute.allocated.sum() : -1;
+            input = metrics.input.sum();
+            tokens = metrics.tokens.sum();
+            statements = metrics.statements.sum();
+            nodes = metrics.nodes.sum();
+            executed = metrics.executed.sum();
+        }
+
+        public long getLexRuns() {
+            return lexRuns;
+        }
+
+        public long getLexNanos() {
+            return lexNanos;
+        }
+
+        /** Bytes alocados na análise léxica, ou -1 se a JVM não os mede. */
+        public long getLexAllocatedBytes() {
+            return lexAllocated;
+        }
+
+        public long getParseRuns() {
+            return parseRuns;
+        }
+
+        public long getParseNanos() {
+            return parseNanos;
+        }
+
+        /** Bytes alocados na análise sintática, ou -1 se a JVM não os mede. */
+        public long getParseAllocatedBytes() {
+            return parseAllocated;
+        }
+
+        public long getExecuteRuns() {
+            return executeRuns;
+        }
+
+        public long getExecuteNanos() {
+            return executeNanos;
+        }
+
+        /** Bytes alocados na execução, ou -1 se a JVM não os mede. */
+        public long getExecuteAllocatedBytes() {
+            return executeAllocated;
+        }
+
+        /** Caracteres (ou bytes) tokenizados. */
+        public long getInput() {
+            return input;
+        }
+
+        public long getTokens() {
+            return tokens;
+        }
+
+        /** Instruções produzidas pelo Parser. */
+        public long getStatements() {
+            return statements;
+        }
+
+        /** Nós da AST produzidos pelo Parser. */
+        public long getNodes() {
+            return nodes;
+        }
+
+        /** Instruções executadas pelo Interpreter, inclusive as de dentro dos blocos. */
+        public long getExecutedStatements() {
+            return executed;
+        }
+
+        public double getTokensPerSecond() {
+            return rate(tokens, lexNanos);
+        }
+
+        public double getNodesPerSecond() {
+            return rate(nodes, parseNanos);
+        }
+
+        public double getStatementsPerSecond() {
+            return rate(executed, executeNanos);
+        }
+
+        /**
+         * Texto com uma linha por fase, para mostrar ao usuário.
+        */
+        public String report() {
+            StringBuilder text = new StringBuilder();
+            line(text, "Analise lexica", lexRuns, lexNanos, lexAllocated,
+                    tokens + " tokens de " + input + " caracteres", getTokensPerSecond(), "tokens/s");
+            line(text, "Analise sintatica", parseRuns, parseNanos, parseAllocated,
+                    nodes + " nos em " + statements + " instrucoes", getNodesPerSecond(), "nos/s");
+            line(text, "Execucao", executeRuns, executeNanos, executeAllocated,
+                    executed + " instrucoes", getStatementsPerSecond(), "instrucoes/s");
+            return text.toString();
+        }
+
+        @Override
+        public String toString() {
+            return report();
+        }
+
+        private static void line(StringBuilder text, String phase, long runs, long nanos, long allocated,
+                                 String size, double rate, String unit){
+            text.append(phase).append(": ");
+            if (runs == 0) {
+                text.append("nao medida\n");
+                return;
+            }
+            text.append(String.format("%.3f ms, %s, %.0f %s", nanos / 1e6, size, rate, unit));
+            if (allocated >= 0) {
+                text.append(", ~").append(allocated / 1024).append(" KB alocados");
+            }
+            text.append('\n');
+        }
+
+        private static double rate(long count, long nanos){
+            return nanos == 0 ? 0 : count * 1e9 / nanos;
+        }
+    }
+}
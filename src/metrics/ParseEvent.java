@@ -0,0 +1,20 @@
+package metrics;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento do JDK Flight Recorder: uma análise sintática completa (Parser.parse).
+*/
+@Name("jpp.Parse")
+@Label("Analise sintatica")
+@Category("JPP")
+@Description("Montagem da AST de um programa inteiro")
+public class ParseEvent extends jdk.jfr.Event {
+    @Label("Instrucoes")
+    public long statements;
+
+    @Label("Nos da AST")
+    public long nodes;
+}
@@ -0,0 +1,270 @@
+package metrics;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import ast.AssignNode;
+import ast.BinaryOpNode;
+import ast.BooleanNode;
+import ast.ConcatNode;
+import ast.IfNode;
+import ast.Node;
+import ast.NumberNode;
+import ast.PrintNode;
+import ast.StringNode;
+import ast.VariableNode;
+import ast.WhileNode;
+import language.LineMap;
+
+/**
+ * Profiler do script: mede quanto tempo o Interpreter passa em cada
+ * instrução e em cada expressão do código JPP, e não nos métodos Java.
+ *
+ * O Interpreter chama {@link #enter(Node)} ao começar a executar uma
+ * instrução ou a avaliar uma expressão e {@link #exit()} ao terminar. Os
+ * tempos formam uma árvore de chamadas, como a pilha de um profiler Java,
+ * mas com um nó da AST por quadro, identificado pela linha e coluna do
+ * código fonte. Sem um Profiler ligado, o Interpreter não mede nada.
+ *
+ * O resultado sai no formato "collapsed" (uma pilha por linha, com os
+ * quadros separados por ';' e o tempo próprio em nanossegundos no fim),
+ * que o flamegraph.pl, o speedscope e outros visualizadores de flame graph
+ * leem diretamente. Cada medição custa duas leituras do relógio, então os
+ * nós muito baratos (números, variáveis) aparecem mais caros do que são.
+ *
+ * Como o Interpreter, um Profiler não é thread-safe.
+*/
+public final class Profiler {
+    private final String source;
+    private final LineMap lines;
+    private final Frame root = new Frame(null, null);
+    private Frame current = root;
+
+    /**
+     * @param source O nome do código (ex: o arquivo), usado nos quadros.
+     * @param lines As linhas do código, para converter as posições dos nós.
+    */
+    public Profiler(String source, LineMap lines){
+        this.source = source.replace(';', '_');
+        this.lines = lines;
+    }
+
+    /**
+     * Começa a medir um nó, dentro do nó que está sendo medido agora.
+    */
+    public void enter(Node node){
+        Frame frame = current.child(node);
+        frame.calls++;
+        frame.start = System.nanoTime();
+        current = frame;
+    }
+
+    /**
+     * Termina a medição do último nó de {@link #enter(Node)}.
+    */
+    public void exit(){
+        Frame frame = current;
+        frame.total += System.nanoTime() - frame.start;
+        current = frame.parent;
+    }
+
+    /**
+     * Tempo total medido nas instruções, em nanossegundos.
+    */
+    public long getTotalNanos(){
+        long total = 0;
+        for (int i = 0; i < root.size; i++) {
+            total += root.children[i].total;
+        }
+        return total;
+    }
+
+    /**
+     * Descarta tudo o que foi medido.
+    */
+    public void reset(){
+        root.size = 0;
+        root.nodes = new Node[0];
+        root.children = new Frame[0];
+        root.index = null;
+        current = root;
+    }
+
+    /**
+     * Escreve as pilhas no formato collapsed: "quadro;quadro;quadro nanos".
+     * Cada quadro é "fonte:linha:coluna descrição", ex: "codigo.txt:3:9 +".
+    */
+    public void writeCollapsed(Appendable out){
+        try {
+            for (int i = 0; i < root.size; i++) {
+                writeCollapsed(out, root.children[i], new StringBuilder());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * As pilhas no formato collapsed, como em {@link #writeCollapsed(Appendable)}.
+    */
+    public String collapsed(){
+        StringBuilder text = new StringBuilder();
+        writeCollapsed(text);
+        return text.toString();
+    }
+
+    private void writeCollapsed(Appendable out, Frame frame, StringBuilder stack) throws IOException {
+        int length = stack.length();
+        if (length > 0) {
+            stack.append(';');
+        }
+        stack.append(label(frame.node));
+        long self = frame.self();
+        if (self > 0) {
+            out.append(stack).append(' ').append(Long.toString(self)).append('\n');
+        }
+        for (int i = 0; i < frame.size; i++) {
+            writeCollapsed(out, frame.children[i], stack);
+        }
+        stack.setLength(length);
+    }
+
+    /**
+     * Os nós que mais gastaram tempo próprio (sem contar os filhos).
+     * @param limit Quantos nós mostrar.
+     * @return Uma linha por nó: tempo próprio, porcentagem, tempo total, chamadas e o nó.
+    */
+    public String report(int limit){
+        List<Frame> frames = new ArrayList<>();
+        collect(root, frames);
+        frames.sort((a, b) -> Long.compare(b.self(), a.self()));
+        long total = Math.max(1, getTotalNanos());
+
+        StringBuilder text = new StringBuilder();
+        text.append(String.format("%12s %6s %12s %10s  %s%n", "proprio (ms)", "%", "total (ms)", "chamadas", "no"));
+        for (int i = 0; i < Math.min(limit, frames.size()); i++) {
+            Frame frame = frames.get(i);
+            text.append(String.format("%12.3f %5.1f%% %12.3f %10d  %s%n",
+                    frame.self() / 1e6, frame.self() * 100.0 / total, frame.total / 1e6, frame.calls, label(frame.node)));
+        }
+        return text.toString();
+    }
+
+    private static void collect(Frame frame, List<Frame> frames){
+        for (int i = 0; i < frame.size; i++) {
+            frames.add(frame.children[i]);
+            collect(frame.children[i], frames);
+        }
+    }
+
+    /**
+     * Nome do quadro de um nó: onde ele está e o que ele é.
+    */
+    private String label(Node node){
+        return source + ":" + lines.format(node.getPosition()) + " " + describe(node);
+    }
+
+    private static String describe(Node node){
+        if (node instanceof AssignNode) {
+            return ((AssignNode) node).getVariable() + " =";
+        }
+        if (node instanceof PrintNode) {
+            return "print";
+        }
+        if (node instanceof IfNode) {
+            return "if";
+        }
+        if (node instanceof WhileNode) {
+            return "while";
+        }
+        if (node instanceof ConcatNode) {
+            return "+ (" + ((ConcatNode) node).getPartCount() + " partes)";
+        }
+        if (node instanceof BinaryOpNode) {
+            return ((BinaryOpNode) node).getOperator();
+        }
+        if (node instanceof VariableNode) {
+            return ((VariableNode) node).getName();
+        }
+        if (node instanceof NumberNode) {
+            return "numero";
+        }
+        if (node instanceof StringNode) {
+            return "texto";
+        }
+        if (node instanceof BooleanNode) {
+            return "booleano";
+        }
+        return node.getClass().getSimpleName();
+    }
+
+    /**
+     * Um nó da árvore de chamadas: um nó da AST dentro de um caminho de nós.
+    */
+    private static final class Frame {
+        private static final int MAX_LINEAR = 8;
+
+        final Frame parent;
+        final Node node;
+        long calls;
+        long total;
+        long start;
+
+        // Os filhos, em arrays paralelos. Quase sempre são poucos e a busca é
+        // linear; a raiz (um filho por instrução) ganha um índice.
+        Node[] nodes = new Node[0];
+        Frame[] children = new Frame[0];
+        int size;
+        Map<Node, Frame> index;
+
+        Frame(Frame parent, Node node){
+            this.parent = parent;
+            this.node = node;
+        }
+
+        Frame child(Node node){
+            if (index != null) {
+                Frame frame = index.get(node);
+                return frame != null ? frame : add(node);
+            }
+            for (int i = 0; i < size; i++) {
+                if (nodes[i] == node) {
+                    return children[i];
+                }
+            }
+            return add(node);
+        }
+
+        private Frame add(Node node){
+            if (size == nodes.length) {
+                int capacity = Math.max(4, size * 2);
+                nodes = Arrays.copyOf(nodes, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            Frame frame = new Frame(this, node);
+            nodes[size] = node;
+            children[size++] = frame;
+            if (index != null) {
+                index.put(node, frame);
+            } else if (size > MAX_LINEAR) {
+                index = new IdentityHashMap<>();
+                for (int i = 0; i < size; i++) {
+                    index.put(nodes[i], children[i]);
+                }
+            }
+            return frame;
+        }
+
+        long self(){
+            long self = total;
+            for (int i = 0; i < size; i++) {
+                self -= children[i].total;
+            }
+            return Math.max(0, self);
+        }
+    }
+}
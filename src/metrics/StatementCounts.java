@@ -0,0 +1,76 @@
+package metrics;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import ast.Node;
+
+/**
+ * Quantas vezes cada instrução foi executada pelo Interpreter.
+ *
+ * As instruções são identificadas pelo próprio nó (e não por igualdade), na
+ * ordem em que foram executadas pela primeira vez. Os nós não são alterados,
+ * então a AST de um Program continua podendo ser compartilhada. Como o
+ * Interpreter, um StatementCounts não é thread-safe: cada Execution que
+ * conta as instruções precisa do seu.
+*/
+public final class StatementCounts {
+    private final Map<Node, long[]> counts = new IdentityHashMap<>();
+    private final List<Node> order = new ArrayList<>();
+
+    /**
+     * Conta mais uma execução da instrução.
+    */
+    public void increment(Node statement){
+        long[] count = counts.get(statement);
+        if (count == null) {
+            count = new long[1];
+            counts.put(statement, count);
+            order.add(statement);
+        }
+        count[0]++;
+    }
+
+    /**
+     * Quantas vezes a instrução foi executada (0 se nunca foi).
+    */
+    public long get(Node statement){
+        long[] count = counts.get(statement);
+        return count == null ? 0 : count[0];
+    }
+
+    /**
+     * As instruções executadas, na ordem da primeira execução.
+    */
+    public List<Node> getStatements(){
+        return new ArrayList<>(order);
+    }
+
+    /**
+     * Soma das execuções de todas as instruções.
+    */
+    public long total(){
+        long total = 0;
+        for (long[] count : counts.values()) {
+            total += count[0];
+        }
+        return total;
+    }
+
+    public void clear(){
+        counts.clear();
+        order.clear();
+    }
+
+    /**
+     * Texto com uma linha por instrução: "vezes  instrução".
+    */
+    public String report(){
+        StringBuilder text = new StringBuilder();
+        for (Node statement : order) {
+            text.append(String.format("%8d  ", counts.get(statement)[0])).append(statement).append('\n');
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,72 @@
+package optimizer;
+
+import ast.BinaryOpNode;
+import ast.Node;
+import ast.NumberNode;
+
+/**
+ * Simplificação algébrica.
+ * Remove operações neutras sobre expressões que certamente são numéricas:
+ * "x * 1", "1 * x", "x / 1" e "x - 0" viram apenas "x".
+ *
+ * As identidades só são aplicadas quando o outro lado é numérico, porque com
+ * strings elas mudariam o resultado ("a" + 0 é "a0.0") ou esconderiam um erro
+ * ("a" * 1 falha na execução). "x + 0" também não é reescrito: para x = -0.0
+ * o resultado é 0.0, que é impresso de forma diferente.
+*/
+public class AlgebraicSimplificationPass extends RewritePass {
+
+    @Override
+    public String getName(){
+        return "Simplificacao algebrica";
+    }
+
+    @Override
+    protected Node rewriteBinary(BinaryOpNode node){
+        Node left = node.getLeft();
+        Node right = node.getRight();
+
+        switch (node.getOperator()) {
+            case "*":
+                if (isConstant(right, 1) && isNumeric(left)) {
+                    return left;
+                }
+                if (isConstant(left, 1) && isNumeric(right)) {
+                    return right;
+                }
+                return node;
+            case "/":
+                return isConstant(right, 1) && isNumeric(left) ? left : node;
+            case "-":
+                return isConstant(right, 0) && isNumeric(left) ? left : node;
+            default:
+                return node;
+        }
+    }
+
+    private static boolean isConstant(Node node, double value){
+        return node instanceof NumberNode && ((NumberNode) node).getValue() == value;
+    }
+
+    /**
+     * Indica se a expressão, quando não falha, sempre produz um número.
+     * "-", "*" e "/" só produzem números; "+" depende dos dois lados; as
+     * comparações produzem booleanos. Variáveis são desconhecidas neste ponto.
+    */
+    private static boolean isNumeric(Node node){
+        if (node instanceof NumberNode) {
+            return true;
+        }
+        if (node instanceof BinaryOpNode) {
+            BinaryOpNode binary = (BinaryOpNode) node;
+            if (binary.isComparison()) {
+                return false;
+            }
+            if (binary.getOperator().equals("+")) {
+                return isNumeric(binary.getLeft()) && isNumeric(binary.getRight());
+            }
+            return true;
+        }
+        return false;
+    }
+}
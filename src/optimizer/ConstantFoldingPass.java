@@ -0,0 +1,110 @@
+package optimizer;
+
+import ast.BinaryOpNode;
+import ast.BooleanNode;
+import ast.Node;
+import ast.NumberNode;
+import ast.StringNode;
+import output.NumberText;
+
+/**
+ * Dobramento de constantes.
+ * Calcula em tempo de compilação as operações cujos dois lados são literais,
+ * como "10 + 20", "\"a\" + 1" ou "3 < 5". Operações que dariam erro na execução
+ * (divisão por zero, "-", "*" ou "/" com strings) não são dobradas, para que
+ * o erro continue acontecendo no mesmo ponto.
+*/
+public class ConstantFoldingPass extends RewritePass {
+
+    @Override
+    public String getName(){
+        return "Dobramento de constantes";
+    }
+
+    @Override
+    protected Node rewriteBinary(BinaryOpNode node){
+        Node left = node.getLeft();
+        Node right = node.getRight();
+        String operator = node.getOperator();
+
+        if (node.isComparison()) {
+            return foldComparison(node);
+        }
+
+        if (left instanceof NumberNode && right instanceof NumberNode) {
+            double a = ((NumberNode) left).getValue();
+            double b = ((NumberNode) right).getValue();
+            switch (operator) {
+                case "+":
+                    return new NumberNode(a + b);
+                case "-":
+                    return new NumberNode(a - b);
+                case "*":
+                    return new NumberNode(a * b);
+                case "/":
+                    // A divisão por zero fica para a execução, que reporta o erro.
+                    return b == 0 ? node : new NumberNode(a / b);
+                default:
+                    return node;
+            }
+        }
+
+        // Concatenação: mesmo texto que o Interpreter produziria (ex: "a" + 1 -> "a1.0").
+        if (operator.equals("+") && isLiteral(left) && isLiteral(right)
+                && (left instanceof StringNode || right instanceof StringNode)) {
+            return new StringNode(literalText(left) + literalText(right));
+        }
+
+        return node;
+    }
+
+    /**
+     * Uma comparação entre dois números ou entre dois textos literais.
+     * As outras ficam para a execução (que também reporta os erros de tipo).
+    */
+    private static Node foldComparison(BinaryOpNode node){
+        Node left = node.getLeft();
+        Node right = node.getRight();
+        int order;
+        if (left instanceof NumberNode && right instanceof NumberNode) {
+            double a = ((NumberNode) left).getValue();
+            double b = ((NumberNode) right).getValue();
+            if (Double.isNaN(a) || Double.isNaN(b)) {
+                return node;
+            }
+            order = Double.compare(a, b);
+            if (a == b) {
+                order = 0; // 0.0 == -0.0
+            }
+        } else if (left instanceof StringNode && right instanceof StringNode) {
+            order = ((StringNode) left).getString().compareTo(((StringNode) right).getString());
+        } else {
+            return node;
+        }
+        switch (node.getOperator()) {
+            case "==":
+                return new BooleanNode(order == 0);
+            case "!=":
+                return new BooleanNode(order != 0);
+            case "<":
+                return new BooleanNode(order < 0);
+            case "<=":
+                return new BooleanNode(order <= 0);
+            case ">":
+                return new BooleanNode(order > 0);
+            default:
+                return new BooleanNode(order >= 0);
+        }
+    }
+
+    private static boolean isLiteral(Node node){
+        return node instanceof NumberNode || node instanceof StringNode;
+    }
+
+    private static String literalText(Node node){
+        if (node instanceof NumberNode) {
+            return NumberText.toString(((NumberNode) node).getValue());
+        }
+        return ((StringNode) node).getString();
+    }
+}
@@ -0,0 +1,23 @@
+package optimizer;
+
+import ast.Node;
+
+/**
+ * Uma passagem de otimização da AST.
+ * Recebe uma instrução e devolve uma instrução equivalente (possivelmente a mesma),
+ * sem alterar o resultado nem os erros que a execução produziria.
+*/
+public interface OptimizationPass {
+
+    /**
+     * Nome da passagem, usado no relatório do Optimizer.
+    */
+    String getName();
+
+    /**
+     * Reescreve uma instrução.
+     * @param statement O nó raiz da instrução.
+     * @return O nó equivalente otimizado (ou o próprio nó, se nada mudou).
+    */
+    Node optimize(Node statement);
+}
@@ -0,0 +1,124 @@
+package optimizer;
+import java.util.ArrayList;
+import java.util.List;
+
+import ast.AssignNode;
+import ast.BinaryOpNode;
+import ast.IfNode;
+import ast.Node;
+import ast.PrintNode;
+import ast.WhileNode;
+
+/**
+ * O Otimizador.
+ * Fica entre o Parser e o Interpreter: aplica, em ordem, uma sequência de
+ * passagens de otimização ({@link OptimizationPass}) sobre cada instrução
+ * da AST e contabiliza quantos nós cada passagem removeu.
+*/
+
+public class Optimizer {
+    private final List<OptimizationPass> passes = new ArrayList<>();
+    private final List<Integer> removedNodes = new ArrayList<>();
+
+    /**
+     * Cria um otimizador com as passagens padrão: dobramento de constantes
+     * seguido de simplificação algébrica.
+    */
+    public static Optimizer standard(){
+        return new Optimizer()
+            .addPass(new ConstantFoldingPass())
+            .addPass(new AlgebraicSimplificationPass());
+    }
+
+    /**
+     * Adiciona uma passagem ao final da sequência.
+     * @return O próprio otimizador, para encadear chamadas.
+    */
+    public Optimizer addPass(OptimizationPass pass){
+        passes.add(pass);
+        removedNodes.add(0);
+        return this;
+    }
+
+    /**
+     * Otimiza uma lista de instruções.
+     * @param statements A lista de nós raiz da AST.
+     * @return Uma nova lista com as instruções otimizadas.
+    */
+    public List<Node> optimize(List<Node> statements){
+        List<Node> optimized = new ArrayList<>(statements.size());
+        for (Node statement : statements){
+            optimized.add(optimize(statement));
+        }
+        return optimized;
+    }
+
+    /**
+     * Otimiza uma única instrução, passando-a por todas as passagens.
+     * @param statement O nó raiz da instrução.
+     * @return A instrução otimizada.
+    */
+    public Node optimize(Node statement){
+        for (int i = 0; i < passes.size(); i++){
+            int before = countNodes(statement);
+            statement = passes.get(i).optimize(statement);
+            removedNodes.set(i, removedNodes.get(i) + before - countNodes(statement));
+        }
+        return statement;
+    }
+
+    /**
+     * Quantos nós a passagem de índice 'index' removeu até agora.
+    */
+    public int getRemovedNodes(int index){
+        return removedNodes.get(index);
+    }
+
+    /**
+     * Gera um resumo com os nós removidos por cada passagem.
+    */
+    public String report(){
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < passes.size(); i++){
+            sb.append(passes.get(i).getName())
+              .append(": ")
+              .append(removedNodes.get(i))
+              .append(" nos removidos\n");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Conta os nós de uma subárvore.
+    */
+    static int countNodes(Node node){
+        if (node instanceof AssignNode) {
+            return 1 + countNodes(((AssignNode) node).getExpression());
+        }
+        if (node instanceof PrintNode) {
+            return 1 + countNodes(((PrintNode) node).getExpression());
+        }
+        if (node instanceof BinaryOpNode) {
+            BinaryOpNode binary = (BinaryOpNode) node;
+            return 1 + countNodes(binary.getLeft()) + countNodes(binary.getRight());
+        }
+        if (node instanceof IfNode) {
+            IfNode ifNode = (IfNode) node;
+            return 1 + countNodes(ifNode.getCondition()) + countNodes(ifNode.getThenBranch())
+                    + countNodes(ifNode.getElseBranch());
+        }
+        if (node instanceof WhileNode) {
+            WhileNode whileNode = (WhileNode) node;
+            return 1 + countNodes(whileNode.getCondition()) + countNodes(whileNode.getBody());
+        }
+        return 1;
+    }
+
+    private static int countNodes(List<Node> statements){
+        int count = 0;
+        for (Node statement : statements) {
+            count += countNodes(statement);
+        }
+        return count;
+    }
+}
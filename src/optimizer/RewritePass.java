@@ -0,0 +1,116 @@
+package optimizer;
+import java.util.ArrayList;
+import java.util.List;
+
+import ast.AssignNode;
+import ast.BinaryOpNode;
+import ast.ConcatNode;
+import ast.IfNode;
+import ast.Node;
+import ast.PrintNode;
+import ast.WhileNode;
+
+/**
+ * Base para passagens que reescrevem operações binárias de baixo para cima.
+ * Percorre a árvore, otimiza primeiro os filhos e só então entrega cada
+ * BinaryOpNode para {@link #rewriteBinary}. As condições e os blocos de if
+ * e while também são percorridos. Nós só são recriados quando
+ * algum filho realmente mudou; um nó recriado (ou um substituto novo, como
+ * uma constante dobrada) fica na posição do nó original no código fonte.
+*/
+public abstract class RewritePass implements OptimizationPass {
+
+    @Override
+    public Node optimize(Node node){
+        if (node instanceof AssignNode) {
+            AssignNode assignNode = (AssignNode) node;
+            Node expression = optimize(assignNode.getExpression());
+            if (expression == assignNode.getExpression()) {
+                return node;
+            }
+            return at(new AssignNode(assignNode.getVariable(), expression), node);
+        }
+
+        if (node instanceof PrintNode) {
+            PrintNode printNode = (PrintNode) node;
+            Node expression = optimize(printNode.getExpression());
+            if (expression == printNode.getExpression()) {
+                return node;
+            }
+            return at(new PrintNode(expression), node);
+        }
+
+        if (node instanceof IfNode) {
+            IfNode ifNode = (IfNode) node;
+            Node condition = optimize(ifNode.getCondition());
+            List<Node> thenBranch = optimize(ifNode.getThenBranch());
+            List<Node> elseBranch = optimize(ifNode.getElseBranch());
+            if (condition == ifNode.getCondition() && thenBranch == ifNode.getThenBranch()
+                    && elseBranch == ifNode.getElseBranch()) {
+                return node;
+            }
+            return at(new IfNode(condition, thenBranch, elseBranch), node);
+        }
+
+        if (node instanceof WhileNode) {
+            WhileNode whileNode = (WhileNode) node;
+            Node condition = optimize(whileNode.getCondition());
+            List<Node> body = optimize(whileNode.getBody());
+            if (condition == whileNode.getCondition() && body == whileNode.getBody()) {
+                return node;
+            }
+            return at(new WhileNode(condition, body), node);
+        }
+
+        if (node instanceof BinaryOpNode) {
+            BinaryOpNode binary = (BinaryOpNode) node;
+            Node left = optimize(binary.getLeft());
+            Node right = optimize(binary.getRight());
+            if (left == binary.getLeft() && right == binary.getRight()) {
+                return at(rewriteBinary(binary), node);
+            }
+            BinaryOpNode rebuilt = new BinaryOpNode(left, binary.getOperator(), right);
+            rebuilt.setPosition(binary.getPosition());
+            Node rewritten = rewriteBinary(rebuilt);
+            // Uma soma encadeada continua achatada depois de reescrita
+            return at(node instanceof ConcatNode ? ConcatNode.flatten(rewritten) : rewritten, node);
+        }
+
+        return node;
+    }
+
+    /**
+     * Otimiza as instruções de um bloco.
+     * @return A própria lista, se nenhuma instrução mudou.
+    */
+    private List<Node> optimize(List<Node> statements){
+        List<Node> optimized = null;
+        for (int i = 0; i < statements.size(); i++) {
+            Node statement = statements.get(i);
+            Node rewritten = optimize(statement);
+            if (rewritten != statement && optimized == null) {
+                optimized = new ArrayList<>(statements.subList(0, i));
+            }
+            if (optimized != null) {
+                optimized.add(rewritten);
+            }
+        }
+        return optimized == null ? statements : optimized;
+    }
+
+    /**
+     * Dá a 'replacement' a posição de 'original', se ele ainda não tiver uma.
+    */
+    private static Node at(Node replacement, Node original){
+        if (replacement.getPosition() < 0) {
+            replacement.setPosition(original.getPosition());
+        }
+        return replacement;
+    }
+
+    /**
+     * Reescreve uma operação binária cujos filhos já foram otimizados.
+     * @return O nó substituto, ou o próprio nó se não houver o que fazer.
+    */
+    protected abstract Node rewriteBinary(BinaryOpNode node);
+}
@@ -0,0 +1,106 @@
+package output;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+
+/**
+ * Acumula as linhas em um buffer e as escreve em lotes.
+ *
+ * Em vez de uma escrita sincronizada no console por linha, o texto é copiado
+ * para um array de caracteres e só vai para o destino quando o buffer enche
+ * ou quando {@link #flush()} é chamado. Quem usa esta saída precisa chamar
+ * flush nos pontos em que a saída deve aparecer (o Interpreter faz isso ao
+ * terminar e antes de reportar um erro).
+*/
+public class BufferedSink implements OutputSink {
+    private static final int DEFAULT_CAPACITY = 64 * 1024;
+
+    private final Writer writer;
+    private final char[] buffer;
+    private int count = 0;
+
+    /**
+     * @param writer O destino final do texto.
+     * @param capacity Quantos caracteres acumular antes de escrever.
+    */
+    public BufferedSink(Writer writer, int capacity){
+        this.writer = writer;
+        this.buffer = new char[capacity];
+    }
+
+    public BufferedSink(OutputStream out){
+        this(new OutputStreamWriter(out, Charset.defaultCharset()), DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Cria uma saída em lotes direto para a saída padrão do processo,
+     * sem passar pelo PrintStream sincronizado de System.out.
+    */
+    public static BufferedSink stdout(){
+        return new BufferedSink(new FileOutputStream(FileDescriptor.out));
+    }
+
+    @Override
+    public void println(String line){
+        int length = line.length();
+        if (count + length + 1 > buffer.length) {
+            drain();
+            if (length + 1 > buffer.length) {
+                // Linha maior que o buffer inteiro: vai direto para o destino.
+                write(line);
+                write("\n");
+                return;
+            }
+        }
+        line.getChars(0, length, buffer, count);
+        count += length;
+        buffer[count++] = '\n';
+    }
+
+    @Override
+    public void println(double number){
+        if (count + NumberText.MAX_LENGTH + 1 > buffer.length) {
+            drain();
+        }
+        count = NumberText.format(number, buffer, count);
+        buffer[count++] = '\n';
+    }
+
+    @Override
+    public void flush(){
+        drain();
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Entrega ao Writer o conteúdo acumulado no buffer.
+    */
+    private void drain(){
+        if (count == 0) {
+            return;
+        }
+        try {
+            writer.write(buffer, 0, count);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        count = 0;
+    }
+
+    private void write(String text){
+        try {
+            writer.write(text);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
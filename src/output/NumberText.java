@@ -0,0 +1,354 @@
+package output;
+import java.math.BigInteger;
+
+/**
+ * Converte números para texto com a menor quantidade de dígitos que ainda
+ * identifica o double (o algoritmo Ryu, de Ulf Adams).
+ *
+ * O formato é o de Double.toString: notação decimal de 10^-3 a 10^7
+ * ("42.0", "0.125") e científica fora disso ("1.0E10", "4.9E-324"). Os
+ * dígitos são os mais curtos que voltam ao mesmo double, como no Java 19 em
+ * diante; o Double.toString do Java 17 às vezes escreve um dígito a mais.
+ *
+ * O texto é escrito direto em um array de caracteres ({@link #format}), então
+ * quem já tem um buffer (o {@link BufferedSink}, um StringBuilder) não precisa
+ * de uma String intermediária. Inteiros pequenos, o caso mais comum, nem
+ * passam pelo Ryu.
+*/
+public final class NumberText {
+
+    /** Tamanho máximo do texto de um double, ex: "-2.2250738585072014E-308". */
+    public static final int MAX_LENGTH = 25;
+
+    private static final int MANTISSA_BITS = 52;
+    private static final int EXPONENT_BITS = 11;
+    private static final int BIAS = 1023;
+
+    private static final int POW5_BITCOUNT = 125;
+    private static final int POW5_INV_BITCOUNT = 125;
+
+    private NumberText(){
+    }
+
+    /**
+     * As tabelas do Ryu: 5^i e 2^k / 5^i com 125 bits significativos, em pares
+     * (64 bits baixos, altos). Ficam em uma classe à parte para que só sejam
+     * calculadas na primeira vez em que o Ryu roda: um programa que só imprime
+     * inteiros (o caminho rápido de {@link #format}) nunca paga por elas.
+    */
+    private static final class Tables {
+        static final long[] POW5_SPLIT = new long[2 * 326];
+        static final long[] POW5_INV_SPLIT = new long[2 * 342];
+
+        static {
+            BigInteger mask = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+            BigInteger five = BigInteger.valueOf(5);
+            BigInteger pow = BigInteger.ONE;
+            int count = Math.max(POW5_SPLIT.length, POW5_INV_SPLIT.length) / 2;
+            for (int i = 0; i < count; i++, pow = pow.multiply(five)) {
+                int bits = pow.bitLength();
+                if (i < POW5_SPLIT.length / 2) {
+                    int shift = bits - POW5_BITCOUNT;
+                    BigInteger value = shift >= 0 ? pow.shiftRight(shift) : pow.shiftLeft(-shift);
+                    POW5_SPLIT[2 * i] = value.and(mask).longValue();
+                    POW5_SPLIT[2 * i + 1] = value.shiftRight(64).longValue();
+                }
+                if (i < POW5_INV_SPLIT.length / 2) {
+                    int shift = bits - 1 + POW5_INV_BITCOUNT;
+                    BigInteger value = BigInteger.ONE.shiftLeft(shift).divide(pow).add(BigInteger.ONE);
+                    POW5_INV_SPLIT[2 * i] = value.and(mask).longValue();
+                    POW5_INV_SPLIT[2 * i + 1] = value.shiftRight(64).longValue();
+                }
+            }
+        }
+    }
+
+    /**
+     * O texto de um número, como uma String.
+    */
+    public static String toString(double value){
+        char[] buffer = new char[MAX_LENGTH];
+        int length = format(value, buffer, 0);
+        return new String(buffer, 0, length);
+    }
+
+    /**
+     * Acrescenta o texto de um número a um StringBuilder.
+    */
+    public static void append(StringBuilder target, double value){
+        char[] buffer = new char[MAX_LENGTH];
+        int length = format(value, buffer, 0);
+        target.append(buffer, 0, length);
+    }
+
+    /**
+     * Escreve o texto de um número em 'buffer', a partir de 'offset'.
+     * @param buffer O destino, com pelo menos {@link #MAX_LENGTH} posições livres.
+     * @return A posição logo depois do último caractere escrito.
+    */
+    public static int format(double value, char[] buffer, int offset){
+        // Caso comum: um inteiro que cabe na notação decimal ("42.0").
+        if (value == (long) value && value < 1e7 && value > -1e7 && value != 0) {
+            long integer = (long) value;
+            if (integer < 0) {
+                buffer[offset++] = '-';
+                integer = -integer;
+            }
+            offset = writeDigits(integer, decimalLength(integer), buffer, offset);
+            buffer[offset++] = '.';
+            buffer[offset++] = '0';
+            return offset;
+        }
+
+        long bits = Double.doubleToRawLongBits(value);
+        long ieeeMantissa = bits & ((1L << MANTISSA_BITS) - 1);
+        int ieeeExponent = (int) ((bits >>> MANTISSA_BITS) & ((1 << EXPONENT_BITS) - 1));
+        boolean negative = bits < 0;
+
+        if (ieeeExponent == (1 << EXPONENT_BITS) - 1) {
+            String special = ieeeMantissa != 0 ? "NaN" : negative ? "-Infinity" : "Infinity";
+            special.getChars(0, special.length(), buffer, offset);
+            return offset + special.length();
+        }
+        if (negative) {
+            buffer[offset++] = '-';
+        }
+        if (ieeeExponent == 0 && ieeeMantissa == 0) {
+            buffer[offset++] = '0';
+            buffer[offset++] = '.';
+            buffer[offset++] = '0';
+            return offset;
+        }
+
+        // --- Ryu: os dígitos mais curtos (output) e o expoente decimal (exponent) ---
+        int e2;
+        long m2;
+        if (ieeeExponent == 0) {
+            e2 = 1 - BIAS - MANTISSA_BITS - 2;
+            m2 = ieeeMantissa;
+        } else {
+            e2 = ieeeExponent - BIAS - MANTISSA_BITS - 2;
+            m2 = (1L << MANTISSA_BITS) | ieeeMantissa;
+        }
+        boolean acceptBounds = (m2 & 1) == 0;
+
+        long mv = 4 * m2;
+        int mmShift = (ieeeMantissa != 0 || ieeeExponent <= 1) ? 1 : 0;
+
+        long vr;
+        long vp;
+        long vm;
+        int e10;
+        boolean vmIsTrailingZeros = false;
+        boolean vrIsTrailingZeros = false;
+        if (e2 >= 0) {
+            int q = log10Pow2(e2) - (e2 > 3 ? 1 : 0);
+            e10 = q;
+            int k = POW5_INV_BITCOUNT + pow5bits(q) - 1;
+            int i = -e2 + q + k;
+            vr = mulShift(4 * m2, Tables.POW5_INV_SPLIT, q, i);
+            vp = mulShift(4 * m2 + 2, Tables.POW5_INV_SPLIT, q, i);
+            vm = mulShift(4 * m2 - 1 - mmShift, Tables.POW5_INV_SPLIT, q, i);
+            if (q <= 21) {
+                if (mv % 5 == 0) {
+                    vrIsTrailingZeros = pow5Factor(mv) >= q;
+                } else if (acceptBounds) {
+                    vmIsTrailingZeros = pow5Factor(mv - 1 - mmShift) >= q;
+                } else if (pow5Factor(mv + 2) >= q) {
+                    vp--;
+                }
+            }
+        } else {
+            int q = log10Pow5(-e2) - (-e2 > 1 ? 1 : 0);
+            e10 = q + e2;
+            int i = -e2 - q;
+            int k = pow5bits(i) - POW5_BITCOUNT;
+            int j = q - k;
+            vr = mulShift(4 * m2, Tables.POW5_SPLIT, i, j);
+            vp = mulShift(4 * m2 + 2, Tables.POW5_SPLIT, i, j);
+            vm = mulShift(4 * m2 - 1 - mmShift, Tables.POW5_SPLIT, i, j);
+            if (q <= 1) {
+                vrIsTrailingZeros = true;
+                if (acceptBounds) {
+                    vmIsTrailingZeros = mmShift == 1;
+                } else {
+                    vp--;
+                }
+            } else if (q < 63) {
+                vrIsTrailingZeros = (mv & ((1L << q) - 1)) == 0;
+            }
+        }
+
+        int removed = 0;
+        int lastRemovedDigit = 0;
+        long output;
+        if (vmIsTrailingZeros || vrIsTrailingZeros) {
+            // Caminho raro: o valor exato pode terminar em zeros.
+            while (vp / 10 > vm / 10) {
+                vmIsTrailingZeros &= vm % 10 == 0;
+                vrIsTrailingZeros &= lastRemovedDigit == 0;
+                lastRemovedDigit = (int) (vr % 10);
+                vr /= 10;
+                vp /= 10;
+                vm /= 10;
+                removed++;
+            }
+            if (vmIsTrailingZeros) {
+                while (vm % 10 == 0) {
+                    vrIsTrailingZeros &= lastRemovedDigit == 0;
+                    lastRemovedDigit = (int) (vr % 10);
+                    vr /= 10;
+                    vp /= 10;
+                    vm /= 10;
+                    removed++;
+                }
+            }
+            if (vrIsTrailingZeros && lastRemovedDigit == 5 && vr % 2 == 0) {
+                // Exatamente no meio: arredonda para o par.
+                lastRemovedDigit = 4;
+            }
+            output = vr + ((vr == vm && (!acceptBounds || !vmIsTrailingZeros)) || lastRemovedDigit >= 5 ? 1 : 0);
+        } else {
+            boolean roundUp = false;
+            if (vp / 100 > vm / 100) {
+                // Dois dígitos de uma vez, o caso mais comum.
+                roundUp = vr % 100 >= 50;
+                vr /= 100;
+                vp /= 100;
+                vm /= 100;
+                removed += 2;
+            }
+            while (vp / 10 > vm / 10) {
+                roundUp = vr % 10 >= 5;
+                vr /= 10;
+                vp /= 10;
+                vm /= 10;
+                removed++;
+            }
+            output = vr + (vr == vm || roundUp ? 1 : 0);
+        }
+        int exponent = e10 + removed;
+
+        if (ieeeExponent == 0 && output < 10) {
+            // Um único dígito, em um subnormal minúsculo: o Java escolhe entre
+            // as opções de dois dígitos a mais próxima (4.9E-324, não 5.0E-324).
+            String text = Double.toString(Math.abs(value));
+            text.getChars(0, text.length(), buffer, offset);
+            return offset + text.length();
+        }
+        while (output % 10 == 0) {
+            output /= 10;
+            exponent++;
+        }
+
+        // --- Layout do Double.toString ---
+        int length = decimalLength(output);
+        int scientific = exponent + length - 1;
+        if (scientific < -3 || scientific >= 7) {
+            // d.dddE±n
+            int start = offset;
+            offset = writeDigits(output, length, buffer, offset + 1);
+            buffer[start] = buffer[start + 1];
+            buffer[start + 1] = '.';
+            if (length == 1) {
+                buffer[offset++] = '0';
+            }
+            buffer[offset++] = 'E';
+            if (scientific < 0) {
+                buffer[offset++] = '-';
+                scientific = -scientific;
+            }
+            return writeDigits(scientific, decimalLength(scientific), buffer, offset);
+        }
+        if (scientific < 0) {
+            // 0.000ddd
+            buffer[offset++] = '0';
+            buffer[offset++] = '.';
+            for (int i = -1; i > scientific; i--) {
+                buffer[offset++] = '0';
+            }
+            return writeDigits(output, length, buffer, offset);
+        }
+        if (length <= scientific + 1) {
+            // ddd000.0
+            offset = writeDigits(output, length, buffer, offset);
+            for (int i = length; i <= scientific; i++) {
+                buffer[offset++] = '0';
+            }
+            buffer[offset++] = '.';
+            buffer[offset++] = '0';
+            return offset;
+        }
+        // ddd.ddd: escreve os dígitos um à direita e puxa a parte inteira de volta.
+        int start = offset;
+        offset = writeDigits(output, length, buffer, offset + 1);
+        System.arraycopy(buffer, start + 1, buffer, start, scientific + 1);
+        buffer[start + scientific + 1] = '.';
+        return offset;
+    }
+
+    // --- Auxiliares ---
+
+    /**
+     * Escreve os 'length' dígitos de 'value' a partir de 'offset'.
+    */
+    private static int writeDigits(long value, int length, char[] buffer, int offset){
+        int end = offset + length;
+        for (int i = end - 1; i >= offset; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return end;
+    }
+
+    private static int decimalLength(long value){
+        int length = 1;
+        for (long limit = 10; length < 19 && value >= limit; limit *= 10) {
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * (m * mul) >> j, com mul o par de 64 bits 'table[2 * index]' (baixo) e
+     * 'table[2 * index + 1]' (alto). m tem no máximo 55 bits e 64 < j < 128.
+    */
+    private static long mulShift(long m, long[] table, int index, int j){
+        long low = table[2 * index];
+        long high = table[2 * index + 1];
+        // Parte alta (sem sinal) de m * low; m é positivo.
+        long high0 = Math.multiplyHigh(m, low) + (low < 0 ? m : 0);
+        long low1 = m * high;
+        long high1 = Math.multiplyHigh(m, high);
+        long sum = high0 + low1;
+        if (Long.compareUnsigned(sum, high0) < 0) {
+            high1++;
+        }
+        int shift = j - 64;
+        return (high1 << (64 - shift)) | (sum >>> shift);
+    }
+
+    private static int pow5Factor(long value){
+        int count = 0;
+        while (value > 0 && value % 5 == 0) {
+            value /= 5;
+            count++;
+        }
+        return count;
+    }
+
+    /** Quantidade de bits de 5^e (1 para e = 0). */
+    private static int pow5bits(int e){
+        return (int) (((e * 1217359L) >>> 19) + 1);
+    }
+
+    /** floor(log10(2^e)). */
+    private static int log10Pow2(int e){
+        return (int) ((e * 78913L) >>> 18);
+    }
+
+    /** floor(log10(5^e)). */
+    private static int log10Pow5(int e){
+        return (int) ((e * 732923L) >>> 20);
+    }
+}
@@ -0,0 +1,27 @@
+package output;
+
+/**
+ * Destino da saída de um programa JPP (o resultado dos print e o eco das atribuições).
+ * Permite trocar a escrita direta no console por uma escrita em lotes.
+*/
+public interface OutputSink {
+
+    /**
+     * Escreve uma linha de saída.
+     * @param line O texto da linha, sem o terminador.
+    */
+    void println(String line);
+
+    /**
+     * Escreve um número em uma linha, no formato de {@link NumberText}.
+     * Quem tem um buffer próprio pode escrever os dígitos direto nele.
+    */
+    default void println(double number){
+        println(NumberText.toString(number));
+    }
+
+    /**
+     * Garante que tudo o que foi escrito até aqui chegou ao destino.
+    */
+    void flush();
+}
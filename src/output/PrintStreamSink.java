@@ -0,0 +1,28 @@
+package output;
+import java.io.PrintStream;
+
+/**
+ * Escreve cada linha imediatamente em um PrintStream (por padrão, System.out).
+ * É o comportamento original do Interpreter.
+*/
+public class PrintStreamSink implements OutputSink {
+    private final PrintStream out;
+
+    public PrintStreamSink(){
+        this(System.out);
+    }
+
+    public PrintStreamSink(PrintStream out){
+        this.out = out;
+    }
+
+    @Override
+    public void println(String line){
+        out.println(line);
+    }
+
+    @Override
+    public void flush(){
+        out.flush();
+    }
+}
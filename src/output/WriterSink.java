@@ -0,0 +1,36 @@
+package output;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * Escreve cada linha em um Writer, sem buffer próprio.
+ * Usado quando o destino já é um Writer de outra pessoa (por exemplo, o
+ * {@code ScriptContext} do javax.script), que decide quando escrever de fato.
+*/
+public class WriterSink implements OutputSink {
+    private final Writer writer;
+
+    public WriterSink(Writer writer){
+        this.writer = writer;
+    }
+
+    @Override
+    public void println(String line){
+        try {
+            writer.write(line);
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void flush(){
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
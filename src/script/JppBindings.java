@@ -0,0 +1,120 @@
+package script;
+import java.util.AbstractMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import javax.script.Bindings;
+
+import core.Environment;
+
+/**
+ * Bindings que são o próprio ambiente do Interpreter.
+ *
+ * Cada nome é traduzido para o slot que ele tem na tabela do motor, e o valor
+ * é lido ou escrito direto no {@link Environment}. Um script avaliado com
+ * estes Bindings roda sobre o mesmo Environment, sem cópia.
+ *
+ * Os valores são números (qualquer {@link Number}, guardado como double),
+ * textos (qualquer {@link CharSequence}) ou booleanos; os números voltam
+ * como Double.
+ * Não é thread-safe.
+*/
+public class JppBindings extends AbstractMap<String, Object> implements Bindings {
+    private final JppScriptEngine engine;
+    private final Environment variables = new Environment();
+
+    JppBindings(JppScriptEngine engine){
+        this.engine = engine;
+    }
+
+    JppScriptEngine getEngine() {
+        return engine;
+    }
+
+    Environment getVariables() {
+        return variables;
+    }
+
+    @Override
+    public Object put(String name, Object value){
+        checkName(name);
+        int slot = engine.declare(name);
+        Object previous = variables.get(slot);
+        if (value == null) {
+            variables.clear(slot);
+        } else if (value instanceof Number) {
+            variables.set(slot, ((Number) value).doubleValue());
+        } else if (value instanceof CharSequence) {
+            variables.set(slot, value.toString());
+        } else if (value instanceof Boolean) {
+            variables.set(slot, ((Boolean) value).booleanValue());
+        } else {
+            throw new ClassCastException("Tipo nao suportado pelo JPP: " + value.getClass().getName());
+        }
+        return previous;
+    }
+
+    @Override
+    public Object get(Object key){
+        int slot = slotOf(key);
+        return slot < 0 ? null : variables.get(slot);
+    }
+
+    @Override
+    public boolean containsKey(Object key){
+        return get(key) != null;
+    }
+
+    @Override
+    public Object remove(Object key){
+        int slot = slotOf(key);
+        if (slot < 0) {
+            return null;
+        }
+        Object previous = variables.get(slot);
+        variables.clear(slot);
+        return previous;
+    }
+
+    @Override
+    public void clear(){
+        for (int slot = 0; slot < variables.size(); slot++) {
+            variables.clear(slot);
+        }
+    }
+
+    /**
+     * Uma cópia das variáveis que têm valor, na ordem dos slots.
+     * Alterar o conjunto devolvido não altera os Bindings.
+    */
+    @Override
+    public Set<Map.Entry<String, Object>> entrySet(){
+        String[] names = engine.names();
+        Set<Map.Entry<String, Object>> entries = new LinkedHashSet<>();
+        for (int slot = 0; slot < names.length; slot++) {
+            Object value = variables.get(slot);
+            if (value != null) {
+                entries.add(new SimpleImmutableEntry<>(names[slot], value));
+            }
+        }
+        return entries;
+    }
+
+    private int slotOf(Object key){
+        checkName(key);
+        return engine.slotOf((String) key);
+    }
+
+    private static void checkName(Object key){
+        if (key == null) {
+            throw new NullPointerException("Nome de variavel nulo.");
+        }
+        if (!(key instanceof String)) {
+            throw new ClassCastException("Nome de variavel deve ser uma String.");
+        }
+        if (((String) key).isEmpty()) {
+            throw new IllegalArgumentException("Nome de variavel vazio.");
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package script;
+import javax.script.Bindings;
+import javax.script.CompiledScript;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.ScriptException;
+
+import core.Environment;
+import core.Execution;
+import core.Program;
+import output.OutputSink;
+import output.WriterSink;
+
+/**
+ * Um script JPP compilado por {@link JppScriptEngine#compile(String)}.
+ * Guarda só o {@link Program}, que é imutável; cada eval cria uma
+ * {@link Execution} nova, então o mesmo script pode ser avaliado por várias
+ * threads ao mesmo tempo, desde que cada uma use seus próprios Bindings.
+*/
+public class JppCompiledScript extends CompiledScript {
+    private final JppScriptEngine engine;
+    private final Program program;
+
+    JppCompiledScript(JppScriptEngine engine, Program program){
+        this.engine = engine;
+        this.program = program;
+    }
+
+    public Program getProgram() {
+        return program;
+    }
+
+    /**
+     * Executa o script com as variáveis do ENGINE_SCOPE de 'context'.
+     * A saída vai para o Writer do contexto; um erro vira uma ScriptException.
+     * @return Sempre null.
+    */
+    @Override
+    public Object eval(ScriptContext context) throws ScriptException {
+        Bindings bindings = context.getBindings(ScriptContext.ENGINE_SCOPE);
+        boolean direct = bindings instanceof JppBindings && ((JppBindings) bindings).getEngine() == engine;
+        Environment variables = direct ? ((JppBindings) bindings).getVariables() : copyIn(bindings);
+
+        ErrorSink errors = new ErrorSink();
+        Execution execution = program.newExecution(new WriterSink(context.getWriter()), errors, variables)
+                .setEchoAssignments(engine.isEchoingAssignments());
+        boolean completed = execution.run();
+
+        if (!direct && bindings != null) {
+            copyOut(variables, bindings);
+        }
+        if (!completed) {
+            throw new ScriptException(errors.message);
+        }
+        return null;
+    }
+
+    @Override
+    public ScriptEngine getEngine() {
+        return engine;
+    }
+
+    // --- Bindings de outro tipo ---
+
+    private Environment copyIn(Bindings bindings){
+        Environment variables = new Environment(program.getSlotCount());
+        if (bindings == null) {
+            return variables;
+        }
+        for (Bindings.Entry<String, Object> entry : bindings.entrySet()) {
+            int slot = program.slotOf(entry.getKey());
+            Object value = entry.getValue();
+            if (slot < 0 || value == null) {
+                continue;
+            }
+            if (value instanceof Number) {
+                variables.set(slot, ((Number) value).doubleValue());
+            } else if (value instanceof CharSequence) {
+                variables.set(slot, value.toString());
+            } else if (value instanceof Boolean) {
+                variables.set(slot, ((Boolean) value).booleanValue());
+            }
+        }
+        return variables;
+    }
+
+    private void copyOut(Environment variables, Bindings bindings){
+        String[] names = program.getNames();
+        for (int slot = 0; slot < names.length; slot++) {
+            Object value = variables.get(slot);
+            if (value != null) {
+                bindings.put(names[slot], value);
+            }
+        }
+    }
+
+    /**
+     * Guarda a última mensagem de erro, que vira a mensagem da ScriptException.
+    */
+    private static class ErrorSink implements OutputSink {
+        private String message;
+
+        @Override
+        public void println(String line){
+            message = line;
+        }
+
+        @Override
+        public void flush(){
+        }
+    }
+}
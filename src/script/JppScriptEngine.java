@@ -0,0 +1,147 @@
+package script;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.util.List;
+
+import javax.script.AbstractScriptEngine;
+import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngineFactory;
+import javax.script.ScriptException;
+
+import ast.Node;
+import core.Lexer;
+import core.Parser;
+import core.Program;
+import core.Resolver;
+
+/**
+ * O motor javax.script do JPP.
+ *
+ * compile analisa o código uma vez e devolve um {@link CompiledScript} que
+ * pode ser avaliado quantas vezes for preciso, inclusive em várias threads ao
+ * mesmo tempo (cada uma com seus Bindings). eval(String) é só compile seguido de eval.
+ *
+ * As variáveis do script são as do ENGINE_SCOPE. Todos os scripts de um motor
+ * usam a mesma tabela de slots, então os Bindings criados por
+ * {@link #createBindings()} são o próprio ambiente do Interpreter: os valores
+ * não são copiados nem na entrada nem na saída. Qualquer outro Bindings
+ * também funciona, mas as variáveis são copiadas a cada avaliação.
+ *
+ * O script pode ler variáveis que não define (elas vêm dos Bindings); ler
+ * uma que não está nos Bindings é um erro de execução. eval devolve sempre
+ * null, e por padrão as atribuições não são ecoadas na saída.
+*/
+public class JppScriptEngine extends AbstractScriptEngine implements Compilable {
+    private final ScriptEngineFactory factory;
+
+    /** A tabela de slots compartilhada por todos os scripts deste motor. Acesso sempre sincronizado nela. */
+    private final Resolver symbols = new Resolver();
+
+    private volatile boolean echoAssignments = false;
+
+    public JppScriptEngine(){
+        this(new JppScriptEngineFactory());
+    }
+
+    public JppScriptEngine(ScriptEngineFactory factory){
+        this.factory = factory;
+        symbols.setFreeVariables(true);
+        context.setBindings(createBindings(), ScriptContext.ENGINE_SCOPE);
+    }
+
+    /**
+     * Liga o eco "nome = valor" das atribuições, como no App.
+    */
+    public void setEchoAssignments(boolean echoAssignments){
+        this.echoAssignments = echoAssignments;
+    }
+
+    boolean isEchoingAssignments(){
+        return echoAssignments;
+    }
+
+    @Override
+    public CompiledScript compile(String script) throws ScriptException {
+        List<Node> ast;
+        try {
+            ast = new Parser(new Lexer(script).tokenize()).parse();
+        } catch (RuntimeException e) {
+            throw new ScriptException("Erro de sintaxe " + e.getMessage());
+        }
+
+        Program program;
+        synchronized (symbols) {
+            try {
+                program = Program.of(ast, symbols);
+            } catch (RuntimeException e) {
+                throw new ScriptException("Erro de resolucao " + e.getMessage());
+            }
+        }
+        return new JppCompiledScript(this, program);
+    }
+
+    @Override
+    public CompiledScript compile(Reader script) throws ScriptException {
+        return compile(read(script));
+    }
+
+    @Override
+    public Object eval(String script, ScriptContext context) throws ScriptException {
+        return compile(script).eval(context);
+    }
+
+    @Override
+    public Object eval(Reader reader, ScriptContext context) throws ScriptException {
+        return eval(read(reader), context);
+    }
+
+    @Override
+    public Bindings createBindings() {
+        return new JppBindings(this);
+    }
+
+    @Override
+    public ScriptEngineFactory getFactory() {
+        return factory;
+    }
+
+    // --- Tabela de slots ---
+
+    /**
+     * @return O slot da variável, ou -1 se nenhum script ou Bindings deste motor a usou.
+    */
+    int slotOf(String name){
+        synchronized (symbols) {
+            return symbols.slotOf(name);
+        }
+    }
+
+    /**
+     * @return O slot da variável, criado agora se ainda não existia.
+    */
+    int declare(String name){
+        synchronized (symbols) {
+            return symbols.declare(name);
+        }
+    }
+
+    String[] names(){
+        synchronized (symbols) {
+            return symbols.getNames();
+        }
+    }
+
+    private static String read(Reader reader) throws ScriptException {
+        StringWriter text = new StringWriter();
+        try {
+            reader.transferTo(text);
+        } catch (IOException e) {
+            throw new ScriptException(e);
+        }
+        return text.toString();
+    }
+}
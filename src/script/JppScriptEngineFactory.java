@@ -0,0 +1,112 @@
+package script;
+import java.util.List;
+
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineFactory;
+
+import core.Version;
+
+/**
+ * Registra o JPP no javax.script (JSR-223).
+ * Com o jar no classpath, o motor é encontrado por nome, extensão ou tipo MIME:
+ * <pre>
+ *   ScriptEngine engine = new ScriptEngineManager().getEngineByName("jpp");
+ * </pre>
+*/
+public class JppScriptEngineFactory implements ScriptEngineFactory {
+    private static final List<String> NAMES = List.of("jpp", "JPP");
+    private static final List<String> EXTENSIONS = List.of("jpp");
+    private static final List<String> MIME_TYPES = List.of("text/x-jpp", "application/x-jpp");
+
+    @Override
+    public String getEngineName() {
+        return "JPP - Jacob Plus Plus";
+    }
+
+    @Override
+    public String getEngineVersion() {
+        return Version.NUMBER;
+    }
+
+    @Override
+    public List<String> getExtensions() {
+        return EXTENSIONS;
+    }
+
+    @Override
+    public List<String> getMimeTypes() {
+        return MIME_TYPES;
+    }
+
+    @Override
+    public List<String> getNames() {
+        return NAMES;
+    }
+
+    @Override
+    public String getLanguageName() {
+        return "JPP";
+    }
+
+    @Override
+    public String getLanguageVersion() {
+        return Version.NUMBER;
+    }
+
+    /**
+     * THREADING é null: um mesmo Bindings não pode ser usado por duas threads
+     * ao mesmo tempo. Um script compilado, esse sim, pode rodar em várias
+     * threads de uma vez, cada uma com seus Bindings.
+    */
+    @Override
+    public Object getParameter(String key) {
+        switch (key) {
+            case ScriptEngine.ENGINE:
+                return getEngineName();
+            case ScriptEngine.ENGINE_VERSION:
+                return getEngineVersion();
+            case ScriptEngine.NAME:
+                return NAMES.get(0);
+            case ScriptEngine.LANGUAGE:
+                return getLanguageName();
+            case ScriptEngine.LANGUAGE_VERSION:
+                return getLanguageVersion();
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * A linguagem não tem objetos nem métodos.
+    */
+    @Override
+    public String getMethodCallSyntax(String obj, String m, String... args) {
+        throw new UnsupportedOperationException("JPP nao tem chamadas de metodo.");
+    }
+
+    @Override
+    public String getOutputStatement(String toDisplay) {
+        if (toDisplay.indexOf('"') >= 0) {
+            throw new IllegalArgumentException("Strings JPP nao podem conter aspas: " + toDisplay);
+        }
+        return "print \"" + toDisplay + "\";";
+    }
+
+    @Override
+    public String getProgram(String... statements) {
+        StringBuilder program = new StringBuilder();
+        for (String statement : statements) {
+            program.append(statement);
+            if (!statement.trim().endsWith(";")) {
+                program.append(';');
+            }
+            program.append('\n');
+        }
+        return program.toString();
+    }
+
+    @Override
+    public ScriptEngine getScriptEngine() {
+        return new JppScriptEngine(this);
+    }
+}
@@ -0,0 +1,279 @@
+package server;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import ast.Node;
+import core.Interpreter;
+import core.Lexer;
+import core.Parser;
+import output.BufferedSink;
+
+/**
+ * Servidor que executa scripts JPP recebidos por um socket local.
+ *
+ * Um processo só atende milhares de execuções, então a JVM sobe uma vez e o
+ * JIT continua aquecido entre elas. Cada pedido roda na sua própria thread,
+ * com Lexer, Parser e Interpreter próprios, sem nada compartilhado.
+ *
+ * Protocolo (uma execução por conexão):
+ * <pre>
+ *   FILE caminho/do/script.jpp\n      executa um arquivo do diretório raiz do servidor
+ *   SOURCE\n codigo...                 executa o código enviado até o fim da conexão
+ * </pre>
+ * O FILE só lê arquivos dentro do diretório raiz (por padrão, o diretório em
+ * que o servidor foi iniciado); caminhos relativos partem dele, e um caminho
+ * que sai dele (com "..", um link ou um caminho absoluto) é recusado.
+ *
+ * A resposta é a saída do programa, linha a linha e à medida que é produzida,
+ * incluindo as mensagens de erro, e termina com uma linha de tempos (a
+ * leitura do pedido, que depende do cliente, fica separada da análise):
+ * <pre>
+ *   # tempo: leitura 0.020 ms, analise 0.412 ms, execucao 0.105 ms, total 0.537 ms
+ * </pre>
+ * Exemplo com o nc: printf 'FILE codigo.txt\n' | nc localhost 7878
+*/
+public class JppServer implements AutoCloseable {
+    public static final int DEFAULT_PORT = 7878;
+
+    /** Tamanho máximo do código recebido em um pedido. */
+    private static final int MAX_SOURCE = 64 * 1024 * 1024;
+    /** Tamanho máximo da linha de comando do pedido. */
+    private static final int MAX_COMMAND = 4096;
+    /** A saída vai para o cliente em blocos deste tamanho (em caracteres). */
+    private static final int OUTPUT_BUFFER = 8 * 1024;
+
+    private final ServerSocketChannel channel;
+    private final SocketAddress address;
+    private final Path root;
+    private final ExecutorService executor;
+
+    private JppServer(ServerSocketChannel channel, SocketAddress address, Path root){
+        this.channel = channel;
+        this.address = address;
+        this.root = root;
+        this.executor = newExecutor();
+    }
+
+    /**
+     * Abre o servidor em um endereço local, com o diretório atual como raiz do FILE.
+     * @param address Um número de porta (TCP em localhost) ou o caminho de um
+     * socket Unix (que não pode existir ainda).
+    */
+    public static JppServer open(String address) throws IOException {
+        return open(address, Paths.get(""));
+    }
+
+    /**
+     * Abre o servidor em um endereço local.
+     * @param address Um número de porta (TCP em localhost) ou o caminho de um
+     * socket Unix (que não pode existir ainda).
+     * @param root O único diretório de onde o FILE pode ler scripts.
+    */
+    public static JppServer open(String address, Path root) throws IOException {
+        Path directory = root.toRealPath();
+        if (!Files.isDirectory(directory)) {
+            throw new IOException("A raiz do servidor nao e um diretorio: " + root);
+        }
+
+        if (address.matches("\\d+")) {
+            InetSocketAddress local = new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(address));
+            ServerSocketChannel channel = ServerSocketChannel.open();
+            channel.bind(local);
+            return new JppServer(channel, channel.getLocalAddress(), directory);
+        }
+
+        UnixDomainSocketAddress local = UnixDomainSocketAddress.of(address);
+        ServerSocketChannel channel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        channel.bind(local);
+        return new JppServer(channel, local, directory);
+    }
+
+    public SocketAddress getAddress() {
+        return address;
+    }
+
+    /** O diretório de onde o FILE lê os scripts. */
+    public Path getRoot() {
+        return root;
+    }
+
+    /**
+     * Aceita conexões até o servidor ser fechado.
+    */
+    public void serve() throws IOException {
+        while (true) {
+            SocketChannel client;
+            try {
+                client = channel.accept();
+            } catch (ClosedChannelException e) {
+                return;
+            }
+            executor.execute(() -> handle(client));
+        }
+    }
+
+    /**
+     * Para de aceitar conexões. Se o endereço era um socket Unix, o arquivo é removido.
+    */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+        executor.shutdown();
+        if (address instanceof UnixDomainSocketAddress) {
+            Files.deleteIfExists(((UnixDomainSocketAddress) address).getPath());
+        }
+    }
+
+    // --- Atendimento de um pedido ---
+
+    private void handle(SocketChannel client){
+        try (client) {
+            InputStream in = Channels.newInputStream(client);
+            BufferedSink out = new BufferedSink(
+                    new OutputStreamWriter(Channels.newOutputStream(client), StandardCharsets.UTF_8), OUTPUT_BUFFER);
+
+            long start = System.nanoTime();
+            String source;
+            try {
+                source = readSource(in);
+            } catch (IOException e) {
+                out.println("Erro ao ler arquivo " + e.getMessage());
+                out.flush();
+                return;
+            } catch (RuntimeException e) {
+                out.println("Erro no pedido " + e.getMessage());
+                out.flush();
+                return;
+            }
+
+            long received = System.nanoTime();
+
+            // A saída e os erros vão para a mesma conexão, na ordem em que acontecem.
+            Interpreter interpreter = new Interpreter(out, out);
+            List<Node> ast = null;
+            try {
+                ast = new Parser(new Lexer(source).tokenize()).parse();
+            } catch (RuntimeException e) {
+                interpreter.reportError("Erro de sintaxe " + e.getMessage());
+            }
+            long parsed = System.nanoTime();
+
+            if (ast != null) {
+                interpreter.interpret(ast);
+            }
+            long end = System.nanoTime();
+
+            out.println(String.format(Locale.ROOT,
+                    "# tempo: leitura %.3f ms, analise %.3f ms, execucao %.3f ms, total %.3f ms",
+                    (received - start) / 1e6, (parsed - received) / 1e6, (end - parsed) / 1e6, (end - start) / 1e6));
+            out.flush();
+        } catch (IOException | RuntimeException e) {
+            // O cliente desconectou no meio da resposta: nada mais a fazer.
+        }
+    }
+
+    /**
+     * Lê o comando do pedido e devolve o código a executar.
+    */
+    private String readSource(InputStream in) throws IOException {
+        String command = readLine(in);
+        if (command.startsWith("FILE ")) {
+            return Files.readString(resolve(command.substring(5).trim()));
+        }
+        if (command.trim().equals("SOURCE")) {
+            return new String(readAll(in), StandardCharsets.UTF_8);
+        }
+        throw new RuntimeException("Comando desconhecido: " + command);
+    }
+
+    /**
+     * O arquivo pedido, dentro da raiz. Os links são seguidos antes da
+     * verificação, então um link para fora da raiz também é recusado.
+    */
+    private Path resolve(String name) throws IOException {
+        Path file;
+        try {
+            file = root.resolve(name).normalize();
+        } catch (InvalidPathException e) {
+            throw new RuntimeException("Caminho invalido: " + name);
+        }
+        if (file.startsWith(root) && Files.exists(file)) {
+            file = file.toRealPath();
+        }
+        if (!file.startsWith(root)) {
+            throw new RuntimeException("Arquivo fora do diretorio do servidor: " + name);
+        }
+        return file;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != -1 && b != '\n') {
+            if (line.size() == MAX_COMMAND) {
+                throw new RuntimeException("Linha de comando grande demais.");
+            }
+            line.write(b);
+        }
+        return line.toString(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        byte[] bytes = in.readNBytes(MAX_SOURCE + 1);
+        if (bytes.length > MAX_SOURCE) {
+            throw new RuntimeException("Codigo grande demais (maximo de " + MAX_SOURCE + " bytes).");
+        }
+        return bytes;
+    }
+
+    // --- Threads ---
+
+    /**
+     * Uma thread por pedido. Usa threads virtuais quando a JVM tem
+     * (Java 21 ou superior); senão, um pool de threads comuns que cresce
+     * conforme a demanda e reaproveita as threads livres.
+    */
+    private static ExecutorService newExecutor(){
+        try {
+            Method virtual = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) virtual.invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            ThreadFactory daemons = task -> {
+                Thread thread = new Thread(task, "jpp-pedido");
+                thread.setDaemon(true);
+                return thread;
+            };
+            return Executors.newCachedThreadPool(daemons);
+        }
+    }
+
+    /**
+     * Diz se os pedidos rodam em threads virtuais.
+    */
+    public boolean usesVirtualThreads(){
+        return !(executor instanceof ThreadPoolExecutor);
+    }
+}
@@ -0,0 +1,69 @@
+package specialize;
+
+/**
+ * A base das operações binárias: guarda o operador e os dois operandos.
+ * As subclasses diferem só no que assumem sobre os tipos dos operandos.
+*/
+public abstract class BinaryNode extends ExecNode {
+    protected final String operator;
+    protected ExecNode left;
+    protected ExecNode right;
+
+    protected BinaryNode(String operator, ExecNode left, ExecNode right){
+        this.operator = operator;
+        this.left = adopt(left);
+        this.right = adopt(right);
+    }
+
+    @Override
+    protected void replaceChild(ExecNode child, ExecNode replacement){
+        if (left == child) {
+            left = replacement;
+        } else if (right == child) {
+            right = replacement;
+        } else {
+            super.replaceChild(child, replacement);
+        }
+    }
+
+    /**
+     * Troca este nó pela versão genérica, que aceita qualquer tipo.
+    */
+    protected GenericBinaryNode generalize(){
+        return replace(new GenericBinaryNode(operator, left, right));
+    }
+
+    /**
+     * A semântica completa da operação, com todas as verificações de tipo,
+     * igual à do Interpreter.
+    */
+    static Object apply(String operator, Object left, Object right){
+        if (left instanceof Double && right instanceof Double) {
+            double l = (Double) left;
+            double r = (Double) right;
+            switch (operator) {
+                case "+":
+                    return l + r;
+                case "-":
+                    return l - r;
+                case "*":
+                    return l * r;
+                case "/":
+                    return divide(l, r);
+            }
+        }
+
+        if (operator.equals("+") && (left instanceof String || right instanceof String)) {
+            return Frame.text(left) + Frame.text(right);
+        }
+
+        throw new RuntimeException("Operacao invalida '" + operator + "' para os tipos de dados fornecidos.");
+    }
+
+    static double divide(double left, double right){
+        if (right == 0) {
+            throw new RuntimeException("Erro: Divisao por zero.");
+        }
+        return left / right;
+    }
+}
@@ -0,0 +1,23 @@
+package specialize;
+
+/**
+ * O '+' em que pelo menos um dos lados é uma string: a concatenação.
+ * Se os dois lados passarem a ser números, o nó se troca pela versão genérica.
+*/
+public class ConcatNode extends BinaryNode {
+
+    public ConcatNode(ExecNode left, ExecNode right){
+        super("+", left, right);
+    }
+
+    @Override
+    public Object execute(Frame frame){
+        Object l = left.execute(frame);
+        Object r = right.execute(frame);
+        if (l instanceof String || r instanceof String) {
+            return Frame.text(l) + Frame.text(r);
+        }
+        generalize();
+        return apply(operator, l, r);
+    }
+}
@@ -0,0 +1,32 @@
+package specialize;
+
+/**
+ * Um número ou string literal.
+*/
+public class ConstantNode extends ExecNode {
+    private final Object value;
+    private final double number;
+
+    public ConstantNode(double number){
+        this.value = number;
+        this.number = number;
+    }
+
+    public ConstantNode(String value){
+        this.value = value;
+        this.number = 0;
+    }
+
+    @Override
+    public Object execute(Frame frame){
+        return value;
+    }
+
+    @Override
+    public double executeNumber(Frame frame) throws UnexpectedTypeException {
+        if (value instanceof String) {
+            throw new UnexpectedTypeException(value);
+        }
+        return number;
+    }
+}
@@ -0,0 +1,57 @@
+package specialize;
+
+/**
+ * A classe base dos nós executáveis.
+ *
+ * Diferente dos nós do pacote ast, que só descrevem o programa, cada ExecNode
+ * sabe se executar. Um nó pode trocar a si mesmo na árvore (veja
+ * {@link #replace}) por uma versão especializada para os tipos que já
+ * observou, ou por uma versão genérica quando esses tipos mudam.
+*/
+public abstract class ExecNode {
+    private ExecNode parent;
+
+    /**
+     * Executa o nó e retorna o seu valor (números como Double).
+     * Instruções retornam null.
+    */
+    public abstract Object execute(Frame frame);
+
+    /**
+     * Executa o nó esperando um número, sem encaixotar.
+     * Os nós que sabem produzir números sobrescrevem este método.
+     * @throws UnexpectedTypeException Se o valor não for um número.
+    */
+    public double executeNumber(Frame frame) throws UnexpectedTypeException {
+        Object value = execute(frame);
+        if (value instanceof Double) {
+            return (Double) value;
+        }
+        throw new UnexpectedTypeException(value);
+    }
+
+    /**
+     * Torna este nó o pai de 'child'. Deve ser chamado para cada filho, no construtor.
+    */
+    protected final <T extends ExecNode> T adopt(T child){
+        ExecNode node = child;
+        node.parent = this;
+        return child;
+    }
+
+    /**
+     * Coloca 'replacement' no lugar deste nó, no pai.
+     * @return O próprio 'replacement', para continuar a execução por ele.
+    */
+    protected final <T extends ExecNode> T replace(T replacement){
+        parent.replaceChild(this, parent.adopt(replacement));
+        return replacement;
+    }
+
+    /**
+     * Troca um filho por outro. Os nós com filhos sobrescrevem este método.
+    */
+    protected void replaceChild(ExecNode child, ExecNode replacement){
+        throw new IllegalStateException(getClass().getSimpleName() + " nao tem filhos.");
+    }
+}
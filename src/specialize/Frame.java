@@ -0,0 +1,67 @@
+package specialize;
+import output.NumberText;
+import output.OutputSink;
+
+/**
+ * O estado de uma execução: os valores das variáveis (um por slot do
+ * Resolver) e o destino da saída.
+ *
+ * Como no Interpreter, variáveis numéricas guardam {@link #NUMBER} em
+ * values e o valor em numbers, no mesmo slot, sem encaixotar.
+*/
+public class Frame {
+    /** Marca, em values, um slot cujo valor está em numbers. */
+    static final Object NUMBER = new Object();
+
+    final Object[] values;
+    final double[] numbers;
+
+    private final OutputSink out;
+    private final boolean echoAssignments;
+
+    public Frame(int slots, OutputSink out, boolean echoAssignments){
+        this.values = new Object[slots];
+        this.numbers = new double[slots];
+        this.out = out;
+        this.echoAssignments = echoAssignments;
+    }
+
+    /**
+     * Lê uma variável como objeto. Números são encaixotados em um Double.
+    */
+    Object get(int slot){
+        Object value = values[slot];
+        return value == NUMBER ? (Object) numbers[slot] : value;
+    }
+
+    /**
+     * Guarda um valor qualquer. Um Double é desencaixotado.
+    */
+    void set(int slot, Object value){
+        if (value instanceof Double) {
+            setNumber(slot, (Double) value);
+        } else {
+            values[slot] = value;
+        }
+    }
+
+    void setNumber(int slot, double value){
+        values[slot] = NUMBER;
+        numbers[slot] = value;
+    }
+
+    void print(String line){
+        out.println(line);
+    }
+
+    /**
+     * O texto de um valor, com os números no formato de {@link NumberText}.
+    */
+    static String text(Object value){
+        return value instanceof Double ? NumberText.toString((Double) value) : String.valueOf(value);
+    }
+
+    boolean isEchoing(){
+        return echoAssignments;
+    }
+}
@@ -0,0 +1,17 @@
+package specialize;
+
+/**
+ * Uma operação binária sem especialização: verifica os tipos a cada
+ * execução, como o Interpreter. É o estado final de um nó cujos tipos mudaram.
+*/
+public class GenericBinaryNode extends BinaryNode {
+
+    public GenericBinaryNode(String operator, ExecNode left, ExecNode right){
+        super(operator, left, right);
+    }
+
+    @Override
+    public Object execute(Frame frame){
+        return apply(operator, left.execute(frame), right.execute(frame));
+    }
+}
@@ -0,0 +1,17 @@
+package specialize;
+
+/**
+ * Uma atribuição de um valor de qualquer tipo.
+*/
+public class GenericWriteNode extends WriteNode {
+
+    public GenericWriteNode(String name, int slot, ExecNode value){
+        super(name, slot, value);
+    }
+
+    @Override
+    public Object execute(Frame frame){
+        write(frame, value.execute(frame));
+        return null;
+    }
+}
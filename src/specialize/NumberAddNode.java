@@ -0,0 +1,16 @@
+package specialize;
+
+/**
+ * A soma de dois números.
+*/
+public class NumberAddNode extends NumberBinaryNode {
+
+    public NumberAddNode(ExecNode left, ExecNode right){
+        super("+", left, right);
+    }
+
+    @Override
+    protected double compute(double left, double right){
+        return left + right;
+    }
+}
@@ -0,0 +1,52 @@
+package specialize;
+
+/**
+ * Uma operação entre dois números.
+ * Os operandos são lidos com executeNumber, sem encaixotar e sem verificar
+ * tipos. Se algum deles deixar de ser número, o nó se troca pela versão
+ * genérica e termina a operação com os valores já calculados.
+*/
+public abstract class NumberBinaryNode extends BinaryNode {
+
+    protected NumberBinaryNode(String operator, ExecNode left, ExecNode right){
+        super(operator, left, right);
+    }
+
+    /** A operação em si. */
+    protected abstract double compute(double left, double right);
+
+    @Override
+    public double executeNumber(Frame frame) throws UnexpectedTypeException {
+        double l;
+        try {
+            l = left.executeNumber(frame);
+        } catch (UnexpectedTypeException e) {
+            return fallback(e.getValue(), right.execute(frame));
+        }
+        double r;
+        try {
+            r = right.executeNumber(frame);
+        } catch (UnexpectedTypeException e) {
+            return fallback(l, e.getValue());
+        }
+        return compute(l, r);
+    }
+
+    @Override
+    public Object execute(Frame frame){
+        try {
+            return executeNumber(frame);
+        } catch (UnexpectedTypeException e) {
+            return e.getValue();
+        }
+    }
+
+    private double fallback(Object l, Object r) throws UnexpectedTypeException {
+        generalize();
+        Object result = apply(operator, l, r);
+        if (result instanceof Double) {
+            return (Double) result;
+        }
+        throw new UnexpectedTypeException(result);
+    }
+}
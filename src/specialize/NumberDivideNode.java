@@ -0,0 +1,16 @@
+package specialize;
+
+/**
+ * A divisão (com a verificação de divisão por zero) de dois números.
+*/
+public class NumberDivideNode extends NumberBinaryNode {
+
+    public NumberDivideNode(ExecNode left, ExecNode right){
+        super("/", left, right);
+    }
+
+    @Override
+    protected double compute(double left, double right){
+        return divide(left, right);
+    }
+}
@@ -0,0 +1,16 @@
+package specialize;
+
+/**
+ * A multiplicação de dois números.
+*/
+public class NumberMultiplyNode extends NumberBinaryNode {
+
+    public NumberMultiplyNode(ExecNode left, ExecNode right){
+        super("*", left, right);
+    }
+
+    @Override
+    protected double compute(double left, double right){
+        return left * right;
+    }
+}
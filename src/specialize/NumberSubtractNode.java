@@ -0,0 +1,16 @@
+package specialize;
+
+/**
+ * A subtração de dois números.
+*/
+public class NumberSubtractNode extends NumberBinaryNode {
+
+    public NumberSubtractNode(ExecNode left, ExecNode right){
+        super("-", left, right);
+    }
+
+    @Override
+    protected double compute(double left, double right){
+        return left - right;
+    }
+}
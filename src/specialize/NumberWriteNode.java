@@ -0,0 +1,23 @@
+package specialize;
+
+/**
+ * Uma atribuição de um número: o valor vai do executeNumber da expressão
+ * direto para o slot, sem ser encaixotado.
+*/
+public class NumberWriteNode extends WriteNode {
+
+    public NumberWriteNode(String name, int slot, ExecNode value){
+        super(name, slot, value);
+    }
+
+    @Override
+    public Object execute(Frame frame){
+        try {
+            writeNumber(frame, value.executeNumber(frame));
+        } catch (UnexpectedTypeException e) {
+            replace(new GenericWriteNode(name, slot, value));
+            write(frame, e.getValue());
+        }
+        return null;
+    }
+}
@@ -0,0 +1,27 @@
+package specialize;
+
+/**
+ * A instrução print.
+*/
+public class PrintStatementNode extends ExecNode {
+    private ExecNode expression;
+
+    public PrintStatementNode(ExecNode expression){
+        this.expression = adopt(expression);
+    }
+
+    @Override
+    public Object execute(Frame frame){
+        frame.print(Frame.text(expression.execute(frame)));
+        return null;
+    }
+
+    @Override
+    protected void replaceChild(ExecNode child, ExecNode replacement){
+        if (expression == child) {
+            expression = replacement;
+        } else {
+            super.replaceChild(child, replacement);
+        }
+    }
+}
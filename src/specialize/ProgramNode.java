@@ -0,0 +1,45 @@
+package specialize;
+
+/**
+ * A raiz da árvore: as instruções do programa, em ordem.
+ * Uma expressão solta (ex: "10 + 5;") é uma instrução cujo valor é descartado.
+*/
+public class ProgramNode extends ExecNode {
+    private final ExecNode[] statements;
+    private final int slotCount;
+
+    /**
+     * @param statements As instruções do programa.
+     * @param slotCount Quantos slots de variável o programa usa.
+    */
+    public ProgramNode(ExecNode[] statements, int slotCount){
+        this.statements = statements;
+        this.slotCount = slotCount;
+        for (ExecNode statement : statements) {
+            adopt(statement);
+        }
+    }
+
+    @Override
+    public Object execute(Frame frame){
+        for (int i = 0; i < statements.length; i++) {
+            statements[i].execute(frame);
+        }
+        return null;
+    }
+
+    @Override
+    protected void replaceChild(ExecNode child, ExecNode replacement){
+        for (int i = 0; i < statements.length; i++) {
+            if (statements[i] == child) {
+                statements[i] = replacement;
+                return;
+            }
+        }
+        super.replaceChild(child, replacement);
+    }
+
+    public int getSlotCount() {
+        return slotCount;
+    }
+}
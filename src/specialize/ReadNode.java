@@ -0,0 +1,26 @@
+package specialize;
+
+/**
+ * A leitura de uma variável, pelo slot atribuído pelo Resolver.
+*/
+public class ReadNode extends ExecNode {
+    private final int slot;
+
+    public ReadNode(int slot){
+        this.slot = slot;
+    }
+
+    @Override
+    public Object execute(Frame frame){
+        return frame.get(slot);
+    }
+
+    @Override
+    public double executeNumber(Frame frame) throws UnexpectedTypeException {
+        Object value = frame.values[slot];
+        if (value == Frame.NUMBER) {
+            return frame.numbers[slot];
+        }
+        throw new UnexpectedTypeException(value);
+    }
+}
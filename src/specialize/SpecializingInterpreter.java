@@ -0,0 +1,51 @@
+package specialize;
+import output.OutputSink;
+import output.PrintStreamSink;
+
+/**
+ * Executa a árvore construída pelo {@link TreeBuilder}.
+ *
+ * Na primeira passada cada operação verifica os tipos dos operandos e se
+ * troca por uma versão especializada (soma de números, concatenação, ...).
+ * Daí em diante, enquanto os tipos não mudarem, a execução não faz mais
+ * verificações de tipo. Produz a mesma saída que o {@link core.Interpreter}.
+*/
+public class SpecializingInterpreter {
+    private final OutputSink out;
+    private boolean echoAssignments = true;
+
+    public SpecializingInterpreter(){
+        this(new PrintStreamSink());
+    }
+
+    /**
+     * @param out O destino da saída do programa, como no {@link core.Interpreter}.
+    */
+    public SpecializingInterpreter(OutputSink out){
+        this.out = out;
+    }
+
+    /**
+     * Liga ou desliga o eco "nome = valor" das atribuições.
+    */
+    public void setEchoAssignments(boolean echoAssignments){
+        this.echoAssignments = echoAssignments;
+    }
+
+    /**
+     * Executa um programa com um ambiente novo.
+     * A árvore pode ser executada de novo; as especializações são mantidas.
+     * Erros de execução são reportados da mesma forma que no Interpreter.
+     * @param program A árvore construída pelo {@link TreeBuilder}.
+    */
+    public void run(ProgramNode program){
+        Frame frame = new Frame(program.getSlotCount(), out, echoAssignments);
+        try{
+            program.execute(frame);
+        }catch (RuntimeException e){
+            out.flush();
+            System.err.println("Erro de execussao " + e.getMessage());
+        }
+        out.flush();
+    }
+}
@@ -0,0 +1,88 @@
+package specialize;
+import java.util.List;
+
+import ast.AssignNode;
+import ast.BinaryOpNode;
+import ast.BooleanNode;
+import ast.IfNode;
+import ast.Node;
+import ast.NumberNode;
+import ast.PrintNode;
+import ast.StringNode;
+import ast.VariableNode;
+import ast.WhileNode;
+import core.Resolver;
+
+/**
+ * Traduz a AST para a árvore de nós executáveis.
+ * Toda operação binária e toda atribuição começam não inicializadas e se
+ * especializam na primeira execução. As variáveis usam os slots do
+ * {@link Resolver}.
+ *
+ * Os nós especializados só conhecem números e textos, então comparações,
+ * booleanos, if e while são recusados aqui, antes da execução.
+*/
+public class TreeBuilder {
+    private final Resolver resolver = new Resolver();
+
+    /**
+     * Constrói a árvore de um programa.
+     * Variáveis indefinidas são detectadas aqui, antes de qualquer execução.
+     * @param statements A lista de nós raiz da AST.
+     * @return A raiz da árvore executável.
+    */
+    public ProgramNode build(List<Node> statements){
+        resolver.resolve(statements);
+
+        ExecNode[] nodes = new ExecNode[statements.size()];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = buildStatement(statements.get(i));
+        }
+        return new ProgramNode(nodes, resolver.getSlotCount());
+    }
+
+    private ExecNode buildStatement(Node statement){
+        if (statement instanceof AssignNode) {
+            AssignNode assignNode = (AssignNode) statement;
+            return new UninitializedWriteNode(assignNode.getVariable(), assignNode.getSlot(),
+                    buildExpression(assignNode.getExpression()));
+        }
+
+        if (statement instanceof PrintNode) {
+            return new PrintStatementNode(buildExpression(((PrintNode) statement).getExpression()));
+        }
+
+        if (statement instanceof IfNode || statement instanceof WhileNode) {
+            throw new RuntimeException("O interpretador especializado nao aceita if nem while.");
+        }
+
+        return buildExpression(statement);
+    }
+
+    private ExecNode buildExpression(Node expression){
+        if (expression instanceof NumberNode) {
+            return new ConstantNode(((NumberNode) expression).getValue());
+        }
+
+        if (expression instanceof StringNode) {
+            return new ConstantNode(((StringNode) expression).getString());
+        }
+
+        if (expression instanceof VariableNode) {
+            return new ReadNode(((VariableNode) expression).getSlot());
+        }
+
+        if (expression instanceof BooleanNode
+                || expression instanceof BinaryOpNode && ((BinaryOpNode) expression).isComparison()) {
+            throw new RuntimeException("O interpretador especializado nao aceita comparacoes nem booleanos.");
+        }
+
+        if (expression instanceof BinaryOpNode) {
+            BinaryOpNode node = (BinaryOpNode) expression;
+            return new UninitializedBinaryNode(node.getOperator(),
+                    buildExpression(node.getLeft()), buildExpression(node.getRight()));
+        }
+
+        throw new RuntimeException("No desconhecido: " + expression);
+    }
+}
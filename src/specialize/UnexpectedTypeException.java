@@ -0,0 +1,23 @@
+package specialize;
+
+/**
+ * Lançada por {@link ExecNode#executeNumber} quando o valor produzido não é
+ * um número. Carrega o valor já calculado, para que o nó que esperava um
+ * número possa se generalizar sem avaliar a expressão de novo.
+ * Não é um erro do programa: é só o aviso de que uma especialização falhou.
+*/
+public class UnexpectedTypeException extends Exception {
+    private static final long serialVersionUID = 1L;
+
+    private final transient Object value;
+
+    public UnexpectedTypeException(Object value){
+        // Sem mensagem nem stack trace: a exceção é barata e só serve de sinal.
+        super(null, null, false, false);
+        this.value = value;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+}
@@ -0,0 +1,47 @@
+package specialize;
+
+/**
+ * Uma operação binária que ainda não executou.
+ * Na primeira execução, olha os tipos dos operandos e se troca pela
+ * versão especializada correspondente.
+*/
+public class UninitializedBinaryNode extends BinaryNode {
+
+    public UninitializedBinaryNode(String operator, ExecNode left, ExecNode right){
+        super(operator, left, right);
+    }
+
+    @Override
+    public Object execute(Frame frame){
+        Object l = left.execute(frame);
+        Object r = right.execute(frame);
+        // Se a operação for inválida, o erro sai daqui e o nó não muda.
+        Object result = apply(operator, l, r);
+        specialize(l, r);
+        return result;
+    }
+
+    private void specialize(Object l, Object r){
+        if (l instanceof Double && r instanceof Double) {
+            switch (operator) {
+                case "+":
+                    replace(new NumberAddNode(left, right));
+                    return;
+                case "-":
+                    replace(new NumberSubtractNode(left, right));
+                    return;
+                case "*":
+                    replace(new NumberMultiplyNode(left, right));
+                    return;
+                case "/":
+                    replace(new NumberDivideNode(left, right));
+                    return;
+            }
+        }
+        if (operator.equals("+")) {
+            replace(new ConcatNode(left, right));
+            return;
+        }
+        generalize();
+    }
+}
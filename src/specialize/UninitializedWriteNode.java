@@ -0,0 +1,24 @@
+package specialize;
+
+/**
+ * Uma atribuição que ainda não executou. Na primeira execução se troca pela
+ * versão numérica, se o valor for um número, ou pela genérica.
+*/
+public class UninitializedWriteNode extends WriteNode {
+
+    public UninitializedWriteNode(String name, int slot, ExecNode value){
+        super(name, slot, value);
+    }
+
+    @Override
+    public Object execute(Frame frame){
+        Object result = value.execute(frame);
+        if (result instanceof Double) {
+            replace(new NumberWriteNode(name, slot, value));
+        } else {
+            replace(new GenericWriteNode(name, slot, value));
+        }
+        write(frame, result);
+        return null;
+    }
+}
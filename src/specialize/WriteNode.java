@@ -0,0 +1,47 @@
+package specialize;
+import output.NumberText;
+
+/**
+ * A base das atribuições: guarda o valor de uma expressão no slot da
+ * variável e, se o eco estiver ligado, imprime "nome = valor".
+*/
+public abstract class WriteNode extends ExecNode {
+    protected final String name;
+    protected final int slot;
+    protected ExecNode value;
+
+    protected WriteNode(String name, int slot, ExecNode value){
+        this.name = name;
+        this.slot = slot;
+        this.value = adopt(value);
+    }
+
+    @Override
+    protected void replaceChild(ExecNode child, ExecNode replacement){
+        if (value == child) {
+            value = replacement;
+        } else {
+            super.replaceChild(child, replacement);
+        }
+    }
+
+    /**
+     * Guarda um valor qualquer e faz o eco.
+    */
+    protected void write(Frame frame, Object result){
+        frame.set(slot, result);
+        if (frame.isEchoing()) {
+            frame.print(name + " = " + Frame.text(result));
+        }
+    }
+
+    /**
+     * Guarda um número e faz o eco.
+    */
+    protected void writeNumber(Frame frame, double result){
+        frame.setNumber(slot, result);
+        if (frame.isEchoing()) {
+            frame.print(name + " = " + NumberText.toString(result));
+        }
+    }
+}
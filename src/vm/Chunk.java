@@ -0,0 +1,69 @@
+package vm;
+
+/**
+ * Um programa compilado para a VM.
+ * Guarda o código (um array compacto de opcodes), o pool de constantes,
+ * a tabela de nomes das variáveis e o tamanho máximo da pilha.
+*/
+public class Chunk {
+    private final byte[] code;
+    private final Object[] constants;
+    private final String[] names;
+    private final int maxStack;
+
+    public Chunk(byte[] code, Object[] constants, String[] names, int maxStack){
+        this.code = code;
+        this.constants = constants;
+        this.names = names;
+        this.maxStack = maxStack;
+    }
+
+    public byte[] getCode() {
+        return code;
+    }
+
+    public Object[] getConstants() {
+        return constants;
+    }
+
+    public String[] getNames() {
+        return names;
+    }
+
+    public int getMaxStack() {
+        return maxStack;
+    }
+
+    /**
+     * Gera uma listagem legível das instruções, útil para depuração.
+     * @return Uma instrução por linha, com o deslocamento e o operando.
+    */
+    public String disassemble() {
+        StringBuilder sb = new StringBuilder();
+        int ip = 0;
+        while (ip < code.length) {
+            byte opcode = code[ip];
+            sb.append(String.format("%04d %-9s", ip, OpCode.name(opcode)));
+            ip++;
+            if (opcode == OpCode.JUMP_WIDE) {
+                int offset = ((code[ip] & 0xFF) << 24) | ((code[ip + 1] & 0xFF) << 16)
+                        | ((code[ip + 2] & 0xFF) << 8) | (code[ip + 3] & 0xFF);
+                ip += 4;
+                sb.append(' ').append(offset).append(" (-> ").append(ip + offset).append(')');
+            } else if (OpCode.hasOperand(opcode)) {
+                int operand = ((code[ip] & 0xFF) << 8) | (code[ip + 1] & 0xFF);
+                ip += 2;
+                if (OpCode.isJump(opcode)) {
+                    // Deslocamento com sinal e o destino do desvio
+                    sb.append(' ').append((short) operand).append(" (-> ").append(ip + (short) operand).append(')');
+                } else if (opcode == OpCode.CONSTANT) {
+                    sb.append(' ').append(operand).append(" (").append(constants[operand]).append(')');
+                } else {
+                    sb.append(' ').append(operand).append(" (").append(names[operand]).append(')');
+                }
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,320 @@
+package vm;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import ast.AssignNode;
+import ast.BinaryOpNode;
+import ast.BooleanNode;
+import ast.IfNode;
+import ast.Node;
+import ast.NumberNode;
+import ast.PrintNode;
+import ast.StringNode;
+import ast.VariableNode;
+import ast.WhileNode;
+import core.Resolver;
+
+/**
+ * O Compilador de bytecode.
+ * Percorre a AST uma única vez e a traduz para um {@link Chunk}: um array
+ * de opcodes mais um pool de constantes. Toda a decisão sobre o tipo de nó
+ * e sobre qual operador usar acontece aqui, e não a cada execução.
+ * As variáveis usam os slots atribuídos pelo {@link Resolver}.
+ *
+ * Nas condições de if e while, uma comparação e o desvio que depende dela
+ * viram uma instrução só (ex: JUMP_IF_LESS): o booleano nunca é empilhado.
+ *
+ * Os desvios alcançam 32767 bytes. Se um bloco passa disso, o programa é
+ * compilado de novo com desvios largos ({@link OpCode#JUMP_WIDE}); os
+ * programas que cabem no limite não mudam.
+*/
+
+public class Compiler {
+    private byte[] code = new byte[64];
+    private int count = 0;
+
+    private final List<Object> constants = new ArrayList<>();
+    private final Map<Object, Integer> constantIndexes = new HashMap<>();
+
+    private final Resolver resolver = new Resolver();
+
+    // Profundidade atual e máxima da pilha, calculadas durante a compilação.
+    private int stackDepth = 0;
+    private int maxStack = 0;
+
+    // Se os desvios usam JUMP_WIDE e se algum desvio curto não alcançou o destino.
+    private boolean wide = false;
+    private boolean overflow = false;
+
+    /**
+     * Compila uma lista de instruções (a AST) para bytecode.
+     * Variáveis indefinidas são detectadas aqui, antes de qualquer execução.
+     * @param statements A lista de nós raiz da AST.
+     * @return O programa compilado.
+    */
+    public Chunk compile(List<Node> statements){
+        resolver.resolve(statements);
+        compileStatements(statements);
+        if (overflow) {
+            // Os slots e as constantes continuam valendo; só o código é refeito.
+            wide = true;
+            count = 0;
+            stackDepth = 0;
+            compileStatements(statements);
+        }
+        emit(OpCode.HALT);
+
+        return new Chunk(
+            Arrays.copyOf(code, count),
+            constants.toArray(),
+            resolver.getNames(),
+            maxStack
+        );
+    }
+
+    // --- Compilação de instruções e expressões ---
+
+    private void compileStatement(Node statement){
+        if (statement instanceof AssignNode) {
+            AssignNode assignNode = (AssignNode) statement;
+            compileExpression(assignNode.getExpression());
+            int slot = assignNode.getSlot();
+            emit(OpCode.STORE, slot);
+            pop(1);
+            // Mesmo eco de depuração do Interpreter: "nome = valor"
+            emit(OpCode.ECHO, slot);
+            return;
+        }
+
+        if (statement instanceof PrintNode) {
+            compileExpression(((PrintNode) statement).getExpression());
+            emit(OpCode.PRINT);
+            pop(1);
+            return;
+        }
+
+        if (statement instanceof WhileNode) {
+            // O teste fica no fim do laço, então cada volta faz um desvio só:
+            //         JUMP teste
+            // corpo:  ...
+            // teste:  condição, desviando para corpo se for verdadeira
+            WhileNode whileNode = (WhileNode) statement;
+            int toTest = emitJump(OpCode.JUMP);
+            int body = count;
+            compileStatements(whileNode.getBody());
+            patchJump(toTest, count);
+            patchJump(compileBranch(whileNode.getCondition()), body);
+            return;
+        }
+
+        if (statement instanceof IfNode) {
+            //         condição, desviando para then se for verdadeira
+            //         else
+            //         JUMP fim
+            // then:   ...
+            // fim:
+            IfNode ifNode = (IfNode) statement;
+            int toThen = compileBranch(ifNode.getCondition());
+            compileStatements(ifNode.getElseBranch());
+            int toEnd = emitJump(OpCode.JUMP);
+            patchJump(toThen, count);
+            compileStatements(ifNode.getThenBranch());
+            patchJump(toEnd, count);
+            return;
+        }
+
+        // Uma expressão solta é avaliada e o resultado descartado.
+        compileExpression(statement);
+        emit(OpCode.POP);
+        pop(1);
+    }
+
+    private void compileStatements(List<Node> statements){
+        for (Node statement : statements){
+            compileStatement(statement);
+        }
+    }
+
+    /**
+     * Compila uma condição seguida de um desvio, tomado se ela for verdadeira.
+     * Uma comparação vira um desvio condicional próprio (JUMP_IF_LESS...);
+     * qualquer outra expressão é empilhada e testada por JUMP_IF_TRUE.
+     * @return A posição do operando do desvio, a ser preenchida por {@link #patchJump}.
+    */
+    private int compileBranch(Node condition){
+        if (condition instanceof BinaryOpNode && ((BinaryOpNode) condition).isComparison()) {
+            BinaryOpNode node = (BinaryOpNode) condition;
+            compileExpression(node.getLeft());
+            compileExpression(node.getRight());
+            pop(2);
+            byte comparison = operatorOpCode(node.getOperator());
+            return emitJump((byte) (OpCode.JUMP_IF_EQUAL + comparison - OpCode.EQUAL));
+        }
+        compileExpression(condition);
+        pop(1);
+        return emitJump(OpCode.JUMP_IF_TRUE);
+    }
+
+    private void compileExpression(Node expression){
+        if (expression instanceof NumberNode) {
+            emit(OpCode.CONSTANT, constantIndex(((NumberNode) expression).getValue()));
+            push();
+            return;
+        }
+
+        if (expression instanceof StringNode) {
+            emit(OpCode.CONSTANT, constantIndex(((StringNode) expression).getString()));
+            push();
+            return;
+        }
+
+        if (expression instanceof BooleanNode) {
+            emit(OpCode.CONSTANT, constantIndex(((BooleanNode) expression).getValue()));
+            push();
+            return;
+        }
+
+        if (expression instanceof VariableNode) {
+            emit(OpCode.LOAD, ((VariableNode) expression).getSlot());
+            push();
+            return;
+        }
+
+        if (expression instanceof BinaryOpNode) {
+            BinaryOpNode node = (BinaryOpNode) expression;
+            compileExpression(node.getLeft());
+            compileExpression(node.getRight());
+            emit(operatorOpCode(node.getOperator()));
+            pop(1);
+            return;
+        }
+
+        throw new RuntimeException("Nao e possivel compilar o no " + expression);
+    }
+
+    /**
+     * Converte o operador textual para o opcode correspondente.
+     * A comparação de strings acontece só aqui, uma vez por nó.
+    */
+    private byte operatorOpCode(String operator){
+        switch (operator) {
+            case "+":
+                return OpCode.ADD;
+            case "-":
+                return OpCode.SUBTRACT;
+            case "*":
+                return OpCode.MULTIPLY;
+            case "/":
+                return OpCode.DIVIDE;
+            case "==":
+                return OpCode.EQUAL;
+            case "!=":
+                return OpCode.NOT_EQUAL;
+            case "<":
+                return OpCode.LESS;
+            case "<=":
+                return OpCode.LESS_EQUAL;
+            case ">":
+                return OpCode.GREATER;
+            case ">=":
+                return OpCode.GREATER_EQUAL;
+            default:
+                throw new RuntimeException("Operador desconhecido '" + operator + "'.");
+        }
+    }
+
+    // --- Métodos Auxiliares de Emissão ---
+
+    private void emit(byte opcode){
+        ensureCapacity(1);
+        code[count++] = opcode;
+    }
+
+    private void emit(byte opcode, int operand){
+        if (operand > 0xFFFF) {
+            throw new RuntimeException("Limite de 65536 constantes/variaveis excedido.");
+        }
+        ensureCapacity(3);
+        code[count++] = opcode;
+        code[count++] = (byte) (operand >> 8);
+        code[count++] = (byte) operand;
+    }
+
+    /**
+     * Emite um desvio com o deslocamento ainda em branco.
+     * Com desvios largos, um JUMP vira JUMP_WIDE e um desvio condicional
+     * salta para um JUMP_WIDE logo adiante:
+     *         JUMP_IF_... +3 (para o JUMP_WIDE)
+     *         JUMP +5 (por cima do JUMP_WIDE)
+     *         JUMP_WIDE destino
+     * @return A posição do operando, para {@link #patchJump}.
+    */
+    private int emitJump(byte opcode){
+        if (!wide) {
+            emit(opcode, 0);
+            return count - 2;
+        }
+        if (opcode != OpCode.JUMP) {
+            emit(opcode, 3);
+            emit(OpCode.JUMP, 5);
+        }
+        ensureCapacity(5);
+        code[count] = OpCode.JUMP_WIDE;
+        count += 5;
+        return count - 4;
+    }
+
+    /**
+     * Preenche o operando de um desvio para que ele vá até 'target'.
+     * Se um desvio curto não alcança, marca o programa para ser compilado
+     * de novo com desvios largos.
+    */
+    private void patchJump(int operand, int target){
+        if (wide) {
+            int offset = target - (operand + 4);
+            code[operand] = (byte) (offset >> 24);
+            code[operand + 1] = (byte) (offset >> 16);
+            code[operand + 2] = (byte) (offset >> 8);
+            code[operand + 3] = (byte) offset;
+            return;
+        }
+        int offset = target - (operand + 2);
+        if (offset < Short.MIN_VALUE || offset > Short.MAX_VALUE) {
+            overflow = true;
+            return;
+        }
+        code[operand] = (byte) (offset >> 8);
+        code[operand + 1] = (byte) offset;
+    }
+
+    private void ensureCapacity(int extra){
+        if (count + extra > code.length) {
+            code = Arrays.copyOf(code, Math.max(code.length * 2, count + extra));
+        }
+    }
+
+    private void push(){
+        stackDepth++;
+        maxStack = Math.max(maxStack, stackDepth);
+    }
+
+    private void pop(int amount){
+        stackDepth -= amount;
+    }
+
+    /**
+     * Retorna o índice da constante no pool, reaproveitando valores repetidos.
+    */
+    private int constantIndex(Object value){
+        Integer index = constantIndexes.get(value);
+        if (index == null) {
+            index = constants.size();
+            constants.add(value);
+            constantIndexes.put(value, index);
+        }
+        return index;
+    }
+}
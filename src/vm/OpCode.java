@@ -0,0 +1,102 @@
+package vm;
+
+/**
+ * Define as instruções (opcodes) entendidas pela VM.
+ * Cada instrução ocupa um byte no código; as que recebem um operando
+ * são seguidas de dois bytes (índice de 16 bits, big-endian). Nos desvios,
+ * o operando é um deslocamento com sinal, contado a partir do fim da instrução.
+ * Só {@link #JUMP_WIDE} tem um operando de quatro bytes.
+*/
+public final class OpCode {
+    /** Empilha uma constante do pool. Operando: índice da constante. */
+    public static final byte CONSTANT = 0;
+    /** Empilha o valor de uma variável. Operando: índice da variável. */
+    public static final byte LOAD = 1;
+    /** Desempilha um valor e o guarda em uma variável. Operando: índice da variável. */
+    public static final byte STORE = 2;
+    /** Imprime "nome = valor" de uma variável (eco da atribuição). Operando: índice da variável. */
+    public static final byte ECHO = 3;
+
+    // Operadores aritméticos: desempilham dois valores e empilham o resultado.
+    public static final byte ADD = 4;
+    public static final byte SUBTRACT = 5;
+    public static final byte MULTIPLY = 6;
+    public static final byte DIVIDE = 7;
+
+    /** Desempilha um valor e o imprime no console. */
+    public static final byte PRINT = 8;
+    /** Desempilha e descarta um valor. */
+    public static final byte POP = 9;
+    /** Encerra a execução. */
+    public static final byte HALT = 10;
+
+    // Comparações: desempilham dois valores e empilham true ou false.
+    public static final byte EQUAL = 11;
+    public static final byte NOT_EQUAL = 12;
+    public static final byte LESS = 13;
+    public static final byte LESS_EQUAL = 14;
+    public static final byte GREATER = 15;
+    public static final byte GREATER_EQUAL = 16;
+
+    /** Desvia sempre. Operando: deslocamento. */
+    public static final byte JUMP = 17;
+    /** Desempilha uma condição (true ou false) e desvia se ela for true. Operando: deslocamento. */
+    public static final byte JUMP_IF_TRUE = 18;
+
+    // Comparação e desvio em uma instrução só: desempilham dois valores e
+    // desviam se a comparação for verdadeira, sem empilhar um booleano.
+    // Ficam na mesma ordem das comparações acima. Operando: deslocamento.
+    public static final byte JUMP_IF_EQUAL = 19;
+    public static final byte JUMP_IF_NOT_EQUAL = 20;
+    public static final byte JUMP_IF_LESS = 21;
+    public static final byte JUMP_IF_LESS_EQUAL = 22;
+    public static final byte JUMP_IF_GREATER = 23;
+    public static final byte JUMP_IF_GREATER_EQUAL = 24;
+
+    /**
+     * Desvia sempre, para além dos 32767 bytes dos outros desvios.
+     * Operando: deslocamento de 32 bits.
+    */
+    public static final byte JUMP_WIDE = 25;
+
+    private static final String[] NAMES = {
+        "CONSTANT", "LOAD", "STORE", "ECHO", "ADD", "SUBTRACT", "MULTIPLY", "DIVIDE", "PRINT", "POP", "HALT",
+        "EQUAL", "NOT_EQUAL", "LESS", "LESS_EQUAL", "GREATER", "GREATER_EQUAL",
+        "JUMP", "JUMP_IF_TRUE",
+        "JUMP_IF_EQUAL", "JUMP_IF_NOT_EQUAL", "JUMP_IF_LESS", "JUMP_IF_LESS_EQUAL", "JUMP_IF_GREATER", "JUMP_IF_GREATER_EQUAL",
+        "JUMP_WIDE"
+    };
+
+    private OpCode() {}
+
+    /**
+     * Retorna o nome legível de um opcode (usado na desmontagem).
+    */
+    public static String name(byte opcode) {
+        return NAMES[opcode];
+    }
+
+    /**
+     * Indica se o opcode é seguido de um operando.
+    */
+    public static boolean hasOperand(byte opcode) {
+        return opcode == CONSTANT || opcode == LOAD || opcode == STORE || opcode == ECHO || isJump(opcode);
+    }
+
+    /**
+     * O tamanho do operando em bytes: 0, 2 ou, no {@link #JUMP_WIDE}, 4.
+    */
+    public static int operandSize(byte opcode) {
+        if (opcode == JUMP_WIDE) {
+            return 4;
+        }
+        return hasOperand(opcode) ? 2 : 0;
+    }
+
+    /**
+     * Indica se o opcode é um desvio (o operando é um deslocamento).
+    */
+    public static boolean isJump(byte opcode) {
+        return opcode >= JUMP && opcode <= JUMP_WIDE;
+    }
+}
@@ -0,0 +1,284 @@
+package vm;
+import output.NumberText;
+import output.OutputSink;
+import output.PrintStreamSink;
+
+/**
+ * A Máquina Virtual baseada em pilha.
+ * Executa um {@link Chunk} em um único laço de despacho: lê um opcode,
+ * executa a ação correspondente e avança. Produz a mesma saída que o
+ * {@link core.Interpreter} para os mesmos programas.
+*/
+
+public class VM {
+    private static final String[] COMPARISONS = {"==", "!=", "<", "<=", ">", ">="};
+
+    private final OutputSink out;
+    private boolean echoAssignments = true;
+
+    public VM(){
+        this(new PrintStreamSink());
+    }
+
+    /**
+     * @param out O destino da saída do programa, como no {@link core.Interpreter}.
+    */
+    public VM(OutputSink out){
+        this.out = out;
+    }
+
+    /**
+     * Liga ou desliga o eco "nome = valor" das atribuições.
+    */
+    public void setEchoAssignments(boolean echoAssignments){
+        this.echoAssignments = echoAssignments;
+    }
+
+    /**
+     * Executa um programa compilado.
+     * Erros de execução são reportados da mesma forma que no Interpreter.
+     * @param chunk O programa compilado pelo {@link Compiler}.
+    */
+    public void run(Chunk chunk){
+        try{
+            execute(chunk);
+        }catch (RuntimeException e){
+            out.flush();
+            System.err.println("Erro de execussao " + e.getMessage());
+        }
+        out.flush();
+    }
+
+    /**
+     * O laço de despacho principal.
+    */
+    private void execute(Chunk chunk){
+        final byte[] code = chunk.getCode();
+        final Object[] constants = chunk.getConstants();
+        final String[] names = chunk.getNames();
+        final Object[] variables = new Object[names.length];
+        final Object[] stack = new Object[chunk.getMaxStack()];
+        int sp = 0;
+        int ip = 0;
+
+        while (true) {
+            switch (code[ip++]) {
+                case OpCode.CONSTANT:
+                    stack[sp++] = constants[readShort(code, ip)];
+                    ip += 2;
+                    break;
+
+                case OpCode.LOAD: {
+                    // O Resolver garante que a variável tem uma atribuição, mas ela
+                    // pode estar em um bloco que não executou.
+                    int index = readShort(code, ip);
+                    Object value = variables[index];
+                    if (value == null) {
+                        throw new RuntimeException("Variavel '" + names[index] + "' sem valor.");
+                    }
+                    stack[sp++] = value;
+                    ip += 2;
+                    break;
+                }
+
+                case OpCode.STORE:
+                    variables[readShort(code, ip)] = stack[--sp];
+                    ip += 2;
+                    break;
+
+                case OpCode.ECHO: {
+                    int index = readShort(code, ip);
+                    ip += 2;
+                    if (echoAssignments) {
+                        out.println(names[index] + " = " + text(variables[index]));
+                    }
+                    break;
+                }
+
+                case OpCode.ADD: {
+                    Object right = stack[--sp];
+                    Object left = stack[sp - 1];
+                    if (left instanceof Double && right instanceof Double) {
+                        stack[sp - 1] = (Double) left + (Double) right;
+                    } else if (left instanceof String || right instanceof String) {
+                        stack[sp - 1] = text(left) + text(right);
+                    } else {
+                        throw invalidOperation("+");
+                    }
+                    break;
+                }
+
+                case OpCode.SUBTRACT: {
+                    Object right = stack[--sp];
+                    Object left = stack[sp - 1];
+                    if (!(left instanceof Double && right instanceof Double)) {
+                        throw invalidOperation("-");
+                    }
+                    stack[sp - 1] = (Double) left - (Double) right;
+                    break;
+                }
+
+                case OpCode.MULTIPLY: {
+                    Object right = stack[--sp];
+                    Object left = stack[sp - 1];
+                    if (!(left instanceof Double && right instanceof Double)) {
+                        throw invalidOperation("*");
+                    }
+                    stack[sp - 1] = (Double) left * (Double) right;
+                    break;
+                }
+
+                case OpCode.DIVIDE: {
+                    Object right = stack[--sp];
+                    Object left = stack[sp - 1];
+                    if (!(left instanceof Double && right instanceof Double)) {
+                        throw invalidOperation("/");
+                    }
+                    if ((Double) right == 0) {
+                        throw new RuntimeException("Erro: Divisao por zero.");
+                    }
+                    stack[sp - 1] = (Double) left / (Double) right;
+                    break;
+                }
+
+                case OpCode.PRINT: {
+                    Object value = stack[--sp];
+                    if (value instanceof Double) {
+                        out.println((double) (Double) value);
+                    } else {
+                        out.println(text(value));
+                    }
+                    break;
+                }
+
+                case OpCode.EQUAL:
+                case OpCode.NOT_EQUAL:
+                case OpCode.LESS:
+                case OpCode.LESS_EQUAL:
+                case OpCode.GREATER:
+                case OpCode.GREATER_EQUAL: {
+                    Object right = stack[--sp];
+                    stack[sp - 1] = compare(code[ip - 1], stack[sp - 1], right) ? Boolean.TRUE : Boolean.FALSE;
+                    break;
+                }
+
+                case OpCode.JUMP:
+                    ip += 2 + (short) readShort(code, ip);
+                    break;
+
+                case OpCode.JUMP_IF_TRUE: {
+                    Object condition = stack[--sp];
+                    if (!(condition instanceof Boolean)) {
+                        throw new RuntimeException("Condicao invalida: esperado true ou false.");
+                    }
+                    ip += (Boolean) condition ? 2 + (short) readShort(code, ip) : 2;
+                    break;
+                }
+
+                case OpCode.JUMP_IF_EQUAL:
+                case OpCode.JUMP_IF_NOT_EQUAL:
+                case OpCode.JUMP_IF_LESS:
+                case OpCode.JUMP_IF_LESS_EQUAL:
+                case OpCode.JUMP_IF_GREATER:
+                case OpCode.JUMP_IF_GREATER_EQUAL: {
+                    // Comparação e desvio juntos: o resultado não passa pela pilha.
+                    Object right = stack[--sp];
+                    Object left = stack[--sp];
+                    byte comparison = (byte) (code[ip - 1] - OpCode.JUMP_IF_EQUAL + OpCode.EQUAL);
+                    ip += compare(comparison, left, right) ? 2 + (short) readShort(code, ip) : 2;
+                    break;
+                }
+
+                case OpCode.JUMP_WIDE:
+                    ip += 4 + readInt(code, ip);
+                    break;
+
+                case OpCode.POP:
+                    sp--;
+                    break;
+
+                case OpCode.HALT:
+                    return;
+
+                default:
+                    throw new RuntimeException("Opcode desconhecido " + code[ip - 1] + " na posicao " + (ip - 1));
+            }
+        }
+    }
+
+    // --- Métodos Auxiliares ---
+
+    /**
+     * Lê o operando de dois bytes que começa em 'ip'.
+    */
+    private static int readShort(byte[] code, int ip){
+        return ((code[ip] & 0xFF) << 8) | (code[ip + 1] & 0xFF);
+    }
+
+    /**
+     * Lê o operando de quatro bytes (com sinal) de um {@link OpCode#JUMP_WIDE}.
+    */
+    private static int readInt(byte[] code, int ip){
+        return ((code[ip] & 0xFF) << 24) | ((code[ip + 1] & 0xFF) << 16)
+                | ((code[ip + 2] & 0xFF) << 8) | (code[ip + 3] & 0xFF);
+    }
+
+    /**
+     * O texto de um valor da pilha, com os números no formato de {@link NumberText}.
+    */
+    private static String text(Object value){
+        return value instanceof Double ? NumberText.toString((Double) value) : String.valueOf(value);
+    }
+
+    /**
+     * Aplica uma comparação (de {@link OpCode#EQUAL} a {@link OpCode#GREATER_EQUAL}),
+     * com as mesmas regras do Interpreter: números pelo valor, textos pela
+     * ordem dos caracteres; "==" e "!=" aceitam quaisquer tipos.
+    */
+    private static boolean compare(byte comparison, Object left, Object right){
+        int order;
+        if (left instanceof Double && right instanceof Double) {
+            double a = (Double) left;
+            double b = (Double) right;
+            switch (comparison) {
+                case OpCode.EQUAL:
+                    return a == b;
+                case OpCode.NOT_EQUAL:
+                    return a != b;
+                case OpCode.LESS:
+                    return a < b;
+                case OpCode.LESS_EQUAL:
+                    return a <= b;
+                case OpCode.GREATER:
+                    return a > b;
+                default:
+                    return a >= b;
+            }
+        } else if (left instanceof String && right instanceof String) {
+            order = ((String) left).compareTo((String) right);
+        } else if (comparison == OpCode.EQUAL || comparison == OpCode.NOT_EQUAL) {
+            boolean equal = left instanceof Boolean && left.equals(right);
+            return equal == (comparison == OpCode.EQUAL);
+        } else {
+            throw invalidOperation(COMPARISONS[comparison - OpCode.EQUAL]);
+        }
+        switch (comparison) {
+            case OpCode.EQUAL:
+                return order == 0;
+            case OpCode.NOT_EQUAL:
+                return order != 0;
+            case OpCode.LESS:
+                return order < 0;
+            case OpCode.LESS_EQUAL:
+                return order <= 0;
+            case OpCode.GREATER:
+                return order > 0;
+            default:
+                return order >= 0;
+        }
+    }
+
+    private static RuntimeException invalidOperation(String operator){
+        return new RuntimeException("Operacao invalida '" + operator + "' para os tipos de dados fornecidos.");
+    }
+}
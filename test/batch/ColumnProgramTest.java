@@ -0,0 +1,102 @@
+package batch;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import core.Execution;
+import core.Program;
+import output.OutputSink;
+
+/**
+ * Compara o modo em lote com o Interpreter, linha a linha, com os laços
+ * simples e com os kernels preferidos (a Vector API, se o módulo dela
+ * estiver carregado, como no mvn test).
+*/
+class ColumnProgramTest {
+
+    // Mais de dois blocos de 1024 linhas, com um bloco final incompleto
+    private static final int ROWS = 3001;
+
+    // y é reatribuída, w é um apelido de y, c é uma constante e d é o divisor
+    private static final String SOURCE = String.join("\n",
+            "var y = x * 2 + 1;",
+            "var t = y - x / 4;",
+            "y = t * y + 3;",
+            "var w = y;",
+            "var c = 2 * 3 - 1;",
+            "var q = t / d;",
+            "t = q - y * x;");
+
+    /** Descarta a saída; o modo em lote não tem print. */
+    private static final class Discard implements OutputSink {
+        @Override
+        public void println(String line){
+        }
+
+        @Override
+        public void flush(){
+        }
+    }
+
+    static Stream<Kernels> kernels(){
+        return Stream.of(Kernels.scalar(), Kernels.preferred());
+    }
+
+    @ParameterizedTest
+    @MethodSource("kernels")
+    void sameResultsAsInterpreter(Kernels kernels){
+        double[] x = new double[ROWS];
+        double[] d = new double[ROWS];
+        SplittableRandom random = new SplittableRandom(7);
+        for (int row = 0; row < ROWS; row++) {
+            x[row] = random.nextDouble(-1000, 1000);
+            d[row] = random.nextDouble(0.5, 50) * (random.nextBoolean() ? 1 : -1);
+        }
+
+        ColumnProgram batch = ColumnProgram.compile(kernels, SOURCE, "x", "d");
+        Map<String, double[]> columns = batch.run(Map.of("x", x, "d", d));
+        assertArrayEquals(new String[] {"y", "t", "w", "c", "q"}, batch.getOutputs());
+
+        Execution execution = Program.compile(SOURCE, "x", "d").newExecution(new Discard()).setEchoAssignments(false);
+        for (int row = 0; row < ROWS; row++) {
+            assertTrue(execution.set("x", x[row]).set("d", d[row]).run());
+            for (String output : batch.getOutputs()) {
+                assertEquals((double) (Double) execution.get(output), columns.get(output)[row], output + " na linha " + row);
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("kernels")
+    void divisionByZeroStopsAtTheSameRow(Kernels kernels){
+        double[] x = new double[ROWS];
+        double[] d = new double[ROWS];
+        for (int row = 0; row < ROWS; row++) {
+            x[row] = row;
+            d[row] = row + 1;
+        }
+        // O primeiro zero fica no terceiro bloco; -0.0 também é zero.
+        d[2500] = -0.0;
+        d[2900] = 0;
+
+        ColumnProgram batch = ColumnProgram.compile(kernels, SOURCE, "x", "d");
+        RuntimeException error = assertThrows(RuntimeException.class, () -> batch.run(Map.of("x", x, "d", d)));
+        assertEquals("Erro: Divisao por zero na linha 2500 das colunas.", error.getMessage());
+
+        Execution execution = Program.compile(SOURCE, "x", "d").newExecution(new Discard(), new Discard())
+                .setEchoAssignments(false);
+        for (int row = 0; row < 2500; row++) {
+            assertTrue(execution.set("x", x[row]).set("d", d[row]).run(), "linha " + row);
+        }
+        assertFalse(execution.set("x", x[2500]).set("d", d[2500]).run());
+    }
+}
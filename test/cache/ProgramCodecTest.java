@@ -0,0 +1,69 @@
+package cache;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import ast.Node;
+import core.Lexer;
+import core.Parser;
+import optimizer.Optimizer;
+
+class ProgramCodecTest {
+
+    static Stream<Path> scripts() throws IOException, URISyntaxException {
+        Path directory = Path.of(ProgramCodecTest.class.getResource("/scripts").toURI());
+        return Files.list(directory).filter(file -> !file.getFileName().toString().equals("variavel_indefinida.jpp")).sorted();
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("scripts")
+    void roundTrip(Path script) throws IOException {
+        List<Node> statements = parse(Files.readString(script));
+        assertRoundTrip(statements);
+        // O Optimizer cria nós novos (números e textos dobrados), que também precisam voltar iguais.
+        assertRoundTrip(Optimizer.standard().optimize(statements));
+    }
+
+    @Test
+    void rejectsTruncatedAndTrailingBytes(){
+        byte[] bytes = new ProgramCodec().encode(parse("var a = 1; while a < 3 { a = a + 1; } print \"fim\" + a;"));
+        for (int length = 0; length < bytes.length; length++) {
+            byte[] truncated = Arrays.copyOf(bytes, length);
+            assertThrows(IllegalArgumentException.class, () -> ProgramCodec.decode(ByteBuffer.wrap(truncated)));
+        }
+        byte[] longer = Arrays.copyOf(bytes, bytes.length + 1);
+        assertThrows(IllegalArgumentException.class, () -> ProgramCodec.decode(ByteBuffer.wrap(longer)));
+    }
+
+    @Test
+    void rejectsUndefinedVariables(){
+        assertThrows(RuntimeException.class, () -> new ProgramCodec().encode(parse("print c;")));
+    }
+
+    private static void assertRoundTrip(List<Node> statements){
+        byte[] bytes = new ProgramCodec().encode(statements);
+        List<Node> decoded = ProgramCodec.decode(ByteBuffer.wrap(bytes));
+        assertEquals(statements.toString(), decoded.toString());
+        // Um programa lido do cache é gravado com os mesmos bytes.
+        assertEquals(Arrays.toString(bytes), Arrays.toString(new ProgramCodec().encode(decoded)));
+        for (int i = 0; i < statements.size(); i++) {
+            assertEquals(statements.get(i).getPosition(), decoded.get(i).getPosition());
+        }
+    }
+
+    private static List<Node> parse(String source){
+        return new Parser(new Lexer(source).tokenize()).parse();
+    }
+}
@@ -0,0 +1,56 @@
+package core;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/**
+ * Executa cada script de test/scripts em todas as formas de execução e
+ * compara a saída (inclusive o eco das atribuições e as mensagens de erro)
+ * com a do Interpreter.
+ *
+ * O compilador JVM e o interpretador especializado não aceitam comparações,
+ * if nem while; com esses scripts eles só precisam recusar o programa. A
+ * execução em fluxo e a em pipeline resolvem cada instrução logo antes de
+ * executá-la, então nelas uma variável indefinida só é um erro quando a
+ * execução chega nela.
+*/
+class DifferentialTest {
+
+    static Stream<Arguments> scripts() throws IOException, URISyntaxException {
+        Path directory = Path.of(DifferentialTest.class.getResource("/scripts").toURI());
+        List<Arguments> arguments = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted()::iterator) {
+                String source = Files.readString(file);
+                for (Engine engine : Engine.values()) {
+                    if (engine != Engine.INTERPRETER) {
+                        arguments.add(Arguments.of(file.getFileName().toString(), engine, source));
+                    }
+                }
+            }
+        }
+        return arguments.stream();
+    }
+
+    @ParameterizedTest(name = "{0} {1}")
+    @MethodSource("scripts")
+    void sameOutputAsInterpreter(String name, Engine engine, String source){
+        String output = engine.run(source);
+        assumeFalse(output.contains("nao aceita"), engine + " nao executa " + name);
+        String expected = Engine.INTERPRETER.run(source);
+        assumeFalse((engine == Engine.STREAM || engine == Engine.PIPELINE) && expected.contains("Erro de resolucao"),
+                "a execucao em fluxo resolve uma instrucao por vez");
+        assertEquals(expected, output);
+    }
+}
@@ -0,0 +1,175 @@
+package core;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import ast.Node;
+import jvm.CompiledScript;
+import jvm.JvmCompiler;
+import optimizer.Optimizer;
+import output.OutputSink;
+import specialize.ProgramNode;
+import specialize.SpecializingInterpreter;
+import specialize.TreeBuilder;
+import vm.Chunk;
+import vm.Compiler;
+import vm.VM;
+
+/**
+ * As formas de executar um programa, como o App as usa. Cada uma devolve a
+ * saída do programa seguida dos erros, para que os testes comparem tudo de uma vez.
+*/
+enum Engine {
+    INTERPRETER {
+        @Override
+        void execute(String source, OutputSink out){
+            new Interpreter(out).interpret(parse(source));
+        }
+    },
+    STREAM {
+        @Override
+        void execute(String source, OutputSink out){
+            new Interpreter(out).interpret(new Parser(new Lexer(source)));
+        }
+    },
+    PIPELINE {
+        @Override
+        void execute(String source, OutputSink out){
+            new Pipeline(4).run(new Lexer(source), new Interpreter(out));
+        }
+    },
+    BYTES {
+        @Override
+        void execute(String source, OutputSink out){
+            byte[] bytes = source.getBytes(StandardCharsets.UTF_8);
+            new Interpreter(out).interpret(new Parser(new ByteLexer(bytes).tokenize()).parse());
+        }
+    },
+    PACKED {
+        @Override
+        void execute(String source, OutputSink out){
+            new Interpreter(out).interpret(new Parser(new Lexer(source).tokenizePacked().cursor()).parse());
+        }
+    },
+    PARALLEL {
+        @Override
+        void execute(String source, OutputSink out){
+            // Pedaços pequenos, para que até os scripts de teste sejam divididos.
+            new Interpreter(out).interpret(new ParallelFrontEnd(ForkJoinPool.commonPool(), 16).parse(source));
+        }
+    },
+    FLAT {
+        @Override
+        void execute(String source, OutputSink out){
+            new Interpreter(out).interpret(new Parser(new Lexer(source).tokenize()).parseFlat());
+        }
+    },
+    OPTIMIZE {
+        @Override
+        void execute(String source, OutputSink out){
+            new Interpreter(out).interpret(Optimizer.standard().optimize(parse(source)));
+        }
+    },
+    PROGRAM {
+        @Override
+        void execute(String source, OutputSink out){
+            Program program;
+            try {
+                program = Program.compile(source);
+            } catch (RuntimeException e) {
+                System.err.println("Erro de resolucao " + e.getMessage());
+                return;
+            }
+            program.newExecution(out).run();
+        }
+    },
+    VM {
+        @Override
+        void execute(String source, OutputSink out){
+            runVm(parse(source), out);
+        }
+    },
+    OPTIMIZE_VM {
+        @Override
+        void execute(String source, OutputSink out){
+            runVm(Optimizer.standard().optimize(parse(source)), out);
+        }
+    },
+    SPECIALIZE {
+        @Override
+        void execute(String source, OutputSink out){
+            ProgramNode program;
+            try {
+                program = new TreeBuilder().build(parse(source));
+            } catch (RuntimeException e) {
+                System.err.println("Erro de resolucao " + e.getMessage());
+                return;
+            }
+            new SpecializingInterpreter(out).run(program);
+        }
+    },
+    JVM {
+        @Override
+        void execute(String source, OutputSink out){
+            CompiledScript script;
+            try {
+                script = new JvmCompiler().compile(parse(source));
+            } catch (RuntimeException e) {
+                System.err.println("Erro de resolucao " + e.getMessage());
+                return;
+            }
+            script.run(out);
+        }
+    };
+
+    abstract void execute(String source, OutputSink out);
+
+    /**
+     * Executa o programa e devolve a saída, seguida de "! " e de cada linha de erro.
+     * Os erros são lidos do System.err, onde VM, JVM e SpecializingInterpreter os escrevem.
+    */
+    String run(String source){
+        StringBuilder output = new StringBuilder();
+        OutputSink out = new OutputSink() {
+            @Override
+            public void println(String line){
+                output.append(line).append('\n');
+            }
+
+            @Override
+            public void flush(){
+            }
+        };
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        PrintStream stderr = System.err;
+        System.setErr(new PrintStream(errors, true, StandardCharsets.UTF_8));
+        try {
+            execute(source, out);
+        } finally {
+            System.setErr(stderr);
+        }
+        for (String line : errors.toString(StandardCharsets.UTF_8).split("\\R")) {
+            if (!line.isEmpty()) {
+                output.append("! ").append(line).append('\n');
+            }
+        }
+        return output.toString();
+    }
+
+    private static List<Node> parse(String source){
+        return new Parser(new Lexer(source).tokenize()).parse();
+    }
+
+    private static void runVm(List<Node> statements, OutputSink out){
+        Chunk chunk;
+        try {
+            chunk = new Compiler().compile(statements);
+        } catch (RuntimeException e) {
+            System.err.println("Erro de resolucao " + e.getMessage());
+            return;
+        }
+        new VM(out).run(chunk);
+    }
+}
@@ -0,0 +1,60 @@
+package core;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import core.ProgramTest.Lines;
+import metrics.Metrics;
+
+class InterpreterMetricsTest {
+
+    // 1 declaração + 1 while + 1000 repetições do corpo + 1 print
+    private static final String LOOP = "var i = 0; while i < 1000 { i = i + 1; } print i;";
+
+    @Test
+    void countsTheStatementsInsideBlocks(){
+        Metrics metrics = new Metrics();
+        Interpreter interpreter = new Interpreter(new Lines());
+        interpreter.setMetrics(metrics);
+        interpreter.interpret(new Parser(new Lexer(LOOP).tokenize()).parse());
+        assertEquals(1003, metrics.snapshot().getExecutedStatements());
+    }
+
+    @Test
+    void countsTheSameInTheFlatForm(){
+        Metrics metrics = new Metrics();
+        Interpreter interpreter = new Interpreter(new Lines());
+        interpreter.setMetrics(metrics);
+        interpreter.interpret(new Parser(new Lexer(LOOP).tokenize()).parseFlat());
+        assertEquals(1003, metrics.snapshot().getExecutedStatements());
+    }
+
+    @Test
+    void countsTheSameWhenStreaming(){
+        Metrics metrics = new Metrics();
+        Interpreter interpreter = new Interpreter(new Lines());
+        interpreter.setMetrics(metrics);
+        interpreter.interpret(new Parser(new Lexer(LOOP)));
+        assertEquals(1003, metrics.snapshot().getExecutedStatements());
+    }
+
+    @Test
+    void countsEachExecutionOfAProgramSeparately(){
+        Metrics metrics = new Metrics();
+        Execution execution = Program.compile(LOOP).newExecution(new Lines()).setMetrics(metrics);
+        execution.run();
+        execution.run();
+        assertEquals(2006, metrics.snapshot().getExecutedStatements());
+    }
+
+    @Test
+    void countsTheStatementThatFailed(){
+        // 1 declaração + 2 repetições completas + a atribuição e o print que falha
+        Metrics metrics = new Metrics();
+        Interpreter interpreter = new Interpreter(new Lines(), new Lines());
+        interpreter.setMetrics(metrics);
+        interpreter.interpret(new Parser(new Lexer(
+                "var i = 0; while i < 5 { i = i + 1; if i == 3 { print i / 0; } }").tokenize()).parse());
+        assertEquals(1 + 1 + 2 * 2 + 3, metrics.snapshot().getExecutedStatements());
+    }
+}
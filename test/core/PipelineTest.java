@@ -0,0 +1,30 @@
+package core;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import org.junit.jupiter.api.Test;
+
+import core.ProgramTest.Lines;
+
+class PipelineTest {
+
+    @Test
+    void stagesStopWhenTheExecutionFails() throws InterruptedException {
+        // Bem mais tokens do que cabem nas filas: o Lexer fica esperando um consumidor.
+        StringBuilder source = new StringBuilder("print 1 / 0;\n");
+        for (int i = 0; i < 200_000; i++) {
+            source.append("var a = ").append(i).append(";\n");
+        }
+        Lines out = new Lines();
+        Lines errors = new Lines();
+        new Pipeline(4).run(new Lexer(source.toString()), new Interpreter(out, errors));
+        assertEquals("Erro de execussao Erro: Divisao por zero.\n", errors.toString());
+
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().equals("jpp-lexer") || thread.getName().equals("jpp-parser")) {
+                thread.join(5000);
+                assertFalse(thread.isAlive(), thread.getName() + " continua esperando a fila");
+            }
+        }
+    }
+}
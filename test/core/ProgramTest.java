@@ -0,0 +1,69 @@
+package core;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import output.OutputSink;
+
+class ProgramTest {
+
+    /** Guarda as linhas escritas, para comparar de uma vez. */
+    static final class Lines implements OutputSink {
+        final StringBuilder text = new StringBuilder();
+
+        @Override
+        public void println(String line){
+            text.append(line).append('\n');
+        }
+
+        @Override
+        public void flush(){
+        }
+
+        @Override
+        public String toString(){
+            return text.toString();
+        }
+    }
+
+    @Test
+    void inputsKeepTheirValuesAcrossExecutions(){
+        Program program = Program.compile("var total = preco * quantidade; print nome + \" paga \" + total;",
+                "preco", "quantidade", "nome");
+        Lines out = new Lines();
+        Execution execution = program.newExecution(out).setEchoAssignments(false);
+        assertTrue(execution.set("preco", 2.5).set("quantidade", 4).set("nome", "ana").run());
+        assertTrue(execution.set("quantidade", 2).run());
+        assertEquals("ana paga 10.0\nana paga 5.0\n", out.toString());
+        assertEquals(5.0, execution.get("total"));
+    }
+
+    @Test
+    void inputAssignedOnlyInAnUntakenBranchKeepsItsType(){
+        // A atribuição de número não executa: x continua com o texto de fora.
+        Program program = Program.compile("if false { x = 1; } print x; print x * 2;", "x");
+        Lines out = new Lines();
+        Lines errors = new Lines();
+        assertFalse(program.newExecution(out, errors).set("x", "abc").run());
+        assertEquals("abc\n", out.toString());
+        assertEquals("Erro de execussao Operacao invalida '*' para os tipos de dados fornecidos.\n", errors.toString());
+
+        out = new Lines();
+        assertTrue(program.newExecution(out, errors).set("x", 4).run());
+        assertEquals("4.0\n8.0\n", out.toString());
+    }
+
+    @Test
+    void variablesOfAnEarlierProgramComeFromOutside(){
+        Resolver resolver = new Resolver();
+        Environment variables = new Environment(0);
+        Lines out = new Lines();
+        Program first = Program.of(new Parser(new Lexer("var s = \"texto\";").tokenize()).parse(), resolver);
+        first.newExecution(out, out, variables).run();
+        Program second = Program.of(new Parser(new Lexer("if false { s = 2; } print s + 1;").tokenize()).parse(), resolver);
+        assertTrue(second.newExecution(out, out, variables).setEchoAssignments(false).run());
+        assertEquals("s = texto\ntexto1.0\n", out.toString());
+    }
+}
@@ -0,0 +1,69 @@
+package language;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import output.NumberText;
+
+class NumberLiteralTest {
+
+    @Test
+    void parsesLikeParseDouble(){
+        String[] literals = {
+            "0", "42", "3.14", "0.1", "000.5", "9007199254740993", "0.30000000000000004441",
+            "123456789012345678901234567890", "1.7976931348623157", "0.000123", "10.", "4.35"
+        };
+        for (String literal : literals) {
+            assertEquals(Double.parseDouble(literal), NumberLiteral.parse(literal), literal);
+        }
+    }
+
+    @Test
+    void randomLiteralsParseExactly(){
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < 200_000; i++) {
+            StringBuilder literal = new StringBuilder();
+            int digits = random.nextInt(1, 25);
+            int point = random.nextInt(digits + 1);
+            for (int d = 0; d < digits; d++) {
+                if (d == point && d > 0) {
+                    literal.append('.');
+                }
+                literal.append((char) ('0' + random.nextInt(10)));
+            }
+            String text = literal.toString();
+            assertEquals(Double.parseDouble(text), NumberLiteral.parse(text), text);
+        }
+    }
+
+    @Test
+    void exactIsEitherCorrectOrNaN(){
+        SplittableRandom random = new SplittableRandom(11);
+        for (int i = 0; i < 200_000; i++) {
+            long significand = random.nextLong(NumberLiteral.MAX_SIGNIFICAND);
+            int scale = random.nextInt(30);
+            double value = NumberLiteral.exact(significand, scale);
+            if (!Double.isNaN(value)) {
+                assertEquals(new java.math.BigDecimal(significand).movePointLeft(scale).doubleValue(), value,
+                        significand + "e-" + scale);
+            }
+        }
+        assertTrue(Double.isNaN(NumberLiteral.exact(-1, 0)));
+    }
+
+    @Test
+    void printedNumbersParseBack(){
+        // O texto do print, sem o expoente, volta ao mesmo double pelo Lexer.
+        SplittableRandom random = new SplittableRandom(3);
+        for (int i = 0; i < 100_000; i++) {
+            double value = random.nextInt(0, 100_000_000) / Math.pow(10, random.nextInt(0, 4));
+            String text = NumberText.toString(value);
+            if (!text.contains("E")) {
+                assertEquals(value, NumberLiteral.parse(text), text);
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package output;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+class NumberTextTest {
+
+    @Test
+    void formatsLikeDoubleToString(){
+        assertEquals("0.0", NumberText.toString(0.0));
+        assertEquals("-0.0", NumberText.toString(-0.0));
+        assertEquals("42.0", NumberText.toString(42));
+        assertEquals("-7.0", NumberText.toString(-7));
+        assertEquals("0.125", NumberText.toString(0.125));
+        assertEquals("0.001", NumberText.toString(0.001));
+        assertEquals("1.0E-4", NumberText.toString(0.0001));
+        assertEquals("9999999.0", NumberText.toString(9999999));
+        assertEquals("1.0E7", NumberText.toString(1e7));
+        assertEquals("1.2345678E10", NumberText.toString(12345678e3));
+        assertEquals("4.9E-324", NumberText.toString(Double.MIN_VALUE));
+        assertEquals("1.7976931348623157E308", NumberText.toString(Double.MAX_VALUE));
+        assertEquals("NaN", NumberText.toString(Double.NaN));
+        assertEquals("Infinity", NumberText.toString(Double.POSITIVE_INFINITY));
+        assertEquals("-Infinity", NumberText.toString(Double.NEGATIVE_INFINITY));
+    }
+
+    @Test
+    void usesTheShortestDigits(){
+        // O Double.toString do Java 17 escreve "9.999999999999999E22" e "8.409999999999999E21".
+        assertEquals("1.0E23", NumberText.toString(1e23));
+        assertEquals("8.41E21", NumberText.toString(8.41e21));
+        assertEquals("0.30000000000000004", NumberText.toString(0.1 + 0.2));
+    }
+
+    @Test
+    void randomDoublesRoundTrip(){
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < 200_000; i++) {
+            double value = Double.longBitsToDouble(random.nextLong());
+            if (Double.isNaN(value)) {
+                continue;
+            }
+            assertRoundTrip(value);
+        }
+        for (int i = 0; i < 100_000; i++) {
+            assertRoundTrip(random.nextDouble() * Math.pow(10, random.nextInt(-20, 20)));
+            assertRoundTrip(random.nextInt(-1_000_000, 1_000_000) / 100.0);
+        }
+    }
+
+    @Test
+    void formatWritesAtTheOffset(){
+        char[] buffer = new char[NumberText.MAX_LENGTH + 3];
+        int end = NumberText.format(-2.2250738585072014E-308, buffer, 3);
+        assertEquals("-2.2250738585072014E-308", new String(buffer, 3, end - 3));
+
+        StringBuilder text = new StringBuilder("x = ");
+        NumberText.append(text, 1.5);
+        assertEquals("x = 1.5", text.toString());
+    }
+
+    private static void assertRoundTrip(double value){
+        String text = NumberText.toString(value);
+        assertEquals(value, Double.parseDouble(text), text);
+        String reference = Double.toString(value);
+        // Mesma notação do Double.toString, com no máximo os mesmos dígitos.
+        assertEquals(reference.contains("E"), text.contains("E"), text + " / " + reference);
+        assertTrue(digits(text) <= digits(reference), text + " / " + reference);
+    }
+
+    private static int digits(String text){
+        int end = text.indexOf('E');
+        String mantissa = end < 0 ? text : text.substring(0, end);
+        return mantissa.replace("-", "").replace(".", "").replaceFirst("^0+", "").length();
+    }
+}
@@ -0,0 +1,56 @@
+package script;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.StringWriter;
+
+import javax.script.Bindings;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineManager;
+import javax.script.ScriptException;
+import javax.script.SimpleBindings;
+import javax.script.SimpleScriptContext;
+
+import org.junit.jupiter.api.Test;
+
+class JppScriptEngineTest {
+
+    @Test
+    void valuesGoThroughEngineBindings() throws ScriptException {
+        ScriptEngine engine = engine();
+        Bindings bindings = engine.createBindings();
+        bindings.put("preco", 2.5);
+        bindings.put("quantidade", 4);
+        bindings.put("ativo", Boolean.TRUE);
+        assertEquals("", eval(engine, "var total = preco * quantidade; var caro = total > 5;", bindings));
+        assertEquals(10.0, bindings.get("total"));
+        assertEquals(Boolean.TRUE, bindings.get("caro"));
+        assertEquals("10.0\n", eval(engine, "if ativo == caro { print total; }", bindings));
+    }
+
+    @Test
+    void booleansSurviveOtherBindings() throws ScriptException {
+        ScriptEngine engine = engine();
+        Bindings bindings = new SimpleBindings();
+        assertEquals("", eval(engine, "var ok = 1 < 2;", bindings));
+        assertEquals(Boolean.TRUE, bindings.get("ok"));
+        assertEquals("true\n", eval(engine, "print ok;", bindings));
+        bindings.put("ok", false);
+        assertEquals("nao\n", eval(engine, "if ok { print \"sim\"; } else { print \"nao\"; }", bindings));
+    }
+
+    private static ScriptEngine engine(){
+        ScriptEngine engine = new ScriptEngineManager().getEngineByName("jpp");
+        ((JppScriptEngine) engine).setEchoAssignments(false);
+        return engine;
+    }
+
+    private static String eval(ScriptEngine engine, String source, Bindings bindings) throws ScriptException {
+        ScriptContext context = new SimpleScriptContext();
+        StringWriter out = new StringWriter();
+        context.setWriter(out);
+        context.setBindings(bindings, ScriptContext.ENGINE_SCOPE);
+        engine.eval(source, context);
+        return out.toString();
+    }
+}
@@ -0,0 +1,76 @@
+package vm;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import ast.Node;
+import core.Interpreter;
+import core.Lexer;
+import core.Parser;
+import output.OutputSink;
+
+class CompilerTest {
+
+    /** Guarda as linhas escritas, para comparar de uma vez. */
+    private static final class Lines implements OutputSink {
+        final StringBuilder text = new StringBuilder();
+
+        @Override
+        public void println(String line){
+            text.append(line).append('\n');
+        }
+
+        @Override
+        public void flush(){
+        }
+
+        @Override
+        public String toString(){
+            return text.toString();
+        }
+    }
+
+    /** Um bloco com 'count' atribuições, cada uma com 13 bytes de código. */
+    private static String block(int count){
+        StringBuilder source = new StringBuilder("{ ");
+        for (int i = 0; i < count; i++) {
+            source.append("x = x + 1; ");
+        }
+        return source.append('}').toString();
+    }
+
+    private static List<Node> parse(String source){
+        return new Parser(new Lexer(source).tokenize()).parse();
+    }
+
+    private static void assertSameAsInterpreter(String source){
+        Lines expected = new Lines();
+        new Interpreter(expected).interpret(parse(source));
+        Lines output = new Lines();
+        new VM(output).run(new Compiler().compile(parse(source)));
+        assertEquals(expected.toString(), output.toString());
+    }
+
+    @Test
+    void shortJumpsWhenTheBlocksFit(){
+        Chunk chunk = new Compiler().compile(parse("var x = 0; while x < 3 " + block(100)));
+        assertFalse(chunk.disassemble().contains("JUMP_WIDE"));
+    }
+
+    @Test
+    void whileBodyLongerThanAShortJump(){
+        String source = "var x = 0; while x < 10000 " + block(3000) + " print x;";
+        assertTrue(new Compiler().compile(parse(source)).disassemble().contains("JUMP_WIDE"));
+        assertSameAsInterpreter(source);
+    }
+
+    @Test
+    void ifBranchesLongerThanAShortJump(){
+        assertSameAsInterpreter("var x = 0; var y = \"a\"; if y == \"a\" " + block(3000) + " else " + block(3000) + " print x;");
+        assertSameAsInterpreter("var x = 0; var y = false; if y " + block(3000) + " else " + block(3000) + " print x;");
+    }
+}